@@ -0,0 +1,123 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava2.operators.*;
+import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.*;
+import io.reactivex.processors.PublishProcessor;
+
+/**
+ * Compares {@code Flowables.aggregateLatest} with summing the array of {@code combineLatest} where
+ * the sources tick in a round-robin fashion. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='AggregateLatestPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class AggregateLatestPerf {
+
+    @Param({"10", "1000"})
+    public int sources;
+
+    @Param({"100"})
+    public int count;
+
+    PublishProcessor<Integer>[] processors;
+
+    Flowable<Long> aggregateLatest;
+
+    Flowable<Long> combineLatest;
+
+    @SuppressWarnings("unchecked")
+    @Setup
+    public void setup() {
+        processors = new PublishProcessor[sources];
+        List<Flowable<Integer>> list = new ArrayList<Flowable<Integer>>();
+        for (int i = 0; i < sources; i++) {
+            processors[i] = PublishProcessor.create();
+            list.add(processors[i]);
+        }
+
+        aggregateLatest = Flowables.aggregateLatest(list, new Callable<IncrementalAggregator<Integer, Long>>() {
+            @Override
+            public IncrementalAggregator<Integer, Long> call() throws Exception {
+                return new IncrementalAggregator<Integer, Long>() {
+                    long sum;
+
+                    @Override
+                    public void update(int index, Integer oldValue, Integer newValue) {
+                        sum += newValue - (oldValue != null ? oldValue : 0);
+                    }
+
+                    @Override
+                    public Long current() {
+                        return sum;
+                    }
+                };
+            }
+        });
+
+        combineLatest = Flowable.combineLatest(list, new Function<Object[], Long>() {
+            @Override
+            public Long apply(Object[] a) throws Exception {
+                long sum = 0L;
+                for (Object o : a) {
+                    sum += (Integer)o;
+                }
+                return sum;
+            }
+        });
+    }
+
+    void tick(Flowable<Long> f, final Blackhole bh) {
+        Disposable d = f.subscribe(new Consumer<Long>() {
+            @Override
+            public void accept(Long v) throws Exception {
+                bh.consume(v);
+            }
+        });
+        PublishProcessor<Integer>[] ps = processors;
+        for (int j = 0; j < count; j++) {
+            for (PublishProcessor<Integer> p : ps) {
+                p.onNext(j);
+            }
+        }
+        d.dispose();
+    }
+
+    @Benchmark
+    public void aggregateLatest(Blackhole bh) {
+        tick(aggregateLatest, bh);
+    }
+
+    @Benchmark
+    public void combineLatest(Blackhole bh) {
+        tick(combineLatest, bh);
+    }
+}
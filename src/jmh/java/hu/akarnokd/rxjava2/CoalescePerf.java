@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava2;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava2.operators.FlowableTransformers;
+import io.reactivex.Flowable;
+import io.reactivex.functions.BiConsumer;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Compares {@code coalesce} with {@code buffer} and plain {@code observeOn}. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='CoalescePerf'
+ * <br>
+ * Add {@code -PjmhProfilers='gc'} to report the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class CoalescePerf {
+
+    @Param({"1", "1000", "100000"})
+    public int count;
+
+    Flowable<List<Integer>> coalesceSync;
+
+    Flowable<List<Integer>> coalesceAsync;
+
+    Flowable<List<Integer>> bufferSync;
+
+    Flowable<Integer> observeOnAsync;
+
+    @Setup
+    public void setup() {
+        Integer[] array = new Integer[count];
+        Arrays.fill(array, 777);
+
+        Flowable<Integer> source = Flowable.fromArray(array);
+
+        Callable<List<Integer>> supplier = new Callable<List<Integer>>() {
+            @Override
+            public List<Integer> call() throws Exception {
+                return new ArrayList<Integer>();
+            }
+        };
+
+        BiConsumer<List<Integer>, Integer> coalescer = new BiConsumer<List<Integer>, Integer>() {
+            @Override
+            public void accept(List<Integer> a, Integer b) throws Exception {
+                a.add(b);
+            }
+        };
+
+        coalesceSync = source.compose(FlowableTransformers.coalesce(supplier, coalescer));
+
+        coalesceAsync = source.compose(FlowableTransformers.coalesce(supplier, coalescer)).observeOn(Schedulers.single());
+
+        bufferSync = source.buffer(1);
+
+        observeOnAsync = source.observeOn(Schedulers.single());
+    }
+
+    @Benchmark
+    public void coalesceSync(Blackhole bh) {
+        coalesceSync.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void coalesceAsync(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        coalesceAsync.subscribe(c);
+        c.await(count);
+    }
+
+    @Benchmark
+    public void bufferSync(Blackhole bh) {
+        bufferSync.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void observeOnAsync(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        observeOnAsync.subscribe(c);
+        c.await(count);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava2;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Publisher;
+
+import hu.akarnokd.rxjava2.operators.*;
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+
+/**
+ * Walks a synthetic tree whose children arrive after a simulated latency
+ * with the sequential and the concurrent {@code expand}. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='ExpandConcurrentPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class ExpandConcurrentPerf {
+
+    @Param({"4"})
+    public int fanout;
+
+    @Param({"3"})
+    public int depth;
+
+    @Param({"1", "4", "16"})
+    public int maxConcurrency;
+
+    /** The simulated latency of listing the children of a node, in microseconds. */
+    @Param({"200"})
+    public int latency;
+
+    int nodes;
+
+    Flowable<Integer> breadth;
+
+    Flowable<Integer> concurrent;
+
+    @Setup
+    public void setup() {
+        final int f = fanout;
+        final int d = depth;
+        final int l = latency;
+
+        int n = 1;
+        int level = 1;
+        for (int i = 0; i < d; i++) {
+            level *= f;
+            n += level;
+        }
+        nodes = n;
+
+        // a node is encoded as its depth
+        Function<Integer, Publisher<Integer>> children = new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                if (v == d) {
+                    return Flowable.empty();
+                }
+                return Flowable.just(v + 1).repeat(f).delaySubscription(l, TimeUnit.MICROSECONDS);
+            }
+        };
+
+        Flowable<Integer> root = Flowable.just(0);
+
+        breadth = root.compose(FlowableTransformers.expand(children, ExpandStrategy.BREADTH_FIRST));
+
+        concurrent = root.compose(FlowableTransformers.expandConcurrent(children, maxConcurrency));
+    }
+
+    @Benchmark
+    public void breadth(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        breadth.subscribe(c);
+        c.await(nodes);
+    }
+
+    @Benchmark
+    public void concurrent(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        concurrent.subscribe(c);
+        c.await(nodes);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava2;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Publisher;
+
+import hu.akarnokd.rxjava2.operators.*;
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Walks a synthetic tree with {@code expand} and compares it with a recursive
+ * {@code concatMap}. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='ExpandPerf'
+ * <br>
+ * Add {@code -PjmhProfilers='gc'} to report the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class ExpandPerf {
+
+    @Param({"2", "10"})
+    public int fanout;
+
+    @Param({"1", "3", "5"})
+    public int depth;
+
+    int nodes;
+
+    Flowable<Integer> breadthSync;
+
+    Flowable<Integer> depthSync;
+
+    Flowable<Integer> breadthAsync;
+
+    Flowable<Integer> depthAsync;
+
+    Flowable<Integer> concatMapSync;
+
+    @Setup
+    public void setup() {
+        final int f = fanout;
+        final int d = depth;
+
+        int n = 1;
+        int level = 1;
+        for (int i = 0; i < d; i++) {
+            level *= f;
+            n += level;
+        }
+        nodes = n;
+
+        // a node is encoded as its depth
+        final Function<Integer, Publisher<Integer>> children = new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                if (v == d) {
+                    return Flowable.empty();
+                }
+                return Flowable.just(v + 1).repeat(f);
+            }
+        };
+
+        final Function<Integer, Publisher<Integer>> asyncChildren = new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                if (v == d) {
+                    return Flowable.empty();
+                }
+                return Flowable.just(v + 1).repeat(f).subscribeOn(Schedulers.computation());
+            }
+        };
+
+        Flowable<Integer> root = Flowable.just(0);
+
+        breadthSync = root.compose(FlowableTransformers.expand(children, ExpandStrategy.BREADTH_FIRST));
+
+        depthSync = root.compose(FlowableTransformers.expand(children, ExpandStrategy.DEPTH_FIRST));
+
+        breadthAsync = root.compose(FlowableTransformers.expand(asyncChildren, ExpandStrategy.BREADTH_FIRST));
+
+        depthAsync = root.compose(FlowableTransformers.expand(asyncChildren, ExpandStrategy.DEPTH_FIRST));
+
+        concatMapSync = root.concatMap(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return Flowable.just(v).concatWith(Flowable.fromPublisher(children.apply(v)).concatMap(this));
+            }
+        });
+    }
+
+    @Benchmark
+    public void breadthSync(Blackhole bh) {
+        breadthSync.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void depthSync(Blackhole bh) {
+        depthSync.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void breadthAsync(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        breadthAsync.subscribe(c);
+        c.await(nodes);
+    }
+
+    @Benchmark
+    public void depthAsync(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        depthAsync.subscribe(c);
+        c.await(nodes);
+    }
+
+    @Benchmark
+    public void concatMapSync(Blackhole bh) {
+        concatMapSync.subscribe(new PerfConsumer(bh));
+    }
+}
@@ -26,6 +26,7 @@ import org.reactivestreams.Publisher;
 import hu.akarnokd.rxjava2.operators.FlowableTransformers;
 import io.reactivex.Flowable;
 import io.reactivex.functions.Function;
+import io.reactivex.processors.PublishProcessor;
 import io.reactivex.schedulers.Schedulers;
 
 /**
@@ -202,4 +203,62 @@ public class FlatMapExPerf {
         c.await(count * range);
     }
 
+    /**
+     * Sweeps {@code maxConcurrency} and the share of inner sources that actually produce
+     * (the rest stay idle until the end) to compare the slot-scanning and the ready-queue
+     * drain of {@code flatMapSync}. Run from command line as
+     * <br>
+     * gradle jmh -Pjmh='FlatMapExPerf.Sparse'
+     */
+    @State(Scope.Thread)
+    public static class Sparse {
+
+        @Param({"32", "256", "1024"})
+        public int maxConcurrency;
+
+        /** Percentage of the inner sources that produce items. */
+        @Param({"1", "10", "100"})
+        public int activePercent;
+
+        @Param({"100"})
+        public int items;
+
+        Flowable<Integer> activeInner;
+
+        int stride;
+
+        @Setup
+        public void setup() {
+            activeInner = Flowable.range(1, items);
+            int active = Math.max(1, maxConcurrency * activePercent / 100);
+            stride = maxConcurrency / active;
+        }
+
+        void run(boolean readyQueue, Blackhole bh) {
+            final PublishProcessor<Integer> idle = PublishProcessor.create();
+            final Flowable<Integer> inner = activeInner;
+            final int s = stride;
+
+            Flowable.range(0, maxConcurrency)
+            .compose(FlowableTransformers.flatMapSync(new Function<Integer, Publisher<Integer>>() {
+                @Override
+                public Publisher<Integer> apply(Integer v) throws Exception {
+                    return v % s == 0 ? inner : idle;
+                }
+            }, maxConcurrency, 128, true, readyQueue))
+            .subscribe(new PerfConsumer(bh));
+
+            idle.onComplete();
+        }
+
+        @Benchmark
+        public void scan(Blackhole bh) {
+            run(false, bh);
+        }
+
+        @Benchmark
+        public void ready(Blackhole bh) {
+            run(true, bh);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava2.functions.FunctionTagging;
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+
+/**
+ * Compares the non-error path of plain and tagged functions. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='FunctionTaggingPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class FunctionTaggingPerf {
+
+    @Param({"1", "1000", "1000000"})
+    public int count;
+
+    Flowable<Integer> plain;
+
+    Flowable<Integer> disabled;
+
+    Flowable<Integer> tagged;
+
+    Flowable<Integer> callSite;
+
+    @Setup
+    public void setup() {
+        Integer[] array = new Integer[count];
+        Arrays.fill(array, 777);
+
+        Flowable<Integer> source = Flowable.fromArray(array);
+
+        Function<Integer, Integer> f = new Function<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer v) throws Exception {
+                return v + 1;
+            }
+        };
+
+        boolean enabled = FunctionTagging.isEnabled();
+
+        try {
+            FunctionTagging.disable();
+
+            plain = source.map(f);
+
+            disabled = source.map(FunctionTagging.tagFunction(f, "disabled"));
+
+            FunctionTagging.enable();
+
+            tagged = source.map(FunctionTagging.tagFunction(f, "tagged"));
+
+            callSite = source.map(FunctionTagging.tagFunction(f));
+        } finally {
+            if (!enabled) {
+                FunctionTagging.disable();
+            }
+        }
+    }
+
+    @Benchmark
+    public void plain(Blackhole bh) {
+        plain.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void disabled(Blackhole bh) {
+        disabled.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void tagged(Blackhole bh) {
+        tagged.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void callSite(Blackhole bh) {
+        callSite.subscribe(new PerfConsumer(bh));
+    }
+}
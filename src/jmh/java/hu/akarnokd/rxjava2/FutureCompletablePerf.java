@@ -0,0 +1,174 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava2.async.*;
+import io.reactivex.Flowable;
+import io.reactivex.functions.Consumer;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Compares the lean, single-state {@code FutureCompletable} with the previous
+ * {@code CountDownLatch} based implementation. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='FutureCompletablePerf' -PjmhProfilers='gc'
+ * <br>
+ * The {@code gc.alloc.rate.norm} secondary result is the bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class FutureCompletablePerf {
+
+    Flowable<Integer> source;
+
+    Consumer<Object> consumer;
+
+    @Setup
+    public void setup(final Blackhole bh) {
+        source = Flowable.just(1);
+        consumer = new Consumer<Object>() {
+            @Override
+            public void accept(Object t) throws Exception {
+                bh.consume(t);
+            }
+        };
+    }
+
+    @Benchmark
+    public Object latchCompleteGet() throws Exception {
+        LatchFutureCompletable<Object> f = new LatchFutureCompletable<Object>();
+        f.complete(null);
+        return f.get();
+    }
+
+    @Benchmark
+    public Object leanCompleteGet() throws Exception {
+        FutureCompletable<Object> f = new FutureCompletable<Object>();
+        f.complete(null);
+        return f.get();
+    }
+
+    @Benchmark
+    public Object latchAwaitAsync() throws Exception {
+        final LatchFutureCompletable<Object> f = new LatchFutureCompletable<Object>();
+        Schedulers.single().scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                f.complete(1);
+            }
+        });
+        return f.get();
+    }
+
+    @Benchmark
+    public Object leanAwaitAsync() throws Exception {
+        final FutureCompletable<Object> f = new FutureCompletable<Object>();
+        Schedulers.single().scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                f.complete(1);
+            }
+        });
+        return f.get();
+    }
+
+    @Benchmark
+    public Object forEachFuture() throws Exception {
+        return AsyncFlowable.forEachFuture(source, consumer, Schedulers.trampoline()).get();
+    }
+
+    /**
+     * The previous, CountDownLatch-based implementation kept for comparison.
+     * @param <T> the value type
+     */
+    static final class LatchFutureCompletable<T> extends CountDownLatch implements Future<T> {
+
+        final AtomicInteger once;
+
+        T value;
+
+        Throwable error;
+
+        LatchFutureCompletable() {
+            super(1);
+            this.once = new AtomicInteger();
+        }
+
+        void complete(T value) {
+            if (once.compareAndSet(0, 1)) {
+                this.value = value;
+                countDown();
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (once.compareAndSet(0, 3)) {
+                this.error = new CancellationException();
+                countDown();
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return once.get() == 3;
+        }
+
+        @Override
+        public boolean isDone() {
+            return getCount() == 0;
+        }
+
+        @Override
+        public T get() throws InterruptedException, ExecutionException {
+            if (getCount() != 0) {
+                await();
+            }
+            Throwable ex = error;
+            if (ex != null) {
+                throw new ExecutionException(ex);
+            }
+            return value;
+        }
+
+        @Override
+        public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            if (getCount() != 0) {
+                if (!await(timeout, unit)) {
+                    throw new TimeoutException();
+                }
+            }
+            Throwable ex = error;
+            if (ex != null) {
+                throw new ExecutionException(ex);
+            }
+            return value;
+        }
+    }
+}
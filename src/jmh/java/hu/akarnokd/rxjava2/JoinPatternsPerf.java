@@ -0,0 +1,180 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava2.joins.*;
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.functions.*;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Measures the throughput of {@code JoinObservable} and {@code JoinFlowable} patterns
+ * over 2, 4 and 9 sources, with {@code zip} as the baseline. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='JoinPatternsPerf'
+ * <br>
+ * Add {@code -PjmhProfilers='gc'} to report the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class JoinPatternsPerf {
+
+    @Param({"1000", "100000"})
+    public int count;
+
+    @Param({"2", "4", "9"})
+    public int sources;
+
+    Observable<Object> joinObservableSync;
+
+    Observable<Object> joinObservableAsync;
+
+    Flowable<Object> joinFlowableSync;
+
+    Flowable<Object> joinFlowableAsync;
+
+    Observable<Object> zipSync;
+
+    Observable<Object> zipAsync;
+
+    @SuppressWarnings("unchecked")
+    @Setup
+    public void setup() {
+        Integer[] array = new Integer[count];
+        Arrays.fill(array, 777);
+
+        List<Observable<Integer>> syncs = new ArrayList<Observable<Integer>>();
+        List<Observable<Integer>> asyncs = new ArrayList<Observable<Integer>>();
+        List<Flowable<Integer>> fsyncs = new ArrayList<Flowable<Integer>>();
+        List<Flowable<Integer>> fasyncs = new ArrayList<Flowable<Integer>>();
+        for (int i = 0; i < sources; i++) {
+            syncs.add(Observable.fromArray(array));
+            asyncs.add(Observable.fromArray(array).subscribeOn(Schedulers.computation()));
+            fsyncs.add(Flowable.fromArray(array));
+            fasyncs.add(Flowable.fromArray(array).subscribeOn(Schedulers.computation()));
+        }
+
+        joinObservableSync = JoinObservable.when(plan(syncs)).toObservable();
+        joinObservableAsync = JoinObservable.when(plan(asyncs)).toObservable();
+        joinFlowableSync = JoinFlowable.when(flowablePlan(fsyncs)).toFlowable();
+        joinFlowableAsync = JoinFlowable.when(flowablePlan(fasyncs)).toFlowable();
+
+        Function<Object[], Object> zipper = new Function<Object[], Object>() {
+            @Override
+            public Object apply(Object[] a) throws Exception {
+                return a[0];
+            }
+        };
+
+        zipSync = Observable.zip(syncs, zipper);
+        zipAsync = Observable.zip(asyncs, zipper);
+    }
+
+    static final Args ARGS = new Args();
+
+    static Plan<Object> plan(List<Observable<Integer>> list) {
+        switch (list.size()) {
+        case 2:
+            return JoinObservable.from(list.get(0)).and(list.get(1)).then(ARGS);
+        case 4:
+            return JoinObservable.from(list.get(0)).and(list.get(1)).and(list.get(2)).and(list.get(3)).then(ARGS);
+        default:
+            return JoinObservable.from(list.get(0)).and(list.get(1)).and(list.get(2)).and(list.get(3))
+                    .and(list.get(4)).and(list.get(5)).and(list.get(6)).and(list.get(7)).and(list.get(8)).then(ARGS);
+        }
+    }
+
+    static FlowablePlan<Object> flowablePlan(List<Flowable<Integer>> list) {
+        switch (list.size()) {
+        case 2:
+            return JoinFlowable.from(list.get(0)).and(list.get(1)).then(ARGS);
+        case 4:
+            return JoinFlowable.from(list.get(0)).and(list.get(1)).and(list.get(2)).and(list.get(3)).then(ARGS);
+        default:
+            return JoinFlowable.from(list.get(0)).and(list.get(1)).and(list.get(2)).and(list.get(3))
+                    .and(list.get(4)).and(list.get(5)).and(list.get(6)).and(list.get(7)).and(list.get(8)).then(ARGS);
+        }
+    }
+
+    static final class Args implements BiFunction<Integer, Integer, Object>,
+    Function4<Integer, Integer, Integer, Integer, Object>,
+    Function9<Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Object> {
+
+        @Override
+        public Object apply(Integer t1, Integer t2) throws Exception {
+            return t1;
+        }
+
+        @Override
+        public Object apply(Integer t1, Integer t2, Integer t3, Integer t4) throws Exception {
+            return t1;
+        }
+
+        @Override
+        public Object apply(Integer t1, Integer t2, Integer t3, Integer t4, Integer t5, Integer t6,
+                Integer t7, Integer t8, Integer t9) throws Exception {
+            return t1;
+        }
+    }
+
+    @Benchmark
+    public void joinObservableSync(Blackhole bh) {
+        joinObservableSync.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void joinObservableAsync(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        joinObservableAsync.subscribe(c);
+        c.await(count);
+    }
+
+    @Benchmark
+    public void joinFlowableSync(Blackhole bh) {
+        joinFlowableSync.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void joinFlowableAsync(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        joinFlowableAsync.subscribe(c);
+        c.await(count);
+    }
+
+    @Benchmark
+    public void zipSync(Blackhole bh) {
+        zipSync.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void zipAsync(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        zipAsync.subscribe(c);
+        c.await(count);
+    }
+}
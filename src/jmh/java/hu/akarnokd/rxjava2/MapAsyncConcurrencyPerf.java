@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Publisher;
+
+import hu.akarnokd.rxjava2.operators.FlowableTransformers;
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Compares the ordered, ordered-concurrent and unordered modes of {@code mapAsync}
+ * over inner Publishers with a simulated, jittered latency. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='MapAsyncConcurrencyPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class MapAsyncConcurrencyPerf {
+
+    @Param({"256"})
+    public int count;
+
+    /** The average latency of an inner Publisher in microseconds, 0 means just a thread hop. */
+    @Param({"0", "100", "1000"})
+    public int latency;
+
+    @Param({"16"})
+    public int maxConcurrency;
+
+    Flowable<Integer> ordered;
+
+    Flowable<Integer> orderedConcurrent;
+
+    Flowable<Integer> unordered;
+
+    @Setup
+    public void setup() {
+        Flowable<Integer> source = Flowable.range(1, count);
+
+        Function<Integer, Publisher<Integer>> mapper = new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                if (latency == 0) {
+                    return Flowable.just(v).subscribeOn(Schedulers.computation());
+                }
+                // 0.5x to 2x of the average latency
+                return Flowable.just(v).delay(latency * (1 + (v & 3)) / 2, TimeUnit.MICROSECONDS);
+            }
+        };
+
+        ordered = source.compose(FlowableTransformers.mapAsync(mapper, Flowable.bufferSize(), 1));
+
+        orderedConcurrent = source.compose(FlowableTransformers.mapAsync(mapper, Flowable.bufferSize(), maxConcurrency));
+
+        unordered = source.compose(FlowableTransformers.mapAsyncUnordered(mapper, Flowable.bufferSize(), maxConcurrency));
+    }
+
+    void run(Flowable<Integer> f, Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        f.subscribe(c);
+        c.await(count);
+    }
+
+    @Benchmark
+    public void ordered(Blackhole bh) {
+        run(ordered, bh);
+    }
+
+    @Benchmark
+    public void orderedConcurrent(Blackhole bh) {
+        run(orderedConcurrent, bh);
+    }
+
+    @Benchmark
+    public void unordered(Blackhole bh) {
+        run(unordered, bh);
+    }
+}
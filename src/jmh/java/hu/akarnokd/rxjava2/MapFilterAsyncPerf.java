@@ -0,0 +1,158 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava2;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Publisher;
+
+import hu.akarnokd.rxjava2.operators.FlowableTransformers;
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Compares {@code mapAsync} and {@code filterAsync} with {@code concatMap}-based
+ * equivalents. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='MapFilterAsyncPerf'
+ * <br>
+ * Add {@code -PjmhProfilers='gc'} to report the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class MapFilterAsyncPerf {
+
+    @Param({"1", "1000", "100000"})
+    public int count;
+
+    Flowable<Integer> mapAsyncSync;
+
+    Flowable<Integer> mapAsyncAsync;
+
+    Flowable<Integer> concatMapSync;
+
+    Flowable<Integer> concatMapAsync;
+
+    Flowable<Integer> filterAsyncSync;
+
+    Flowable<Integer> filterAsyncAsync;
+
+    Flowable<Integer> concatMapFilterSync;
+
+    @Setup
+    public void setup() {
+        Integer[] array = new Integer[count];
+        Arrays.fill(array, 777);
+
+        Flowable<Integer> source = Flowable.fromArray(array);
+
+        Function<Integer, Publisher<Integer>> syncMapper = new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return Flowable.just(v + 1);
+            }
+        };
+
+        Function<Integer, Publisher<Integer>> asyncMapper = new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return Flowable.just(v + 1).subscribeOn(Schedulers.computation());
+            }
+        };
+
+        Function<Integer, Publisher<Boolean>> syncPredicate = new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                return Flowable.just((v & 1) == 0);
+            }
+        };
+
+        Function<Integer, Publisher<Boolean>> asyncPredicate = new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                return Flowable.just((v & 1) == 0).subscribeOn(Schedulers.computation());
+            }
+        };
+
+        mapAsyncSync = source.compose(FlowableTransformers.mapAsync(syncMapper));
+
+        mapAsyncAsync = source.compose(FlowableTransformers.mapAsync(asyncMapper));
+
+        concatMapSync = source.concatMap(syncMapper);
+
+        concatMapAsync = source.concatMap(asyncMapper);
+
+        filterAsyncSync = source.compose(FlowableTransformers.filterAsync(syncPredicate));
+
+        filterAsyncAsync = source.compose(FlowableTransformers.filterAsync(asyncPredicate));
+
+        concatMapFilterSync = source.concatMap(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return (v & 1) == 0 ? Flowable.just(v) : Flowable.<Integer>empty();
+            }
+        });
+    }
+
+    @Benchmark
+    public void mapAsyncSync(Blackhole bh) {
+        mapAsyncSync.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void mapAsyncAsync(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        mapAsyncAsync.subscribe(c);
+        c.await(count);
+    }
+
+    @Benchmark
+    public void concatMapSync(Blackhole bh) {
+        concatMapSync.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void concatMapAsync(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        concatMapAsync.subscribe(c);
+        c.await(count);
+    }
+
+    @Benchmark
+    public void filterAsyncSync(Blackhole bh) {
+        filterAsyncSync.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void filterAsyncAsync(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        filterAsyncAsync.subscribe(c);
+        c.await(count);
+    }
+
+    @Benchmark
+    public void concatMapFilterSync(Blackhole bh) {
+        concatMapFilterSync.subscribe(new PerfConsumer(bh));
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava2;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava2.math.MathFlowable;
+import hu.akarnokd.rxjava2.string.StringFlowable;
+import io.reactivex.Flowable;
+import io.reactivex.functions.*;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Compares the {@code math} aggregators with {@code reduce} and {@code StringFlowable.split}
+ * with {@code flatMapIterable} over {@code Pattern.split}. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='MathStringPerf'
+ * <br>
+ * Add {@code -PjmhProfilers='gc'} to report the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class MathStringPerf {
+
+    @Param({"1", "1000", "100000"})
+    public int count;
+
+    Flowable<Integer> sumInt;
+
+    Flowable<Integer> sumIntAsync;
+
+    Flowable<Integer> reduceSum;
+
+    Flowable<Integer> max;
+
+    Flowable<Integer> reduceMax;
+
+    Flowable<Double> averageDouble;
+
+    Flowable<String> split;
+
+    Flowable<String> splitAsync;
+
+    Flowable<String> flatMapSplit;
+
+    @Setup
+    public void setup() {
+        Integer[] array = new Integer[count];
+        String[] strings = new String[count];
+        for (int i = 0; i < count; i++) {
+            array[i] = i;
+            strings[i] = (i & 1) == 0 ? "a," : "bc,d";
+        }
+
+        Flowable<Integer> source = Flowable.fromArray(array);
+
+        sumInt = MathFlowable.sumInt(source);
+
+        sumIntAsync = MathFlowable.sumInt(source.subscribeOn(Schedulers.computation()));
+
+        reduceSum = source.reduce(new BiFunction<Integer, Integer, Integer>() {
+            @Override
+            public Integer apply(Integer a, Integer b) throws Exception {
+                return a + b;
+            }
+        }).toFlowable();
+
+        max = MathFlowable.max(source);
+
+        reduceMax = source.reduce(new BiFunction<Integer, Integer, Integer>() {
+            @Override
+            public Integer apply(Integer a, Integer b) throws Exception {
+                return Math.max(a, b);
+            }
+        }).toFlowable();
+
+        averageDouble = MathFlowable.averageDouble(source);
+
+        Flowable<String> stringSource = Flowable.fromArray(strings);
+
+        final Pattern pattern = Pattern.compile(",");
+
+        split = stringSource.compose(StringFlowable.split(pattern));
+
+        splitAsync = stringSource.subscribeOn(Schedulers.computation()).compose(StringFlowable.split(pattern));
+
+        flatMapSplit = stringSource.flatMapIterable(new Function<String, Iterable<String>>() {
+            @Override
+            public Iterable<String> apply(String v) throws Exception {
+                return Arrays.asList(pattern.split(v));
+            }
+        });
+    }
+
+    @Benchmark
+    public void sumInt(Blackhole bh) {
+        sumInt.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void sumIntAsync(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        sumIntAsync.subscribe(c);
+        c.await(count);
+    }
+
+    @Benchmark
+    public void reduceSum(Blackhole bh) {
+        reduceSum.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void max(Blackhole bh) {
+        max.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void reduceMax(Blackhole bh) {
+        reduceMax.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void averageDouble(Blackhole bh) {
+        averageDouble.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void split(Blackhole bh) {
+        split.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void splitAsync(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        splitAsync.subscribe(c);
+        c.await(count);
+    }
+
+    @Benchmark
+    public void flatMapSplit(Blackhole bh) {
+        flatMapSplit.subscribe(new PerfConsumer(bh));
+    }
+}
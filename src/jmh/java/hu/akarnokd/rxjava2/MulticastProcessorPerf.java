@@ -0,0 +1,115 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava2;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava2.processors.MulticastProcessor;
+import io.reactivex.Flowable;
+import io.reactivex.flowables.ConnectableFlowable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Compares the {@code MulticastProcessor} with {@code publish()}. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='MulticastProcessorPerf'
+ * <br>
+ * Add {@code -PjmhProfilers='gc'} to report the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class MulticastProcessorPerf {
+
+    @Param({"1", "1000", "100000"})
+    public int count;
+
+    @Param({"1", "2", "8"})
+    public int subscribers;
+
+    Flowable<Integer> source;
+
+    Flowable<Integer> asyncSource;
+
+    @Setup
+    public void setup() {
+        Integer[] array = new Integer[count];
+        Arrays.fill(array, 777);
+
+        source = Flowable.fromArray(array);
+
+        asyncSource = source.subscribeOn(Schedulers.computation());
+    }
+
+    void multicast(Flowable<Integer> upstream, Blackhole bh, boolean async) {
+        MulticastProcessor<Integer> mp = MulticastProcessor.create();
+        PerfAsyncConsumer[] cs = new PerfAsyncConsumer[subscribers];
+        for (int i = 0; i < subscribers; i++) {
+            PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+            cs[i] = c;
+            mp.subscribe(c);
+        }
+        upstream.subscribe(mp);
+        if (async) {
+            for (PerfAsyncConsumer c : cs) {
+                c.await(count);
+            }
+        }
+    }
+
+    void publish(Flowable<Integer> upstream, Blackhole bh, boolean async) {
+        ConnectableFlowable<Integer> cf = upstream.publish();
+        PerfAsyncConsumer[] cs = new PerfAsyncConsumer[subscribers];
+        for (int i = 0; i < subscribers; i++) {
+            PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+            cs[i] = c;
+            cf.subscribe(c);
+        }
+        cf.connect();
+        if (async) {
+            for (PerfAsyncConsumer c : cs) {
+                c.await(count);
+            }
+        }
+    }
+
+    @Benchmark
+    public void multicastSync(Blackhole bh) {
+        multicast(source, bh, false);
+    }
+
+    @Benchmark
+    public void multicastAsync(Blackhole bh) {
+        multicast(asyncSource, bh, true);
+    }
+
+    @Benchmark
+    public void publishSync(Blackhole bh) {
+        publish(source, bh, false);
+    }
+
+    @Benchmark
+    public void publishAsync(Blackhole bh) {
+        publish(asyncSource, bh, true);
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava2;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava2.basetypes.Nono;
+import io.reactivex.Completable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Compares the overhead of {@code Nono} with {@code Completable}. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='NonoPerf' -PjmhProfilers='gc'
+ * <br>
+ * The {@code gc.alloc.rate.norm} secondary result is the bytes allocated per operation.
+ * In the {@code async} mode the sources are subscribed on the computation scheduler.
+ * Neither type has a value, thus {@code andThen} stands in for {@code map}/{@code flatMap}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class NonoPerf {
+
+    @Param({"false", "true"})
+    public boolean async;
+
+    Nono nonoComplete;
+    Nono nonoAndThen;
+    Nono nonoConcat;
+    Nono nonoMerge;
+    Nono nonoObserveOn;
+
+    Completable completableComplete;
+    Completable completableAndThen;
+    Completable completableConcat;
+    Completable completableMerge;
+    Completable completableObserveOn;
+
+    @Setup
+    public void setup() {
+        Nono nono = Nono.complete();
+        Completable completable = Completable.complete();
+        if (async) {
+            nono = nono.subscribeOn(Schedulers.computation());
+            completable = completable.subscribeOn(Schedulers.computation());
+        }
+
+        nonoComplete = nono;
+        nonoAndThen = nono.andThen(Nono.complete());
+        nonoConcat = Nono.concatArray(nono, nono, nono, nono);
+        nonoMerge = Nono.mergeArray(nono, nono, nono, nono);
+        nonoObserveOn = nono.observeOn(Schedulers.single());
+
+        completableComplete = completable;
+        completableAndThen = completable.andThen(Completable.complete());
+        completableConcat = Completable.concatArray(completable, completable, completable, completable);
+        completableMerge = Completable.mergeArray(completable, completable, completable, completable);
+        completableObserveOn = completable.observeOn(Schedulers.single());
+    }
+
+    void run(Nono p, Blackhole bh) {
+        if (async) {
+            PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+            p.subscribe(c);
+            c.await(1);
+        } else {
+            p.subscribe(new PerfConsumer(bh));
+        }
+    }
+
+    void run(Completable p, Blackhole bh) {
+        if (async) {
+            PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+            p.subscribe(c);
+            c.await(1);
+        } else {
+            p.subscribe(new PerfConsumer(bh));
+        }
+    }
+
+    @Benchmark
+    public void nonoComplete(Blackhole bh) {
+        run(nonoComplete, bh);
+    }
+
+    @Benchmark
+    public void nonoAndThen(Blackhole bh) {
+        run(nonoAndThen, bh);
+    }
+
+    @Benchmark
+    public void nonoConcat(Blackhole bh) {
+        run(nonoConcat, bh);
+    }
+
+    @Benchmark
+    public void nonoMerge(Blackhole bh) {
+        run(nonoMerge, bh);
+    }
+
+    @Benchmark
+    public void nonoObserveOn(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        nonoObserveOn.subscribe(c);
+        c.await(1);
+    }
+
+    @Benchmark
+    public Object nonoBlockingAwait() {
+        return nonoComplete.blockingAwait();
+    }
+
+    @Benchmark
+    public void completableComplete(Blackhole bh) {
+        run(completableComplete, bh);
+    }
+
+    @Benchmark
+    public void completableAndThen(Blackhole bh) {
+        run(completableAndThen, bh);
+    }
+
+    @Benchmark
+    public void completableConcat(Blackhole bh) {
+        run(completableConcat, bh);
+    }
+
+    @Benchmark
+    public void completableMerge(Blackhole bh) {
+        run(completableMerge, bh);
+    }
+
+    @Benchmark
+    public void completableObserveOn(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        completableObserveOn.subscribe(c);
+        c.await(1);
+    }
+
+    @Benchmark
+    public Object completableBlockingAwait() {
+        return completableComplete.blockingGet();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava2;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava2.operators.Flowables;
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Compares {@code Flowables.orderedMerge} with the standard {@code mergeArray}. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='OrderedMergePerf'
+ * <br>
+ * Add {@code -PjmhProfilers='gc'} to report the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class OrderedMergePerf {
+
+    @Param({"1", "1000", "100000"})
+    public int count;
+
+    @Param({"2", "8", "32"})
+    public int sources;
+
+    Flowable<Integer> orderedSync;
+
+    Flowable<Integer> orderedAsync;
+
+    Flowable<Integer> mergeSync;
+
+    Flowable<Integer> mergeAsync;
+
+    @SuppressWarnings("unchecked")
+    @Setup
+    public void setup() {
+        Flowable<Integer>[] syncs = new Flowable[sources];
+        Flowable<Integer>[] asyncs = new Flowable[sources];
+        int n = Math.max(1, count / sources);
+        for (int i = 0; i < sources; i++) {
+            Integer[] array = new Integer[n];
+            for (int j = 0; j < n; j++) {
+                array[j] = j * sources + i;
+            }
+            syncs[i] = Flowable.fromArray(array);
+            asyncs[i] = syncs[i].subscribeOn(Schedulers.computation());
+        }
+
+        orderedSync = Flowables.orderedMerge(syncs);
+
+        orderedAsync = Flowables.orderedMerge(asyncs);
+
+        mergeSync = Flowable.mergeArray(syncs);
+
+        mergeAsync = Flowable.mergeArray(asyncs);
+    }
+
+    @Benchmark
+    public void orderedSync(Blackhole bh) {
+        orderedSync.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void orderedAsync(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        orderedAsync.subscribe(c);
+        c.await(count);
+    }
+
+    @Benchmark
+    public void mergeSync(Blackhole bh) {
+        mergeSync.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void mergeAsync(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        mergeAsync.subscribe(c);
+        c.await(count);
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava2.operators.FlowableTransformers;
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Paces 1000 items to the given rate with the per-item timers of {@code spanout}
+ * and the token bucket of {@code pace}; an ideal run takes 1000 / rate seconds. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='PacePerf' -PjmhProfilers='gc'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class PacePerf {
+
+    @Param({"10000", "100000"})
+    public int rate;
+
+    /** A late timer can't be caught up with beyond the burst size. */
+    @Param({"1", "100"})
+    public int burst;
+
+    Flowable<Integer> spanout;
+
+    Flowable<Integer> pace;
+
+    @Setup
+    public void setup() {
+        Flowable<Integer> source = Flowable.range(1, 1000);
+
+        spanout = source.compose(FlowableTransformers.<Integer>spanout(TimeUnit.SECONDS.toNanos(1) / rate, TimeUnit.NANOSECONDS, Schedulers.single()));
+
+        pace = source.compose(FlowableTransformers.<Integer>pace(rate, burst, Schedulers.single()));
+    }
+
+    @Benchmark
+    public void spanout(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        spanout.subscribe(c);
+        c.await(1000);
+    }
+
+    @Benchmark
+    public void pace(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        pace.subscribe(c);
+        c.await(1000);
+    }
+}
@@ -39,6 +39,7 @@ SingleObserver<Object>, MaybeObserver<Object>, CompletableObserver {
     @Override
     public void onSuccess(Object t) {
         bh.consume(t);
+        countDown();
     }
 
     @Override
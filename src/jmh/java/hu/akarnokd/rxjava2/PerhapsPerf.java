@@ -0,0 +1,218 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava2;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Publisher;
+
+import hu.akarnokd.rxjava2.basetypes.Perhaps;
+import io.reactivex.*;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Compares the overhead of {@code Perhaps} with {@code Maybe}. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='PerhapsPerf' -PjmhProfilers='gc'
+ * <br>
+ * The {@code gc.alloc.rate.norm} secondary result is the bytes allocated per operation.
+ * In the {@code async} mode the sources are subscribed on the computation scheduler.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class PerhapsPerf {
+
+    @Param({"false", "true"})
+    public boolean async;
+
+    Perhaps<Integer> perhapsJust;
+    Perhaps<Integer> perhapsMap;
+    Perhaps<Integer> perhapsFlatMap;
+    Perhaps<Object> perhapsZipArray;
+    Flowable<Integer> perhapsConcat;
+    Flowable<Integer> perhapsMerge;
+    Perhaps<Integer> perhapsObserveOn;
+
+    Maybe<Integer> maybeJust;
+    Maybe<Integer> maybeMap;
+    Maybe<Integer> maybeFlatMap;
+    Maybe<Object> maybeZipArray;
+    Flowable<Integer> maybeConcat;
+    Flowable<Integer> maybeMerge;
+    Maybe<Integer> maybeObserveOn;
+
+    @SuppressWarnings("unchecked")
+    @Setup
+    public void setup() {
+        Perhaps<Integer> perhaps = Perhaps.just(1);
+        Maybe<Integer> maybe = Maybe.just(1);
+        if (async) {
+            perhaps = perhaps.subscribeOn(Schedulers.computation());
+            maybe = maybe.subscribeOn(Schedulers.computation());
+        }
+
+        Function<Integer, Integer> map = new Function<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer v) throws Exception {
+                return v + 1;
+            }
+        };
+
+        Function<Object[], Object> zipper = new Function<Object[], Object>() {
+            @Override
+            public Object apply(Object[] a) throws Exception {
+                return a[0];
+            }
+        };
+
+        perhapsJust = perhaps;
+        perhapsMap = perhaps.map(map);
+        perhapsFlatMap = perhaps.flatMap(new Function<Integer, Perhaps<Integer>>() {
+            @Override
+            public Perhaps<Integer> apply(Integer v) throws Exception {
+                return Perhaps.just(v + 1);
+            }
+        });
+        perhapsZipArray = Perhaps.zipArray(zipper, perhaps, perhaps, perhaps, perhaps);
+        perhapsConcat = Perhaps.concatArray(perhaps, perhaps, perhaps, perhaps);
+        perhapsMerge = Perhaps.mergeArray(perhaps, perhaps, perhaps, perhaps);
+        perhapsObserveOn = perhaps.observeOn(Schedulers.single());
+
+        maybeJust = maybe;
+        maybeMap = maybe.map(map);
+        maybeFlatMap = maybe.flatMap(new Function<Integer, Maybe<Integer>>() {
+            @Override
+            public Maybe<Integer> apply(Integer v) throws Exception {
+                return Maybe.just(v + 1);
+            }
+        });
+        maybeZipArray = Maybe.zipArray(zipper, maybe, maybe, maybe, maybe);
+        maybeConcat = Maybe.concatArray(maybe, maybe, maybe, maybe);
+        maybeMerge = Maybe.mergeArray(maybe, maybe, maybe, maybe);
+        maybeObserveOn = maybe.observeOn(Schedulers.single());
+    }
+
+    void run(Publisher<?> p, Blackhole bh) {
+        if (async) {
+            PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+            p.subscribe(c);
+            c.await(1);
+        } else {
+            p.subscribe(new PerfConsumer(bh));
+        }
+    }
+
+    void run(Maybe<?> p, Blackhole bh) {
+        if (async) {
+            PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+            p.subscribe(c);
+            c.await(1);
+        } else {
+            p.subscribe(new PerfConsumer(bh));
+        }
+    }
+
+    @Benchmark
+    public void perhapsJust(Blackhole bh) {
+        run(perhapsJust, bh);
+    }
+
+    @Benchmark
+    public void perhapsMap(Blackhole bh) {
+        run(perhapsMap, bh);
+    }
+
+    @Benchmark
+    public void perhapsFlatMap(Blackhole bh) {
+        run(perhapsFlatMap, bh);
+    }
+
+    @Benchmark
+    public void perhapsZipArray(Blackhole bh) {
+        run(perhapsZipArray, bh);
+    }
+
+    @Benchmark
+    public void perhapsConcat(Blackhole bh) {
+        run(perhapsConcat, bh);
+    }
+
+    @Benchmark
+    public void perhapsMerge(Blackhole bh) {
+        run(perhapsMerge, bh);
+    }
+
+    @Benchmark
+    public void perhapsObserveOn(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        perhapsObserveOn.subscribe(c);
+        c.await(1);
+    }
+
+    @Benchmark
+    public Object perhapsBlockingGet() {
+        return perhapsJust.blockingGet();
+    }
+
+    @Benchmark
+    public void maybeJust(Blackhole bh) {
+        run(maybeJust, bh);
+    }
+
+    @Benchmark
+    public void maybeMap(Blackhole bh) {
+        run(maybeMap, bh);
+    }
+
+    @Benchmark
+    public void maybeFlatMap(Blackhole bh) {
+        run(maybeFlatMap, bh);
+    }
+
+    @Benchmark
+    public void maybeZipArray(Blackhole bh) {
+        run(maybeZipArray, bh);
+    }
+
+    @Benchmark
+    public void maybeConcat(Blackhole bh) {
+        run(maybeConcat, bh);
+    }
+
+    @Benchmark
+    public void maybeMerge(Blackhole bh) {
+        run(maybeMerge, bh);
+    }
+
+    @Benchmark
+    public void maybeObserveOn(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        maybeObserveOn.subscribe(c);
+        c.await(1);
+    }
+
+    @Benchmark
+    public Object maybeBlockingGet() {
+        return maybeJust.blockingGet();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava2.operators.FlowableTransformers;
+import hu.akarnokd.rxjava2.util.ObjectPool;
+import io.reactivex.Flowable;
+import io.reactivex.functions.*;
+import io.reactivex.internal.functions.Functions;
+
+/**
+ * Compares fresh and pooled containers of {@code coalesce} and {@code bufferUntil}. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='PooledBufferPerf' -PjmhProfilers='gc'
+ * <br>
+ * The {@code gc.alloc.rate.norm} column shows the allocation per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class PooledBufferPerf {
+
+    @Param({"1000", "100000"})
+    public int count;
+
+    @Param({"4", "32"})
+    public int batch;
+
+    Flowable<List<Integer>> coalesceFresh;
+
+    Flowable<List<Integer>> coalescePooled;
+
+    Flowable<List<Integer>> bufferFresh;
+
+    Flowable<List<Integer>> bufferPooled;
+
+    @Setup
+    public void setup() {
+        Integer[] array = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            array[i] = i;
+        }
+
+        Flowable<Integer> source = Flowable.fromArray(array);
+
+        Callable<List<Integer>> supplier = Functions.createArrayList(batch);
+
+        ObjectPool<List<Integer>> pool = ObjectPool.create(4, supplier, new Consumer<List<Integer>>() {
+            @Override
+            public void accept(List<Integer> list) throws Exception {
+                list.clear();
+            }
+        });
+
+        BiConsumer<List<Integer>, Integer> coalescer = new BiConsumer<List<Integer>, Integer>() {
+            @Override
+            public void accept(List<Integer> a, Integer b) throws Exception {
+                a.add(b);
+            }
+        };
+
+        final int m = batch - 1;
+        Predicate<Integer> boundary = new Predicate<Integer>() {
+            @Override
+            public boolean test(Integer v) throws Exception {
+                return (v & m) == m;
+            }
+        };
+
+        coalesceFresh = source.compose(FlowableTransformers.coalesce(supplier, coalescer, 16));
+
+        coalescePooled = source.compose(FlowableTransformers.coalesce(pool, coalescer, 16, pool));
+
+        bufferFresh = source.compose(FlowableTransformers.bufferUntil(boundary, supplier));
+
+        bufferPooled = source.compose(FlowableTransformers.bufferUntil(boundary, pool, pool));
+    }
+
+    @Benchmark
+    public void coalesceFresh(Blackhole bh) {
+        coalesceFresh.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void coalescePooled(Blackhole bh) {
+        coalescePooled.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void bufferFresh(Blackhole bh) {
+        bufferFresh.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void bufferPooled(Blackhole bh) {
+        bufferPooled.subscribe(new PerfConsumer(bh));
+    }
+}
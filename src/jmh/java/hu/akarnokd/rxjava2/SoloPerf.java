@@ -0,0 +1,218 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava2;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Publisher;
+
+import hu.akarnokd.rxjava2.basetypes.Solo;
+import io.reactivex.*;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Compares the overhead of {@code Solo} with {@code Single}. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='SoloPerf' -PjmhProfilers='gc'
+ * <br>
+ * The {@code gc.alloc.rate.norm} secondary result is the bytes allocated per operation.
+ * In the {@code async} mode the sources are subscribed on the computation scheduler.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class SoloPerf {
+
+    @Param({"false", "true"})
+    public boolean async;
+
+    Solo<Integer> soloJust;
+    Solo<Integer> soloMap;
+    Solo<Integer> soloFlatMap;
+    Solo<Object> soloZipArray;
+    Flowable<Integer> soloConcat;
+    Flowable<Integer> soloMerge;
+    Solo<Integer> soloObserveOn;
+
+    Single<Integer> singleJust;
+    Single<Integer> singleMap;
+    Single<Integer> singleFlatMap;
+    Single<Object> singleZipArray;
+    Flowable<Integer> singleConcat;
+    Flowable<Integer> singleMerge;
+    Single<Integer> singleObserveOn;
+
+    @SuppressWarnings("unchecked")
+    @Setup
+    public void setup() {
+        Solo<Integer> solo = Solo.just(1);
+        Single<Integer> single = Single.just(1);
+        if (async) {
+            solo = solo.subscribeOn(Schedulers.computation());
+            single = single.subscribeOn(Schedulers.computation());
+        }
+
+        Function<Integer, Integer> map = new Function<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer v) throws Exception {
+                return v + 1;
+            }
+        };
+
+        Function<Object[], Object> zipper = new Function<Object[], Object>() {
+            @Override
+            public Object apply(Object[] a) throws Exception {
+                return a[0];
+            }
+        };
+
+        soloJust = solo;
+        soloMap = solo.map(map);
+        soloFlatMap = solo.flatMap(new Function<Integer, Solo<Integer>>() {
+            @Override
+            public Solo<Integer> apply(Integer v) throws Exception {
+                return Solo.just(v + 1);
+            }
+        });
+        soloZipArray = Solo.zipArray(zipper, solo, solo, solo, solo);
+        soloConcat = Solo.concatArray(solo, solo, solo, solo);
+        soloMerge = Solo.mergeArray(solo, solo, solo, solo);
+        soloObserveOn = solo.observeOn(Schedulers.single());
+
+        singleJust = single;
+        singleMap = single.map(map);
+        singleFlatMap = single.flatMap(new Function<Integer, Single<Integer>>() {
+            @Override
+            public Single<Integer> apply(Integer v) throws Exception {
+                return Single.just(v + 1);
+            }
+        });
+        singleZipArray = Single.zipArray(zipper, single, single, single, single);
+        singleConcat = Single.concatArray(single, single, single, single);
+        singleMerge = Single.merge(Flowable.fromArray(single, single, single, single));
+        singleObserveOn = single.observeOn(Schedulers.single());
+    }
+
+    void run(Publisher<?> p, Blackhole bh) {
+        if (async) {
+            PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+            p.subscribe(c);
+            c.await(1);
+        } else {
+            p.subscribe(new PerfConsumer(bh));
+        }
+    }
+
+    void run(Single<?> p, Blackhole bh) {
+        if (async) {
+            PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+            p.subscribe(c);
+            c.await(1);
+        } else {
+            p.subscribe(new PerfConsumer(bh));
+        }
+    }
+
+    @Benchmark
+    public void soloJust(Blackhole bh) {
+        run(soloJust, bh);
+    }
+
+    @Benchmark
+    public void soloMap(Blackhole bh) {
+        run(soloMap, bh);
+    }
+
+    @Benchmark
+    public void soloFlatMap(Blackhole bh) {
+        run(soloFlatMap, bh);
+    }
+
+    @Benchmark
+    public void soloZipArray(Blackhole bh) {
+        run(soloZipArray, bh);
+    }
+
+    @Benchmark
+    public void soloConcat(Blackhole bh) {
+        run(soloConcat, bh);
+    }
+
+    @Benchmark
+    public void soloMerge(Blackhole bh) {
+        run(soloMerge, bh);
+    }
+
+    @Benchmark
+    public void soloObserveOn(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        soloObserveOn.subscribe(c);
+        c.await(1);
+    }
+
+    @Benchmark
+    public Object soloBlockingGet() {
+        return soloJust.blockingGet();
+    }
+
+    @Benchmark
+    public void singleJust(Blackhole bh) {
+        run(singleJust, bh);
+    }
+
+    @Benchmark
+    public void singleMap(Blackhole bh) {
+        run(singleMap, bh);
+    }
+
+    @Benchmark
+    public void singleFlatMap(Blackhole bh) {
+        run(singleFlatMap, bh);
+    }
+
+    @Benchmark
+    public void singleZipArray(Blackhole bh) {
+        run(singleZipArray, bh);
+    }
+
+    @Benchmark
+    public void singleConcat(Blackhole bh) {
+        run(singleConcat, bh);
+    }
+
+    @Benchmark
+    public void singleMerge(Blackhole bh) {
+        run(singleMerge, bh);
+    }
+
+    @Benchmark
+    public void singleObserveOn(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        singleObserveOn.subscribe(c);
+        c.await(1);
+    }
+
+    @Benchmark
+    public Object singleBlockingGet() {
+        return singleJust.blockingGet();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava2.expr.StatementFlowable;
+import io.reactivex.Flowable;
+import io.reactivex.functions.BooleanSupplier;
+
+/**
+ * Measures the iteration overhead of {@code StatementFlowable.doWhile} over a synchronous
+ * ({@code just}) and a non-fusable ({@code hide}) loop body. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='StatementLoopPerf' -PjmhProfilers='gc'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class StatementLoopPerf {
+
+    @Param({"1000", "1000000"})
+    public int count;
+
+    Flowable<Integer> callableLoop;
+
+    Flowable<Integer> resubscribeLoop;
+
+    @Setup
+    public void setup() {
+        callableLoop = StatementFlowable.doWhile(Flowable.just(1), new Countdown(count));
+        resubscribeLoop = StatementFlowable.doWhile(Flowable.just(1).hide(), new Countdown(count));
+    }
+
+    @Benchmark
+    public void callable(Blackhole bh) {
+        callableLoop.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void resubscribe(Blackhole bh) {
+        resubscribeLoop.subscribe(new PerfConsumer(bh));
+    }
+
+    /**
+     * Returns true count - 1 times, then resets itself for the next run.
+     */
+    static final class Countdown implements BooleanSupplier {
+        final int count;
+
+        int remaining;
+
+        Countdown(int count) {
+            this.count = count;
+            this.remaining = count - 1;
+        }
+
+        @Override
+        public boolean getAsBoolean() {
+            if (remaining-- > 0) {
+                return true;
+            }
+            remaining = count - 1;
+            return false;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava2.expr.*;
+import hu.akarnokd.rxjava2.functions.IntSupplier;
+import io.reactivex.Flowable;
+
+/**
+ * Measures the per-subscription cost of {@code StatementFlowable.switchCase} with
+ * a {@code HashMap}, an {@code EnumMap}, a precompiled {@code SwitchCaseTable}
+ * and an int-indexed array of cases. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='SwitchCasePerf' -PjmhProfilers='gc'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class SwitchCasePerf {
+
+    Flowable<Integer> hashMap;
+
+    Flowable<Integer> enumMap;
+
+    Flowable<Integer> enumTable;
+
+    Flowable<Integer> stringTable;
+
+    Flowable<Integer> array;
+
+    @SuppressWarnings("unchecked")
+    @Setup
+    public void setup() {
+        final TimeUnit[] units = TimeUnit.values();
+        Map<TimeUnit, Flowable<Integer>> hm = new HashMap<TimeUnit, Flowable<Integer>>();
+        Map<TimeUnit, Flowable<Integer>> em = new EnumMap<TimeUnit, Flowable<Integer>>(TimeUnit.class);
+        final String[] names = new String[units.length];
+        Map<String, Flowable<Integer>> sm = new HashMap<String, Flowable<Integer>>();
+        Flowable<Integer>[] arr = new Flowable[units.length];
+        for (int i = 0; i < units.length; i++) {
+            Flowable<Integer> f = Flowable.just(i);
+            hm.put(units[i], f);
+            em.put(units[i], f);
+            names[i] = units[i].name();
+            sm.put(names[i], f);
+            arr[i] = f;
+        }
+
+        Callable<TimeUnit> unitSelector = new Callable<TimeUnit>() {
+            int index;
+            @Override
+            public TimeUnit call() {
+                TimeUnit u = units[index];
+                index = index + 1 == units.length ? 0 : index + 1;
+                return u;
+            }
+        };
+
+        hashMap = StatementFlowable.switchCase(unitSelector, hm, Flowable.<Integer>empty());
+        enumMap = StatementFlowable.switchCase(unitSelector, em, Flowable.<Integer>empty());
+        enumTable = StatementFlowable.switchCase(unitSelector, SwitchCaseTable.of(em), Flowable.<Integer>empty());
+        stringTable = StatementFlowable.switchCase(new Callable<String>() {
+            int index;
+            @Override
+            public String call() {
+                String s = names[index];
+                index = index + 1 == names.length ? 0 : index + 1;
+                return s;
+            }
+        }, SwitchCaseTable.of(sm), Flowable.<Integer>empty());
+        array = StatementFlowable.switchCase(new IntSupplier() {
+            int index;
+            @Override
+            public int getAsInt() {
+                int i = index;
+                index = i + 1 == units.length ? 0 : i + 1;
+                return i;
+            }
+        }, arr, Flowable.<Integer>empty());
+    }
+
+    @Benchmark
+    public void hashMap(Blackhole bh) {
+        hashMap.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void enumMap(Blackhole bh) {
+        enumMap.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void enumTable(Blackhole bh) {
+        enumTable.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void stringTable(Blackhole bh) {
+        stringTable.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void array(Blackhole bh) {
+        array.subscribe(new PerfConsumer(bh));
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Publisher;
+
+import hu.akarnokd.rxjava2.operators.FlowableTransformers;
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Measures {@code switchFlatMap} where the upstream switches as fast as it can on its own thread
+ * while the inners emit from computation threads, so adding and evicting inners races with
+ * the drain. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='SwitchFlatMapContendedPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class SwitchFlatMapContendedPerf {
+
+    @Param({"1000", "100000"})
+    public int count;
+
+    @Param({"10", "100"})
+    public int range;
+
+    @Param({"1", "4", "16"})
+    public int maxActive;
+
+    Flowable<Integer> switchFlatMap;
+
+    @Setup
+    public void setup() {
+        Flowable<Integer> source = Flowable.range(1, count).subscribeOn(Schedulers.single());
+        final Flowable<Integer> inner = Flowable.range(1, range).subscribeOn(Schedulers.computation());
+
+        switchFlatMap = source.compose(FlowableTransformers.switchFlatMap(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return inner;
+            }
+        }, maxActive));
+    }
+
+    @Benchmark
+    public void switchFlatMap(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        switchFlatMap.subscribe(c);
+        c.await(count);
+    }
+}
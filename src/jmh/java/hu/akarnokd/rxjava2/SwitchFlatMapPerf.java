@@ -0,0 +1,118 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava2;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Publisher;
+
+import hu.akarnokd.rxjava2.operators.FlowableTransformers;
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Compares {@code switchFlatMap} with {@code flatMap} limited to the same concurrency. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='SwitchFlatMapPerf'
+ * <br>
+ * Add {@code -PjmhProfilers='gc'} to report the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class SwitchFlatMapPerf {
+
+    @Param({"1", "1000", "100000"})
+    public int count;
+
+    @Param({"1", "10"})
+    public int range;
+
+    @Param({"1", "4", "16"})
+    public int maxActive;
+
+    Flowable<Integer> switchFlatMapSync;
+
+    Flowable<Integer> switchFlatMapAsync;
+
+    Flowable<Integer> flatMapSync;
+
+    Flowable<Integer> flatMapAsync;
+
+    @Setup
+    public void setup() {
+        Integer[] array = new Integer[count];
+        Arrays.fill(array, 777);
+        Integer[] inner = new Integer[range];
+        Arrays.fill(inner, 888);
+
+        Flowable<Integer> source = Flowable.fromArray(array);
+        final Flowable<Integer> finner = Flowable.fromArray(inner);
+
+        Function<Integer, Publisher<Integer>> f1 = new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return finner;
+            }
+        };
+
+        Function<Integer, Publisher<Integer>> f2 = new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return finner.subscribeOn(Schedulers.computation());
+            }
+        };
+
+        switchFlatMapSync = source.compose(FlowableTransformers.switchFlatMap(f1, maxActive));
+
+        switchFlatMapAsync = source.compose(FlowableTransformers.switchFlatMap(f2, maxActive));
+
+        flatMapSync = source.flatMap(f1, maxActive);
+
+        flatMapAsync = source.flatMap(f2, maxActive);
+    }
+
+    @Benchmark
+    public void switchFlatMapSync(Blackhole bh) {
+        switchFlatMapSync.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void switchFlatMapAsync(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        switchFlatMapAsync.subscribe(c);
+        c.await(count * range);
+    }
+
+    @Benchmark
+    public void flatMapSync(Blackhole bh) {
+        flatMapSync.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void flatMapAsync(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        flatMapAsync.subscribe(c);
+        c.await(count * range);
+    }
+}
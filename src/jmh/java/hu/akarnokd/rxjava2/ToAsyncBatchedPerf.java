@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava2.async.AsyncFlowable;
+import hu.akarnokd.rxjava2.functions.PlainFunction;
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Compares {@code toAsync} with {@code toAsyncBatched} when many calls are issued at once.
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='ToAsyncBatchedPerf' -PjmhProfilers='gc'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class ToAsyncBatchedPerf {
+
+    @Param({"1", "100", "10000"})
+    public int count;
+
+    Flowable<Integer> plain;
+
+    Flowable<Integer> batched;
+
+    @Setup
+    public void setup() {
+        Function<Integer, Integer> func = new Function<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer v) throws Exception {
+                return v + 1;
+            }
+        };
+
+        PlainFunction<Integer, Flowable<Integer>> plainFunc = AsyncFlowable.toAsync(func, Schedulers.computation());
+        PlainFunction<Integer, Flowable<Integer>> batchedFunc = AsyncFlowable.toAsyncBatched(func, Schedulers.computation(), 256, 0, TimeUnit.MILLISECONDS);
+
+        List<Flowable<Integer>> plainList = new ArrayList<Flowable<Integer>>();
+        List<Flowable<Integer>> batchedList = new ArrayList<Flowable<Integer>>();
+        for (int i = 0; i < count; i++) {
+            plainList.add(plainFunc.apply(i));
+            batchedList.add(batchedFunc.apply(i));
+        }
+
+        plain = Flowable.merge(plainList, count);
+        batched = Flowable.merge(batchedList, count);
+    }
+
+    @Benchmark
+    public void toAsync(Blackhole bh) {
+        PerfAsyncConsumer pc = new PerfAsyncConsumer(bh);
+        plain.subscribe(pc);
+        pc.await(count);
+    }
+
+    @Benchmark
+    public void toAsyncBatched(Blackhole bh) {
+        PerfAsyncConsumer pc = new PerfAsyncConsumer(bh);
+        batched.subscribe(pc);
+        pc.await(count);
+    }
+}
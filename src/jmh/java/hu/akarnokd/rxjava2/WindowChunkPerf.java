@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava2.operators.FlowableTransformers;
+import io.reactivex.*;
+import io.reactivex.functions.*;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Compares the size and time bounded {@code windowUntil} with the pooled Iterable
+ * chunks of {@code chunkUntil}, counting the items of each window or chunk. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='WindowChunkPerf' -PjmhProfilers='gc'
+ * <br>
+ * The {@code gc.alloc.rate.norm} column shows the allocation per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class WindowChunkPerf {
+
+    @Param({"1000", "100000"})
+    public int count;
+
+    @Param({"4", "32"})
+    public int batch;
+
+    Flowable<Long> window;
+
+    Flowable<Long> chunk;
+
+    @Setup
+    public void setup() {
+        Integer[] array = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            array[i] = i;
+        }
+
+        Flowable<Integer> source = Flowable.fromArray(array);
+
+        final int m = batch - 1;
+        Predicate<Integer> boundary = new Predicate<Integer>() {
+            @Override
+            public boolean test(Integer v) throws Exception {
+                return (v & m) == m;
+            }
+        };
+
+        window = source.compose(FlowableTransformers.windowUntil(boundary, batch, 1, TimeUnit.MINUTES, Schedulers.single()))
+                .flatMapSingle(new Function<Flowable<Integer>, Single<Long>>() {
+                    @Override
+                    public Single<Long> apply(Flowable<Integer> w) throws Exception {
+                        return w.count();
+                    }
+                });
+
+        chunk = source.compose(FlowableTransformers.chunkUntil(boundary, batch, 1, TimeUnit.MINUTES, Schedulers.single()))
+                .map(new Function<Iterable<Integer>, Long>() {
+                    @Override
+                    public Long apply(Iterable<Integer> c) throws Exception {
+                        long n = 0L;
+                        for (Integer v : c) {
+                            n++;
+                        }
+                        return n;
+                    }
+                });
+    }
+
+    @Benchmark
+    public void window(Blackhole bh) {
+        window.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void chunk(Blackhole bh) {
+        chunk.subscribe(new PerfConsumer(bh));
+    }
+}
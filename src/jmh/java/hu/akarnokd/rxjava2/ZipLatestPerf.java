@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.rxjava2;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava2.operators.Flowables;
+import io.reactivex.Flowable;
+import io.reactivex.functions.*;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Compares {@code Flowables.zipLatest} and {@code Flowables.zipLatestSampled} with {@code combineLatest}. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='ZipLatestPerf'
+ * <br>
+ * Add {@code -PjmhProfilers='gc'} to report the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class ZipLatestPerf {
+
+    @Param({"1", "1000", "100000"})
+    public int count;
+
+    @Param({"2", "8", "32"})
+    public int sources;
+
+    Flowable<Object> zipLatestSync;
+
+    Flowable<Object> zipLatestAsync;
+
+    Flowable<Object> combineLatestSync;
+
+    Flowable<Object> combineLatestAsync;
+
+    Flowable<Object> zipLatestSampledAsync;
+
+    @Setup
+    public void setup() {
+        Integer[] array = new Integer[count];
+        Arrays.fill(array, 777);
+
+        List<Flowable<Integer>> syncs = new ArrayList<Flowable<Integer>>();
+        List<Flowable<Integer>> asyncs = new ArrayList<Flowable<Integer>>();
+        for (int i = 0; i < sources; i++) {
+            syncs.add(Flowable.fromArray(array));
+            asyncs.add(Flowable.fromArray(array).subscribeOn(Schedulers.computation()));
+        }
+
+        Function<Object[], Object> combiner = new Function<Object[], Object>() {
+            @Override
+            public Object apply(Object[] a) throws Exception {
+                return a[0];
+            }
+        };
+
+        zipLatestSync = Flowables.zipLatest(syncs, combiner);
+
+        zipLatestAsync = Flowables.zipLatest(asyncs, combiner, Schedulers.single());
+
+        combineLatestSync = Flowable.combineLatest(syncs, combiner);
+
+        combineLatestAsync = Flowable.combineLatest(asyncs, combiner).observeOn(Schedulers.single());
+
+        zipLatestSampledAsync = Flowables.zipLatestSampled(asyncs, new BiFunction<Object[], BitSet, Object>() {
+            @Override
+            public Object apply(Object[] a, BitSet changed) throws Exception {
+                return a[changed.nextSetBit(0)];
+            }
+        }, 0, TimeUnit.MILLISECONDS, Schedulers.single());
+    }
+
+    @Benchmark
+    public void zipLatestSync(Blackhole bh) {
+        zipLatestSync.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void zipLatestAsync(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        zipLatestAsync.subscribe(c);
+        c.await(count);
+    }
+
+    @Benchmark
+    public void combineLatestSync(Blackhole bh) {
+        combineLatestSync.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void combineLatestAsync(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        combineLatestAsync.subscribe(c);
+        c.await(count);
+    }
+
+    @Benchmark
+    public void zipLatestSampledAsync(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        zipLatestSampledAsync.subscribe(c);
+        c.await(count);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.async;
+
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.Scheduler;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Collects tasks submitted within a time window and runs them back to back
+ * in a single task on a Scheduler.
+ * <p>
+ * The first task submitted into an empty batcher schedules a run after the
+ * maximum delay; reaching the maximum batch size schedules an immediate run.
+ * A run executes at most the maximum batch size of tasks and reschedules
+ * itself if more are waiting.
+ */
+final class AsyncBatcher extends AtomicLong implements Runnable {
+
+    private static final long serialVersionUID = -2398214584302497532L;
+
+    final Scheduler scheduler;
+
+    final int maxBatch;
+
+    final long maxDelay;
+
+    final TimeUnit unit;
+
+    final Queue<Runnable> queue;
+
+    AsyncBatcher(Scheduler scheduler, int maxBatch, long maxDelay, TimeUnit unit) {
+        this.scheduler = scheduler;
+        this.maxBatch = maxBatch;
+        this.maxDelay = maxDelay;
+        this.unit = unit;
+        this.queue = new ConcurrentLinkedQueue<Runnable>();
+    }
+
+    void submit(Runnable task) {
+        queue.offer(task);
+        long n = incrementAndGet();
+        if (n == 1L) {
+            if (maxDelay <= 0L || maxBatch == 1) {
+                scheduler.scheduleDirect(this);
+            } else {
+                scheduler.scheduleDirect(this, maxDelay, unit);
+            }
+        } else if (n == maxBatch) {
+            scheduler.scheduleDirect(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        Queue<Runnable> q = queue;
+        int limit = maxBatch;
+        int taken = 0;
+
+        while (taken != limit) {
+            Runnable r = q.poll();
+            if (r == null) {
+                break;
+            }
+            taken++;
+            try {
+                r.run();
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                RxJavaPlugins.onError(ex);
+            }
+        }
+
+        if (taken != 0 && addAndGet(-taken) > 0L) {
+            // whatever arrived meanwhile has waited long enough
+            scheduler.scheduleDirect(this);
+        }
+    }
+}
@@ -24,7 +24,7 @@ import io.reactivex.disposables.Disposable;
 import io.reactivex.exceptions.*;
 import io.reactivex.functions.*;
 import io.reactivex.internal.disposables.SequentialDisposable;
-import io.reactivex.internal.functions.Functions;
+import io.reactivex.internal.functions.*;
 import io.reactivex.internal.observers.LambdaObserver;
 import io.reactivex.plugins.RxJavaPlugins;
 import io.reactivex.schedulers.Schedulers;
@@ -1350,10 +1350,50 @@ public final class AsyncObservable {
         };
     }
 
+    /**
+     * Convert a synchronous function call into an asynchronous function call through an Observable
+     * where calls submitted close in time are executed together, back to back, in a single task on the given
+     * Scheduler.
+     * <p>
+     * Each subscription to an Observable returned by the function submits a call. The first call into
+     * an idle batch is executed after {@code maxDelay}, together with any call submitted in the meantime, or
+     * sooner if {@code maxBatch} calls have been submitted. This trades latency for fewer scheduled tasks
+     * when the function is cheap and called at a high rate.
+     * <dl>
+     *  <dt><b>Scheduler:</b></dt>
+     *  <dd>You specify the {@link Scheduler} {@code toAsyncBatched} works on.</dd>
+     * </dl>
+     * @param <T1> first parameter type of the function
+     * @param <R> the result type
+     * @param func the function to convert
+     * @param scheduler the Scheduler used to call the {@code func}
+     * @param maxBatch the maximum number of calls executed in one task, positive
+     * @param maxDelay the maximum time a call waits for others to join its batch, non-positive
+     * value means calls are not delayed but still executed together if they pile up
+     * @param unit the time unit of {@code maxDelay}
+     * @return a function that returns an Observable that executes the {@code func} and emits its returned value
+     * @since 0.17.9
+     */
+    public static <T1, R> PlainFunction<T1, Observable<R>> toAsyncBatched(final Function<? super T1, ? extends R> func,
+            Scheduler scheduler, int maxBatch, long maxDelay, TimeUnit unit) {
+        ObjectHelper.requireNonNull(func, "func is null");
+        ObjectHelper.requireNonNull(scheduler, "scheduler is null");
+        ObjectHelper.verifyPositive(maxBatch, "maxBatch");
+        ObjectHelper.requireNonNull(unit, "unit is null");
+        final AsyncBatcher batcher = new AsyncBatcher(scheduler, maxBatch, maxDelay, unit);
+        return new PlainFunction<T1, Observable<R>>() {
+            @Override
+            public Observable<R> apply(T1 t1) {
+                return RxJavaPlugins.onAssembly(new ObservableBatchedCall<T1, R>(batcher, func, t1));
+            }
+        };
+    }
+
     /**
      * Invokes the asynchronous function immediately, surfacing the result through an Observable.
      * <p>
-     * <em>Important note</em> subscribing to the resulting Observable blocks until the future completes.
+     * The future is not awaited blockingly; its result is signalled from the thread completing it
+     * or from a shared polling thread, see {@link hu.akarnokd.rxjava2.util.FutureBridge}.
      * <p>
      * <img width="640" src="https://raw.github.com/wiki/ReactiveX/RxJava/images/rx-operators/startFuture.png" alt="">
      *
@@ -1368,12 +1408,8 @@ public final class AsyncObservable {
      * @see <a href="https://github.com/ReactiveX/RxJava/wiki/Async-Operators#wiki-startfuture">RxJava Wiki: startFuture()</a>
      */
     public static <T> Observable<T> startFuture(final Callable<? extends Future<? extends T>> functionAsync) {
-        return RxJavaPlugins.onAssembly(new ObservableFromCallableNull<T>(new Callable<T>() {
-            @Override
-            public T call() throws Exception {
-                return functionAsync.call().get();
-            }
-        }));
+        ObjectHelper.requireNonNull(functionAsync, "functionAsync is null");
+        return RxJavaPlugins.onAssembly(new ObservableStartFuture<T>(functionAsync, false));
     }
 
     /**
@@ -1388,7 +1424,7 @@ public final class AsyncObservable {
      * </dl>
      * @param <T> the result type
      * @param functionAsync the asynchronous function to run
-     * @param scheduler the Scheduler where the completion of the Future is awaited
+     * @param scheduler the Scheduler where the asynchronous function is invoked
      * @return an Observable that surfaces the result of the future
      * @see <a href="https://github.com/ReactiveX/RxJava/wiki/Async-Operators#wiki-startfuture">RxJava Wiki: startFuture()</a>
      */
@@ -1401,7 +1437,7 @@ public final class AsyncObservable {
      * Returns an Observable that starts the specified asynchronous factory function whenever a new subscriber
      * subscribes.
      * <p>
-     * <em>Important note</em> subscribing to the resulting Observable blocks until the future completes.
+     * The future is not awaited blockingly, see {@link hu.akarnokd.rxjava2.util.FutureBridge}.
      * <p>
      * <img width="640" src="https://raw.github.com/wiki/ReactiveX/RxJava/images/rx-operators/deferFuture.png" alt="">
      *
@@ -1431,19 +1467,17 @@ public final class AsyncObservable {
      * </dl>
      * @param <T> the result type
      * @param publisherFactoryAsync the asynchronous function to start for each observer
-     * @param scheduler the Scheduler where the completion of the Future is awaited
+     * @param scheduler the Scheduler where the asynchronous factory function is invoked
      * @return the Observable emitting items produced by the asynchronous observer produced by the factory
      * @see <a href="https://github.com/ReactiveX/RxJava/wiki/Async-Operators#wiki-deferfuture">RxJava Wiki: deferFuture()</a>
      */
     public static <T> Observable<T> deferFuture(
-            final Callable<? extends Future<? extends ObservableSource<? extends T>>> publisherFactoryAsync,
+            Callable<? extends Future<? extends ObservableSource<? extends T>>> publisherFactoryAsync,
             Scheduler scheduler) {
-        return Observable.defer(new Callable<ObservableSource<? extends T>>() {
-            @Override
-            public ObservableSource<? extends T> call() throws Exception {
-                return publisherFactoryAsync.call().get();
-            }
-        }).subscribeOn(scheduler);
+        ObjectHelper.requireNonNull(publisherFactoryAsync, "publisherFactoryAsync is null");
+        return RxJavaPlugins.onAssembly(new ObservableStartFuture<ObservableSource<? extends T>>(publisherFactoryAsync, true))
+                .concatMap(Functions.<ObservableSource<? extends T>>identity(), 1)
+                .subscribeOn(scheduler);
     }
 
     /**
@@ -1601,7 +1635,8 @@ public final class AsyncObservable {
      * @param onError the action to call when an exception is emitted
      * @param onComplete the action to call when the source completes
      * @param scheduler the Scheduler where the task will await the termination of the for-each
-     * @return the Future representing the entire for-each operation
+     * @return the Future representing the entire for-each operation, a {@link FutureCompletable}
+     * whose completion can be observed via callbacks; cancelling it cancels the for-each
      * @see <a href="https://github.com/ReactiveX/RxJava/wiki/Async-Operators#wiki-foreachfuture">RxJava Wiki: forEachFuture()</a>
      */
     public static <T> Future<Object> forEachFuture(
@@ -1611,8 +1646,7 @@ public final class AsyncObservable {
             final Action onComplete,
             Scheduler scheduler) {
 
-        SequentialDisposable d = new SequentialDisposable();
-        final FutureCompletable<Object> f = new FutureCompletable<Object>(d);
+        final FutureCompletable<Object> f = new FutureCompletable<Object>();
 
         LambdaObserver<T> ls = new LambdaObserver<T>(onNext,
         new Consumer<Throwable>() {
@@ -1644,7 +1678,7 @@ public final class AsyncObservable {
             public void accept(Disposable s) throws Exception {
             }
         });
-        d.lazySet(ls);
+        f.onCancel = ls;
 
         // FIXME next RxJava 2.x release will allow using ObservableSubscribeOn with ObservableSource
         Observable.wrap(source).subscribeOn(scheduler).subscribe(ls);
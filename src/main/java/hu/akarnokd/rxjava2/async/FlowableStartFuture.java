@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.async;
+
+import java.util.concurrent.*;
+
+import org.reactivestreams.Subscriber;
+
+import hu.akarnokd.rxjava2.util.FutureBridge;
+import hu.akarnokd.rxjava2.util.FutureBridge.FutureCallback;
+import io.reactivex.Flowable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.internal.disposables.SequentialDisposable;
+import io.reactivex.internal.subscriptions.DeferredScalarSubscription;
+
+/**
+ * Calls a function returning a Future for each subscriber and signals the
+ * result of the Future once it completes, without blocking a thread while waiting.
+ *
+ * @param <T> the value type
+ */
+final class FlowableStartFuture<T> extends Flowable<T> {
+
+    final Callable<? extends Future<? extends T>> functionAsync;
+
+    final boolean nullIsError;
+
+    FlowableStartFuture(Callable<? extends Future<? extends T>> functionAsync, boolean nullIsError) {
+        this.functionAsync = functionAsync;
+        this.nullIsError = nullIsError;
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super T> s) {
+        StartFutureSubscription<T> parent = new StartFutureSubscription<T>(s, nullIsError);
+        s.onSubscribe(parent);
+
+        if (!parent.isCancelled()) {
+            Future<? extends T> f;
+
+            try {
+                f = functionAsync.call();
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                if (!parent.isCancelled()) {
+                    s.onError(ex);
+                }
+                return;
+            }
+
+            if (f == null) {
+                s.onError(new NullPointerException("The functionAsync returned a null Future"));
+                return;
+            }
+
+            parent.task.replace(FutureBridge.whenDone(f, 0L, null, parent));
+        }
+    }
+
+    static final class StartFutureSubscription<T> extends DeferredScalarSubscription<T>
+    implements FutureCallback<T> {
+
+        private static final long serialVersionUID = 8244766316549826427L;
+
+        final boolean nullIsError;
+
+        final SequentialDisposable task;
+
+        StartFutureSubscription(Subscriber<? super T> actual, boolean nullIsError) {
+            super(actual);
+            this.nullIsError = nullIsError;
+            this.task = new SequentialDisposable();
+        }
+
+        @Override
+        public void onSuccess(T value) {
+            if (value != null) {
+                complete(value);
+            } else if (nullIsError) {
+                actual.onError(new NullPointerException("The Future returned a null value"));
+            } else {
+                actual.onComplete();
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            actual.onError(error);
+        }
+
+        @Override
+        public void cancel() {
+            super.cancel();
+            task.dispose();
+        }
+    }
+}
@@ -17,47 +17,60 @@
 package hu.akarnokd.rxjava2.async;
 
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 
+import hu.akarnokd.rxjava2.util.FutureBridge.FutureCallback;
 import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
 import io.reactivex.internal.functions.ObjectHelper;
 import io.reactivex.plugins.RxJavaPlugins;
 
 /**
  * A Future implementation that can be terminated externally.
+ * <p>
+ * The whole state is kept in a single volatile field: null while active,
+ * a stack of waiting threads and listeners while active and observed, or one
+ * of the terminal outcomes. Threads calling {@link #get()} park via {@link LockSupport}
+ * and listeners registered via {@link #addListener(Runnable, Executor)} or
+ * {@link #whenDone(FutureCallback)} are called when the future terminates,
+ * so no blocking primitive is allocated unless someone actually waits.
  *
  * @param <T> the returned value type
+ * @since 0.17.9
  */
-final class FutureCompletable<T> extends CountDownLatch implements Future<T> {
+public final class FutureCompletable<T> implements Future<T> {
 
-    /** The future is still going on. */
-    static final int STATE_ACTIVE = 0;
-
-    /** The future has been completed normally. */
-    static final int STATE_DONE = 1;
-
-    /** The future has been completed exceptionally. */
-    static final int STATE_ERROR = 2;
+    /** The future has been completed normally with null. */
+    static final Outcome DONE_NULL = new Outcome(null, null);
 
     /** The future has been cancelled. */
-    static final int STATE_CANCELLED = 3;
-
-    final AtomicInteger once;
+    static final Outcome CANCELLED = new Outcome(null, null);
 
-    Disposable onCancel;
+    @SuppressWarnings("rawtypes")
+    static final AtomicReferenceFieldUpdater<FutureCompletable, Object> STATE =
+            AtomicReferenceFieldUpdater.newUpdater(FutureCompletable.class, Object.class, "state");
 
-    T value;
+    /** Null, a Node stack or an Outcome. */
+    volatile Object state;
 
-    Throwable error;
+    /** Set after construction by the operators creating this future, hence volatile. */
+    volatile Disposable onCancel;
 
-    FutureCompletable() {
+    /**
+     * Constructs an active FutureCompletable.
+     */
+    public FutureCompletable() {
         this(null);
     }
 
-    FutureCompletable(Disposable onCancel) {
-        super(1);
+    /**
+     * Constructs an active FutureCompletable which disposes the given
+     * Disposable when cancelled.
+     * @param onCancel the Disposable to dispose on cancellation, may be null
+     */
+    public FutureCompletable(Disposable onCancel) {
         this.onCancel = onCancel;
-        this.once = new AtomicInteger();
     }
 
     /**
@@ -66,10 +79,8 @@ final class FutureCompletable<T> extends CountDownLatch implements Future<T> {
      * @param value the value to complete
      */
     public void complete(T value) {
-        if (once.compareAndSet(0, STATE_DONE)) {
-            this.onCancel = null;
-            this.value = value;
-            countDown();
+        if (terminate(value != null ? new Outcome(value, null) : DONE_NULL)) {
+            onCancel = null;
         }
     }
 
@@ -80,10 +91,8 @@ final class FutureCompletable<T> extends CountDownLatch implements Future<T> {
      */
     public void completeExceptionally(Throwable error) {
         ObjectHelper.requireNonNull(error, "error is null");
-        if (once.compareAndSet(0, STATE_ERROR)) {
-            this.onCancel = null;
-            this.error = error;
-            countDown();
+        if (terminate(new Outcome(null, error))) {
+            onCancel = null;
         } else {
             RxJavaPlugins.onError(error);
         }
@@ -91,9 +100,7 @@ final class FutureCompletable<T> extends CountDownLatch implements Future<T> {
 
     @Override
     public boolean cancel(boolean mayInterruptIfRunning) {
-        if (once.compareAndSet(0, STATE_CANCELLED)) {
-            this.error = new CancellationException();
-            countDown();
+        if (terminate(CANCELLED)) {
             Disposable d = this.onCancel;
             this.onCancel = null;
             if (d != null) {
@@ -106,41 +113,252 @@ final class FutureCompletable<T> extends CountDownLatch implements Future<T> {
 
     @Override
     public boolean isCancelled() {
-        return once.get() == STATE_CANCELLED;
+        return state == CANCELLED;
     }
 
     @Override
     public boolean isDone() {
-        return getCount() == 0;
+        return state instanceof Outcome;
     }
 
     @Override
     public T get() throws InterruptedException, ExecutionException {
-        if (getCount() != 0) {
-            await();
-        }
-
-        Throwable ex = error;
-        if (ex != null) {
-            throw new ExecutionException(ex);
+        Object o = state;
+        if (!(o instanceof Outcome)) {
+            o = await(0L);
         }
-
-        return value;
+        return report((Outcome)o);
     }
 
     @Override
     public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-        if (getCount() != 0) {
-            if (!await(timeout, unit)) {
+        Object o = state;
+        if (!(o instanceof Outcome)) {
+            o = await(Math.max(1L, unit.toNanos(timeout)));
+            if (o == null) {
                 throw new TimeoutException();
             }
         }
+        return report((Outcome)o);
+    }
+
+    /**
+     * Registers a listener to be executed on the given executor once this future
+     * terminates or executes it immediately if this future has already terminated.
+     * @param listener the listener to execute
+     * @param executor the executor to execute the listener on
+     */
+    public void addListener(Runnable listener, Executor executor) {
+        ObjectHelper.requireNonNull(listener, "listener is null");
+        ObjectHelper.requireNonNull(executor, "executor is null");
+        Node n = new Node(listener, executor);
+        if (!push(n)) {
+            n.signal();
+        }
+    }
+
+    /**
+     * Registers a callback to be called with the outcome of this future
+     * on the thread terminating it or on the current thread if this
+     * future has already terminated.
+     * @param callback the callback to call
+     */
+    public void whenDone(final FutureCallback<? super T> callback) {
+        ObjectHelper.requireNonNull(callback, "callback is null");
+        Node n = new Node(new Runnable() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public void run() {
+                Outcome o = (Outcome)state;
+                if (o == CANCELLED) {
+                    callback.onError(new CancellationException());
+                } else if (o.error != null) {
+                    callback.onError(o.error);
+                } else {
+                    callback.onSuccess((T)o.value);
+                }
+            }
+        }, null);
+        if (!push(n)) {
+            n.signal();
+        }
+    }
 
-        Throwable ex = error;
+    boolean push(Node n) {
+        for (;;) {
+            Object o = state;
+            if (o instanceof Outcome) {
+                return false;
+            }
+            n.next = (Node)o;
+            if (STATE.compareAndSet(this, o, n)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Abandons the waiter node of a thread that stopped waiting.
+     * <p>
+     * Clears the node and sweeps all abandoned nodes out of the stack; a sweep
+     * restarts from the head if it finds its predecessor abandoned concurrently.
+     * Nodes still reachable by a concurrent {@link #terminate(Outcome)} are
+     * skipped by it.
+     * @param n the node to abandon
+     */
+    void abandon(Node n) {
+        n.item = null;
+        retry:
+        for (;;) {
+            Object o = state;
+            if (!(o instanceof Node)) {
+                return;
+            }
+            Node pred = null;
+            Node q = (Node)o;
+            while (q != null) {
+                Node s = q.next;
+                if (q.item != null) {
+                    pred = q;
+                } else if (pred != null) {
+                    pred.next = s;
+                    if (pred.item == null) {
+                        continue retry;
+                    }
+                } else if (!STATE.compareAndSet(this, q, s)) {
+                    continue retry;
+                }
+                q = s;
+            }
+            return;
+        }
+    }
+
+    boolean terminate(Outcome outcome) {
+        Object o;
+        for (;;) {
+            o = state;
+            if (o instanceof Outcome) {
+                return false;
+            }
+            if (STATE.compareAndSet(this, o, outcome)) {
+                break;
+            }
+        }
+        // the stack is in reverse registration order, link it backwards so listeners run in order;
+        // next is left intact as concurrent abandon() calls may still be sweeping it
+        Node n = (Node)o;
+        Node last = null;
+        while (n != null) {
+            n.prev = last;
+            last = n;
+            n = n.next;
+        }
+        while (last != null) {
+            Node prev = last.prev;
+            last.prev = null;
+            last.signal();
+            last = prev;
+        }
+        return true;
+    }
+
+    /**
+     * Parks the current thread until this future terminates or the timeout elapses.
+     * @param timeoutNanos the timeout in nanoseconds, zero means no timeout
+     * @return the Outcome or null if the wait timed out
+     * @throws InterruptedException if the current thread was interrupted while waiting
+     */
+    Object await(long timeoutNanos) throws InterruptedException {
+        Node n = new Node(Thread.currentThread(), null);
+        if (!push(n)) {
+            return state;
+        }
+        long deadline = timeoutNanos != 0L ? System.nanoTime() + timeoutNanos : 0L;
+        for (;;) {
+            Object o = state;
+            if (o instanceof Outcome) {
+                return o;
+            }
+            if (Thread.interrupted()) {
+                abandon(n);
+                throw new InterruptedException();
+            }
+            if (deadline != 0L) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0L) {
+                    abandon(n);
+                    o = state;
+                    return o instanceof Outcome ? o : null;
+                }
+                LockSupport.parkNanos(this, remaining);
+            } else {
+                LockSupport.park(this);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    T report(Outcome o) throws ExecutionException {
+        if (o == CANCELLED) {
+            throw new CancellationException();
+        }
+        Throwable ex = o.error;
         if (ex != null) {
             throw new ExecutionException(ex);
         }
+        return (T)o.value;
+    }
+
+    /** A terminal state of the future. */
+    static final class Outcome {
+        final Object value;
+
+        final Throwable error;
+
+        Outcome(Object value, Throwable error) {
+            this.value = value;
+            this.error = error;
+        }
+    }
+
+    /** A waiting thread or a listener with an optional executor. */
+    static final class Node {
+        /** The waiting Thread, the Runnable listener or null if abandoned. */
+        volatile Object item;
 
-        return value;
+        final Executor executor;
+
+        volatile Node next;
+
+        /** The previous node in the stack, used by terminate() only. */
+        Node prev;
+
+        Node(Object item, Executor executor) {
+            this.item = item;
+            this.executor = executor;
+        }
+
+        void signal() {
+            Object o = item;
+            if (o == null) {
+                return;
+            }
+            if (o instanceof Thread) {
+                LockSupport.unpark((Thread)o);
+                return;
+            }
+            Runnable r = (Runnable)o;
+            try {
+                if (executor != null) {
+                    executor.execute(r);
+                } else {
+                    r.run();
+                }
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                RxJavaPlugins.onError(ex);
+            }
+        }
     }
 }
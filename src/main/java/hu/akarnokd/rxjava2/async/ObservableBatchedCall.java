@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.async;
+
+import io.reactivex.*;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.Function;
+import io.reactivex.internal.observers.DeferredScalarDisposable;
+
+/**
+ * Submits the function call with the given value into an {@link AsyncBatcher} for each
+ * subscriber and signals the function's result.
+ *
+ * @param <T> the input value type
+ * @param <R> the result value type
+ */
+final class ObservableBatchedCall<T, R> extends Observable<R> {
+
+    final AsyncBatcher batcher;
+
+    final Function<? super T, ? extends R> func;
+
+    final T value;
+
+    ObservableBatchedCall(AsyncBatcher batcher, Function<? super T, ? extends R> func, T value) {
+        this.batcher = batcher;
+        this.func = func;
+        this.value = value;
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super R> s) {
+        BatchedCallDisposable<T, R> parent = new BatchedCallDisposable<T, R>(s, func, value);
+        s.onSubscribe(parent);
+
+        if (!parent.isDisposed()) {
+            batcher.submit(parent);
+        }
+    }
+
+    static final class BatchedCallDisposable<T, R> extends DeferredScalarDisposable<R>
+    implements Runnable {
+
+        private static final long serialVersionUID = 7416325440327457339L;
+
+        final Function<? super T, ? extends R> func;
+
+        final T input;
+
+        BatchedCallDisposable(Observer<? super R> actual, Function<? super T, ? extends R> func, T input) {
+            super(actual);
+            this.func = func;
+            this.input = input;
+        }
+
+        @Override
+        public void run() {
+            if (isDisposed()) {
+                return;
+            }
+            R v;
+            try {
+                v = func.apply(input);
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                error(ex);
+                return;
+            }
+            if (v == null) {
+                error(new NullPointerException("The func returned a null value"));
+                return;
+            }
+            complete(v);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.async;
+
+import java.util.concurrent.*;
+
+import hu.akarnokd.rxjava2.util.FutureBridge;
+import hu.akarnokd.rxjava2.util.FutureBridge.FutureCallback;
+import io.reactivex.*;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.internal.disposables.SequentialDisposable;
+import io.reactivex.internal.observers.DeferredScalarDisposable;
+
+/**
+ * Calls a function returning a Future for each subscriber and signals the
+ * result of the Future once it completes, without blocking a thread while waiting.
+ *
+ * @param <T> the value type
+ */
+final class ObservableStartFuture<T> extends Observable<T> {
+
+    final Callable<? extends Future<? extends T>> functionAsync;
+
+    final boolean nullIsError;
+
+    ObservableStartFuture(Callable<? extends Future<? extends T>> functionAsync, boolean nullIsError) {
+        this.functionAsync = functionAsync;
+        this.nullIsError = nullIsError;
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super T> s) {
+        StartFutureDisposable<T> parent = new StartFutureDisposable<T>(s, nullIsError);
+        s.onSubscribe(parent);
+
+        if (!parent.isDisposed()) {
+            Future<? extends T> f;
+
+            try {
+                f = functionAsync.call();
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                if (!parent.isDisposed()) {
+                    s.onError(ex);
+                }
+                return;
+            }
+
+            if (f == null) {
+                s.onError(new NullPointerException("The functionAsync returned a null Future"));
+                return;
+            }
+
+            parent.task.replace(FutureBridge.whenDone(f, 0L, null, parent));
+        }
+    }
+
+    static final class StartFutureDisposable<T> extends DeferredScalarDisposable<T>
+    implements FutureCallback<T> {
+
+        private static final long serialVersionUID = -3000263806542950286L;
+
+        final boolean nullIsError;
+
+        final SequentialDisposable task;
+
+        StartFutureDisposable(Observer<? super T> actual, boolean nullIsError) {
+            super(actual);
+            this.nullIsError = nullIsError;
+            this.task = new SequentialDisposable();
+        }
+
+        @Override
+        public void onSuccess(T value) {
+            if (value != null) {
+                complete(value);
+            } else if (nullIsError) {
+                error(new NullPointerException("The Future returned a null value"));
+            } else {
+                complete();
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            error(error);
+        }
+
+        @Override
+        public void dispose() {
+            super.dispose();
+            task.dispose();
+        }
+    }
+}
@@ -171,8 +171,10 @@ public abstract class Nono implements Publisher<Void> {
     }
 
     /**
-     * Blockingly waits indefinitely for the given Future to terminate,
+     * Waits indefinitely for the given Future to terminate,
      * relaying any error the Future signals.
+     * <p>
+     * No thread is blocked while waiting, see {@link hu.akarnokd.rxjava2.util.FutureBridge}.
      * @param future the future to await
      * @return the new Nono instance
      */
@@ -182,8 +184,10 @@ public abstract class Nono implements Publisher<Void> {
     }
 
     /**
-     * Blockingly waits the given Future for the given timeout to terminate,
+     * Waits the given Future for the given timeout to terminate,
      * relaying any error the Future signals.
+     * <p>
+     * No thread is blocked while waiting, see {@link hu.akarnokd.rxjava2.util.FutureBridge}.
      * @param future the future to await
      * @param timeout the timeout value to wait for termination
      * @param unit the unit for the timeout parameter
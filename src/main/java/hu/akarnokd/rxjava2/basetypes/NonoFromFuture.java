@@ -20,11 +20,14 @@ import java.util.concurrent.*;
 
 import org.reactivestreams.Subscriber;
 
-import io.reactivex.exceptions.Exceptions;
-import io.reactivex.internal.subscriptions.EmptySubscription;
+import hu.akarnokd.rxjava2.util.FutureBridge;
+import hu.akarnokd.rxjava2.util.FutureBridge.FutureCallback;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.disposables.DisposableHelper;
 
 /**
- * Block until the Future completes or times out.
+ * Signal onComplete once the Future completes or onError if it fails
+ * or times out, without blocking a thread while waiting.
  */
 final class NonoFromFuture extends Nono implements Callable<Void> {
 
@@ -42,23 +45,10 @@ final class NonoFromFuture extends Nono implements Callable<Void> {
 
     @Override
     protected void subscribeActual(Subscriber<? super Void> s) {
-        s.onSubscribe(EmptySubscription.INSTANCE);
-        try {
-            if (timeout <= 0L) {
-                future.get();
-            } else {
-                future.get(timeout, unit);
-            }
-        } catch (ExecutionException ex) {
-            s.onError(ex.getCause());
-            return;
-        } catch (Throwable ex) {
-            Exceptions.throwIfFatal(ex);
-            s.onError(ex);
-            return;
-        }
+        FromFutureSubscription parent = new FromFutureSubscription(s);
+        s.onSubscribe(parent);
 
-        s.onComplete();
+        DisposableHelper.replace(parent, FutureBridge.whenDone(future, timeout, unit, parent));
     }
 
     @Override
@@ -70,4 +60,56 @@ final class NonoFromFuture extends Nono implements Callable<Void> {
         }
         return null;
     }
+
+    static final class FromFutureSubscription extends BasicRefQueueSubscription<Void, Disposable>
+    implements FutureCallback<Object> {
+
+        private static final long serialVersionUID = -1466431462517620462L;
+
+        final Subscriber<? super Void> actual;
+
+        FromFutureSubscription(Subscriber<? super Void> actual) {
+            this.actual = actual;
+        }
+
+        @Override
+        public void onSuccess(Object value) {
+            actual.onComplete();
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            actual.onError(error);
+        }
+
+        @Override
+        public int requestFusion(int mode) {
+            return mode & ASYNC;
+        }
+
+        @Override
+        public Void poll() throws Exception {
+            return null;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            // no-op
+        }
+
+        @Override
+        public void request(long n) {
+            // no-op
+        }
+
+        @Override
+        public void cancel() {
+            DisposableHelper.dispose(this);
+        }
+    }
 }
@@ -176,9 +176,12 @@ public abstract class Perhaps<T> implements Publisher<T> {
     }
 
     /**
-     * When subscribed, the future is awaited blockingly and
+     * When subscribed, the future is awaited
      * indefinitely for its result value; null result
-     * will yield a NoSuchElementException.
+     * will complete the Perhaps empty.
+     * <p>
+     * The result is signalled from the thread completing the Future or from a shared
+     * polling thread, see {@link hu.akarnokd.rxjava2.util.FutureBridge}.
      * @param <T> the value type
      * @param future the future to await
      * @return the new Perhaps instance
@@ -189,10 +192,13 @@ public abstract class Perhaps<T> implements Publisher<T> {
     }
 
     /**
-     * When subscribed, the future is awaited blockingly for
+     * When subscribed, the future is awaited for
      * a given amount of time for its result value; null result
-     * will yield a NoSuchElementException and a timeout
+     * will complete the Perhaps empty and a timeout
      * will yield a TimeoutException.
+     * <p>
+     * The result is signalled from the thread completing the Future or from a shared
+     * polling thread, see {@link hu.akarnokd.rxjava2.util.FutureBridge}.
      * @param <T> the value type
      * @param future the future to await
      * @param timeout the timeout value
@@ -193,9 +193,13 @@ public abstract class Solo<T> implements Publisher<T> {
     }
 
     /**
-     * When subscribed, the future is awaited blockingly and
+     * When subscribed, the future is awaited
      * indefinitely for its result value; null result
      * will yield a NoSuchElementException.
+     * <p>
+     * The Future is not awaited blockingly: a completion callback is registered
+     * if the Future supports it or its state is checked periodically on a shared
+     * thread, see {@link hu.akarnokd.rxjava2.util.FutureBridge}.
      * @param <T> the value type
      * @param future the future to await
      * @return the new Solo instance
@@ -208,10 +212,14 @@ public abstract class Solo<T> implements Publisher<T> {
     }
 
     /**
-     * When subscribed, the future is awaited blockingly for
+     * When subscribed, the future is awaited for
      * a given amount of time for its result value; null result
      * will yield a NoSuchElementException and a timeout
      * will yield a TimeoutException.
+     * <p>
+     * The Future is not awaited blockingly: a completion callback is registered
+     * if the Future supports it or its state is checked periodically on a shared
+     * thread, see {@link hu.akarnokd.rxjava2.util.FutureBridge}.
      * @param <T> the value type
      * @param future the future to await
      * @param timeout the timeout value
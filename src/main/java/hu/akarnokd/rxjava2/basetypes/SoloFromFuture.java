@@ -21,10 +21,14 @@ import java.util.concurrent.*;
 
 import org.reactivestreams.Subscriber;
 
+import hu.akarnokd.rxjava2.util.FutureBridge;
+import hu.akarnokd.rxjava2.util.FutureBridge.FutureCallback;
+import io.reactivex.internal.disposables.SequentialDisposable;
 import io.reactivex.internal.subscriptions.DeferredScalarSubscription;
 
 /**
- * Await a Future's result.
+ * Signals the result of a Future once it completes, without blocking
+ * a thread while waiting.
  *
  * @param <T> the value type
  *
@@ -46,33 +50,42 @@ final class SoloFromFuture<T> extends Solo<T> {
 
     @Override
     protected void subscribeActual(Subscriber<? super T> s) {
-        DeferredScalarSubscription<T> dss = new DeferredScalarSubscription<T>(s);
-        s.onSubscribe(dss);
+        FromFutureSubscriber<T> parent = new FromFutureSubscriber<T>(s);
+        s.onSubscribe(parent);
 
-        T v;
+        parent.task.replace(FutureBridge.whenDone(future, timeout, unit, parent));
+    }
+
+    static final class FromFutureSubscriber<T> extends DeferredScalarSubscription<T>
+    implements FutureCallback<T> {
+
+        private static final long serialVersionUID = -4170845106011349283L;
 
-        try {
-            if (timeout <= 0L) {
-                v = future.get();
+        final SequentialDisposable task;
+
+        FromFutureSubscriber(Subscriber<? super T> actual) {
+            super(actual);
+            this.task = new SequentialDisposable();
+        }
+
+        @Override
+        public void onSuccess(T value) {
+            if (value != null) {
+                complete(value);
             } else {
-                v = future.get(timeout, unit);
+                actual.onError(new NoSuchElementException());
             }
-        } catch (InterruptedException ex) {
-            s.onError(ex);
-            return;
-        } catch (ExecutionException ex) {
-            s.onError(ex.getCause());
-            return;
-        } catch (TimeoutException ex) {
-            s.onError(ex);
-            return;
         }
 
-        if (v != null) {
-            dss.complete(v);
-        } else {
-            s.onError(new NoSuchElementException());
+        @Override
+        public void onError(Throwable error) {
+            actual.onError(error);
         }
-    }
 
+        @Override
+        public void cancel() {
+            super.cancel();
+            task.dispose();
+        }
+    }
 }
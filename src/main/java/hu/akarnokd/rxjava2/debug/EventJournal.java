@@ -0,0 +1,294 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.debug;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.internal.functions.ObjectHelper;
+
+/**
+ * Fixed-size ring of compact binary event records backed by a direct or
+ * memory-mapped {@link ByteBuffer}.
+ * <p>
+ * Each record has the layout (big endian):
+ * <pre>
+ * long  sequence + 1 (0 means the slot is empty or being written)
+ * long  System.nanoTime()
+ * long  thread id
+ * long  value
+ * int   call-site id
+ * int   event type
+ * </pre>
+ * The buffer starts with a {@link #HEADER_SIZE} bytes long header holding the magic number,
+ * the format version, the capacity and the record size.
+ * <p>
+ * Writers claim a slot via an atomic increment and write the record with absolute puts,
+ * thus recording is lock-free and doesn't allocate. When the ring is full, the oldest
+ * records are overwritten.
+ * <p>
+ * The sequence word is written last, but the puts into a {@code ByteBuffer} have no
+ * ordering guarantees among each other. Therefore, when reading a live journal, a record
+ * whose slot is being overwritten by a writer that lapped the ring may be torn:
+ * {@link EventJournalReader} drops records whose sequence word changes while being read
+ * or doesn't belong to the slot, but it can't detect every torn record. Journals read after
+ * the writers stopped, such as the file of a crashed process, are not affected.
+ * <p>
+ * When backed by a file (see {@link #map(File, int)}), the call-site descriptions are appended
+ * to a sidecar file named {@code <file>.sites} so that {@link EventJournalReader} can
+ * decode the journal after the process crashed.
+ * @since 0.17.9
+ */
+public final class EventJournal {
+
+    /** The file format identifier. */
+    public static final int MAGIC = 0x52784A6C;
+
+    /** The file format version. */
+    public static final int VERSION = 1;
+
+    /** The size of the journal header in bytes. */
+    public static final int HEADER_SIZE = 16;
+
+    /** The size of one record in bytes. */
+    public static final int RECORD_SIZE = 40;
+
+    /** A Subscriber or Observer was subscribed. */
+    public static final int SUBSCRIBE = 1;
+
+    /** A request() call, the value is the amount requested. */
+    public static final int REQUEST = 2;
+
+    /** An onNext signal, the value is the number of items received so far. */
+    public static final int ON_NEXT = 3;
+
+    /** An onError signal, the value is the identity hash code of the Throwable. */
+    public static final int ON_ERROR = 4;
+
+    /** An onComplete signal, the value is the number of items received. */
+    public static final int ON_COMPLETE = 5;
+
+    /** A cancel() or dispose() call, the value is the number of items received. */
+    public static final int CANCEL = 6;
+
+    final ByteBuffer buffer;
+
+    final int capacity;
+
+    final AtomicLong sequence;
+
+    final ConcurrentHashMap<String, Integer> siteIds;
+
+    final List<String> sites;
+
+    final File sitesFile;
+
+    EventJournal(ByteBuffer buffer, int capacity, File sitesFile) {
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.sequence = new AtomicLong();
+        this.siteIds = new ConcurrentHashMap<String, Integer>();
+        this.sites = new ArrayList<String>();
+        this.sitesFile = sitesFile;
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, capacity);
+        buffer.putInt(12, RECORD_SIZE);
+    }
+
+    /**
+     * Creates an EventJournal backed by a direct ByteBuffer.
+     * @param capacity the number of records to keep, positive
+     * @return the new EventJournal instance
+     */
+    public static EventJournal allocateDirect(int capacity) {
+        ObjectHelper.verifyPositive(capacity, "capacity");
+        return new EventJournal(ByteBuffer.allocateDirect((int)bufferSize(capacity)), capacity, null);
+    }
+
+    /**
+     * Creates an EventJournal backed by the given file, memory-mapped in
+     * read-write mode, truncating any previous content.
+     * @param file the file to map
+     * @param capacity the number of records to keep, positive
+     * @return the new EventJournal instance
+     * @throws IOException if the file couldn't be created or mapped
+     */
+    public static EventJournal map(File file, int capacity) throws IOException {
+        ObjectHelper.requireNonNull(file, "file is null");
+        ObjectHelper.verifyPositive(capacity, "capacity");
+        long size = bufferSize(capacity);
+
+        File sitesFile = sitesFile(file);
+        if (sitesFile.exists() && !sitesFile.delete()) {
+            throw new IOException("Unable to delete " + sitesFile);
+        }
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(0);
+            raf.setLength(size);
+            MappedByteBuffer mb = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new EventJournal(mb, capacity, sitesFile);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Computes the size of the buffer holding the given number of records.
+     * @param capacity the number of records, positive
+     * @return the buffer size in bytes
+     * @throws IllegalArgumentException if the buffer would be larger than {@code Integer.MAX_VALUE} bytes
+     */
+    static long bufferSize(int capacity) {
+        long size = HEADER_SIZE + (long)capacity * RECORD_SIZE;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("capacity too large: " + capacity + ", the journal would take " + size + " bytes");
+        }
+        return size;
+    }
+
+    static File sitesFile(File file) {
+        return new File(file.getPath() + ".sites");
+    }
+
+    /**
+     * Returns the maximum number of records kept.
+     * @return the maximum number of records kept
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the total number of records written so far, including the overwritten ones.
+     * @return the total number of records written so far
+     */
+    public long written() {
+        return sequence.get();
+    }
+
+    /**
+     * Returns a read-only view of the underlying buffer.
+     * @return a read-only view of the underlying buffer
+     */
+    public ByteBuffer buffer() {
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the id for the given call-site description, registering it if necessary.
+     * <p>
+     * This is expected to be called at assembly time, not on the hot path.
+     * @param description the call-site description, not null
+     * @return the call-site id
+     */
+    public int callSite(String description) {
+        ObjectHelper.requireNonNull(description, "description is null");
+        Integer id = siteIds.get(description);
+        if (id != null) {
+            return id;
+        }
+        synchronized (sites) {
+            id = siteIds.get(description);
+            if (id == null) {
+                id = sites.size();
+                sites.add(description);
+                appendSite(id, description);
+                siteIds.put(description, id);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Returns the description of the given call-site id or null if not registered.
+     * @param id the call-site id
+     * @return the description or null
+     */
+    public String callSiteDescription(int id) {
+        synchronized (sites) {
+            if (id >= 0 && id < sites.size()) {
+                return sites.get(id);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a snapshot of the registered call-site descriptions indexed by their id.
+     * @return the list of call-site descriptions
+     */
+    public List<String> callSites() {
+        synchronized (sites) {
+            return new ArrayList<String>(sites);
+        }
+    }
+
+    void appendSite(int id, String description) {
+        File f = sitesFile;
+        if (f != null) {
+            try {
+                Writer w = new OutputStreamWriter(new FileOutputStream(f, true), "UTF-8");
+                try {
+                    w.write(id + "\t" + description.replace('\n', ' ').replace('\r', ' ') + "\n");
+                } finally {
+                    w.close();
+                }
+            } catch (IOException ex) {
+                // the journal itself remains usable without the descriptions
+            }
+        }
+    }
+
+    /**
+     * Records an event.
+     * <p>
+     * The sequence word of the slot is cleared first and written last so that readers
+     * can skip a slot being written, see the class documentation about torn records.
+     * @param type the event type, see the constants in this class
+     * @param site the call-site id
+     * @param value the event-dependent value
+     */
+    public void record(int type, int site, long value) {
+        long seq = sequence.getAndIncrement();
+        ByteBuffer b = buffer;
+        int offset = HEADER_SIZE + (int)(seq % capacity) * RECORD_SIZE;
+
+        b.putLong(offset, 0L);
+        b.putLong(offset + 8, System.nanoTime());
+        b.putLong(offset + 16, Thread.currentThread().getId());
+        b.putLong(offset + 24, value);
+        b.putInt(offset + 32, site);
+        b.putInt(offset + 36, type);
+        b.putLong(offset, seq + 1);
+    }
+
+    /**
+     * Flushes the content to the storage device if this journal is memory-mapped.
+     */
+    public void force() {
+        if (buffer instanceof MappedByteBuffer) {
+            ((MappedByteBuffer)buffer).force();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.debug;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+
+import io.reactivex.internal.functions.ObjectHelper;
+
+/**
+ * Decodes the content of an {@link EventJournal} into a list of records
+ * ordered by their sequence number and formats them as a timeline.
+ * @since 0.17.9
+ */
+public final class EventJournalReader {
+
+    /** Utility class. */
+    private EventJournalReader() {
+        throw new IllegalStateException("No instances!");
+    }
+
+    /**
+     * Decodes the records of a live journal.
+     * @param journal the journal to read
+     * @return the list of records in sequence order
+     */
+    public static List<Record> read(EventJournal journal) {
+        return read(journal.buffer());
+    }
+
+    /**
+     * Decodes the records in the given buffer containing a journal image.
+     * <p>
+     * Records whose sequence word is empty, doesn't belong to the slot or
+     * changes while the record is read are skipped.
+     * @param buffer the buffer to read, its position and limit are ignored
+     * @return the list of records in sequence order
+     */
+    public static List<Record> read(ByteBuffer buffer) {
+        ObjectHelper.requireNonNull(buffer, "buffer is null");
+        if (buffer.getInt(0) != EventJournal.MAGIC) {
+            throw new IllegalArgumentException("Not an EventJournal image");
+        }
+        if (buffer.getInt(4) != EventJournal.VERSION) {
+            throw new IllegalArgumentException("Unsupported EventJournal version: " + buffer.getInt(4));
+        }
+        int capacity = buffer.getInt(8);
+        int recordSize = buffer.getInt(12);
+
+        List<Record> list = new ArrayList<Record>();
+        for (int i = 0; i < capacity; i++) {
+            int offset = EventJournal.HEADER_SIZE + i * recordSize;
+            long seq = buffer.getLong(offset);
+            if (seq != 0L && (seq - 1) % capacity == i) {
+                Record r = new Record(seq - 1,
+                        buffer.getLong(offset + 8),
+                        buffer.getLong(offset + 16),
+                        buffer.getLong(offset + 24),
+                        buffer.getInt(offset + 32),
+                        buffer.getInt(offset + 36));
+                // a writer lapping the ring started overwriting the slot meanwhile
+                if (buffer.getLong(offset) == seq) {
+                    list.add(r);
+                }
+            }
+        }
+        Collections.sort(list);
+        return list;
+    }
+
+    /**
+     * Decodes the records of a journal file previously created via {@link EventJournal#map(File, int)}.
+     * @param file the journal file
+     * @return the list of records in sequence order
+     * @throws IOException if the file couldn't be read
+     */
+    public static List<Record> read(File file) throws IOException {
+        ObjectHelper.requireNonNull(file, "file is null");
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            ByteBuffer b = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            return read(b);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Reads the call-site descriptions belonging to a journal file.
+     * @param file the journal file
+     * @return the list of call-site descriptions indexed by their id, empty if not available
+     * @throws IOException if the sidecar file couldn't be read
+     */
+    public static List<String> readCallSites(File file) throws IOException {
+        File f = EventJournal.sitesFile(file);
+        List<String> result = new ArrayList<String>();
+        if (!f.exists()) {
+            return result;
+        }
+        BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(f), "UTF-8"));
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                int idx = line.indexOf('\t');
+                if (idx > 0) {
+                    int id = Integer.parseInt(line.substring(0, idx));
+                    while (result.size() <= id) {
+                        result.add(null);
+                    }
+                    result.set(id, line.substring(idx + 1));
+                }
+            }
+        } finally {
+            in.close();
+        }
+        return result;
+    }
+
+    /**
+     * Formats the records as a timeline, one record per line, with time
+     * relative to the first record.
+     * @param records the records in sequence order
+     * @param callSites the call-site descriptions indexed by id, may be empty
+     * @param out where to append the lines
+     * @throws IOException if appending failed
+     */
+    public static void timeline(List<Record> records, List<String> callSites, Appendable out) throws IOException {
+        long start = records.isEmpty() ? 0L : records.get(0).nanoTime;
+        for (Record r : records) {
+            out.append(String.format("%+12.3f us  #%-8d thread %-5d %-11s %-8d ",
+                    (r.nanoTime - start) / 1000d, r.sequence, r.threadId, typeName(r.type), r.value));
+            String s = r.site >= 0 && r.site < callSites.size() ? callSites.get(r.site) : null;
+            if (s != null) {
+                out.append(s);
+            } else {
+                out.append("site ").append(Integer.toString(r.site));
+            }
+            out.append('\n');
+        }
+    }
+
+    /**
+     * Returns the textual name of an event type.
+     * @param type the event type
+     * @return the name
+     */
+    public static String typeName(int type) {
+        switch (type) {
+        case EventJournal.SUBSCRIBE:
+            return "SUBSCRIBE";
+        case EventJournal.REQUEST:
+            return "REQUEST";
+        case EventJournal.ON_NEXT:
+            return "ON_NEXT";
+        case EventJournal.ON_ERROR:
+            return "ON_ERROR";
+        case EventJournal.ON_COMPLETE:
+            return "ON_COMPLETE";
+        case EventJournal.CANCEL:
+            return "CANCEL";
+        default:
+            return "UNKNOWN(" + type + ")";
+        }
+    }
+
+    /**
+     * Prints the timeline of the journal file given as the first argument.
+     * @param args the command line arguments
+     * @throws IOException if the file couldn't be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: EventJournalReader <journal-file>");
+            return;
+        }
+        File f = new File(args[0]);
+        timeline(read(f), readCallSites(f), System.out);
+    }
+
+    /**
+     * A decoded journal record.
+     */
+    public static final class Record implements Comparable<Record> {
+        /** The global sequence number of the record. */
+        public final long sequence;
+        /** The System.nanoTime() when the event was recorded. */
+        public final long nanoTime;
+        /** The id of the thread recording the event. */
+        public final long threadId;
+        /** The event-dependent value. */
+        public final long value;
+        /** The call-site id. */
+        public final int site;
+        /** The event type. */
+        public final int type;
+
+        Record(long sequence, long nanoTime, long threadId, long value, int site, int type) {
+            this.sequence = sequence;
+            this.nanoTime = nanoTime;
+            this.threadId = threadId;
+            this.value = value;
+            this.site = site;
+            this.type = type;
+        }
+
+        @Override
+        public int compareTo(Record o) {
+            return sequence < o.sequence ? -1 : (sequence > o.sequence ? 1 : 0);
+        }
+
+        @Override
+        public String toString() {
+            return "Record[#" + sequence + ", " + typeName(type) + ", site " + site
+                    + ", thread " + threadId + ", value " + value + ", time " + nanoTime + "]";
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.debug;
+
+import org.reactivestreams.*;
+
+import io.reactivex.Flowable;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+
+/**
+ * Wraps a Publisher and records the lifecycle events of its Subscribers
+ * into an EventJournal.
+ *
+ * @param <T> the value type
+ * @since 0.17.9
+ */
+final class FlowableOnJournal<T> extends Flowable<T> {
+
+    final Publisher<T> source;
+
+    final EventJournal journal;
+
+    final int site;
+
+    FlowableOnJournal(Publisher<T> source, EventJournal journal, int site) {
+        this.source = source;
+        this.journal = journal;
+        this.site = site;
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super T> s) {
+        journal.record(EventJournal.SUBSCRIBE, site, 0L);
+        source.subscribe(new OnJournalSubscriber<T>(s, journal, site));
+    }
+
+    static final class OnJournalSubscriber<T> implements Subscriber<T>, Subscription {
+
+        final Subscriber<? super T> actual;
+
+        final EventJournal journal;
+
+        final int site;
+
+        Subscription upstream;
+
+        long count;
+
+        OnJournalSubscriber(Subscriber<? super T> actual, EventJournal journal, int site) {
+            this.actual = actual;
+            this.journal = journal;
+            this.site = site;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.validate(upstream, s)) {
+                upstream = s;
+                actual.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            journal.record(EventJournal.ON_NEXT, site, ++count);
+            actual.onNext(t);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            journal.record(EventJournal.ON_ERROR, site, System.identityHashCode(t));
+            actual.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            journal.record(EventJournal.ON_COMPLETE, site, count);
+            actual.onComplete();
+        }
+
+        @Override
+        public void request(long n) {
+            journal.record(EventJournal.REQUEST, site, n);
+            upstream.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            journal.record(EventJournal.CANCEL, site, count);
+            upstream.cancel();
+        }
+    }
+}
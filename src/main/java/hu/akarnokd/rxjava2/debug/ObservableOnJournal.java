@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.debug;
+
+import io.reactivex.*;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.disposables.DisposableHelper;
+
+/**
+ * Wraps an ObservableSource and records the lifecycle events of its Observers
+ * into an EventJournal.
+ *
+ * @param <T> the value type
+ * @since 0.17.9
+ */
+final class ObservableOnJournal<T> extends Observable<T> {
+
+    final ObservableSource<T> source;
+
+    final EventJournal journal;
+
+    final int site;
+
+    ObservableOnJournal(ObservableSource<T> source, EventJournal journal, int site) {
+        this.source = source;
+        this.journal = journal;
+        this.site = site;
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super T> s) {
+        journal.record(EventJournal.SUBSCRIBE, site, 0L);
+        source.subscribe(new OnJournalObserver<T>(s, journal, site));
+    }
+
+    static final class OnJournalObserver<T> implements Observer<T>, Disposable {
+
+        final Observer<? super T> actual;
+
+        final EventJournal journal;
+
+        final int site;
+
+        Disposable upstream;
+
+        long count;
+
+        OnJournalObserver(Observer<? super T> actual, EventJournal journal, int site) {
+            this.actual = actual;
+            this.journal = journal;
+            this.site = site;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            if (DisposableHelper.validate(upstream, d)) {
+                upstream = d;
+                actual.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            journal.record(EventJournal.ON_NEXT, site, ++count);
+            actual.onNext(t);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            journal.record(EventJournal.ON_ERROR, site, System.identityHashCode(t));
+            actual.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            journal.record(EventJournal.ON_COMPLETE, site, count);
+            actual.onComplete();
+        }
+
+        @Override
+        public void dispose() {
+            journal.record(EventJournal.CANCEL, site, count);
+            upstream.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return upstream.isDisposed();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.debug;
+
+import io.reactivex.*;
+import io.reactivex.functions.Function;
+import io.reactivex.internal.functions.*;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Installs assembly hooks that record the subscribe, request, onNext, onError,
+ * onComplete and cancel events of every {@code Flowable} and {@code Observable}
+ * assembled while enabled into an {@link EventJournal}.
+ * <p>
+ * The call site of each operator is resolved once, at assembly time, from the
+ * current stacktrace (warning: expensive!). The instrumented subscribers don't
+ * support operator fusion.
+ *
+ * @since 0.17.9
+ * @see EventJournalReader
+ */
+public final class RxJavaEventJournal {
+
+    /** Utility class. */
+    private RxJavaEventJournal() {
+        throw new IllegalStateException("No instances!");
+    }
+
+    static volatile EventJournal current;
+
+    /**
+     * Enable the journal hooks, replacing any existing Flowable and Observable assembly hook.
+     * @param journal the journal to record into
+     * @see #enableAndChain(EventJournal)
+     * @see #disable()
+     */
+    public static void enable(EventJournal journal) {
+        enable(journal, false);
+    }
+
+    /**
+     * Enable the journal hooks by chaining them before any existing hook.
+     * @param journal the journal to record into
+     * @return the SavedHooks instance that allows restoring the previous assembly
+     * hook handlers overridden by this method
+     * @see #enable(EventJournal)
+     */
+    public static SavedHooks enableAndChain(EventJournal journal) {
+        return enable(journal, true);
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    static SavedHooks enable(final EventJournal journal, boolean chain) {
+        ObjectHelper.requireNonNull(journal, "journal is null");
+
+        final Function<? super Flowable, ? extends Flowable> saveF = RxJavaPlugins.getOnFlowableAssembly();
+        Function<? super Flowable, ? extends Flowable> oldFlowable = saveF;
+        if (oldFlowable == null || !chain) {
+            oldFlowable = Functions.identity();
+        }
+        final Function<? super Flowable, ? extends Flowable> oldF = oldFlowable;
+
+        RxJavaPlugins.setOnFlowableAssembly(new Function<Flowable, Flowable>() {
+            @Override
+            public Flowable apply(Flowable f) throws Exception {
+                return oldF.apply(new FlowableOnJournal(f, journal, journal.callSite(describe(f))));
+            }
+        });
+
+        final Function<? super Observable, ? extends Observable> saveO = RxJavaPlugins.getOnObservableAssembly();
+        Function<? super Observable, ? extends Observable> oldObservable = saveO;
+        if (oldObservable == null || !chain) {
+            oldObservable = Functions.identity();
+        }
+        final Function<? super Observable, ? extends Observable> oldO = oldObservable;
+
+        RxJavaPlugins.setOnObservableAssembly(new Function<Observable, Observable>() {
+            @Override
+            public Observable apply(Observable f) throws Exception {
+                return oldO.apply(new ObservableOnJournal(f, journal, journal.callSite(describe(f))));
+            }
+        });
+
+        current = journal;
+
+        return new SavedHooks() {
+            @Override
+            public void restore() {
+                RxJavaPlugins.setOnFlowableAssembly(saveF);
+                RxJavaPlugins.setOnObservableAssembly(saveO);
+                current = null;
+            }
+        };
+    }
+
+    /**
+     * Disables the journal hooks by resetting the Flowable and Observable
+     * assembly hooks to none.
+     */
+    public static void disable() {
+        RxJavaPlugins.setOnFlowableAssembly(null);
+        RxJavaPlugins.setOnObservableAssembly(null);
+        current = null;
+    }
+
+    /**
+     * Returns the journal the hooks currently record into or null if not enabled.
+     * @return the current journal or null
+     */
+    public static EventJournal current() {
+        return current;
+    }
+
+    /**
+     * Describes the assembled operator by its class name and the first
+     * stacktrace element outside of RxJava and this library's hooks.
+     * @param operator the operator instance being assembled
+     * @return the call-site description
+     */
+    static String describe(Object operator) {
+        String name = operator.getClass().getSimpleName();
+        for (StackTraceElement e : Thread.currentThread().getStackTrace()) {
+            if (filter(e)) {
+                return name + " at " + e;
+            }
+        }
+        return name;
+    }
+
+    static boolean filter(StackTraceElement e) {
+        String cn = e.getClassName();
+        return !cn.startsWith("java.lang.Thread")
+                && !cn.startsWith("io.reactivex.")
+                && !cn.contains("RxJavaEventJournal")
+                && !cn.contains("OnJournal");
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.expr;
+
+import org.reactivestreams.*;
+
+import hu.akarnokd.rxjava2.functions.IntSupplier;
+import io.reactivex.Flowable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.internal.subscriptions.EmptySubscription;
+
+/**
+ * For each Subscriber, it calls an int caseSelector for an index into the given array of
+ * Publishers to subscribe to; otherwise, if the index is out of range or the entry is null,
+ * subscribe the Subscriber to the default Publisher.
+ *
+ * @param <T> the output value type
+ */
+final class FlowableSwitchCaseArray<T> extends Flowable<T> {
+
+    final IntSupplier caseSelector;
+
+    final Publisher<? extends T>[] arrayOfCases;
+
+    final Publisher<? extends T> defaultCase;
+
+    FlowableSwitchCaseArray(IntSupplier caseSelector,
+            Publisher<? extends T>[] arrayOfCases,
+            Publisher<? extends T> defaultCase) {
+        this.caseSelector = caseSelector;
+        this.arrayOfCases = arrayOfCases;
+        this.defaultCase = defaultCase;
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super T> s) {
+        int index;
+
+        try {
+            index = caseSelector.getAsInt();
+        } catch (Throwable ex) {
+            Exceptions.throwIfFatal(ex);
+            EmptySubscription.error(ex, s);
+            return;
+        }
+
+        Publisher<? extends T>[] a = arrayOfCases;
+        Publisher<? extends T> source = index >= 0 && index < a.length ? a[index] : null;
+
+        if (source == null) {
+            source = defaultCase;
+        }
+
+        source.subscribe(s);
+    }
+}
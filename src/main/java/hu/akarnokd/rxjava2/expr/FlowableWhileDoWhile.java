@@ -20,7 +20,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.reactivestreams.*;
 
-import io.reactivex.Flowable;
+import io.reactivex.*;
 import io.reactivex.exceptions.Exceptions;
 import io.reactivex.functions.BooleanSupplier;
 import io.reactivex.internal.subscriptions.*;
@@ -33,11 +33,17 @@ final class FlowableWhileDoWhile<T> extends Flowable<T> {
 
     final BooleanSupplier postCondition;
 
+    final Scheduler scheduler;
+
+    final int hopInterval;
+
     FlowableWhileDoWhile(Publisher<? extends T> source, BooleanSupplier preCondition,
-            BooleanSupplier postCondition) {
+            BooleanSupplier postCondition, Scheduler scheduler, int hopInterval) {
         this.source = source;
         this.preCondition = preCondition;
         this.postCondition = postCondition;
+        this.scheduler = scheduler;
+        this.hopInterval = hopInterval;
     }
 
     @Override
@@ -53,7 +59,8 @@ final class FlowableWhileDoWhile<T> extends Flowable<T> {
         }
 
         if (b) {
-            WhileDoWhileObserver<T> parent = new WhileDoWhileObserver<T>(s, postCondition, source);
+            Scheduler.Worker worker = scheduler != null ? scheduler.createWorker() : null;
+            WhileDoWhileObserver<T> parent = new WhileDoWhileObserver<T>(s, postCondition, source, worker, hopInterval);
             s.onSubscribe(parent);
             parent.subscribeNext();
         } else {
@@ -63,7 +70,7 @@ final class FlowableWhileDoWhile<T> extends Flowable<T> {
 
     static final class WhileDoWhileObserver<T>
     extends SubscriptionArbiter
-    implements Subscriber<T>, Subscription {
+    implements Subscriber<T>, Subscription, Runnable {
 
         private static final long serialVersionUID = -5255585317630843019L;
 
@@ -75,15 +82,27 @@ final class FlowableWhileDoWhile<T> extends Flowable<T> {
 
         final Publisher<? extends T> source;
 
+        final Scheduler.Worker worker;
+
+        final int hopInterval;
+
         volatile boolean active;
 
         long produced;
 
-        WhileDoWhileObserver(Subscriber<? super T> actual, BooleanSupplier postCondition, Publisher<? extends T> source) {
+        int iterations;
+
+        /** Set when the next subscription should happen on the worker; accessed through the wip handoff. */
+        boolean hop;
+
+        WhileDoWhileObserver(Subscriber<? super T> actual, BooleanSupplier postCondition, Publisher<? extends T> source,
+                Scheduler.Worker worker, int hopInterval) {
             this.actual = actual;
             this.wip = new AtomicInteger();
             this.postCondition = postCondition;
             this.source = source;
+            this.worker = worker;
+            this.hopInterval = hopInterval;
         }
 
         @Override
@@ -99,6 +118,7 @@ final class FlowableWhileDoWhile<T> extends Flowable<T> {
 
         @Override
         public void onError(Throwable e) {
+            dispose();
             actual.onError(e);
         }
 
@@ -111,6 +131,7 @@ final class FlowableWhileDoWhile<T> extends Flowable<T> {
                 b = postCondition.getAsBoolean();
             } catch (Throwable ex) {
                 Exceptions.throwIfFatal(ex);
+                dispose();
                 actual.onError(ex);
                 return;
             }
@@ -118,33 +139,65 @@ final class FlowableWhileDoWhile<T> extends Flowable<T> {
             if (b) {
                 long p = produced;
                 if (p != 0L) {
+                    produced = 0L;
                     produced(p);
                 }
 
+                if (worker != null && ++iterations == hopInterval) {
+                    iterations = 0;
+                    // the drain loop schedules the resubscription once it exits
+                    hop = true;
+                }
                 active = false;
                 subscribeNext();
             } else {
+                dispose();
                 actual.onComplete();
             }
         }
 
+        @Override
+        public void run() {
+            hop = false;
+            subscribeNext();
+        }
+
+        @Override
+        public void cancel() {
+            super.cancel();
+            dispose();
+        }
+
+        void dispose() {
+            Scheduler.Worker w = worker;
+            if (w != null) {
+                w.dispose();
+            }
+        }
+
         void subscribeNext() {
             if (wip.getAndIncrement() != 0) {
                 return;
             }
+            drainLoop();
+        }
 
+        void drainLoop() {
             for (;;) {
 
                 if (isCancelled()) {
                     return;
                 }
 
-                if (!active) {
+                if (!active && !hop) {
                     active = true;
                     source.subscribe(this);
                 }
 
                 if (wip.decrementAndGet() == 0) {
+                    if (hop) {
+                        worker.schedule(this);
+                    }
                     break;
                 }
             }
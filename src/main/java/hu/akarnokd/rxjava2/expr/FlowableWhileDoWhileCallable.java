@@ -0,0 +1,210 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.expr;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import io.reactivex.*;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.BooleanSupplier;
+import io.reactivex.internal.subscriptions.*;
+import io.reactivex.internal.util.BackpressureHelper;
+
+/**
+ * Loops over a synchronous, {@link Callable} loop body by calling it directly
+ * instead of resubscribing to it on each iteration.
+ * <p>
+ * A null value from the body counts as an empty iteration. The body is called
+ * only if there is outstanding demand, therefore bodies known to be always empty
+ * should not be looped with this operator. If a Scheduler is given, the loop continues
+ * on it after every {@code hopInterval} iterations so that long running loops don't
+ * hog the requesting thread.
+ *
+ * @param <T> the value type
+ */
+final class FlowableWhileDoWhileCallable<T> extends Flowable<T> {
+
+    final Callable<? extends T> body;
+
+    final BooleanSupplier preCondition;
+
+    final BooleanSupplier postCondition;
+
+    final Scheduler scheduler;
+
+    final int hopInterval;
+
+    FlowableWhileDoWhileCallable(Callable<? extends T> body, BooleanSupplier preCondition,
+            BooleanSupplier postCondition, Scheduler scheduler, int hopInterval) {
+        this.body = body;
+        this.preCondition = preCondition;
+        this.postCondition = postCondition;
+        this.scheduler = scheduler;
+        this.hopInterval = hopInterval;
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super T> s) {
+        boolean b;
+
+        try {
+            b = preCondition.getAsBoolean();
+        } catch (Throwable ex) {
+            Exceptions.throwIfFatal(ex);
+            EmptySubscription.error(ex, s);
+            return;
+        }
+
+        if (b) {
+            Scheduler.Worker worker = scheduler != null ? scheduler.createWorker() : null;
+            s.onSubscribe(new WhileDoWhileLoopSubscription<T>(s, body, postCondition, worker, hopInterval));
+        } else {
+            EmptySubscription.complete(s);
+        }
+    }
+
+    static final class WhileDoWhileLoopSubscription<T>
+    extends AtomicInteger
+    implements Subscription, Runnable {
+
+        private static final long serialVersionUID = -3283993462455163307L;
+
+        final Subscriber<? super T> actual;
+
+        final Callable<? extends T> body;
+
+        final BooleanSupplier postCondition;
+
+        final Scheduler.Worker worker;
+
+        final int hopInterval;
+
+        final AtomicLong requested;
+
+        volatile boolean cancelled;
+
+        long emitted;
+
+        int iterations;
+
+        WhileDoWhileLoopSubscription(Subscriber<? super T> actual, Callable<? extends T> body,
+                BooleanSupplier postCondition, Scheduler.Worker worker, int hopInterval) {
+            this.actual = actual;
+            this.body = body;
+            this.postCondition = postCondition;
+            this.worker = worker;
+            this.hopInterval = hopInterval;
+            this.requested = new AtomicLong();
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                if (getAndIncrement() == 0) {
+                    run();
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            dispose();
+        }
+
+        void dispose() {
+            Scheduler.Worker w = worker;
+            if (w != null) {
+                w.dispose();
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            long e = emitted;
+            int iter = iterations;
+            Subscriber<? super T> a = actual;
+
+            for (;;) {
+
+                long r = requested.get();
+
+                while (e != r) {
+                    if (cancelled) {
+                        return;
+                    }
+
+                    T v;
+                    boolean b;
+
+                    try {
+                        v = body.call();
+                    } catch (Throwable ex) {
+                        Exceptions.throwIfFatal(ex);
+                        dispose();
+                        a.onError(ex);
+                        return;
+                    }
+
+                    if (v != null) {
+                        a.onNext(v);
+                        e++;
+
+                        if (cancelled) {
+                            return;
+                        }
+                    }
+
+                    try {
+                        b = postCondition.getAsBoolean();
+                    } catch (Throwable ex) {
+                        Exceptions.throwIfFatal(ex);
+                        dispose();
+                        a.onError(ex);
+                        return;
+                    }
+
+                    if (!b) {
+                        dispose();
+                        a.onComplete();
+                        return;
+                    }
+
+                    if (worker != null && ++iter == hopInterval) {
+                        emitted = e;
+                        iterations = 0;
+                        // keep the wip count so concurrent requests don't start another loop
+                        worker.schedule(this);
+                        return;
+                    }
+                }
+
+                emitted = e;
+                iterations = iter;
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+    }
+}
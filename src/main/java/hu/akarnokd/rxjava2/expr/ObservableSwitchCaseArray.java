@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.expr;
+
+import hu.akarnokd.rxjava2.functions.IntSupplier;
+import io.reactivex.*;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.internal.disposables.EmptyDisposable;
+
+/**
+ * For each Observer, it calls an int caseSelector for an index into the given array of
+ * ObservableSources to subscribe to; otherwise, if the index is out of range or the entry is null,
+ * subscribe the Observer to the default ObservableSource.
+ *
+ * @param <T> the output value type
+ */
+final class ObservableSwitchCaseArray<T> extends Observable<T> {
+
+    final IntSupplier caseSelector;
+
+    final ObservableSource<? extends T>[] arrayOfCases;
+
+    final ObservableSource<? extends T> defaultCase;
+
+    ObservableSwitchCaseArray(IntSupplier caseSelector,
+            ObservableSource<? extends T>[] arrayOfCases,
+            ObservableSource<? extends T> defaultCase) {
+        this.caseSelector = caseSelector;
+        this.arrayOfCases = arrayOfCases;
+        this.defaultCase = defaultCase;
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super T> observer) {
+        int index;
+
+        try {
+            index = caseSelector.getAsInt();
+        } catch (Throwable ex) {
+            Exceptions.throwIfFatal(ex);
+            EmptyDisposable.error(ex, observer);
+            return;
+        }
+
+        ObservableSource<? extends T>[] a = arrayOfCases;
+        ObservableSource<? extends T> source = index >= 0 && index < a.length ? a[index] : null;
+
+        if (source == null) {
+            source = defaultCase;
+        }
+
+        source.subscribe(observer);
+    }
+}
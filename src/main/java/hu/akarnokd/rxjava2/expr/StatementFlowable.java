@@ -21,10 +21,12 @@ import java.util.concurrent.Callable;
 
 import org.reactivestreams.Publisher;
 
+import hu.akarnokd.rxjava2.functions.IntSupplier;
 import hu.akarnokd.rxjava2.util.AlwaysTrueBooleanSupplier;
 import io.reactivex.*;
 import io.reactivex.functions.BooleanSupplier;
 import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.fuseable.ScalarCallable;
 import io.reactivex.plugins.RxJavaPlugins;
 
 /**
@@ -114,6 +116,69 @@ public final class StatementFlowable {
         return RxJavaPlugins.onAssembly(new FlowableSwitchCase<R, K>(caseSelector, mapOfCases, defaultCase));
     }
 
+    /**
+     * Return a particular one of several possible Flowables based on a case
+     * selector looked up in a precompiled table, or a default Flowable if the
+     * table doesn't contain the key.
+     * <p>
+     * Unlike the {@code Map}-based overloads, the table is immutable and resolves
+     * enum keys by their ordinal and other keys via a collision-free hash layout.
+     * <p>
+     * <img width="640" src="https://raw.github.com/wiki/ReactiveX/RxJava/images/rx-operators/switchCase.png" alt="">
+     *
+     * @param <K>
+     *            the case key type
+     * @param <R>
+     *            the result value type
+     * @param caseSelector
+     *            the function that produces a case key when an
+     *            Observer subscribes
+     * @param tableOfCases
+     *            the table that maps a case key to an Flowable, see {@link SwitchCaseTable#of(Map)}
+     * @param defaultCase
+     *            the default Flowable if the {@code tableOfCases} doesn't contain a value for the key returned by the {@code caseSelector}
+     * @return a particular Flowable chosen by key from the table of
+     *         Flowables, or the default case if no Flowable matches the key
+     * @since 0.17.9
+     */
+    public static <K, R> Flowable<R> switchCase(Callable<? extends K> caseSelector,
+            SwitchCaseTable<? super K, ? extends Publisher<? extends R>> tableOfCases,
+                    Publisher<? extends R> defaultCase) {
+        ObjectHelper.requireNonNull(caseSelector, "caseSelector is null");
+        ObjectHelper.requireNonNull(tableOfCases, "tableOfCases is null");
+        ObjectHelper.requireNonNull(defaultCase, "defaultCase is null");
+        return RxJavaPlugins.onAssembly(new FlowableSwitchCaseTable<R, K>(caseSelector, tableOfCases, defaultCase));
+    }
+
+    /**
+     * Return a particular one of several possible Flowables based on an int
+     * case selector indexing into an array of cases, or a default Flowable if the
+     * index is out of range or the array has a null entry at that index.
+     * <p>
+     * <img width="640" src="https://raw.github.com/wiki/ReactiveX/RxJava/images/rx-operators/switchCase.png" alt="">
+     *
+     * @param <R>
+     *            the result value type
+     * @param caseSelector
+     *            the function that produces a case index when an
+     *            Observer subscribes
+     * @param arrayOfCases
+     *            the array of Flowables indexed by the case index, copied at assembly time
+     * @param defaultCase
+     *            the default Flowable if the {@code arrayOfCases} doesn't contain a value for the index returned by the {@code caseSelector}
+     * @return a particular Flowable chosen by index from the array of
+     *         Flowables, or the default case if no Flowable matches the index
+     * @since 0.17.9
+     */
+    public static <R> Flowable<R> switchCase(IntSupplier caseSelector,
+            Publisher<? extends R>[] arrayOfCases,
+                    Publisher<? extends R> defaultCase) {
+        ObjectHelper.requireNonNull(caseSelector, "caseSelector is null");
+        ObjectHelper.requireNonNull(arrayOfCases, "arrayOfCases is null");
+        ObjectHelper.requireNonNull(defaultCase, "defaultCase is null");
+        return RxJavaPlugins.onAssembly(new FlowableSwitchCaseArray<R>(caseSelector, arrayOfCases.clone(), defaultCase));
+    }
+
     /**
      * Return an Flowable that re-emits the emissions from the source
      * Flowable, and then re-subscribes to the source long as a condition is
@@ -133,7 +198,37 @@ public final class StatementFlowable {
     public static <T> Flowable<T> doWhile(Publisher<? extends T> source, BooleanSupplier postCondition) {
         ObjectHelper.requireNonNull(source, "source is null");
         ObjectHelper.requireNonNull(postCondition, "postCondition is null");
-        return RxJavaPlugins.onAssembly(new FlowableWhileDoWhile<T>(source, AlwaysTrueBooleanSupplier.INSTANCE, postCondition));
+        return loop(source, AlwaysTrueBooleanSupplier.INSTANCE, postCondition, null, 0);
+    }
+
+    /**
+     * Return an Flowable that re-emits the emissions from the source
+     * Flowable, and then re-subscribes to the source long as a condition is
+     * true, continuing the loop on the given scheduler after every
+     * {@code hopInterval} iterations.
+     * <p>
+     * The hop lets long running or infinite loops over synchronous sources
+     * give up the current thread periodically.
+     *
+     * @param <T> the value type
+     * @param source the source Flowable to work with
+     * @param postCondition
+     *            the post condition to test after the source
+     *            Flowable completes
+     * @param scheduler the scheduler to continue the loop on
+     * @param hopInterval the number of iterations after which the loop continues on the scheduler, positive
+     * @return an Flowable that replays the emissions from the source
+     *         Flowable, and then continues to replay them so long as the post
+     *         condition is true
+     * @since 0.17.9
+     */
+    public static <T> Flowable<T> doWhile(Publisher<? extends T> source, BooleanSupplier postCondition,
+            Scheduler scheduler, int hopInterval) {
+        ObjectHelper.requireNonNull(source, "source is null");
+        ObjectHelper.requireNonNull(postCondition, "postCondition is null");
+        ObjectHelper.requireNonNull(scheduler, "scheduler is null");
+        ObjectHelper.verifyPositive(hopInterval, "hopInterval");
+        return loop(source, AlwaysTrueBooleanSupplier.INSTANCE, postCondition, scheduler, hopInterval);
     }
 
     /**
@@ -153,7 +248,49 @@ public final class StatementFlowable {
     public static <T> Flowable<T> whileDo(Publisher<? extends T> source, BooleanSupplier preCondition) {
         ObjectHelper.requireNonNull(source, "source is null");
         ObjectHelper.requireNonNull(preCondition, "preCondition is null");
-        return RxJavaPlugins.onAssembly(new FlowableWhileDoWhile<T>(source, preCondition, preCondition));
+        return loop(source, preCondition, preCondition, null, 0);
+    }
+
+    /**
+     * Return an Flowable that re-emits the emissions from the source
+     * Flowable as long as the condition is true before the first or subsequent subscribe() calls,
+     * continuing the loop on the given scheduler after every {@code hopInterval} iterations.
+     *
+     * @param <T> the value type
+     * @param source the source Flowable to work with
+     * @param preCondition
+     *            the condition to evaluate before subscribing to or
+     *            replaying the source Flowable
+     * @param scheduler the scheduler to continue the loop on
+     * @param hopInterval the number of iterations after which the loop continues on the scheduler, positive
+     * @return an Flowable that replays the emissions from the source
+     *         Flowable so long as <code>preCondition</code> is true
+     * @since 0.17.9
+     */
+    public static <T> Flowable<T> whileDo(Publisher<? extends T> source, BooleanSupplier preCondition,
+            Scheduler scheduler, int hopInterval) {
+        ObjectHelper.requireNonNull(source, "source is null");
+        ObjectHelper.requireNonNull(preCondition, "preCondition is null");
+        ObjectHelper.requireNonNull(scheduler, "scheduler is null");
+        ObjectHelper.verifyPositive(hopInterval, "hopInterval");
+        return loop(source, preCondition, preCondition, scheduler, hopInterval);
+    }
+
+    /**
+     * Loops over the source; synchronous, {@link Callable} sources, such as {@code just} or
+     * {@code fromCallable}, are called directly instead of being resubscribed on each iteration.
+     * Constant empty sources, such as {@code empty}, are resubscribed as their iterations
+     * don't need any downstream demand to proceed.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Flowable<T> loop(Publisher<? extends T> source, BooleanSupplier preCondition,
+            BooleanSupplier postCondition, Scheduler scheduler, int hopInterval) {
+        if (source instanceof Callable
+                && !(source instanceof ScalarCallable && ((ScalarCallable<T>)source).call() == null)) {
+            return RxJavaPlugins.onAssembly(new FlowableWhileDoWhileCallable<T>((Callable<? extends T>)source,
+                    preCondition, postCondition, scheduler, hopInterval));
+        }
+        return RxJavaPlugins.onAssembly(new FlowableWhileDoWhile<T>(source, preCondition, postCondition, scheduler, hopInterval));
     }
 
     /**
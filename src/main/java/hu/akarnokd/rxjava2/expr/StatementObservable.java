@@ -19,6 +19,7 @@ package hu.akarnokd.rxjava2.expr;
 import java.util.Map;
 import java.util.concurrent.Callable;
 
+import hu.akarnokd.rxjava2.functions.IntSupplier;
 import hu.akarnokd.rxjava2.util.AlwaysTrueBooleanSupplier;
 import io.reactivex.*;
 import io.reactivex.functions.BooleanSupplier;
@@ -112,6 +113,69 @@ public final class StatementObservable {
         return RxJavaPlugins.onAssembly(new ObservableSwitchCase<R, K>(caseSelector, mapOfCases, defaultCase));
     }
 
+    /**
+     * Return a particular one of several possible Observables based on a case
+     * selector looked up in a precompiled table, or a default Observable if the
+     * table doesn't contain the key.
+     * <p>
+     * Unlike the {@code Map}-based overloads, the table is immutable and resolves
+     * enum keys by their ordinal and other keys via a collision-free hash layout.
+     * <p>
+     * <img width="640" src="https://raw.github.com/wiki/ReactiveX/RxJava/images/rx-operators/switchCase.png" alt="">
+     *
+     * @param <K>
+     *            the case key type
+     * @param <R>
+     *            the result value type
+     * @param caseSelector
+     *            the function that produces a case key when an
+     *            Observer subscribes
+     * @param tableOfCases
+     *            the table that maps a case key to an Observable, see {@link SwitchCaseTable#of(Map)}
+     * @param defaultCase
+     *            the default Observable if the {@code tableOfCases} doesn't contain a value for the key returned by the {@code caseSelector}
+     * @return a particular Observable chosen by key from the table of
+     *         Observables, or the default case if no Observable matches the key
+     * @since 0.17.9
+     */
+    public static <K, R> Observable<R> switchCase(Callable<? extends K> caseSelector,
+            SwitchCaseTable<? super K, ? extends ObservableSource<? extends R>> tableOfCases,
+                    ObservableSource<? extends R> defaultCase) {
+        ObjectHelper.requireNonNull(caseSelector, "caseSelector is null");
+        ObjectHelper.requireNonNull(tableOfCases, "tableOfCases is null");
+        ObjectHelper.requireNonNull(defaultCase, "defaultCase is null");
+        return RxJavaPlugins.onAssembly(new ObservableSwitchCaseTable<R, K>(caseSelector, tableOfCases, defaultCase));
+    }
+
+    /**
+     * Return a particular one of several possible Observables based on an int
+     * case selector indexing into an array of cases, or a default Observable if the
+     * index is out of range or the array has a null entry at that index.
+     * <p>
+     * <img width="640" src="https://raw.github.com/wiki/ReactiveX/RxJava/images/rx-operators/switchCase.png" alt="">
+     *
+     * @param <R>
+     *            the result value type
+     * @param caseSelector
+     *            the function that produces a case index when an
+     *            Observer subscribes
+     * @param arrayOfCases
+     *            the array of Observables indexed by the case index, copied at assembly time
+     * @param defaultCase
+     *            the default Observable if the {@code arrayOfCases} doesn't contain a value for the index returned by the {@code caseSelector}
+     * @return a particular Observable chosen by index from the array of
+     *         Observables, or the default case if no Observable matches the index
+     * @since 0.17.9
+     */
+    public static <R> Observable<R> switchCase(IntSupplier caseSelector,
+            ObservableSource<? extends R>[] arrayOfCases,
+                    ObservableSource<? extends R> defaultCase) {
+        ObjectHelper.requireNonNull(caseSelector, "caseSelector is null");
+        ObjectHelper.requireNonNull(arrayOfCases, "arrayOfCases is null");
+        ObjectHelper.requireNonNull(defaultCase, "defaultCase is null");
+        return RxJavaPlugins.onAssembly(new ObservableSwitchCaseArray<R>(caseSelector, arrayOfCases.clone(), defaultCase));
+    }
+
     /**
      * Return an Observable that re-emits the emissions from the source
      * Observable, and then re-subscribes to the source long as a condition is
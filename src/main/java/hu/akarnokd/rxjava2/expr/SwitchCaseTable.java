@@ -0,0 +1,185 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.expr;
+
+import java.util.Map;
+
+import io.reactivex.internal.functions.ObjectHelper;
+
+/**
+ * An immutable, precompiled key-to-value table for the {@code switchCase} operators
+ * of {@link StatementFlowable} and {@link StatementObservable}.
+ * <p>
+ * If all keys are constants of the same enum type, the values are indexed by the
+ * ordinal of the key. Otherwise, the table size is chosen, where possible, so that
+ * the spread hash codes of the keys don't collide and a lookup costs one
+ * {@code hashCode} and one {@code equals} call; linear probing resolves any remaining
+ * collisions.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @since 0.17.9
+ */
+public final class SwitchCaseTable<K, V> {
+
+    /** The maximum factor by which the table may exceed twice the next power of two of the key count. */
+    static final int MAX_SPARSENESS = 8;
+
+    final Class<?> enumType;
+
+    final Object[] keys;
+
+    final Object[] values;
+
+    final int mask;
+
+    final int size;
+
+    SwitchCaseTable(Class<?> enumType, Object[] keys, Object[] values, int size) {
+        this.enumType = enumType;
+        this.keys = keys;
+        this.values = values;
+        this.mask = keys != null ? keys.length - 1 : 0;
+        this.size = size;
+    }
+
+    /**
+     * Creates a table from the entries of the given map; later changes to the
+     * map are not reflected by the table.
+     * @param <K> the key type
+     * @param <V> the value type
+     * @param cases the map of cases, no null keys or values
+     * @return the new table
+     */
+    public static <K, V> SwitchCaseTable<K, V> of(Map<? extends K, ? extends V> cases) {
+        ObjectHelper.requireNonNull(cases, "cases is null");
+        int n = cases.size();
+
+        Class<?> enumType = null;
+        for (Map.Entry<? extends K, ? extends V> e : cases.entrySet()) {
+            Object k = ObjectHelper.requireNonNull(e.getKey(), "cases contains a null key");
+            ObjectHelper.requireNonNull(e.getValue(), "cases contains a null value");
+            if (k instanceof Enum) {
+                Class<?> c = ((Enum<?>)k).getDeclaringClass();
+                if (enumType == null) {
+                    enumType = c;
+                } else if (enumType != c) {
+                    enumType = Object.class;
+                }
+            } else {
+                enumType = Object.class;
+            }
+        }
+
+        if (enumType != null && enumType != Object.class) {
+            Object[] values = new Object[enumType.getEnumConstants().length];
+            for (Map.Entry<? extends K, ? extends V> e : cases.entrySet()) {
+                values[((Enum<?>)e.getKey()).ordinal()] = e.getValue();
+            }
+            return new SwitchCaseTable<K, V>(enumType, null, values, n);
+        }
+
+        // at most half full so that a lookup of a missing key always reaches an empty slot
+        int base = nextPowerOfTwo(n) << 1;
+        int capacity = base;
+        for (;;) {
+            if (isPerfect(cases, capacity - 1)) {
+                break;
+            }
+            if (capacity == base * MAX_SPARSENESS) {
+                // give up on a perfect table, probe on collisions in a half-full table
+                capacity = base;
+                break;
+            }
+            capacity <<= 1;
+        }
+
+        Object[] keys = new Object[capacity];
+        Object[] values = new Object[capacity];
+        int m = capacity - 1;
+        for (Map.Entry<? extends K, ? extends V> e : cases.entrySet()) {
+            Object k = e.getKey();
+            int idx = spread(k.hashCode()) & m;
+            while (keys[idx] != null) {
+                idx = (idx + 1) & m;
+            }
+            keys[idx] = k;
+            values[idx] = e.getValue();
+        }
+        return new SwitchCaseTable<K, V>(null, keys, values, n);
+    }
+
+    /**
+     * Returns the value for the given key or null if the table has no such key.
+     * @param key the key to look up, null yields null
+     * @return the value or null
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (key == null) {
+            return null;
+        }
+        Class<?> et = enumType;
+        if (et != null) {
+            if (key instanceof Enum && ((Enum<?>)key).getDeclaringClass() == et) {
+                return (V)values[((Enum<?>)key).ordinal()];
+            }
+            return null;
+        }
+        Object[] ks = keys;
+        int m = mask;
+        int idx = spread(key.hashCode()) & m;
+        for (;;) {
+            Object k = ks[idx];
+            if (k == null) {
+                return null;
+            }
+            if (k == key || k.equals(key)) {
+                return (V)values[idx];
+            }
+            idx = (idx + 1) & m;
+        }
+    }
+
+    /**
+     * Returns the number of keys in this table.
+     * @return the number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    static boolean isPerfect(Map<?, ?> cases, int mask) {
+        boolean[] used = new boolean[mask + 1];
+        for (Object k : cases.keySet()) {
+            int idx = spread(k.hashCode()) & mask;
+            if (used[idx]) {
+                return false;
+            }
+            used[idx] = true;
+        }
+        return true;
+    }
+
+    static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    static int nextPowerOfTwo(int n) {
+        return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+}
@@ -31,6 +31,9 @@ import io.reactivex.plugins.RxJavaPlugins;
  * overhead can be limited to when diagnosing problems around failing functions.
  * <p>
  * Each functional type has its own {code tagX} postfix to avoid lambda ambiguity.
+ * <p>
+ * The single-argument {@code tagX} overloads use the caller's location as the tag,
+ * which is only formatted into a String if the wrapped function fails.
  *
  * @since 0.17.4
  */
@@ -55,7 +58,9 @@ public final class FunctionTagging {
      * Disable the function tagging wrappers in the {@code tagX} methods.
      * <p>
      * Note that disabling doesn't remove the wrappers from previously tagged
-     * functions.
+     * functions. The decision is made when the {@code tagX} method is called
+     * so disabled tagging returns the original function instance and has
+     * no overhead.
      */
     public static void disable() {
         enabled = false;
@@ -78,6 +83,14 @@ public final class FunctionTagging {
         return func;
     }
 
+    public static <T, R> Function<T, R> tagFunction(Function<T, R> func) {
+        if (enabled) {
+            ObjectHelper.requireNonNull(func, "func is null");
+            return new TagFunction<T, R>(func, new CallSiteTag());
+        }
+        return func;
+    }
+
     public static <T1, T2, R> BiFunction<T1, T2, R> tagBiFunction(BiFunction<T1, T2, R> func, String tag) {
         if (enabled) {
             ObjectHelper.requireNonNull(func, "func is null");
@@ -87,6 +100,14 @@ public final class FunctionTagging {
         return func;
     }
 
+    public static <T1, T2, R> BiFunction<T1, T2, R> tagBiFunction(BiFunction<T1, T2, R> func) {
+        if (enabled) {
+            ObjectHelper.requireNonNull(func, "func is null");
+            return new TagBiFunction<T1, T2, R>(func, new CallSiteTag());
+        }
+        return func;
+    }
+
     public static <T1, T2, T3, R> Function3<T1, T2, T3, R> tagFunction3(Function3<T1, T2, T3, R> func, String tag) {
         if (enabled) {
             ObjectHelper.requireNonNull(func, "func is null");
@@ -96,6 +117,14 @@ public final class FunctionTagging {
         return func;
     }
 
+    public static <T1, T2, T3, R> Function3<T1, T2, T3, R> tagFunction3(Function3<T1, T2, T3, R> func) {
+        if (enabled) {
+            ObjectHelper.requireNonNull(func, "func is null");
+            return new TagFunction3<T1, T2, T3, R>(func, new CallSiteTag());
+        }
+        return func;
+    }
+
     public static <T1, T2, T3, T4, R> Function4<T1, T2, T3, T4, R> tagFunction4(Function4<T1, T2, T3, T4, R> func, String tag) {
         if (enabled) {
             ObjectHelper.requireNonNull(func, "func is null");
@@ -105,6 +134,14 @@ public final class FunctionTagging {
         return func;
     }
 
+    public static <T1, T2, T3, T4, R> Function4<T1, T2, T3, T4, R> tagFunction4(Function4<T1, T2, T3, T4, R> func) {
+        if (enabled) {
+            ObjectHelper.requireNonNull(func, "func is null");
+            return new TagFunction4<T1, T2, T3, T4, R>(func, new CallSiteTag());
+        }
+        return func;
+    }
+
     public static <T1, T2, T3, T4, T5, R> Function5<T1, T2, T3, T4, T5, R> tagFunction5(Function5<T1, T2, T3, T4, T5, R> func, String tag) {
         if (enabled) {
             ObjectHelper.requireNonNull(func, "func is null");
@@ -114,6 +151,14 @@ public final class FunctionTagging {
         return func;
     }
 
+    public static <T1, T2, T3, T4, T5, R> Function5<T1, T2, T3, T4, T5, R> tagFunction5(Function5<T1, T2, T3, T4, T5, R> func) {
+        if (enabled) {
+            ObjectHelper.requireNonNull(func, "func is null");
+            return new TagFunction5<T1, T2, T3, T4, T5, R>(func, new CallSiteTag());
+        }
+        return func;
+    }
+
     public static <T1, T2, T3, T4, T5, T6, R> Function6<T1, T2, T3, T4, T5, T6, R> tagFunction6(Function6<T1, T2, T3, T4, T5, T6, R> func, String tag) {
         if (enabled) {
             ObjectHelper.requireNonNull(func, "func is null");
@@ -123,6 +168,14 @@ public final class FunctionTagging {
         return func;
     }
 
+    public static <T1, T2, T3, T4, T5, T6, R> Function6<T1, T2, T3, T4, T5, T6, R> tagFunction6(Function6<T1, T2, T3, T4, T5, T6, R> func) {
+        if (enabled) {
+            ObjectHelper.requireNonNull(func, "func is null");
+            return new TagFunction6<T1, T2, T3, T4, T5, T6, R>(func, new CallSiteTag());
+        }
+        return func;
+    }
+
     public static <T1, T2, T3, T4, T5, T6, T7, R> Function7<T1, T2, T3, T4, T5, T6, T7, R> tagFunction7(Function7<T1, T2, T3, T4, T5, T6, T7, R> func, String tag) {
         if (enabled) {
             ObjectHelper.requireNonNull(func, "func is null");
@@ -132,6 +185,14 @@ public final class FunctionTagging {
         return func;
     }
 
+    public static <T1, T2, T3, T4, T5, T6, T7, R> Function7<T1, T2, T3, T4, T5, T6, T7, R> tagFunction7(Function7<T1, T2, T3, T4, T5, T6, T7, R> func) {
+        if (enabled) {
+            ObjectHelper.requireNonNull(func, "func is null");
+            return new TagFunction7<T1, T2, T3, T4, T5, T6, T7, R>(func, new CallSiteTag());
+        }
+        return func;
+    }
+
     public static <T1, T2, T3, T4, T5, T6, T7, T8, R> Function8<T1, T2, T3, T4, T5, T6, T7, T8, R> tagFunction8(Function8<T1, T2, T3, T4, T5, T6, T7, T8, R> func, String tag) {
         if (enabled) {
             ObjectHelper.requireNonNull(func, "func is null");
@@ -141,6 +202,14 @@ public final class FunctionTagging {
         return func;
     }
 
+    public static <T1, T2, T3, T4, T5, T6, T7, T8, R> Function8<T1, T2, T3, T4, T5, T6, T7, T8, R> tagFunction8(Function8<T1, T2, T3, T4, T5, T6, T7, T8, R> func) {
+        if (enabled) {
+            ObjectHelper.requireNonNull(func, "func is null");
+            return new TagFunction8<T1, T2, T3, T4, T5, T6, T7, T8, R>(func, new CallSiteTag());
+        }
+        return func;
+    }
+
     public static <T1, T2, T3, T4, T5, T6, T7, T8, T9, R> Function9<T1, T2, T3, T4, T5, T6, T7, T8, T9, R> tagFunction9(Function9<T1, T2, T3, T4, T5, T6, T7, T8, T9, R> func, String tag) {
         if (enabled) {
             ObjectHelper.requireNonNull(func, "func is null");
@@ -150,6 +219,14 @@ public final class FunctionTagging {
         return func;
     }
 
+    public static <T1, T2, T3, T4, T5, T6, T7, T8, T9, R> Function9<T1, T2, T3, T4, T5, T6, T7, T8, T9, R> tagFunction9(Function9<T1, T2, T3, T4, T5, T6, T7, T8, T9, R> func) {
+        if (enabled) {
+            ObjectHelper.requireNonNull(func, "func is null");
+            return new TagFunction9<T1, T2, T3, T4, T5, T6, T7, T8, T9, R>(func, new CallSiteTag());
+        }
+        return func;
+    }
+
     /**
      * Return an Exception to be thrown by the caller or sneak out the original Throwable.
      * @param <E> the generic exception type
@@ -218,13 +295,50 @@ public final class FunctionTagging {
         }
     }
 
+    /**
+     * Tag that captures the stacktrace of the assembly location and formats
+     * the first frame outside of {@code FunctionTagging} on demand.
+     */
+    static final class CallSiteTag {
+
+        final Throwable site;
+
+        String formatted;
+
+        CallSiteTag() {
+            this.site = new Throwable();
+        }
+
+        @Override
+        public String toString() {
+            String s = formatted;
+            if (s == null) {
+                s = format(site.getStackTrace());
+                formatted = s;
+            }
+            return s;
+        }
+
+        static String format(StackTraceElement[] elements) {
+            String name = FunctionTagging.class.getName();
+            String prefix = name + "$";
+            for (StackTraceElement e : elements) {
+                String cn = e.getClassName();
+                if (!cn.equals(name) && !cn.startsWith(prefix)) {
+                    return "at " + e;
+                }
+            }
+            return "at <unknown>";
+        }
+    }
+
     static final class TagFunction<T, R> implements Function<T, R> {
 
         final Function<T, R> actual;
 
-        final String tag;
+        final Object tag;
 
-        TagFunction(Function<T, R> actual, String tag) {
+        TagFunction(Function<T, R> actual, Object tag) {
             this.actual = actual;
             this.tag = tag;
         }
@@ -240,7 +354,7 @@ public final class FunctionTagging {
             try {
                 v = actual.apply(t);
             } catch (Throwable ex) {
-                throw FunctionTagging.<Exception>justThrow(new FunctionTaggingException(tag).appendLast(ex));
+                throw FunctionTagging.<Exception>justThrow(new FunctionTaggingException(String.valueOf(tag)).appendLast(ex));
             }
 
             if (v == null) {
@@ -255,9 +369,9 @@ public final class FunctionTagging {
 
         final BiFunction<T1, T2, R> actual;
 
-        final String tag;
+        final Object tag;
 
-        TagBiFunction(BiFunction<T1, T2, R> actual, String tag) {
+        TagBiFunction(BiFunction<T1, T2, R> actual, Object tag) {
             this.actual = actual;
             this.tag = tag;
         }
@@ -276,7 +390,7 @@ public final class FunctionTagging {
             try {
                 v = actual.apply(t1, t2);
             } catch (Throwable ex) {
-                throw FunctionTagging.<Exception>justThrow(new FunctionTaggingException(tag).appendLast(ex));
+                throw FunctionTagging.<Exception>justThrow(new FunctionTaggingException(String.valueOf(tag)).appendLast(ex));
             }
 
             if (v == null) {
@@ -291,9 +405,9 @@ public final class FunctionTagging {
 
         final Function3<T1, T2, T3, R> actual;
 
-        final String tag;
+        final Object tag;
 
-        TagFunction3(Function3<T1, T2, T3, R> actual, String tag) {
+        TagFunction3(Function3<T1, T2, T3, R> actual, Object tag) {
             this.actual = actual;
             this.tag = tag;
         }
@@ -315,7 +429,7 @@ public final class FunctionTagging {
             try {
                 v = actual.apply(t1, t2, t3);
             } catch (Throwable ex) {
-                throw FunctionTagging.<Exception>justThrow(new FunctionTaggingException(tag).appendLast(ex));
+                throw FunctionTagging.<Exception>justThrow(new FunctionTaggingException(String.valueOf(tag)).appendLast(ex));
             }
 
             if (v == null) {
@@ -330,9 +444,9 @@ public final class FunctionTagging {
 
         final Function4<T1, T2, T3, T4, R> actual;
 
-        final String tag;
+        final Object tag;
 
-        TagFunction4(Function4<T1, T2, T3, T4, R> actual, String tag) {
+        TagFunction4(Function4<T1, T2, T3, T4, R> actual, Object tag) {
             this.actual = actual;
             this.tag = tag;
         }
@@ -357,7 +471,7 @@ public final class FunctionTagging {
             try {
                 v = actual.apply(t1, t2, t3, t4);
             } catch (Throwable ex) {
-                throw FunctionTagging.<Exception>justThrow(new FunctionTaggingException(tag).appendLast(ex));
+                throw FunctionTagging.<Exception>justThrow(new FunctionTaggingException(String.valueOf(tag)).appendLast(ex));
             }
 
             if (v == null) {
@@ -372,9 +486,9 @@ public final class FunctionTagging {
 
         final Function5<T1, T2, T3, T4, T5, R> actual;
 
-        final String tag;
+        final Object tag;
 
-        TagFunction5(Function5<T1, T2, T3, T4, T5, R> actual, String tag) {
+        TagFunction5(Function5<T1, T2, T3, T4, T5, R> actual, Object tag) {
             this.actual = actual;
             this.tag = tag;
         }
@@ -402,7 +516,7 @@ public final class FunctionTagging {
             try {
                 v = actual.apply(t1, t2, t3, t4, t5);
             } catch (Throwable ex) {
-                throw FunctionTagging.<Exception>justThrow(new FunctionTaggingException(tag).appendLast(ex));
+                throw FunctionTagging.<Exception>justThrow(new FunctionTaggingException(String.valueOf(tag)).appendLast(ex));
             }
 
             if (v == null) {
@@ -417,9 +531,9 @@ public final class FunctionTagging {
 
         final Function6<T1, T2, T3, T4, T5, T6, R> actual;
 
-        final String tag;
+        final Object tag;
 
-        TagFunction6(Function6<T1, T2, T3, T4, T5, T6, R> actual, String tag) {
+        TagFunction6(Function6<T1, T2, T3, T4, T5, T6, R> actual, Object tag) {
             this.actual = actual;
             this.tag = tag;
         }
@@ -450,7 +564,7 @@ public final class FunctionTagging {
             try {
                 v = actual.apply(t1, t2, t3, t4, t5, t6);
             } catch (Throwable ex) {
-                throw FunctionTagging.<Exception>justThrow(new FunctionTaggingException(tag).appendLast(ex));
+                throw FunctionTagging.<Exception>justThrow(new FunctionTaggingException(String.valueOf(tag)).appendLast(ex));
             }
 
             if (v == null) {
@@ -465,9 +579,9 @@ public final class FunctionTagging {
 
         final Function7<T1, T2, T3, T4, T5, T6, T7, R> actual;
 
-        final String tag;
+        final Object tag;
 
-        TagFunction7(Function7<T1, T2, T3, T4, T5, T6, T7, R> actual, String tag) {
+        TagFunction7(Function7<T1, T2, T3, T4, T5, T6, T7, R> actual, Object tag) {
             this.actual = actual;
             this.tag = tag;
         }
@@ -501,7 +615,7 @@ public final class FunctionTagging {
             try {
                 v = actual.apply(t1, t2, t3, t4, t5, t6, t7);
             } catch (Throwable ex) {
-                throw FunctionTagging.<Exception>justThrow(new FunctionTaggingException(tag).appendLast(ex));
+                throw FunctionTagging.<Exception>justThrow(new FunctionTaggingException(String.valueOf(tag)).appendLast(ex));
             }
 
             if (v == null) {
@@ -516,9 +630,9 @@ public final class FunctionTagging {
 
         final Function8<T1, T2, T3, T4, T5, T6, T7, T8, R> actual;
 
-        final String tag;
+        final Object tag;
 
-        TagFunction8(Function8<T1, T2, T3, T4, T5, T6, T7, T8, R> actual, String tag) {
+        TagFunction8(Function8<T1, T2, T3, T4, T5, T6, T7, T8, R> actual, Object tag) {
             this.actual = actual;
             this.tag = tag;
         }
@@ -555,7 +669,7 @@ public final class FunctionTagging {
             try {
                 v = actual.apply(t1, t2, t3, t4, t5, t6, t7, t8);
             } catch (Throwable ex) {
-                throw FunctionTagging.<Exception>justThrow(new FunctionTaggingException(tag).appendLast(ex));
+                throw FunctionTagging.<Exception>justThrow(new FunctionTaggingException(String.valueOf(tag)).appendLast(ex));
             }
 
             if (v == null) {
@@ -570,9 +684,9 @@ public final class FunctionTagging {
 
         final Function9<T1, T2, T3, T4, T5, T6, T7, T8, T9, R> actual;
 
-        final String tag;
+        final Object tag;
 
-        TagFunction9(Function9<T1, T2, T3, T4, T5, T6, T7, T8, T9, R> actual, String tag) {
+        TagFunction9(Function9<T1, T2, T3, T4, T5, T6, T7, T8, T9, R> actual, Object tag) {
             this.actual = actual;
             this.tag = tag;
         }
@@ -612,7 +726,7 @@ public final class FunctionTagging {
             try {
                 v = actual.apply(t1, t2, t3, t4, t5, t6, t7, t8, t9);
             } catch (Throwable ex) {
-                throw FunctionTagging.<Exception>justThrow(new FunctionTaggingException(tag).appendLast(ex));
+                throw FunctionTagging.<Exception>justThrow(new FunctionTaggingException(String.valueOf(tag)).appendLast(ex));
             }
 
             if (v == null) {
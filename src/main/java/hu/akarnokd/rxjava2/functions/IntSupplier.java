@@ -14,15 +14,19 @@
  * limitations under the License.
  */
 
-package hu.akarnokd.rxjava2.joins;
-
-import io.reactivex.disposables.Disposable;
+package hu.akarnokd.rxjava2.functions;
 
 /**
- * Base interface to manage joined observations.
+ * A functional interface that returns a primitive int value.
+ *
+ * @since 0.17.9
  */
-interface JoinObserver extends Disposable {
-    void subscribe(Object gate);
+public interface IntSupplier {
 
-    void dequeue();
+    /**
+     * Returns an int value.
+     * @return the int value
+     * @throws Exception on error
+     */
+    int getAsInt() throws Exception;
 }
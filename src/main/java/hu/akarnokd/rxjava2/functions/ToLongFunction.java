@@ -0,0 +1,34 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.functions;
+
+/**
+ * A functional interface that computes a primitive long value from a value.
+ *
+ * @param <T> the input value type
+ * @since 0.17.9
+ */
+public interface ToLongFunction<T> {
+
+    /**
+     * Computes a long value from the given value.
+     * @param t the input value
+     * @return the long value
+     * @throws Exception on error
+     */
+    long applyAsLong(T t) throws Exception;
+}
@@ -0,0 +1,382 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.joins;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import io.reactivex.Flowable;
+import io.reactivex.exceptions.*;
+import io.reactivex.functions.Function;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.fuseable.SimpleQueue;
+import io.reactivex.internal.subscribers.*;
+import io.reactivex.internal.subscriptions.*;
+import io.reactivex.internal.util.*;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Matches the items of the Publishers of a set of plans and emits
+ * the combined results while consuming each distinct Publisher with a bounded prefetch.
+ * <p>
+ * A source is only replenished after its queued items have been consumed by a matching plan,
+ * thus a fast source whose partner is slow can't grow the memory usage beyond the prefetch amount.
+ * <p>
+ * A plan is finished when all its sources have something available and
+ * one of them has terminated. The operator completes when all plans are finished.
+ *
+ * @param <R> the result type
+ */
+final class FlowableJoinWhen<R> extends Flowable<R> {
+
+    final Iterable<? extends FlowablePlan<R>> plans;
+
+    final int prefetch;
+
+    FlowableJoinWhen(Iterable<? extends FlowablePlan<R>> plans, int prefetch) {
+        this.plans = plans;
+        this.prefetch = prefetch;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected void subscribeActual(Subscriber<? super R> s) {
+        List<Publisher<?>> sources = new ArrayList<Publisher<?>>();
+        List<Function<? super Object[], ? extends R>> selectors = new ArrayList<Function<? super Object[], ? extends R>>();
+        List<int[]> indexes = new ArrayList<int[]>();
+
+        try {
+            Map<Publisher<?>, Integer> sourceIndex = new IdentityHashMap<Publisher<?>, Integer>();
+            for (FlowablePlan<R> plan : plans) {
+                ObjectHelper.requireNonNull(plan, "One of the plans is null");
+                Publisher<?>[] ps = plan.sources;
+                int[] idx = new int[ps.length];
+                for (int i = 0; i < ps.length; i++) {
+                    Integer j = sourceIndex.get(ps[i]);
+                    if (j == null) {
+                        j = sources.size();
+                        sourceIndex.put(ps[i], j);
+                        sources.add(ps[i]);
+                    }
+                    idx[i] = j;
+                }
+                selectors.add(plan.selector);
+                indexes.add(idx);
+            }
+        } catch (Throwable ex) {
+            Exceptions.throwIfFatal(ex);
+            EmptySubscription.error(ex, s);
+            return;
+        }
+
+        if (selectors.isEmpty()) {
+            EmptySubscription.complete(s);
+            return;
+        }
+
+        JoinSubscription<R> parent = new JoinSubscription<R>(s,
+                selectors.toArray(new Function[0]),
+                indexes.toArray(new int[0][]), sources.size(), prefetch);
+        s.onSubscribe(parent);
+
+        parent.subscribe(sources.toArray(new Publisher[0]));
+    }
+
+    static final class JoinSubscription<R>
+    extends AtomicInteger
+    implements Subscription, InnerQueuedSubscriberSupport<Object> {
+
+        private static final long serialVersionUID = -3340866813758826640L;
+
+        final Subscriber<? super R> actual;
+
+        final Function<? super Object[], ? extends R>[] selectors;
+
+        /** The source index for each argument position of each plan. */
+        final int[][] planArguments;
+
+        /** The distinct source indexes of each plan. */
+        final int[][] planSources;
+
+        final InnerQueuedSubscriber<Object>[] subscribers;
+
+        /** The item at the front of each source, null if not yet polled, this if the source is done. */
+        final Object[] heads;
+
+        /** The number of unfinished plans using a particular source. */
+        final int[] sourcePlans;
+
+        final boolean[] planDone;
+
+        final AtomicThrowable errors;
+
+        final AtomicLong requested;
+
+        int activePlans;
+
+        volatile boolean cancelled;
+
+        @SuppressWarnings("unchecked")
+        JoinSubscription(Subscriber<? super R> actual, Function<? super Object[], ? extends R>[] selectors,
+                int[][] planArguments, int n, int prefetch) {
+            this.actual = actual;
+            this.selectors = selectors;
+            this.planArguments = planArguments;
+            int m = planArguments.length;
+            this.planSources = new int[m][];
+            this.sourcePlans = new int[n];
+            for (int i = 0; i < m; i++) {
+                int[] distinct = JoinPatterns.distinct(planArguments[i]);
+                planSources[i] = distinct;
+                for (int j : distinct) {
+                    sourcePlans[j]++;
+                }
+            }
+            this.planDone = new boolean[m];
+            this.activePlans = m;
+            InnerQueuedSubscriber<Object>[] subs = new InnerQueuedSubscriber[n];
+            for (int i = 0; i < n; i++) {
+                subs[i] = new InnerQueuedSubscriber<Object>(this, prefetch);
+            }
+            this.subscribers = subs;
+            this.heads = new Object[n];
+            this.errors = new AtomicThrowable();
+            this.requested = new AtomicLong();
+        }
+
+
+        @SuppressWarnings("unchecked")
+        void subscribe(Publisher<?>[] sources) {
+            InnerQueuedSubscriber<Object>[] subs = subscribers;
+            for (int i = 0; i < sources.length && !cancelled; i++) {
+                ((Publisher<Object>)sources[i]).subscribe(subs[i]);
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                cancelSources();
+                if (getAndIncrement() == 0) {
+                    clearSources();
+                }
+            }
+        }
+
+        void cancelSources() {
+            for (InnerQueuedSubscriber<Object> inner : subscribers) {
+                inner.cancel();
+            }
+        }
+
+        void clearSources() {
+            Arrays.fill(heads, null);
+            for (InnerQueuedSubscriber<Object> inner : subscribers) {
+                SimpleQueue<Object> q = inner.queue();
+                if (q != null) {
+                    q.clear();
+                }
+            }
+        }
+
+        @Override
+        public void innerNext(InnerQueuedSubscriber<Object> inner, Object value) {
+            if (inner.queue().offer(value)) {
+                drain();
+            } else {
+                inner.cancel();
+                innerError(inner, new MissingBackpressureException("Queue is full?!"));
+            }
+        }
+
+        @Override
+        public void innerError(InnerQueuedSubscriber<Object> inner, Throwable e) {
+            if (errors.addThrowable(e)) {
+                inner.setDone();
+                cancelSources();
+                drain();
+            } else {
+                RxJavaPlugins.onError(e);
+            }
+        }
+
+        @Override
+        public void innerComplete(InnerQueuedSubscriber<Object> inner) {
+            inner.setDone();
+            drain();
+        }
+
+        void errorAll(Subscriber<? super R> a) {
+            cancelSources();
+            clearSources();
+            a.onError(errors.terminate());
+        }
+
+        @Override
+        public void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            Subscriber<? super R> a = actual;
+            InnerQueuedSubscriber<Object>[] subs = subscribers;
+            Object[] heads = this.heads;
+            int[][] planArguments = this.planArguments;
+            int[][] planSources = this.planSources;
+            boolean[] planDone = this.planDone;
+            int m = planDone.length;
+
+            for (;;) {
+
+                long r = requested.get();
+                long e = 0L;
+
+                for (;;) {
+                    boolean progress = false;
+
+                    for (int p = 0; p < m; p++) {
+                        if (cancelled) {
+                            clearSources();
+                            return;
+                        }
+
+                        if (errors.get() != null) {
+                            errorAll(a);
+                            return;
+                        }
+
+                        if (planDone[p]) {
+                            continue;
+                        }
+
+                        int[] distinct = planSources[p];
+                        boolean missing = false;
+                        boolean finished = false;
+
+                        for (int idx : distinct) {
+                            Object v = heads[idx];
+                            if (v == null) {
+                                InnerQueuedSubscriber<Object> inner = subs[idx];
+                                boolean d = inner.isDone();
+                                SimpleQueue<Object> q = inner.queue();
+                                try {
+                                    v = q != null ? q.poll() : null;
+                                } catch (Throwable ex) {
+                                    Exceptions.throwIfFatal(ex);
+                                    errors.addThrowable(ex);
+                                    errorAll(a);
+                                    return;
+                                }
+                                if (v == null) {
+                                    if (!d) {
+                                        missing = true;
+                                        break;
+                                    }
+                                    v = this;
+                                }
+                                heads[idx] = v;
+                            }
+                            if (v == this) {
+                                finished = true;
+                            }
+                        }
+
+                        if (missing) {
+                            continue;
+                        }
+
+                        if (finished) {
+                            planDone[p] = true;
+                            progress = true;
+                            for (int idx : distinct) {
+                                if (--sourcePlans[idx] == 0) {
+                                    InnerQueuedSubscriber<Object> inner = subs[idx];
+                                    inner.cancel();
+                                    heads[idx] = null;
+                                    SimpleQueue<Object> q = inner.queue();
+                                    if (q != null) {
+                                        q.clear();
+                                    }
+                                }
+                            }
+                            if (--activePlans == 0) {
+                                a.onComplete();
+                                return;
+                            }
+                            continue;
+                        }
+
+                        if (e == r) {
+                            continue;
+                        }
+
+                        int[] args = planArguments[p];
+                        Object[] values = new Object[args.length];
+                        for (int i = 0; i < args.length; i++) {
+                            values[i] = heads[args[i]];
+                        }
+                        for (int idx : distinct) {
+                            heads[idx] = null;
+                            subs[idx].requestOne();
+                        }
+
+                        R v;
+
+                        try {
+                            v = ObjectHelper.requireNonNull(selectors[p].apply(values), "The selector returned a null value");
+                        } catch (Throwable ex) {
+                            Exceptions.throwIfFatal(ex);
+                            errors.addThrowable(ex);
+                            errorAll(a);
+                            return;
+                        }
+
+                        a.onNext(v);
+
+                        e++;
+                        progress = true;
+                    }
+
+                    if (!progress) {
+                        break;
+                    }
+                }
+
+                if (e != 0L) {
+                    BackpressureHelper.produced(requested, e);
+                }
+
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.joins;
+
+import org.reactivestreams.Publisher;
+
+import io.reactivex.functions.BiFunction;
+import io.reactivex.internal.functions.*;
+
+/**
+ * Represents a join pattern over Publisher sequences.
+ * @param <T1> the first value type
+ * @param <T2> the second value type
+ * @since 0.17.9
+ */
+public final class FlowablePattern2<T1, T2> {
+    private final Publisher<T1> p1;
+    private final Publisher<T2> p2;
+
+    FlowablePattern2(Publisher<T1> p1, Publisher<T2> p2) {
+        this.p1 = p1;
+        this.p2 = p2;
+    }
+
+    /**
+     * Creates a pattern that matches when all three Publisher sequences have an available element.
+     *
+     * @param <T3> the value type of the extra Publisher
+     * @param other
+     *            Publisher sequence to match with the two previous sequences.
+     * @return Pattern object that matches when all Publisher sequences have an available element.
+     */
+    public <T3> FlowablePattern3<T1, T2, T3> and(Publisher<T3> other) {
+        ObjectHelper.requireNonNull(other, "other is null");
+        return new FlowablePattern3<T1, T2, T3>(p1, p2, other);
+    }
+
+    /**
+     * Matches when all Publisher sequences have an available
+     * element and projects the elements by invoking the selector function.
+     *
+     * @param <R> the result type
+     * @param selector
+     *            the function that will be invoked for elements in the source sequences.
+     * @return the plan for the matching
+     * @throws NullPointerException
+     *             if selector is null
+     */
+    public <R> FlowablePlan<R> then(BiFunction<T1, T2, R> selector) {
+        ObjectHelper.requireNonNull(selector, "selector is null");
+        return new FlowablePlan<R>(new Publisher<?>[] { p1, p2 }, Functions.toFunction(selector));
+    }
+}
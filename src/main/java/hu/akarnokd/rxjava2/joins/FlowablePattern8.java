@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.joins;
+
+import org.reactivestreams.Publisher;
+
+import io.reactivex.functions.Function8;
+import io.reactivex.internal.functions.*;
+
+/**
+ * Represents a join pattern over Publisher sequences.
+ * @param <T1> the first value type
+ * @param <T2> the second value type
+ * @param <T3> the third value type
+ * @param <T4> the fourth value type
+ * @param <T5> the fifth value type
+ * @param <T6> the sixth value type
+ * @param <T7> the seventh value type
+ * @param <T8> the eighth value type
+ * @since 0.17.9
+ */
+public final class FlowablePattern8<T1, T2, T3, T4, T5, T6, T7, T8> {
+    private final Publisher<T1> p1;
+    private final Publisher<T2> p2;
+    private final Publisher<T3> p3;
+    private final Publisher<T4> p4;
+    private final Publisher<T5> p5;
+    private final Publisher<T6> p6;
+    private final Publisher<T7> p7;
+    private final Publisher<T8> p8;
+
+    FlowablePattern8(Publisher<T1> p1, Publisher<T2> p2, Publisher<T3> p3, Publisher<T4> p4, Publisher<T5> p5, Publisher<T6> p6, Publisher<T7> p7, Publisher<T8> p8) {
+        this.p1 = p1;
+        this.p2 = p2;
+        this.p3 = p3;
+        this.p4 = p4;
+        this.p5 = p5;
+        this.p6 = p6;
+        this.p7 = p7;
+        this.p8 = p8;
+    }
+
+    /**
+     * Creates a pattern that matches when all nine Publisher sequences have an available element.
+     *
+     * @param <T9> the value type of the extra Publisher
+     * @param other
+     *            Publisher sequence to match with the eight previous sequences.
+     * @return Pattern object that matches when all Publisher sequences have an available element.
+     */
+    public <T9> FlowablePattern9<T1, T2, T3, T4, T5, T6, T7, T8, T9> and(Publisher<T9> other) {
+        ObjectHelper.requireNonNull(other, "other is null");
+        return new FlowablePattern9<T1, T2, T3, T4, T5, T6, T7, T8, T9>(p1, p2, p3, p4, p5, p6, p7, p8, other);
+    }
+
+    /**
+     * Matches when all Publisher sequences have an available
+     * element and projects the elements by invoking the selector function.
+     *
+     * @param <R> the result type
+     * @param selector
+     *            the function that will be invoked for elements in the source sequences.
+     * @return the plan for the matching
+     * @throws NullPointerException
+     *             if selector is null
+     */
+    public <R> FlowablePlan<R> then(Function8<T1, T2, T3, T4, T5, T6, T7, T8, R> selector) {
+        ObjectHelper.requireNonNull(selector, "selector is null");
+        return new FlowablePlan<R>(new Publisher<?>[] { p1, p2, p3, p4, p5, p6, p7, p8 }, Functions.toFunction(selector));
+    }
+}
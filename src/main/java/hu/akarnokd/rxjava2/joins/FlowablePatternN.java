@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.joins;
+
+import java.util.Arrays;
+
+import org.reactivestreams.Publisher;
+
+import io.reactivex.functions.Function;
+import io.reactivex.internal.functions.ObjectHelper;
+
+/**
+ * Represents a join pattern over an arbitrary number of Publisher sequences.
+ * @since 0.17.9
+ */
+public final class FlowablePatternN {
+    private final Publisher<?>[] sources;
+
+    FlowablePatternN(Publisher<?>[] sources) {
+        this.sources = sources;
+    }
+
+    /**
+     * Creates a pattern that matches when all previous Publisher sequences have an available element.
+     *
+     * @param other
+     *            Publisher sequence to match with the previous sequences.
+     * @return Pattern object that matches when all Publisher sequences have an available element.
+     */
+    public FlowablePatternN and(Publisher<? extends Object> other) {
+        ObjectHelper.requireNonNull(other, "other is null");
+        Publisher<?>[] a = Arrays.copyOf(sources, sources.length + 1);
+        a[sources.length] = other;
+        return new FlowablePatternN(a);
+    }
+
+    /**
+     * Matches when all Publisher sequences have an available
+     * element and projects the elements by invoking the selector function.
+     *
+     * @param <R> the result type
+     * @param selector
+     *            the function that will be invoked for elements in the source sequences.
+     * @return the plan for the matching
+     * @throws NullPointerException
+     *             if selector is null
+     */
+    public <R> FlowablePlan<R> then(Function<? super Object[], R> selector) {
+        ObjectHelper.requireNonNull(selector, "selector is null");
+        return new FlowablePlan<R>(sources, selector);
+    }
+}
@@ -16,24 +16,23 @@
 
 package hu.akarnokd.rxjava2.joins;
 
-import java.util.HashMap;
-import java.util.Map;
+import org.reactivestreams.Publisher;
+
+import io.reactivex.functions.Function;
 
 /**
- * Represents an activated plan.
+ * Represents an execution plan for Publisher-based join patterns: the
+ * sources to match and the function combining one item from each.
+ * @param <R> the result type
+ * @since 0.17.9
  */
-abstract class ActivePlan0 {
-    protected final Map<JoinObserver, JoinObserver> joinObservers = new HashMap<JoinObserver, JoinObserver>();
-
-    protected abstract void match() throws Exception;
+public final class FlowablePlan<R> {
+    final Publisher<?>[] sources;
 
-    protected void addJoinObserver(JoinObserver joinObserver) {
-        joinObservers.put(joinObserver, joinObserver);
-    }
+    final Function<? super Object[], ? extends R> selector;
 
-    protected void dequeue() {
-        for (JoinObserver jo : joinObservers.values()) {
-            jo.dequeue();
-        }
+    FlowablePlan(Publisher<?>[] sources, Function<? super Object[], ? extends R> selector) {
+        this.sources = sources;
+        this.selector = selector;
     }
 }
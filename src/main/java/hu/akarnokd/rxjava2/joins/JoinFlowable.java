@@ -0,0 +1,144 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.joins;
+
+import java.util.Arrays;
+
+import org.reactivestreams.Publisher;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Represents a Publisher that supports backpressured join operations.
+ * <p>
+ * Unlike {@link JoinObservable}, each distinct source is consumed with a bounded prefetch
+ * and is only requested from again once its queued items have been matched by a plan.
+ *
+ * @param <T> the value type joined
+ * @since 0.17.9
+ */
+public final class JoinFlowable<T> {
+
+    private final Flowable<T> source;
+
+    private JoinFlowable(Flowable<T> source) {
+        this.source = source;
+    }
+
+    /**
+     * Creates a JoinFlowable from a regular Publisher.
+     * @param <T> the value type
+     * @param source the Publisher to wrap
+     * @return the created JoinFlowable instance
+     */
+    public static <T> JoinFlowable<T> from(Publisher<T> source) {
+        ObjectHelper.requireNonNull(source, "source is null");
+        return new JoinFlowable<T>(Flowable.fromPublisher(source));
+    }
+
+    /**
+     * Returns a Pattern that matches when both Publishers emit an item.
+     * @param <T2> the value type of the right Publisher
+     * @param right
+     *            a Publisher to match with the source Publisher
+     * @return a Pattern object that matches when both Publishers emit an item
+     * @throws NullPointerException
+     *             if {@code right} is null
+     */
+    public <T2> FlowablePattern2<T, T2> and(Publisher<T2> right) {
+        ObjectHelper.requireNonNull(right, "right is null");
+        return new FlowablePattern2<T, T2>(source, right);
+    }
+
+    /**
+     * Matches when the Publisher has an available item and projects the item by invoking the selector
+     * function.
+     * @param <R> the result type
+     * @param selector
+     *            selector that will be invoked for items emitted by the source Publisher
+     * @return a {@link FlowablePlan} that produces the projected results, to be fed (with other plans) to
+     *          the {@link #when} method
+     * @throws NullPointerException
+     *             if {@code selector} is null
+     */
+    public <R> FlowablePlan<R> then(final Function<? super T, ? extends R> selector) {
+        ObjectHelper.requireNonNull(selector, "selector is null");
+        return new FlowablePlan<R>(new Publisher<?>[] { source }, new Function<Object[], R>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public R apply(Object[] a) throws Exception {
+                return selector.apply((T)a[0]);
+            }
+        });
+    }
+
+    /**
+     * Joins together the results from several patterns via their plans.
+     * @param <R> the result type
+     * @param plans
+     *            a series of plans created by use of the {@link #then} method on patterns
+     * @return a JoinFlowable that emits the results from matching several patterns
+     * @throws NullPointerException
+     *             if {@code plans} is null
+     */
+    public static <R> JoinFlowable<R> when(FlowablePlan<R>... plans) {
+        ObjectHelper.requireNonNull(plans, "plans is null");
+        return when(Arrays.asList(plans));
+    }
+
+    /**
+     * Joins together the results from several patterns via their plans.
+     * @param <R> the result type
+     * @param plans
+     *            a series of plans created by use of the {@link #then} method on patterns
+     * @return a JoinFlowable that emits the results from matching several patterns
+     * @throws NullPointerException
+     *             if {@code plans} is null
+     */
+    public static <R> JoinFlowable<R> when(Iterable<? extends FlowablePlan<R>> plans) {
+        return when(plans, Flowable.bufferSize());
+    }
+
+    /**
+     * Joins together the results from several patterns via their plans,
+     * prefetching the given number of items from each distinct source.
+     * @param <R> the result type
+     * @param plans
+     *            a series of plans created by use of the {@link #then} method on patterns
+     * @param prefetch
+     *            the number of items to prefetch and buffer at most from each distinct source
+     * @return a JoinFlowable that emits the results from matching several patterns
+     * @throws NullPointerException
+     *             if {@code plans} is null
+     */
+    public static <R> JoinFlowable<R> when(Iterable<? extends FlowablePlan<R>> plans, int prefetch) {
+        ObjectHelper.requireNonNull(plans, "plans is null");
+        ObjectHelper.verifyPositive(prefetch, "prefetch");
+        return new JoinFlowable<R>(RxJavaPlugins.onAssembly(new FlowableJoinWhen<R>(plans, prefetch)));
+    }
+
+    /**
+     * Returns the underlying Flowable.
+     * @return the underlying Flowable
+     */
+    public Flowable<T> toFlowable() {
+        return source;
+    }
+}
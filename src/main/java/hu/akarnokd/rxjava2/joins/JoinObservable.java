@@ -61,6 +61,27 @@ public final class JoinObservable<T> {
         return JoinPatterns.and(o, right);
     }
 
+    /**
+     * Starts a keyed pattern where items of this and the subsequently {@code and}-ed
+     * Observables are only matched if they have the same key.
+     * <p>
+     * The unmatched items are indexed by their key so matching costs O(1) per item instead of a
+     * queue scan; the {@code window} methods of the pattern bound the number or age of the
+     * unmatched items kept. The sources of a keyed pattern are subscribed to by its plan alone
+     * and are not shared with other plans.
+     *
+     * @param <K> the key type
+     * @param keySelector
+     *            the function returning the key of the items of this Observable
+     * @return the first part of the keyed pattern
+     * @throws NullPointerException
+     *             if {@code keySelector} is null
+     * @since 0.17.9
+     */
+    public <K> KeyedPattern1<T, K> keyBy(Function<? super T, ? extends K> keySelector) {
+        return new KeyedPattern1<T, K>(KeyedJoinSpec.create(o, keySelector));
+    }
+
     /**
      * Joins together the results from several patterns via their plans.
      * <p>
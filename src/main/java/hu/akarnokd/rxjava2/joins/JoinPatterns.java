@@ -16,13 +16,10 @@
 
 package hu.akarnokd.rxjava2.joins;
 
-import java.util.*;
+import java.util.Arrays;
 
 import io.reactivex.Observable;
-import io.reactivex.Observer;
-import io.reactivex.disposables.*;
-import io.reactivex.functions.*;
-import io.reactivex.observers.SafeObserver;
+import io.reactivex.functions.Function;
 
 /**
  * Join patterns  And, Then and When.
@@ -89,63 +86,26 @@ final class JoinPatterns {
         if (plans == null) {
             throw new NullPointerException("plans");
         }
-        return new Observable<R>() {
-            @Override
-            protected void subscribeActual(final Observer<? super R> t1) {
-                final Map<Object, JoinObserver> externalSubscriptions = new HashMap<Object, JoinObserver>();
-                final Object gate = new Object();
-                final List<ActivePlan0> activePlans = new ArrayList<ActivePlan0>();
-
-                final Observer<R> out = new SafeObserver<R>(new Observer<R>() {
-
-                    @Override
-                    public void onSubscribe(Disposable d) {
-                    }
-
-                    @Override
-                    public void onNext(R args) {
-                        t1.onNext(args);
-                    }
-
-                    @Override
-                    public void onError(Throwable e) {
-                        for (JoinObserver po : externalSubscriptions.values()) {
-                            po.dispose();
-                        }
-                        t1.onError(e);
-                    }
-
-                    @Override
-                    public void onComplete() {
-                        t1.onComplete();
-                    }
-                });
-
-                out.onSubscribe(Disposables.empty());
+        return new ObservableJoinWhen<R>(plans);
+    }
 
-                try {
-                    for (Plan<R> plan : plans) {
-                        activePlans.add(plan.activate(externalSubscriptions, out, new Consumer<ActivePlan0>() {
-                            @Override
-                            public void accept(ActivePlan0 activePlan) {
-                                activePlans.remove(activePlan);
-                                if (activePlans.isEmpty()) {
-                                    out.onComplete();
-                                }
-                            }
-                        }));
-                    }
-                } catch (Throwable t) {
-                    Observable.<R> error(t).subscribe(t1);
-                    return;
-                }
-                CompositeDisposable group = new CompositeDisposable();
-                t1.onSubscribe(group);
-                for (JoinObserver jo : externalSubscriptions.values()) {
-                    jo.subscribe(gate);
-                    group.add(jo);
+    /**
+     * Returns the distinct source indexes of a plan in their order of first appearance.
+     * @param indexes the source index for each argument position of the plan
+     * @return the distinct source indexes
+     */
+    static int[] distinct(int[] indexes) {
+        int[] a = new int[indexes.length];
+        int k = 0;
+        outer:
+        for (int idx : indexes) {
+            for (int i = 0; i < k; i++) {
+                if (a[i] == idx) {
+                    continue outer;
                 }
             }
-        };
+            a[k++] = idx;
+        }
+        return Arrays.copyOf(a, k);
     }
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.joins;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.functions.*;
+import io.reactivex.internal.functions.ObjectHelper;
+
+/**
+ * Holds the sources, key selectors and window settings of a keyed join pattern.
+ */
+final class KeyedJoinSpec {
+
+    final Observable<?>[] sources;
+
+    final Function<?, ?>[] keySelectors;
+
+    /** The maximum number of unmatched items per source, Integer.MAX_VALUE if unbounded. */
+    final int maxCount;
+
+    /** The maximum age of unmatched items, Long.MAX_VALUE if unbounded. */
+    final long maxAge;
+
+    final TimeUnit unit;
+
+    final Scheduler scheduler;
+
+    final BiConsumer<Integer, Object> onEvict;
+
+    KeyedJoinSpec(Observable<?>[] sources, Function<?, ?>[] keySelectors,
+            int maxCount, long maxAge, TimeUnit unit, Scheduler scheduler,
+            BiConsumer<Integer, Object> onEvict) {
+        this.sources = sources;
+        this.keySelectors = keySelectors;
+        this.maxCount = maxCount;
+        this.maxAge = maxAge;
+        this.unit = unit;
+        this.scheduler = scheduler;
+        this.onEvict = onEvict;
+    }
+
+    static KeyedJoinSpec create(Observable<?> source, Function<?, ?> keySelector) {
+        ObjectHelper.requireNonNull(keySelector, "keySelector is null");
+        return new KeyedJoinSpec(new Observable<?>[] { source }, new Function<?, ?>[] { keySelector },
+                Integer.MAX_VALUE, Long.MAX_VALUE, null, null, null);
+    }
+
+    KeyedJoinSpec and(Observable<?> other, Function<?, ?> keySelector) {
+        ObjectHelper.requireNonNull(other, "other is null");
+        ObjectHelper.requireNonNull(keySelector, "keySelector is null");
+        int n = sources.length;
+        Observable<?>[] s = Arrays.copyOf(sources, n + 1);
+        s[n] = other;
+        Function<?, ?>[] k = Arrays.copyOf(keySelectors, n + 1);
+        k[n] = keySelector;
+        return new KeyedJoinSpec(s, k, maxCount, maxAge, unit, scheduler, onEvict);
+    }
+
+    KeyedJoinSpec count(int maxCount) {
+        ObjectHelper.verifyPositive(maxCount, "maxCount");
+        return new KeyedJoinSpec(sources, keySelectors, maxCount, maxAge, unit, scheduler, onEvict);
+    }
+
+    KeyedJoinSpec time(long maxAge, TimeUnit unit, Scheduler scheduler) {
+        ObjectHelper.verifyPositive(maxAge, "maxAge");
+        ObjectHelper.requireNonNull(unit, "unit is null");
+        ObjectHelper.requireNonNull(scheduler, "scheduler is null");
+        return new KeyedJoinSpec(sources, keySelectors, maxCount, maxAge, unit, scheduler, onEvict);
+    }
+
+    KeyedJoinSpec evict(BiConsumer<Integer, Object> onEvict) {
+        ObjectHelper.requireNonNull(onEvict, "onEvict is null");
+        return new KeyedJoinSpec(sources, keySelectors, maxCount, maxAge, unit, scheduler, onEvict);
+    }
+
+    <R> Plan<R> plan(Function<? super Object[], ? extends R> combiner) {
+        ObjectHelper.requireNonNull(combiner, "selector is null");
+        return new KeyedPlan<R>(new ObservableKeyedJoin<R>(this, combiner));
+    }
+}
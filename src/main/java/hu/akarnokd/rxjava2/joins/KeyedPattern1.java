@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.joins;
+
+import io.reactivex.Observable;
+import io.reactivex.functions.Function;
+
+/**
+ * Represents the first source of a keyed join pattern.
+ * @param <T1> the first value type
+ * @param <K> the key type
+ * @since 0.17.9
+ */
+public final class KeyedPattern1<T1, K> {
+    private final KeyedJoinSpec spec;
+
+    KeyedPattern1(KeyedJoinSpec spec) {
+        this.spec = spec;
+    }
+
+    /**
+     * Creates a pattern that matches when both observable sequences have an available element
+     * with the same key.
+     *
+     * @param <T2> the value type of the extra Observable
+     * @param other
+     *            Observable sequence to match with the previous sequence.
+     * @param keySelector
+     *            the function returning the key of the items of the extra Observable
+     * @return Pattern object that matches when all observable sequences have an available element
+     *            with the same key.
+     */
+    public <T2> KeyedPattern2<T1, T2, K> and(Observable<T2> other, Function<? super T2, ? extends K> keySelector) {
+        return new KeyedPattern2<T1, T2, K>(spec.and(other, keySelector));
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.joins;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.functions.*;
+import io.reactivex.internal.functions.Functions;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Represents a keyed join pattern over three observable sequences.
+ * @param <T1> the first value type
+ * @param <T2> the second value type
+ * @param <T3> the third value type
+ * @param <K> the key type
+ * @since 0.17.9
+ */
+public final class KeyedPattern3<T1, T2, T3, K> {
+    private final KeyedJoinSpec spec;
+
+    KeyedPattern3(KeyedJoinSpec spec) {
+        this.spec = spec;
+    }
+
+    /**
+     * Creates a pattern that matches when all previous observable sequences have an available element
+     * with the same key.
+     *
+     * @param <T4> the value type of the extra Observable
+     * @param other
+     *            Observable sequence to match with the previous sequences.
+     * @param keySelector
+     *            the function returning the key of the items of the extra Observable
+     * @return Pattern object that matches when all observable sequences have an available element
+     *            with the same key.
+     */
+    public <T4> KeyedPatternN<K> and(Observable<T4> other, Function<? super T4, ? extends K> keySelector) {
+        return new KeyedPatternN<K>(spec.and(other, keySelector));
+    }
+
+    /**
+     * Limits the number of unmatched items kept from each source; when a source has more,
+     * its oldest unmatched item is evicted.
+     * @param maxCount the maximum number of unmatched items per source, positive
+     * @return the new pattern with the count window applied
+     */
+    public KeyedPattern3<T1, T2, T3, K> window(int maxCount) {
+        return new KeyedPattern3<T1, T2, T3, K>(spec.count(maxCount));
+    }
+
+    /**
+     * Evicts the unmatched items older than the given time, checked
+     * periodically on the {@code computation} scheduler.
+     * @param time the maximum age of unmatched items, positive
+     * @param unit the time unit
+     * @return the new pattern with the time window applied
+     */
+    public KeyedPattern3<T1, T2, T3, K> window(long time, TimeUnit unit) {
+        return window(time, unit, Schedulers.computation());
+    }
+
+    /**
+     * Evicts the unmatched items older than the given time, checked
+     * periodically on the given scheduler.
+     * @param time the maximum age of unmatched items, positive
+     * @param unit the time unit
+     * @param scheduler the scheduler providing the time and running the periodic check
+     * @return the new pattern with the time window applied
+     */
+    public KeyedPattern3<T1, T2, T3, K> window(long time, TimeUnit unit, Scheduler scheduler) {
+        return new KeyedPattern3<T1, T2, T3, K>(spec.time(time, unit, scheduler));
+    }
+
+    /**
+     * Sets the callback receiving the unmatched items evicted by a window or
+     * left over when the sequence completes.
+     * @param onEvict the callback receiving the zero-based index of the source
+     *                within the pattern and the evicted item
+     * @return the new pattern with the callback applied
+     */
+    public KeyedPattern3<T1, T2, T3, K> onEvict(BiConsumer<Integer, Object> onEvict) {
+        return new KeyedPattern3<T1, T2, T3, K>(spec.evict(onEvict));
+    }
+
+    /**
+     * Matches when all observable sequences have an available element with the same key
+     * and projects the elements by invoking the selector function.
+     *
+     * @param <R> the result type
+     * @param selector
+     *            the function that will be invoked for elements in the source sequences.
+     * @return the plan for the matching
+     * @throws NullPointerException
+     *             if selector is null
+     */
+    public <R> Plan<R> then(Function3<T1, T2, T3, R> selector) {
+        return spec.plan(Functions.toFunction(selector));
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.joins;
+
+import io.reactivex.Observable;
+import io.reactivex.functions.Function;
+
+/**
+ * Represents an execution plan for keyed join patterns; the keyed matching
+ * happens in its own operator whose results are then treated as a single source.
+ * @param <R> the result type
+ */
+final class KeyedPlan<R> extends Plan<R> {
+    protected final Observable<R> join;
+
+    KeyedPlan(Observable<R> join) {
+        this.join = join;
+    }
+
+    @Override
+    Observable<?>[] sources() {
+        return new Observable<?>[] { join };
+    }
+
+    @Override
+    Function<? super Object[], ? extends R> combiner() {
+        return new Function<Object[], R>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public R apply(Object[] a) throws Exception {
+                return (R)a[0];
+            }
+        };
+    }
+}
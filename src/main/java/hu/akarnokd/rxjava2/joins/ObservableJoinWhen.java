@@ -0,0 +1,357 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.joins;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.Function;
+import io.reactivex.internal.disposables.EmptyDisposable;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.fuseable.SimpleQueue;
+import io.reactivex.internal.observers.*;
+import io.reactivex.internal.util.AtomicThrowable;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Matches the items of the Observables of a set of plans and emits the combined results.
+ * <p>
+ * Each distinct source is consumed into its own single-producer queue and all matching
+ * happens in a single drain loop with work-in-progress counting, using the
+ * plan-to-source indexes precomputed at subscription time.
+ * <p>
+ * A plan is finished when all its sources have something available and
+ * one of them has terminated. The operator completes when all plans are finished.
+ *
+ * @param <R> the result type
+ */
+final class ObservableJoinWhen<R> extends Observable<R> {
+
+    final Iterable<? extends Plan<R>> plans;
+
+    ObservableJoinWhen(Iterable<? extends Plan<R>> plans) {
+        this.plans = plans;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected void subscribeActual(Observer<? super R> observer) {
+        List<ObservableSource<?>> sources = new ArrayList<ObservableSource<?>>();
+        List<Function<? super Object[], ? extends R>> selectors = new ArrayList<Function<? super Object[], ? extends R>>();
+        List<int[]> indexes = new ArrayList<int[]>();
+
+        try {
+            Map<ObservableSource<?>, Integer> sourceIndex = new IdentityHashMap<ObservableSource<?>, Integer>();
+            for (Plan<R> plan : plans) {
+                ObjectHelper.requireNonNull(plan, "One of the plans is null");
+                ObservableSource<?>[] ps = plan.sources();
+                int[] idx = new int[ps.length];
+                for (int i = 0; i < ps.length; i++) {
+                    Integer j = sourceIndex.get(ps[i]);
+                    if (j == null) {
+                        j = sources.size();
+                        sourceIndex.put(ps[i], j);
+                        sources.add(ps[i]);
+                    }
+                    idx[i] = j;
+                }
+                selectors.add(plan.combiner());
+                indexes.add(idx);
+            }
+        } catch (Throwable ex) {
+            Exceptions.throwIfFatal(ex);
+            EmptyDisposable.error(ex, observer);
+            return;
+        }
+
+        if (selectors.isEmpty()) {
+            EmptyDisposable.complete(observer);
+            return;
+        }
+
+        JoinDisposable<R> parent = new JoinDisposable<R>(observer,
+                selectors.toArray(new Function[0]),
+                indexes.toArray(new int[0][]), sources.size());
+        observer.onSubscribe(parent);
+
+        parent.subscribe(sources.toArray(new ObservableSource[0]));
+    }
+
+    static final class JoinDisposable<R>
+    extends AtomicInteger
+    implements Disposable, InnerQueuedObserverSupport<Object> {
+
+        private static final long serialVersionUID = 7709024539592520541L;
+
+        final Observer<? super R> actual;
+
+        final Function<? super Object[], ? extends R>[] selectors;
+
+        /** The source index for each argument position of each plan. */
+        final int[][] planArguments;
+
+        /** The distinct source indexes of each plan. */
+        final int[][] planSources;
+
+        final InnerQueuedObserver<Object>[] observers;
+
+        /** The item at the front of each source, null if not yet polled, this if the source is done. */
+        final Object[] heads;
+
+        /** The number of unfinished plans using a particular source. */
+        final int[] sourcePlans;
+
+        final boolean[] planDone;
+
+        final AtomicThrowable errors;
+
+        int activePlans;
+
+        volatile boolean disposed;
+
+        @SuppressWarnings("unchecked")
+        JoinDisposable(Observer<? super R> actual, Function<? super Object[], ? extends R>[] selectors,
+                int[][] planArguments, int n) {
+            this.actual = actual;
+            this.selectors = selectors;
+            this.planArguments = planArguments;
+            int m = planArguments.length;
+            this.planSources = new int[m][];
+            this.sourcePlans = new int[n];
+            for (int i = 0; i < m; i++) {
+                int[] distinct = JoinPatterns.distinct(planArguments[i]);
+                planSources[i] = distinct;
+                for (int j : distinct) {
+                    sourcePlans[j]++;
+                }
+            }
+            this.planDone = new boolean[m];
+            this.activePlans = m;
+            InnerQueuedObserver<Object>[] obs = new InnerQueuedObserver[n];
+            int prefetch = Observable.bufferSize();
+            for (int i = 0; i < n; i++) {
+                obs[i] = new InnerQueuedObserver<Object>(this, prefetch);
+            }
+            this.observers = obs;
+            this.heads = new Object[n];
+            this.errors = new AtomicThrowable();
+        }
+
+        @SuppressWarnings("unchecked")
+        void subscribe(ObservableSource<?>[] sources) {
+            InnerQueuedObserver<Object>[] obs = observers;
+            for (int i = 0; i < sources.length && !disposed; i++) {
+                ((ObservableSource<Object>)sources[i]).subscribe(obs[i]);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (!disposed) {
+                disposed = true;
+                disposeSources();
+                if (getAndIncrement() == 0) {
+                    clearSources();
+                }
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+
+        void disposeSources() {
+            for (InnerQueuedObserver<Object> inner : observers) {
+                inner.dispose();
+            }
+        }
+
+        void clearSources() {
+            Arrays.fill(heads, null);
+            for (InnerQueuedObserver<Object> inner : observers) {
+                SimpleQueue<Object> q = inner.queue();
+                if (q != null) {
+                    q.clear();
+                }
+            }
+        }
+
+        @Override
+        public void innerNext(InnerQueuedObserver<Object> inner, Object value) {
+            inner.queue().offer(value);
+            drain();
+        }
+
+        @Override
+        public void innerError(InnerQueuedObserver<Object> inner, Throwable e) {
+            if (errors.addThrowable(e)) {
+                inner.setDone();
+                disposeSources();
+                drain();
+            } else {
+                RxJavaPlugins.onError(e);
+            }
+        }
+
+        @Override
+        public void innerComplete(InnerQueuedObserver<Object> inner) {
+            inner.setDone();
+            drain();
+        }
+
+        void errorAll(Observer<? super R> a) {
+            disposeSources();
+            clearSources();
+            a.onError(errors.terminate());
+        }
+
+        @Override
+        public void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            Observer<? super R> a = actual;
+            InnerQueuedObserver<Object>[] obs = observers;
+            Object[] heads = this.heads;
+            int[][] planArguments = this.planArguments;
+            int[][] planSources = this.planSources;
+            boolean[] planDone = this.planDone;
+            int m = planDone.length;
+
+            for (;;) {
+
+                for (;;) {
+                    boolean progress = false;
+
+                    for (int p = 0; p < m; p++) {
+                        if (disposed) {
+                            clearSources();
+                            return;
+                        }
+
+                        if (errors.get() != null) {
+                            errorAll(a);
+                            return;
+                        }
+
+                        if (planDone[p]) {
+                            continue;
+                        }
+
+                        int[] distinct = planSources[p];
+                        boolean missing = false;
+                        boolean finished = false;
+
+                        for (int idx : distinct) {
+                            Object v = heads[idx];
+                            if (v == null) {
+                                InnerQueuedObserver<Object> inner = obs[idx];
+                                boolean d = inner.isDone();
+                                SimpleQueue<Object> q = inner.queue();
+                                try {
+                                    v = q != null ? q.poll() : null;
+                                } catch (Throwable ex) {
+                                    Exceptions.throwIfFatal(ex);
+                                    errors.addThrowable(ex);
+                                    errorAll(a);
+                                    return;
+                                }
+                                if (v == null) {
+                                    if (!d) {
+                                        missing = true;
+                                        break;
+                                    }
+                                    v = this;
+                                }
+                                heads[idx] = v;
+                            }
+                            if (v == this) {
+                                finished = true;
+                            }
+                        }
+
+                        if (missing) {
+                            continue;
+                        }
+
+                        if (finished) {
+                            planDone[p] = true;
+                            progress = true;
+                            for (int idx : distinct) {
+                                if (--sourcePlans[idx] == 0) {
+                                    InnerQueuedObserver<Object> inner = obs[idx];
+                                    inner.dispose();
+                                    heads[idx] = null;
+                                    SimpleQueue<Object> q = inner.queue();
+                                    if (q != null) {
+                                        q.clear();
+                                    }
+                                }
+                            }
+                            if (--activePlans == 0) {
+                                a.onComplete();
+                                return;
+                            }
+                            continue;
+                        }
+
+                        int[] args = planArguments[p];
+                        Object[] values = new Object[args.length];
+                        for (int i = 0; i < args.length; i++) {
+                            values[i] = heads[args[i]];
+                        }
+                        for (int idx : distinct) {
+                            heads[idx] = null;
+                        }
+
+                        R v;
+
+                        try {
+                            v = ObjectHelper.requireNonNull(selectors[p].apply(values), "The selector returned a null value");
+                        } catch (Throwable ex) {
+                            Exceptions.throwIfFatal(ex);
+                            errors.addThrowable(ex);
+                            errorAll(a);
+                            return;
+                        }
+
+                        a.onNext(v);
+
+                        progress = true;
+                    }
+
+                    if (!progress) {
+                        break;
+                    }
+                }
+
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+    }
+}
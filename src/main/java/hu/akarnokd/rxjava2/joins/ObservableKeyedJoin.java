@@ -0,0 +1,485 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.joins;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.*;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Observer;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.*;
+import io.reactivex.internal.disposables.DisposableHelper;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.fuseable.SimpleQueue;
+import io.reactivex.internal.observers.*;
+import io.reactivex.internal.util.AtomicThrowable;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Matches one item with the same key from each source and emits the combined result.
+ * <p>
+ * The unmatched items of each source are kept in a per-key hash index and in
+ * arrival order, thus both matching and evicting the oldest item is O(1).
+ * Items are evicted when the source has more than the allowed number of unmatched
+ * items or when they get older than the allowed age. Evicted items and the items still
+ * unmatched upon completion are handed to the eviction callback.
+ * <p>
+ * The sequence completes when one of the sources has completed and
+ * none of its items are waiting for a match, or when all sources have completed
+ * and their items have been indexed, as none of the leftovers can be matched then.
+ *
+ * @param <R> the result type
+ */
+final class ObservableKeyedJoin<R> extends Observable<R> {
+
+    final KeyedJoinSpec spec;
+
+    final Function<? super Object[], ? extends R> combiner;
+
+    ObservableKeyedJoin(KeyedJoinSpec spec, Function<? super Object[], ? extends R> combiner) {
+        this.spec = spec;
+        this.combiner = combiner;
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super R> observer) {
+        KeyedJoinDisposable<R> parent = new KeyedJoinDisposable<R>(observer, spec, combiner);
+        observer.onSubscribe(parent);
+
+        parent.subscribe(spec.sources);
+    }
+
+    static final class KeyedJoinDisposable<R>
+    extends AtomicInteger
+    implements Disposable, InnerQueuedObserverSupport<Object>, Runnable {
+
+        private static final long serialVersionUID = -5230373433758221064L;
+
+        final Observer<? super R> actual;
+
+        final Function<Object, Object>[] keySelectors;
+
+        final Function<? super Object[], ? extends R> combiner;
+
+        final InnerQueuedObserver<Object>[] observers;
+
+        final KeyIndex[] indexes;
+
+        final int maxCount;
+
+        final long maxAge;
+
+        final TimeUnit unit;
+
+        final Scheduler scheduler;
+
+        final BiConsumer<Integer, Object> onEvict;
+
+        final AtomicThrowable errors;
+
+        final AtomicReference<Disposable> timer;
+
+        volatile boolean disposed;
+
+        @SuppressWarnings("unchecked")
+        KeyedJoinDisposable(Observer<? super R> actual, KeyedJoinSpec spec, Function<? super Object[], ? extends R> combiner) {
+            this.actual = actual;
+            this.keySelectors = (Function<Object, Object>[])spec.keySelectors;
+            this.combiner = combiner;
+            this.maxCount = spec.maxCount;
+            this.maxAge = spec.maxAge;
+            this.unit = spec.unit;
+            this.scheduler = spec.scheduler;
+            this.onEvict = spec.onEvict;
+            int n = spec.sources.length;
+            InnerQueuedObserver<Object>[] obs = new InnerQueuedObserver[n];
+            KeyIndex[] idx = new KeyIndex[n];
+            int prefetch = Observable.bufferSize();
+            for (int i = 0; i < n; i++) {
+                obs[i] = new InnerQueuedObserver<Object>(this, prefetch);
+                idx[i] = new KeyIndex();
+            }
+            this.observers = obs;
+            this.indexes = idx;
+            this.errors = new AtomicThrowable();
+            this.timer = new AtomicReference<Disposable>();
+        }
+
+        @SuppressWarnings("unchecked")
+        void subscribe(Observable<?>[] sources) {
+            if (scheduler != null) {
+                DisposableHelper.replace(timer, scheduler.schedulePeriodicallyDirect(this, maxAge, maxAge, unit));
+            }
+            InnerQueuedObserver<Object>[] obs = observers;
+            for (int i = 0; i < sources.length && !disposed; i++) {
+                ((ObservableSource<Object>)sources[i]).subscribe(obs[i]);
+            }
+        }
+
+        @Override
+        public void run() {
+            drain();
+        }
+
+        @Override
+        public void dispose() {
+            if (!disposed) {
+                disposed = true;
+                disposeSources();
+                if (getAndIncrement() == 0) {
+                    clear();
+                }
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+
+        void disposeSources() {
+            DisposableHelper.dispose(timer);
+            for (InnerQueuedObserver<Object> inner : observers) {
+                inner.dispose();
+            }
+        }
+
+        void clear() {
+            for (KeyIndex idx : indexes) {
+                idx.clear();
+            }
+            for (InnerQueuedObserver<Object> inner : observers) {
+                SimpleQueue<Object> q = inner.queue();
+                if (q != null) {
+                    q.clear();
+                }
+            }
+        }
+
+        @Override
+        public void innerNext(InnerQueuedObserver<Object> inner, Object value) {
+            inner.queue().offer(value);
+            drain();
+        }
+
+        @Override
+        public void innerError(InnerQueuedObserver<Object> inner, Throwable e) {
+            if (errors.addThrowable(e)) {
+                inner.setDone();
+                disposeSources();
+                drain();
+            } else {
+                RxJavaPlugins.onError(e);
+            }
+        }
+
+        @Override
+        public void innerComplete(InnerQueuedObserver<Object> inner) {
+            inner.setDone();
+            drain();
+        }
+
+        void errorAll(Observer<? super R> a, Throwable ex) {
+            errors.addThrowable(ex);
+            disposeSources();
+            clear();
+            a.onError(errors.terminate());
+        }
+
+        /**
+         * Hands all unmatched items to the eviction callback and completes the downstream.
+         * @param a the downstream observer
+         */
+        void evictAllAndComplete(Observer<? super R> a) {
+            disposeSources();
+            KeyIndex[] indexes = this.indexes;
+            try {
+                for (int j = 0; j < indexes.length; j++) {
+                    KeyIndex idx = indexes[j];
+                    while (idx.head != null) {
+                        evict(j, idx.pollOldest().value);
+                    }
+                }
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                errorAll(a, ex);
+                return;
+            }
+            clear();
+            a.onComplete();
+        }
+
+        void evict(int index, Object value) throws Exception {
+            BiConsumer<Integer, Object> f = onEvict;
+            if (f != null) {
+                f.accept(index, value);
+            }
+        }
+
+        @Override
+        public void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            Observer<? super R> a = actual;
+            InnerQueuedObserver<Object>[] obs = observers;
+            KeyIndex[] indexes = this.indexes;
+            int n = indexes.length;
+
+            for (;;) {
+
+                for (;;) {
+                    if (disposed) {
+                        clear();
+                        return;
+                    }
+
+                    if (errors.get() != null) {
+                        disposeSources();
+                        clear();
+                        a.onError(errors.terminate());
+                        return;
+                    }
+
+                    long now = 0L;
+                    Scheduler sch = scheduler;
+                    if (sch != null) {
+                        now = sch.now(unit);
+                        long limit = now - maxAge;
+                        try {
+                            for (int i = 0; i < n; i++) {
+                                KeyIndex idx = indexes[i];
+                                while (idx.head != null && idx.head.time <= limit) {
+                                    evict(i, idx.pollOldest().value);
+                                }
+                            }
+                        } catch (Throwable ex) {
+                            Exceptions.throwIfFatal(ex);
+                            errorAll(a, ex);
+                            return;
+                        }
+                    }
+
+                    boolean progress = false;
+                    boolean allDone = true;
+
+                    for (int i = 0; i < n; i++) {
+                        InnerQueuedObserver<Object> inner = obs[i];
+                        KeyIndex index = indexes[i];
+                        boolean d = inner.isDone();
+                        SimpleQueue<Object> q = inner.queue();
+                        Object v;
+                        try {
+                            v = q != null ? q.poll() : null;
+                        } catch (Throwable ex) {
+                            Exceptions.throwIfFatal(ex);
+                            errorAll(a, ex);
+                            return;
+                        }
+
+                        if (v == null) {
+                            if (d) {
+                                if (index.size == 0) {
+                                    evictAllAndComplete(a);
+                                    return;
+                                }
+                            } else {
+                                allDone = false;
+                            }
+                            continue;
+                        }
+
+                        progress = true;
+                        allDone = false;
+
+                        Object key;
+                        try {
+                            key = ObjectHelper.requireNonNull(keySelectors[i].apply(v), "The keySelector returned a null key");
+                        } catch (Throwable ex) {
+                            Exceptions.throwIfFatal(ex);
+                            errorAll(a, ex);
+                            return;
+                        }
+
+                        boolean match = true;
+                        for (int j = 0; j < n; j++) {
+                            if (j != i && !indexes[j].containsKey(key)) {
+                                match = false;
+                                break;
+                            }
+                        }
+
+                        if (match) {
+                            Object[] values = new Object[n];
+                            for (int j = 0; j < n; j++) {
+                                values[j] = j == i ? v : indexes[j].poll(key).value;
+                            }
+
+                            R result;
+                            try {
+                                result = ObjectHelper.requireNonNull(combiner.apply(values), "The selector returned a null value");
+                            } catch (Throwable ex) {
+                                Exceptions.throwIfFatal(ex);
+                                errorAll(a, ex);
+                                return;
+                            }
+
+                            a.onNext(result);
+                        } else {
+                            index.offer(key, v, now);
+                            if (index.size > maxCount) {
+                                try {
+                                    evict(i, index.pollOldest().value);
+                                } catch (Throwable ex) {
+                                    Exceptions.throwIfFatal(ex);
+                                    errorAll(a, ex);
+                                    return;
+                                }
+                            }
+                        }
+                    }
+
+                    if (!progress) {
+                        if (allDone) {
+                            evictAllAndComplete(a);
+                            return;
+                        }
+                        break;
+                    }
+                }
+
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * The unmatched items of a source indexed by their key and
+     * linked in arrival order.
+     */
+    static final class KeyIndex {
+
+        final Map<Object, ArrayDeque<Node>> map = new HashMap<Object, ArrayDeque<Node>>();
+
+        Node head;
+
+        Node tail;
+
+        int size;
+
+        boolean containsKey(Object key) {
+            return map.containsKey(key);
+        }
+
+        void offer(Object key, Object value, long time) {
+            Node n = new Node(key, value, time);
+            ArrayDeque<Node> q = map.get(key);
+            if (q == null) {
+                q = new ArrayDeque<Node>();
+                map.put(key, q);
+            }
+            q.offer(n);
+
+            Node t = tail;
+            n.prev = t;
+            if (t == null) {
+                head = n;
+            } else {
+                t.next = n;
+            }
+            tail = n;
+            size++;
+        }
+
+        /**
+         * Removes the oldest item with the given key, which must be present.
+         * @param key the key
+         * @return the node removed
+         */
+        Node poll(Object key) {
+            ArrayDeque<Node> q = map.get(key);
+            Node n = q.poll();
+            if (q.isEmpty()) {
+                map.remove(key);
+            }
+            unlink(n);
+            return n;
+        }
+
+        /**
+         * Removes the oldest item of any key, which must be present;
+         * it is also the oldest of its key.
+         * @return the node removed
+         */
+        Node pollOldest() {
+            return poll(head.key);
+        }
+
+        void unlink(Node n) {
+            Node p = n.prev;
+            Node x = n.next;
+            if (p == null) {
+                head = x;
+            } else {
+                p.next = x;
+            }
+            if (x == null) {
+                tail = p;
+            } else {
+                x.prev = p;
+            }
+            n.prev = null;
+            n.next = null;
+            size--;
+        }
+
+        void clear() {
+            map.clear();
+            head = null;
+            tail = null;
+            size = 0;
+        }
+    }
+
+    static final class Node {
+        final Object key;
+
+        final Object value;
+
+        final long time;
+
+        Node prev;
+
+        Node next;
+
+        Node(Object key, Object value, long time) {
+            this.key = key;
+            this.value = value;
+            this.time = time;
+        }
+    }
+}
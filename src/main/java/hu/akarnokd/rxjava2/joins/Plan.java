@@ -16,35 +16,26 @@
 
 package hu.akarnokd.rxjava2.joins;
 
-import java.util.Map;
-
 import io.reactivex.*;
-import io.reactivex.functions.Consumer;
+import io.reactivex.functions.*;
 
 /**
  * Represents an execution plan for join patterns.
  * @param <R> the result type
  */
 public abstract class Plan<R> {
-    abstract ActivePlan0 activate(Map<Object, JoinObserver> externalSubscriptions,
-            Observer<R> observer, Consumer<ActivePlan0> deactivate);
 
-    @SuppressWarnings("unchecked")
-    static final <T> JoinObserver1<T> createObserver(
-            Map<Object, JoinObserver> externalSubscriptions,
-            Observable<T> observable,
-            Consumer<Throwable> onError
-            ) {
-        JoinObserver1<T> observer;
-        JoinObserver nonGeneric = externalSubscriptions.get(observable);
-        if (nonGeneric == null) {
-            observer = new JoinObserver1<T>(observable, onError);
-            externalSubscriptions.put(observable, observer);
-        } else {
-            observer = (JoinObserver1<T>) nonGeneric;
-        }
-        return observer;
-    }
+    /**
+     * Returns the sources of the plan, one for each argument position of the selector.
+     * @return the sources array
+     */
+    abstract Observable<?>[] sources();
+
+    /**
+     * Returns the selector of the plan taking an array of one item from each source.
+     * @return the array-based selector
+     */
+    abstract Function<? super Object[], ? extends R> combiner();
 
     /**
      * Extracts a method reference to the Observer's {@link Observer#onError(java.lang.Throwable) onError}
@@ -55,7 +46,10 @@ public abstract class Plan<R> {
      * @param observer
      *            the {@link Observer} to use
      * @return an action which calls observer's {@code onError} method.
+     * @deprecated the join patterns no longer route errors through this helper,
+     * will be removed with <b>0.18</b>.
      */
+    @Deprecated
     protected static <T> Consumer<Throwable> onErrorFrom(final Observer<T> observer) {
         return new Consumer<Throwable>() {
             @Override
@@ -64,5 +58,4 @@ public abstract class Plan<R> {
             }
         };
     }
-
 }
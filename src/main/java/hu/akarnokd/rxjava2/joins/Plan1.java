@@ -16,10 +16,7 @@
 
 package hu.akarnokd.rxjava2.joins;
 
-import java.util.Map;
-import java.util.concurrent.atomic.AtomicReference;
-
-import io.reactivex.Observer;
+import io.reactivex.Observable;
 import io.reactivex.functions.*;
 
 /**
@@ -37,39 +34,18 @@ final class Plan1<T1, R> extends Plan<R> {
     }
 
     @Override
-    public ActivePlan0 activate(Map<Object, JoinObserver> externalSubscriptions, final Observer<R> observer, final Consumer<ActivePlan0> deactivate) {
-        Consumer<Throwable> onError = onErrorFrom(observer);
-
-        final JoinObserver1<T1> firstJoinObserver = createObserver(externalSubscriptions, expression.o1(), onError);
-
-        final AtomicReference<ActivePlan1<T1>> self = new AtomicReference<ActivePlan1<T1>>();
+    Observable<?>[] sources() {
+        return new Observable<?>[] { expression.o1() };
+    }
 
-        ActivePlan1<T1> activePlan = new ActivePlan1<T1>(firstJoinObserver, new Consumer<T1>() {
+    @Override
+    Function<? super Object[], ? extends R> combiner() {
+        return new Function<Object[], R>() {
+            @SuppressWarnings("unchecked")
             @Override
-            public void accept(T1 t1) {
-                R result;
-                try {
-                    result = selector.apply(t1);
-                } catch (Throwable t) {
-                    observer.onError(t);
-                    return;
-                }
-                observer.onNext(result);
+            public R apply(Object[] a) throws Exception {
+                return selector.apply((T1)a[0]);
             }
-        },
-                new Action() {
-                    @Override
-                    public void run() throws Exception {
-                        ActivePlan0 ap = self.get();
-                        firstJoinObserver.removeActivePlan(ap);
-                        deactivate.accept(ap);
-                    }
-                });
-
-        self.set(activePlan);
-
-        firstJoinObserver.addActivePlan(activePlan);
-        return activePlan;
+        };
     }
-
 }
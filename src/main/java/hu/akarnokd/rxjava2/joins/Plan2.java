@@ -16,11 +16,9 @@
 
 package hu.akarnokd.rxjava2.joins;
 
-import java.util.Map;
-import java.util.concurrent.atomic.AtomicReference;
-
-import io.reactivex.Observer;
+import io.reactivex.Observable;
 import io.reactivex.functions.*;
+import io.reactivex.internal.functions.Functions;
 
 /**
  * Represents an execution plan for join patterns.
@@ -38,44 +36,12 @@ final class Plan2<T1, T2, R> extends Plan<R> {
     }
 
     @Override
-    public ActivePlan0 activate(Map<Object, JoinObserver> externalSubscriptions,
-            final Observer<R> observer, final Consumer<ActivePlan0> deactivate) {
-        Consumer<Throwable> onError = onErrorFrom(observer);
-
-        final JoinObserver1<T1> jo1 = createObserver(externalSubscriptions, expression.o1(), onError);
-        final JoinObserver1<T2> jo2 = createObserver(externalSubscriptions, expression.o2(), onError);
-
-        final AtomicReference<ActivePlan2<T1, T2>> self = new AtomicReference<ActivePlan2<T1, T2>>();
-
-        ActivePlan2<T1, T2> activePlan = new ActivePlan2<T1, T2>(jo1, jo2, new BiConsumer<T1, T2>() {
-            @Override
-            public void accept(T1 t1, T2 t2) {
-                R result;
-                try {
-                    result = selector.apply(t1, t2);
-                } catch (Throwable t) {
-                    observer.onError(t);
-                    return;
-                }
-                observer.onNext(result);
-            }
-        },
-        new Action() {
-            @Override
-            public void run() throws Exception  {
-                ActivePlan0 ap = self.get();
-                jo1.removeActivePlan(ap);
-                jo2.removeActivePlan(ap);
-                deactivate.accept(ap);
-            }
-        });
-
-        self.set(activePlan);
-
-        jo1.addActivePlan(activePlan);
-        jo2.addActivePlan(activePlan);
-
-        return activePlan;
+    Observable<?>[] sources() {
+        return new Observable<?>[] { expression.o1(), expression.o2() };
     }
 
+    @Override
+    Function<? super Object[], ? extends R> combiner() {
+        return Functions.toFunction(selector);
+    }
 }
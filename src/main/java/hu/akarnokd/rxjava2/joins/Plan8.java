@@ -16,12 +16,9 @@
 
 package hu.akarnokd.rxjava2.joins;
 
-import java.util.Map;
-import java.util.concurrent.atomic.AtomicReference;
-
-import hu.akarnokd.rxjava2.functions.Consumer8;
-import io.reactivex.Observer;
+import io.reactivex.Observable;
 import io.reactivex.functions.*;
+import io.reactivex.internal.functions.Functions;
 
 /**
  * Represents an execution plan for join patterns.
@@ -45,64 +42,12 @@ final class Plan8<T1, T2, T3, T4, T5, T6, T7, T8, R> extends Plan<R> {
     }
 
     @Override
-    public ActivePlan0 activate(Map<Object, JoinObserver> externalSubscriptions,
-            final Observer<R> observer, final Consumer<ActivePlan0> deactivate) {
-        Consumer<Throwable> onError = onErrorFrom(observer);
-
-        final JoinObserver1<T1> jo1 = createObserver(externalSubscriptions, expression.o1(), onError);
-        final JoinObserver1<T2> jo2 = createObserver(externalSubscriptions, expression.o2(), onError);
-        final JoinObserver1<T3> jo3 = createObserver(externalSubscriptions, expression.o3(), onError);
-        final JoinObserver1<T4> jo4 = createObserver(externalSubscriptions, expression.o4(), onError);
-        final JoinObserver1<T5> jo5 = createObserver(externalSubscriptions, expression.o5(), onError);
-        final JoinObserver1<T6> jo6 = createObserver(externalSubscriptions, expression.o6(), onError);
-        final JoinObserver1<T7> jo7 = createObserver(externalSubscriptions, expression.o7(), onError);
-        final JoinObserver1<T8> jo8 = createObserver(externalSubscriptions, expression.o8(), onError);
-
-        final AtomicReference<ActivePlan0> self = new AtomicReference<ActivePlan0>();
-
-        ActivePlan0 activePlan = new ActivePlan8<T1, T2, T3, T4, T5, T6, T7, T8>(
-                jo1, jo2, jo3, jo4, jo5, jo6, jo7, jo8,
-                new Consumer8<T1, T2, T3, T4, T5, T6, T7, T8>() {
-                    @Override
-                    public void accept(T1 t1, T2 t2, T3 t3, T4 t4, T5 t5, T6 t6, T7 t7, T8 t8) {
-                        R result;
-                        try {
-                            result = selector.apply(t1, t2, t3, t4, t5, t6, t7, t8);
-                        } catch (Throwable t) {
-                            observer.onError(t);
-                            return;
-                        }
-                        observer.onNext(result);
-                    }
-                },
-                new Action() {
-                    @Override
-                    public void run() throws Exception {
-                        ActivePlan0 ap = self.get();
-                        jo1.removeActivePlan(ap);
-                        jo2.removeActivePlan(ap);
-                        jo3.removeActivePlan(ap);
-                        jo4.removeActivePlan(ap);
-                        jo5.removeActivePlan(ap);
-                        jo6.removeActivePlan(ap);
-                        jo7.removeActivePlan(ap);
-                        jo8.removeActivePlan(ap);
-                        deactivate.accept(ap);
-                    }
-                });
-
-        self.set(activePlan);
-
-        jo1.addActivePlan(activePlan);
-        jo2.addActivePlan(activePlan);
-        jo3.addActivePlan(activePlan);
-        jo4.addActivePlan(activePlan);
-        jo5.addActivePlan(activePlan);
-        jo6.addActivePlan(activePlan);
-        jo7.addActivePlan(activePlan);
-        jo8.addActivePlan(activePlan);
-
-        return activePlan;
+    Observable<?>[] sources() {
+        return new Observable<?>[] { expression.o1(), expression.o2(), expression.o3(), expression.o4(), expression.o5(), expression.o6(), expression.o7(), expression.o8() };
     }
 
+    @Override
+    Function<? super Object[], ? extends R> combiner() {
+        return Functions.toFunction(selector);
+    }
 }
@@ -16,11 +16,8 @@
 
 package hu.akarnokd.rxjava2.joins;
 
-import java.util.*;
-import java.util.concurrent.atomic.AtomicReference;
-
-import io.reactivex.Observer;
-import io.reactivex.functions.*;
+import io.reactivex.Observable;
+import io.reactivex.functions.Function;
 
 /**
  * Represents an execution plan for join patterns.
@@ -36,46 +33,17 @@ final class PlanN<R> extends Plan<R> {
     }
 
     @Override
-    public ActivePlan0 activate(Map<Object, JoinObserver> externalSubscriptions,
-            final Observer<R> observer, final Consumer<ActivePlan0> deactivate) {
-        Consumer<Throwable> onError = onErrorFrom(observer);
-
-        final List<JoinObserver1<? extends Object>> observers = new ArrayList<JoinObserver1<? extends Object>>();
-        for (int i = 0; i < expression.size(); i++) {
-            observers.add(createObserver(externalSubscriptions, expression.get(i), onError));
+    Observable<?>[] sources() {
+        int n = expression.size();
+        Observable<?>[] a = new Observable[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = expression.get(i);
         }
-        final AtomicReference<ActivePlanN> self = new AtomicReference<ActivePlanN>();
-
-        ActivePlanN activePlan = new ActivePlanN(observers, new Consumer<Object[]>() {
-                    @Override
-                    public void accept(Object[]args) {
-                        R result;
-                        try {
-                            result = selector.apply(args);
-                        } catch (Throwable t) {
-                            observer.onError(t);
-                            return;
-                        }
-                        observer.onNext(result);
-                    }
-                },
-                new Action() {
-                    @Override
-                    public void run() throws Exception {
-                        for (JoinObserver1<? extends Object> jo : observers) {
-                            jo.removeActivePlan(self.get());
-                        }
-                        deactivate.accept(self.get());
-                    }
-                });
-
-        self.set(activePlan);
-
-        for (JoinObserver1<? extends Object> jo : observers) {
-            jo.addActivePlan(activePlan);
-        }
-
-        return activePlan;
+        return a;
     }
 
+    @Override
+    Function<? super Object[], ? extends R> combiner() {
+        return selector;
+    }
 }
@@ -0,0 +1,369 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.operators;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import io.reactivex.*;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.fuseable.SimplePlainQueue;
+import io.reactivex.internal.queue.MpscLinkedQueue;
+import io.reactivex.internal.subscriptions.*;
+import io.reactivex.internal.util.*;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Keeps the latest value of each source and hands each change, as the index,
+ * old and new value, to an incremental aggregator, emitting the aggregate once
+ * all sources have a value.
+ * <p>
+ * A source only enqueues itself if its previous change hasn't been applied yet,
+ * therefore multiple changes of the same source between two drains are applied
+ * as one change from the last applied value to the newest value.
+ *
+ * @param <T> the source value type
+ * @param <R> the aggregate type
+ * @since 0.17.9
+ */
+final class FlowableAggregateLatest<T, R> extends Flowable<R> {
+
+    final Publisher<? extends T>[] sources;
+
+    final Iterable<? extends Publisher<? extends T>> sourcesIterable;
+
+    final Callable<? extends IncrementalAggregator<? super T, ? extends R>> aggregatorSupplier;
+
+    FlowableAggregateLatest(Publisher<? extends T>[] sources,
+            Iterable<? extends Publisher<? extends T>> sourcesIterable,
+            Callable<? extends IncrementalAggregator<? super T, ? extends R>> aggregatorSupplier) {
+        this.sources = sources;
+        this.sourcesIterable = sourcesIterable;
+        this.aggregatorSupplier = aggregatorSupplier;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected void subscribeActual(Subscriber<? super R> s) {
+        Publisher<? extends T>[] srcs = sources;
+        int n;
+        if (srcs == null) {
+            srcs = new Publisher[8];
+            n = 0;
+            for (Publisher<? extends T> p : sourcesIterable) {
+                if (n == srcs.length) {
+                    srcs = Arrays.copyOf(srcs, n + (n >> 1));
+                }
+                srcs[n++] = p;
+            }
+        } else {
+            n = srcs.length;
+        }
+
+        IncrementalAggregator<? super T, ? extends R> aggregator;
+
+        try {
+            aggregator = ObjectHelper.requireNonNull(aggregatorSupplier.call(), "The aggregatorSupplier returned a null aggregator");
+        } catch (Throwable ex) {
+            Exceptions.throwIfFatal(ex);
+            EmptySubscription.error(ex, s);
+            return;
+        }
+
+        if (n == 0) {
+            EmptySubscription.complete(s);
+        } else {
+            AggregateLatestCoordinator<T, R> ac = new AggregateLatestCoordinator<T, R>(s, n, aggregator);
+            s.onSubscribe(ac);
+
+            ac.subscribe(srcs, n);
+        }
+    }
+
+    static final class AggregateLatestCoordinator<T, R> extends AtomicInteger implements Subscription {
+
+        private static final long serialVersionUID = -2886254378580149370L;
+
+        final Subscriber<? super R> actual;
+
+        final InnerSubscriber<T>[] subscribers;
+
+        final IncrementalAggregator<? super T, ? extends R> aggregator;
+
+        /** The newest value of each source. */
+        final AtomicReferenceArray<T> latest;
+
+        /** 1 if the source is in the queue waiting for its change to be applied. */
+        final AtomicIntegerArray pending;
+
+        final SimplePlainQueue<InnerSubscriber<T>> queue;
+
+        final AtomicLong requested;
+
+        final AtomicThrowable errors;
+
+        /** The number of sources not yet completed. */
+        final AtomicInteger active;
+
+        /** The values last handed to the aggregator; accessed by the drain loop only. */
+        final Object[] applied;
+
+        volatile boolean emptySource;
+
+        volatile boolean cancelled;
+
+        long emitted;
+
+        /** The number of sources without value; accessed by the drain loop only. */
+        int missing;
+
+        /** The aggregate changed since the last emission; accessed by the drain loop only. */
+        boolean changed;
+
+        @SuppressWarnings("unchecked")
+        AggregateLatestCoordinator(Subscriber<? super R> actual, int n, IncrementalAggregator<? super T, ? extends R> aggregator) {
+            this.actual = actual;
+            this.aggregator = aggregator;
+            this.subscribers = new InnerSubscriber[n];
+            this.latest = new AtomicReferenceArray<T>(n);
+            this.pending = new AtomicIntegerArray(n);
+            this.queue = new MpscLinkedQueue<InnerSubscriber<T>>();
+            this.requested = new AtomicLong();
+            this.errors = new AtomicThrowable();
+            this.active = new AtomicInteger(n);
+            this.applied = new Object[n];
+            this.missing = n;
+            for (int i = 0; i < n; i++) {
+                subscribers[i] = new InnerSubscriber<T>(this, i);
+            }
+        }
+
+        void subscribe(Publisher<? extends T>[] sources, int n) {
+            for (int i = 0; i < n; i++) {
+                if (cancelled) {
+                    return;
+                }
+                sources[i].subscribe(subscribers[i]);
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            cancelAll();
+            if (getAndIncrement() == 0) {
+                clear();
+            }
+        }
+
+        void cancelAll() {
+            for (InnerSubscriber<?> inner : subscribers) {
+                inner.cancel();
+            }
+        }
+
+        void clear() {
+            queue.clear();
+            Arrays.fill(applied, null);
+            int n = latest.length();
+            for (int i = 0; i < n; i++) {
+                latest.lazySet(i, null);
+            }
+        }
+
+        void innerNext(InnerSubscriber<T> inner, T t) {
+            int i = inner.index;
+            latest.set(i, t);
+            if (pending.get(i) == 0 && pending.compareAndSet(i, 0, 1)) {
+                queue.offer(inner);
+                drain();
+            }
+        }
+
+        void innerError(Throwable t) {
+            if (errors.addThrowable(t)) {
+                drain();
+            } else {
+                RxJavaPlugins.onError(t);
+            }
+        }
+
+        void innerComplete(boolean hasValue) {
+            if (!hasValue) {
+                emptySource = true;
+            }
+            active.decrementAndGet();
+            drain();
+        }
+
+        @SuppressWarnings("unchecked")
+        void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            Subscriber<? super R> a = actual;
+            SimplePlainQueue<InnerSubscriber<T>> q = queue;
+            IncrementalAggregator<? super T, ? extends R> agg = aggregator;
+            Object[] app = applied;
+
+            for (;;) {
+                if (cancelled) {
+                    clear();
+                    return;
+                }
+
+                if (errors.get() != null) {
+                    fail(a);
+                    return;
+                }
+
+                if (emptySource) {
+                    cancelAll();
+                    clear();
+                    a.onComplete();
+                    return;
+                }
+
+                boolean d = active.get() == 0;
+
+                for (;;) {
+                    InnerSubscriber<T> inner = q.poll();
+                    if (inner == null) {
+                        break;
+                    }
+
+                    int i = inner.index;
+                    // allow the source to enqueue again before its newest value is read
+                    pending.set(i, 0);
+
+                    T v = latest.get(i);
+                    Object old = app[i];
+                    if (v != old) {
+                        try {
+                            agg.update(i, (T)old, v);
+                        } catch (Throwable ex) {
+                            Exceptions.throwIfFatal(ex);
+                            errors.addThrowable(ex);
+                            fail(a);
+                            return;
+                        }
+                        app[i] = v;
+                        if (old == null) {
+                            missing--;
+                        }
+                        changed = true;
+                    }
+                }
+
+                if (changed && missing == 0 && emitted != requested.get()) {
+                    R r;
+                    try {
+                        r = ObjectHelper.requireNonNull(agg.current(), "The aggregator returned a null value");
+                    } catch (Throwable ex) {
+                        Exceptions.throwIfFatal(ex);
+                        errors.addThrowable(ex);
+                        fail(a);
+                        return;
+                    }
+
+                    changed = false;
+
+                    a.onNext(r);
+
+                    emitted++;
+                }
+
+                if (d && !changed && q.isEmpty()) {
+                    clear();
+                    a.onComplete();
+                    return;
+                }
+
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        void fail(Subscriber<? super R> a) {
+            cancelled = true;
+            cancelAll();
+            clear();
+            a.onError(errors.terminate());
+        }
+
+        static final class InnerSubscriber<T> extends AtomicReference<Subscription> implements FlowableSubscriber<T> {
+
+            private static final long serialVersionUID = -1587929585064453069L;
+
+            final AggregateLatestCoordinator<T, ?> parent;
+
+            final int index;
+
+            boolean hasValue;
+
+            InnerSubscriber(AggregateLatestCoordinator<T, ?> parent, int index) {
+                this.parent = parent;
+                this.index = index;
+            }
+
+            @Override
+            public void onSubscribe(Subscription s) {
+                if (SubscriptionHelper.setOnce(this, s)) {
+                    s.request(Long.MAX_VALUE);
+                }
+            }
+
+            @Override
+            public void onNext(T t) {
+                hasValue = true;
+                parent.innerNext(this, t);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                lazySet(SubscriptionHelper.CANCELLED);
+                parent.innerError(t);
+            }
+
+            @Override
+            public void onComplete() {
+                lazySet(SubscriptionHelper.CANCELLED);
+                parent.innerComplete(hasValue);
+            }
+
+            void cancel() {
+                SubscriptionHelper.cancel(this);
+            }
+        }
+    }
+}
@@ -23,7 +23,7 @@ import org.reactivestreams.*;
 
 import io.reactivex.*;
 import io.reactivex.exceptions.Exceptions;
-import io.reactivex.functions.Predicate;
+import io.reactivex.functions.*;
 import io.reactivex.internal.functions.ObjectHelper;
 import io.reactivex.internal.fuseable.ConditionalSubscriber;
 import io.reactivex.internal.subscriptions.*;
@@ -57,12 +57,15 @@ final class FlowableBufferPredicate<T, C extends Collection<? super T>> extends
 
     final Callable<C> bufferSupplier;
 
+    final Consumer<? super C> recycler;
+
     FlowableBufferPredicate(Publisher<T> source, Predicate<? super T> predicate, Mode mode,
-            Callable<C> bufferSupplier) {
+            Callable<C> bufferSupplier, Consumer<? super C> recycler) {
         this.source = source;
         this.predicate = predicate;
         this.mode = mode;
         this.bufferSupplier = bufferSupplier;
+        this.recycler = recycler;
     }
 
     @Override
@@ -77,12 +80,12 @@ final class FlowableBufferPredicate<T, C extends Collection<? super T>> extends
             return;
         }
 
-        source.subscribe(new BufferPredicateSubscriber<T, C>(s, buffer, predicate, mode, bufferSupplier));
+        source.subscribe(new BufferPredicateSubscriber<T, C>(s, buffer, predicate, mode, bufferSupplier, recycler));
     }
 
     @Override
     public Publisher<C> apply(Flowable<T> upstream) {
-        return new FlowableBufferPredicate<T, C>(upstream, predicate, mode, bufferSupplier);
+        return new FlowableBufferPredicate<T, C>(upstream, predicate, mode, bufferSupplier, recycler);
     }
 
     static final class BufferPredicateSubscriber<T, C extends Collection<? super T>>
@@ -96,6 +99,8 @@ final class FlowableBufferPredicate<T, C extends Collection<? super T>> extends
 
         final Callable<C> bufferSupplier;
 
+        final Consumer<? super C> recycler;
+
         C buffer;
 
         Subscription s;
@@ -105,12 +110,13 @@ final class FlowableBufferPredicate<T, C extends Collection<? super T>> extends
         BufferPredicateSubscriber(Subscriber<? super C> actual,
                 C buffer,
                 Predicate<? super T> predicate, Mode mode,
-                Callable<C> bufferSupplier) {
+                Callable<C> bufferSupplier, Consumer<? super C> recycler) {
             this.actual = actual;
             this.predicate = predicate;
             this.mode = mode;
             this.buffer = buffer;
             this.bufferSupplier = bufferSupplier;
+            this.recycler = recycler;
         }
 
         @Override
@@ -151,6 +157,8 @@ final class FlowableBufferPredicate<T, C extends Collection<? super T>> extends
                     if (b) {
                         actual.onNext(buf);
 
+                        recycle(buf);
+
                         try {
                             buffer = bufferSupplier.call();
                         } catch (Throwable ex) {
@@ -174,6 +182,9 @@ final class FlowableBufferPredicate<T, C extends Collection<? super T>> extends
                         return false;
                     } else {
                         actual.onNext(buf);
+
+                        recycle(buf);
+
                         try {
                             buf = bufferSupplier.call();
                         } catch (Throwable ex) {
@@ -193,6 +204,8 @@ final class FlowableBufferPredicate<T, C extends Collection<? super T>> extends
                     if (b) {
                         actual.onNext(buf);
 
+                        recycle(buf);
+
                         try {
                             buffer = bufferSupplier.call();
                         } catch (Throwable ex) {
@@ -213,6 +226,15 @@ final class FlowableBufferPredicate<T, C extends Collection<? super T>> extends
             return true;
         }
 
+        void recycle(C buf) {
+            try {
+                recycler.accept(buf);
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                RxJavaPlugins.onError(ex);
+            }
+        }
+
         @Override
         public void onError(Throwable t) {
             if (buffer != null) {
@@ -231,6 +253,7 @@ final class FlowableBufferPredicate<T, C extends Collection<? super T>> extends
                 if (count != 0) {
                     actual.onNext(b);
                 }
+                recycle(b);
                 actual.onComplete();
             }
         }
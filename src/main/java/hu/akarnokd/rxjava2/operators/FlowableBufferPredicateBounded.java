@@ -0,0 +1,523 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.operators;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import hu.akarnokd.rxjava2.operators.FlowableBufferPredicate.Mode;
+import hu.akarnokd.rxjava2.util.ObjectPool;
+import io.reactivex.*;
+import io.reactivex.Scheduler.Worker;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.*;
+import io.reactivex.internal.functions.*;
+import io.reactivex.internal.fuseable.SimplePlainQueue;
+import io.reactivex.internal.queue.MpscLinkedQueue;
+import io.reactivex.internal.subscriptions.*;
+import io.reactivex.internal.util.BackpressureHelper;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Buffer based on a predicate like {@link FlowableBufferPredicate} but also close
+ * the current buffer if it reaches a maximum size or, if a scheduler is given, when
+ * it has been open for a maximum amount of time.
+ * <p>
+ * Empty buffers are never emitted. Each buffer is handed to the recycler callback after
+ * the downstream's {@code onNext} returned.
+ *
+ * @param <T> the source value type
+ * @param <C> the buffer type
+ *
+ * @since 0.17.9
+ */
+final class FlowableBufferPredicateBounded<T, C extends Collection<? super T>> extends Flowable<C> implements FlowableTransformer<T, C> {
+
+    final Publisher<T> source;
+
+    final Predicate<? super T> predicate;
+
+    final Mode mode;
+
+    final Callable<C> bufferSupplier;
+
+    final int maxSize;
+
+    final long maxTime;
+
+    final TimeUnit unit;
+
+    final Scheduler scheduler;
+
+    final Consumer<? super C> recycler;
+
+    FlowableBufferPredicateBounded(Publisher<T> source, Predicate<? super T> predicate, Mode mode,
+            Callable<C> bufferSupplier, int maxSize, long maxTime, TimeUnit unit, Scheduler scheduler,
+            Consumer<? super C> recycler) {
+        this.source = source;
+        this.predicate = predicate;
+        this.mode = mode;
+        this.bufferSupplier = bufferSupplier;
+        this.maxSize = maxSize;
+        this.maxTime = maxTime;
+        this.unit = unit;
+        this.scheduler = scheduler;
+        this.recycler = recycler;
+    }
+
+    static <T> Callable<List<T>> listSupplier(int maxSize) {
+        return Functions.createArrayList(Math.min(maxSize, 1024));
+    }
+
+    /** The number of idle lists kept by a {@link #chunkPool(int)}. */
+    static final int CHUNK_POOL_SIZE = 8;
+
+    static <T> ObjectPool<List<T>> chunkPool(int maxSize) {
+        return ObjectPool.create(CHUNK_POOL_SIZE, FlowableBufferPredicateBounded.<T>listSupplier(maxSize), ClearCollection.INSTANCE);
+    }
+
+    enum ClearCollection implements Consumer<Collection<?>> {
+        INSTANCE;
+
+        @Override
+        public void accept(Collection<?> t) throws Exception {
+            t.clear();
+        }
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super C> s) {
+        C buffer;
+
+        try {
+            buffer = ObjectHelper.requireNonNull(bufferSupplier.call(), "The bufferSupplier returned a null buffer");
+        } catch (Throwable ex) {
+            Exceptions.throwIfFatal(ex);
+            EmptySubscription.error(ex, s);
+            return;
+        }
+
+        Worker worker = scheduler != null ? scheduler.createWorker() : null;
+
+        source.subscribe(new BufferPredicateBoundedSubscriber<T, C>(s, buffer, predicate, mode, bufferSupplier,
+                maxSize, maxTime, unit, worker, recycler));
+    }
+
+    @Override
+    public Publisher<C> apply(Flowable<T> upstream) {
+        return new FlowableBufferPredicateBounded<T, C>(upstream, predicate, mode, bufferSupplier,
+                maxSize, maxTime, unit, scheduler, recycler);
+    }
+
+    static final class BufferPredicateBoundedSubscriber<T, C extends Collection<? super T>>
+    extends AtomicInteger
+    implements Subscriber<T>, Subscription {
+
+        private static final long serialVersionUID = -2416355993618419544L;
+
+        final Subscriber<? super C> actual;
+
+        final Predicate<? super T> predicate;
+
+        final Mode mode;
+
+        final Callable<C> bufferSupplier;
+
+        final int maxSize;
+
+        final long maxTime;
+
+        final TimeUnit unit;
+
+        final Worker worker;
+
+        final Consumer<? super C> recycler;
+
+        final SimplePlainQueue<C> queue;
+
+        final AtomicLong requested;
+
+        Subscription s;
+
+        /** The open buffer, null if terminated; guarded by this. */
+        C buffer;
+
+        /** The number of items in the open buffer; guarded by this. */
+        int count;
+
+        /** The generation of the open buffer, used by the timer to detect stale timeouts; guarded by this. */
+        long index;
+
+        /** The timeout of the open buffer; guarded by this. */
+        Disposable timer;
+
+        /**
+         * The upstream requests not yet issued; negative if more buffers were closed than
+         * items received, for example by the timer; guarded by this.
+         */
+        long credit;
+
+        volatile boolean done;
+        Throwable error;
+
+        volatile boolean cancelled;
+
+        long emitted;
+
+        BufferPredicateBoundedSubscriber(Subscriber<? super C> actual,
+                C buffer,
+                Predicate<? super T> predicate, Mode mode,
+                Callable<C> bufferSupplier, int maxSize,
+                long maxTime, TimeUnit unit, Worker worker,
+                Consumer<? super C> recycler) {
+            this.actual = actual;
+            this.predicate = predicate;
+            this.mode = mode;
+            this.buffer = buffer;
+            this.bufferSupplier = bufferSupplier;
+            this.maxSize = maxSize;
+            this.maxTime = maxTime;
+            this.unit = unit;
+            this.worker = worker;
+            this.recycler = recycler;
+            this.queue = new MpscLinkedQueue<C>();
+            this.requested = new AtomicLong();
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.validate(this.s, s)) {
+                this.s = s;
+
+                actual.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (done) {
+                return;
+            }
+
+            boolean b;
+
+            try {
+                b = predicate.test(t);
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                s.cancel();
+                onError(ex);
+                return;
+            }
+
+            long r;
+            Throwable fail = null;
+
+            synchronized (this) {
+                C buf = buffer;
+                if (buf == null) {
+                    return;
+                }
+
+                int closed = 0;
+                int c = count;
+
+                try {
+                    switch (mode) {
+                    case AFTER: {
+                        buf.add(t);
+                        c++;
+                        if (b || c >= maxSize) {
+                            close();
+                            closed = 1;
+                        } else {
+                            count = c;
+                        }
+                        break;
+                    }
+                    case BEFORE: {
+                        if (!b && c != 0) {
+                            close();
+                            closed = 1;
+                            buf = buffer;
+                            c = 0;
+                        }
+                        buf.add(t);
+                        c++;
+                        if (c >= maxSize) {
+                            close();
+                            closed++;
+                        } else {
+                            count = c;
+                        }
+                        break;
+                    }
+                    default:
+                        if (b) {
+                            if (c != 0) {
+                                close();
+                                closed = 1;
+                            }
+                        } else {
+                            buf.add(t);
+                            c++;
+                            if (c >= maxSize) {
+                                close();
+                                closed = 1;
+                            } else {
+                                count = c;
+                            }
+                        }
+                    }
+                } catch (Throwable ex) {
+                    Exceptions.throwIfFatal(ex);
+                    buffer = null;
+                    fail = ex;
+                }
+
+                if (fail == null && count == 1 && worker != null) {
+                    timer = worker.schedule(new BoundaryTask(this, index), maxTime, unit);
+                }
+
+                r = credit + 1 - closed;
+                if (r > 0L) {
+                    credit = 0L;
+                } else {
+                    credit = r;
+                }
+            }
+
+            if (fail != null) {
+                s.cancel();
+                error = fail;
+                done = true;
+                drain();
+            } else if (r > 0L) {
+                s.request(r);
+            } else {
+                drain();
+            }
+        }
+
+        /**
+         * Queue the open buffer and start a fresh one; must be called while holding this.
+         * @throws Exception if the buffer supplier crashed
+         */
+        void close() throws Exception {
+            queue.offer(buffer);
+            count = 0;
+            index++;
+            Disposable d = timer;
+            if (d != null) {
+                d.dispose();
+                timer = null;
+            }
+            buffer = ObjectHelper.requireNonNull(bufferSupplier.call(), "The bufferSupplier returned a null buffer");
+        }
+
+        void timeout(long idx) {
+            synchronized (this) {
+                if (idx != index || buffer == null || count == 0) {
+                    return;
+                }
+                timer = null;
+                credit--;
+                try {
+                    close();
+                } catch (Throwable ex) {
+                    Exceptions.throwIfFatal(ex);
+                    buffer = null;
+                    s.cancel();
+                    error = ex;
+                    done = true;
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            synchronized (this) {
+                if (buffer == null) {
+                    RxJavaPlugins.onError(t);
+                    return;
+                }
+                buffer = null;
+            }
+            error = t;
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            synchronized (this) {
+                C b = buffer;
+                if (b == null) {
+                    return;
+                }
+                buffer = null;
+                if (count != 0) {
+                    queue.offer(b);
+                }
+            }
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                long r;
+                synchronized (this) {
+                    r = credit + n;
+                    if (r > 0L) {
+                        credit = 0L;
+                    } else {
+                        credit = r;
+                    }
+                }
+                if (r > 0L) {
+                    s.request(r);
+                }
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            s.cancel();
+            if (worker != null) {
+                worker.dispose();
+            }
+            if (getAndIncrement() == 0) {
+                queue.clear();
+            }
+        }
+
+        void recycle(C buffer) {
+            try {
+                recycler.accept(buffer);
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                RxJavaPlugins.onError(ex);
+            }
+        }
+
+        void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            Subscriber<? super C> a = actual;
+            SimplePlainQueue<C> q = queue;
+            long e = emitted;
+
+            for (;;) {
+                long r = requested.get();
+
+                while (e != r) {
+                    if (cancelled) {
+                        q.clear();
+                        return;
+                    }
+
+                    boolean d = done;
+
+                    if (d && error != null) {
+                        q.clear();
+                        terminate(a);
+                        return;
+                    }
+
+                    C v = q.poll();
+                    boolean empty = v == null;
+
+                    if (d && empty) {
+                        terminate(a);
+                        return;
+                    }
+
+                    if (empty) {
+                        break;
+                    }
+
+                    a.onNext(v);
+
+                    recycle(v);
+
+                    e++;
+                }
+
+                if (e == r) {
+                    if (cancelled) {
+                        q.clear();
+                        return;
+                    }
+
+                    if (done && (error != null || q.isEmpty())) {
+                        q.clear();
+                        terminate(a);
+                        return;
+                    }
+                }
+
+                emitted = e;
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        void terminate(Subscriber<? super C> a) {
+            Throwable ex = error;
+            if (ex != null) {
+                a.onError(ex);
+            } else {
+                a.onComplete();
+            }
+            if (worker != null) {
+                worker.dispose();
+            }
+        }
+
+        static final class BoundaryTask implements Runnable {
+
+            final BufferPredicateBoundedSubscriber<?, ?> parent;
+
+            final long index;
+
+            BoundaryTask(BufferPredicateBoundedSubscriber<?, ?> parent, long index) {
+                this.parent = parent;
+                this.index = index;
+            }
+
+            @Override
+            public void run() {
+                parent.timeout(index);
+            }
+        }
+    }
+}
@@ -23,14 +23,18 @@ import org.reactivestreams.*;
 
 import io.reactivex.*;
 import io.reactivex.exceptions.Exceptions;
-import io.reactivex.functions.BiConsumer;
+import io.reactivex.functions.*;
 import io.reactivex.internal.fuseable.SimplePlainQueue;
 import io.reactivex.internal.queue.SpscLinkedArrayQueue;
 import io.reactivex.internal.subscriptions.SubscriptionHelper;
 import io.reactivex.internal.util.BackpressureHelper;
+import io.reactivex.plugins.RxJavaPlugins;
 
 /**
  * Coalesces items into a container if the downstream is not ready to receive items.
+ * <p>
+ * Each container is handed to the recycler once the downstream's onNext returned
+ * or when it gets discarded due to cancellation or a failure.
  *
  * @param <T> the upstream element type
  * @param <R> the container type emitted to downstream
@@ -47,21 +51,25 @@ final class FlowableCoalesce<T, R> extends Flowable<R> implements FlowableTransf
 
     final int bufferSize;
 
-    FlowableCoalesce(Publisher<T> source, Callable<R> containerSupplier, BiConsumer<R, T> coalescer, int bufferSize) {
+    final Consumer<? super R> recycler;
+
+    FlowableCoalesce(Publisher<T> source, Callable<R> containerSupplier, BiConsumer<R, T> coalescer, int bufferSize,
+            Consumer<? super R> recycler) {
         this.source = source;
         this.containerSupplier = containerSupplier;
         this.coalescer = coalescer;
         this.bufferSize = bufferSize;
+        this.recycler = recycler;
     }
 
     @Override
     public Publisher<R> apply(Flowable<T> upstream) {
-        return new FlowableCoalesce<T, R>(upstream, containerSupplier, coalescer, bufferSize);
+        return new FlowableCoalesce<T, R>(upstream, containerSupplier, coalescer, bufferSize, recycler);
     }
 
     @Override
     protected void subscribeActual(Subscriber<? super R> s) {
-        source.subscribe(new CoalesceSubscriber<T, R>(s, containerSupplier, coalescer, bufferSize));
+        source.subscribe(new CoalesceSubscriber<T, R>(s, containerSupplier, coalescer, bufferSize, recycler));
     }
 
     static final class CoalesceSubscriber<T, R> extends AtomicInteger
@@ -79,6 +87,8 @@ final class FlowableCoalesce<T, R> extends Flowable<R> implements FlowableTransf
 
         final int bufferSize;
 
+        final Consumer<? super R> recycler;
+
         volatile SimplePlainQueue<T> queue;
 
         Subscription upstream;
@@ -94,12 +104,13 @@ final class FlowableCoalesce<T, R> extends Flowable<R> implements FlowableTransf
         long emitted;
 
         CoalesceSubscriber(Subscriber<? super R> actual, Callable<R> containerSupplier,
-                BiConsumer<R, T> coalescer, int bufferSize) {
+                BiConsumer<R, T> coalescer, int bufferSize, Consumer<? super R> recycler) {
             this.actual = actual;
             this.containerSupplier = containerSupplier;
             this.coalescer = coalescer;
             this.requested = new AtomicLong();
             this.bufferSize = bufferSize;
+            this.recycler = recycler;
         }
 
         @Override
@@ -128,6 +139,7 @@ final class FlowableCoalesce<T, R> extends Flowable<R> implements FlowableTransf
                         Exceptions.throwIfFatal(ex);
                         upstream.cancel();
                         container = null;
+                        recycle(c);
                         actual.onError(ex);
                         return;
                     }
@@ -136,6 +148,7 @@ final class FlowableCoalesce<T, R> extends Flowable<R> implements FlowableTransf
                     if (e != r) {
                         container = null;
                         actual.onNext(c);
+                        recycle(c);
                         emitted = e + 1;
                     }
                     if (decrementAndGet() == 0) {
@@ -182,7 +195,20 @@ final class FlowableCoalesce<T, R> extends Flowable<R> implements FlowableTransf
             cancelled = true;
             upstream.cancel();
             if (getAndIncrement() == 0) {
+                R c = container;
                 container = null;
+                recycle(c);
+            }
+        }
+
+        void recycle(R c) {
+            if (c != null) {
+                try {
+                    recycler.accept(c);
+                } catch (Throwable ex) {
+                    Exceptions.throwIfFatal(ex);
+                    RxJavaPlugins.onError(ex);
+                }
             }
         }
 
@@ -203,6 +229,7 @@ final class FlowableCoalesce<T, R> extends Flowable<R> implements FlowableTransf
             for (;;) {
                 if (cancelled) {
                     container = null;
+                    recycle(c);
                     return;
                 }
                 boolean d = done;
@@ -226,6 +253,7 @@ final class FlowableCoalesce<T, R> extends Flowable<R> implements FlowableTransf
                     } catch (Throwable ex) {
                         Exceptions.throwIfFatal(ex);
                         container = null;
+                        recycle(c);
                         a.onError(ex);
                         return;
                     }
@@ -233,6 +261,7 @@ final class FlowableCoalesce<T, R> extends Flowable<R> implements FlowableTransf
 
                 if (c != null && e != requested.get()) {
                     a.onNext(c);
+                    recycle(c);
                     c = null;
                     container = null;
                     e++;
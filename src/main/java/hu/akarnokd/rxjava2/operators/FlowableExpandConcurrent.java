@@ -0,0 +1,436 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.operators;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import io.reactivex.*;
+import io.reactivex.exceptions.*;
+import io.reactivex.functions.Function;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.queue.SpscArrayQueue;
+import io.reactivex.internal.subscriptions.*;
+import io.reactivex.internal.util.*;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Emit and recursively expand elements from upstream, running up to a
+ * maximum number of expansions concurrently, in a roughly breadth-first order.
+ * @param <T> the value type
+ * @since 0.17.9
+ */
+final class FlowableExpandConcurrent<T> extends Flowable<T> implements FlowableTransformer<T, T> {
+
+    final Publisher<T> source;
+
+    final Function<? super T, ? extends Publisher<? extends T>> expander;
+
+    final int maxConcurrency;
+
+    final int frontierSize;
+
+    final int prefetch;
+
+    final Callable<? extends Collection<? super T>> visitedSupplier;
+
+    FlowableExpandConcurrent(Publisher<T> source, Function<? super T, ? extends Publisher<? extends T>> expander,
+            int maxConcurrency, int frontierSize, int prefetch,
+            Callable<? extends Collection<? super T>> visitedSupplier) {
+        this.source = source;
+        this.expander = expander;
+        this.maxConcurrency = maxConcurrency;
+        this.frontierSize = frontierSize;
+        this.prefetch = prefetch;
+        this.visitedSupplier = visitedSupplier;
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super T> s) {
+        Collection<? super T> visited;
+        if (visitedSupplier != null) {
+            try {
+                visited = ObjectHelper.requireNonNull(visitedSupplier.call(), "The visitedSupplier returned a null Collection");
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                EmptySubscription.error(ex, s);
+                return;
+            }
+        } else {
+            visited = null;
+        }
+
+        ExpandConcurrentSubscription<T> parent = new ExpandConcurrentSubscription<T>(s, expander, maxConcurrency, frontierSize, prefetch, visited);
+        s.onSubscribe(parent);
+        parent.start(source);
+    }
+
+    @Override
+    public Publisher<T> apply(Flowable<T> upstream) {
+        return new FlowableExpandConcurrent<T>(upstream, expander, maxConcurrency, frontierSize, prefetch, visitedSupplier);
+    }
+
+    static final class ExpandConcurrentSubscription<T>
+    extends AtomicInteger
+    implements Subscription {
+
+        private static final long serialVersionUID = -3226428046131546738L;
+
+        @SuppressWarnings("rawtypes")
+        static final ExpandInnerSubscriber CANCELLED = new ExpandInnerSubscriber<Object>(null, 1);
+
+        final Subscriber<? super T> actual;
+
+        final Function<? super T, ? extends Publisher<? extends T>> expander;
+
+        final int frontierSize;
+
+        final int prefetch;
+
+        final Collection<? super T> visited;
+
+        /** The running expansions, the main source included. */
+        final AtomicReferenceArray<ExpandInnerSubscriber<T>> inners;
+
+        /** The emitted items waiting for a free slot to be expanded; accessed by the drain loop only. */
+        final ArrayDeque<T> frontier;
+
+        final AtomicLong requested;
+
+        final AtomicThrowable error;
+
+        volatile boolean cancelled;
+
+        /** The number of non-null slots in {@link #inners}; accessed by the drain loop only. */
+        int active;
+
+        long emitted;
+
+        ExpandConcurrentSubscription(Subscriber<? super T> actual,
+                Function<? super T, ? extends Publisher<? extends T>> expander,
+                int maxConcurrency, int frontierSize, int prefetch, Collection<? super T> visited) {
+            this.actual = actual;
+            this.expander = expander;
+            this.frontierSize = frontierSize;
+            this.prefetch = prefetch;
+            this.visited = visited;
+            this.inners = new AtomicReferenceArray<ExpandInnerSubscriber<T>>(maxConcurrency);
+            this.frontier = new ArrayDeque<T>();
+            this.requested = new AtomicLong();
+            this.error = new AtomicThrowable();
+            this.inners.lazySet(0, new ExpandInnerSubscriber<T>(this, prefetch));
+            this.active = 1;
+        }
+
+        @SuppressWarnings("unchecked")
+        void start(Publisher<? extends T> source) {
+            ExpandInnerSubscriber<T> inner = inners.get(0);
+            if (inner != CANCELLED) {
+                source.subscribe(inner);
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                cancelInners();
+                if (getAndIncrement() == 0) {
+                    frontier.clear();
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void cancelInners() {
+            AtomicReferenceArray<ExpandInnerSubscriber<T>> a = inners;
+            for (int i = 0; i < a.length(); i++) {
+                ExpandInnerSubscriber<T> inner = a.getAndSet(i, CANCELLED);
+                if (inner != null && inner != CANCELLED) {
+                    inner.cancel();
+                }
+            }
+        }
+
+        boolean add(ExpandInnerSubscriber<T> inner) {
+            AtomicReferenceArray<ExpandInnerSubscriber<T>> a = inners;
+            for (int i = 0; i < a.length(); i++) {
+                if (a.get(i) == null) {
+                    if (a.compareAndSet(i, null, inner)) {
+                        return true;
+                    }
+                    break;
+                }
+            }
+            inner.cancel();
+            return false;
+        }
+
+        void innerError(ExpandInnerSubscriber<T> inner, Throwable ex) {
+            if (error.addThrowable(ex)) {
+                inner.done = true;
+                drain();
+            } else {
+                RxJavaPlugins.onError(ex);
+            }
+        }
+
+        void clearAll() {
+            frontier.clear();
+            AtomicReferenceArray<ExpandInnerSubscriber<T>> a = inners;
+            for (int i = 0; i < a.length(); i++) {
+                ExpandInnerSubscriber<T> inner = a.get(i);
+                if (inner != null && inner != CANCELLED) {
+                    inner.queue.clear();
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            Subscriber<? super T> a = actual;
+            AtomicReferenceArray<ExpandInnerSubscriber<T>> slots = inners;
+            ArrayDeque<T> f = frontier;
+            Collection<? super T> seen = visited;
+            int n = slots.length();
+            int limit = prefetch - (prefetch >> 2);
+            long e = emitted;
+
+            for (;;) {
+                boolean progress = false;
+
+                for (;;) {
+                    if (cancelled) {
+                        clearAll();
+                        return;
+                    }
+
+                    if (error.get() != null) {
+                        cancelInners();
+                        clearAll();
+                        a.onError(error.terminate());
+                        return;
+                    }
+
+                    if (active == n || f.isEmpty()) {
+                        break;
+                    }
+
+                    T v = f.poll();
+
+                    Publisher<? extends T> p;
+                    try {
+                        p = ObjectHelper.requireNonNull(expander.apply(v), "The expander returned a null Publisher");
+                    } catch (Throwable ex) {
+                        Exceptions.throwIfFatal(ex);
+                        error.addThrowable(ex);
+                        continue;
+                    }
+
+                    ExpandInnerSubscriber<T> inner = new ExpandInnerSubscriber<T>(this, prefetch);
+                    if (!add(inner)) {
+                        continue;
+                    }
+                    active++;
+                    p.subscribe(inner);
+                }
+
+                long r = requested.get();
+                boolean gated = f.size() >= frontierSize;
+                ExpandInnerSubscriber<T> stalled = null;
+
+                for (int i = 0; i < n; i++) {
+                    ExpandInnerSubscriber<T> inner = slots.get(i);
+                    if (inner == null || inner == CANCELLED) {
+                        continue;
+                    }
+
+                    SpscArrayQueue<T> q = inner.queue;
+
+                    for (;;) {
+                        if (cancelled || error.get() != null) {
+                            break;
+                        }
+
+                        boolean d = inner.done;
+                        boolean empty = q.isEmpty();
+
+                        if (d && empty) {
+                            if (slots.compareAndSet(i, inner, null)) {
+                                active--;
+                            }
+                            progress = true;
+                            break;
+                        }
+
+                        if (empty) {
+                            if (!d && inner.outstanding == 0L && stalled == null) {
+                                stalled = inner;
+                            }
+                            break;
+                        }
+
+                        if (e == r) {
+                            break;
+                        }
+
+                        T v = q.poll();
+                        inner.outstanding--;
+                        progress = true;
+
+                        if (seen == null || seen.add(v)) {
+                            a.onNext(v);
+                            e++;
+                            f.offer(v);
+                            gated = f.size() >= frontierSize;
+                        }
+
+                        if (!gated) {
+                            long c = inner.consumed + 1;
+                            if (c >= limit) {
+                                inner.consumed = 0L;
+                                inner.request(c);
+                            } else {
+                                inner.consumed = c;
+                            }
+                        } else {
+                            inner.consumed++;
+                        }
+                    }
+                }
+
+                if (cancelled) {
+                    clearAll();
+                    return;
+                }
+
+                if (error.get() != null) {
+                    cancelInners();
+                    clearAll();
+                    a.onError(error.terminate());
+                    return;
+                }
+
+                if (active == 0 && f.isEmpty()) {
+                    a.onComplete();
+                    return;
+                }
+
+                if (progress) {
+                    continue;
+                }
+
+                // every running expansion is idle because of the frontier bound:
+                // let the oldest continue so a slot eventually frees up
+                if (stalled != null && e != r) {
+                    long c = stalled.consumed;
+                    if (c != 0L) {
+                        stalled.consumed = 0L;
+                        stalled.request(c);
+                    }
+                }
+
+                emitted = e;
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+    }
+
+    static final class ExpandInnerSubscriber<T>
+    extends AtomicReference<Subscription>
+    implements FlowableSubscriber<T> {
+
+        private static final long serialVersionUID = 4836263240281930862L;
+
+        final ExpandConcurrentSubscription<T> parent;
+
+        final SpscArrayQueue<T> queue;
+
+        final int prefetch;
+
+        volatile boolean done;
+
+        /** Items requested but not yet consumed; accessed by the drain loop only. */
+        long outstanding;
+
+        /** Items consumed but not yet requested again; accessed by the drain loop only. */
+        long consumed;
+
+        ExpandInnerSubscriber(ExpandConcurrentSubscription<T> parent, int prefetch) {
+            this.parent = parent;
+            this.prefetch = prefetch;
+            this.queue = new SpscArrayQueue<T>(prefetch);
+            this.outstanding = prefetch;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.setOnce(this, s)) {
+                s.request(prefetch);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (!queue.offer(t)) {
+                SubscriptionHelper.cancel(this);
+                onError(new MissingBackpressureException("Queue full?!"));
+                return;
+            }
+            parent.drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            parent.innerError(this, t);
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            parent.drain();
+        }
+
+        void request(long n) {
+            outstanding += n;
+            get().request(n);
+        }
+
+        void cancel() {
+            SubscriptionHelper.cancel(this);
+        }
+    }
+}
@@ -23,6 +23,7 @@ import org.reactivestreams.*;
 
 import hu.akarnokd.rxjava2.operators.FlowableMapAsync.AsyncSupport;
 import hu.akarnokd.rxjava2.operators.FlowableMapAsync.MapAsyncSubscriber.InnerSubscriber;
+import hu.akarnokd.rxjava2.operators.FlowableMapAsyncConcurrent.*;
 import io.reactivex.*;
 import io.reactivex.exceptions.Exceptions;
 import io.reactivex.functions.Function;
@@ -47,21 +48,34 @@ final class FlowableFilterAsync<T> extends Flowable<T> implements FlowableTransf
 
     final int bufferSize;
 
+    final int maxConcurrency;
+
+    final boolean ordered;
+
     FlowableFilterAsync(Flowable<T> source, Function<? super T, ? extends Publisher<Boolean>> asyncPredicate,
-            int bufferSize) {
+            int bufferSize, int maxConcurrency, boolean ordered) {
         this.source = source;
         this.asyncPredicate = asyncPredicate;
         this.bufferSize = bufferSize;
+        this.maxConcurrency = maxConcurrency;
+        this.ordered = ordered;
     }
 
     @Override
     public Publisher<T> apply(Flowable<T> upstream) {
-        return new FlowableFilterAsync<T>(upstream, asyncPredicate, bufferSize);
+        return new FlowableFilterAsync<T>(upstream, asyncPredicate, bufferSize, maxConcurrency, ordered);
     }
 
     @Override
     protected void subscribeActual(Subscriber<? super T> s) {
-        source.subscribe(new FilterAsyncSubscriber<T>(s, asyncPredicate, bufferSize));
+        if (!ordered) {
+            source.subscribe(new FilterAsyncUnorderedSubscriber<T>(s, asyncPredicate, bufferSize, maxConcurrency));
+        } else
+        if (maxConcurrency == 1) {
+            source.subscribe(new FilterAsyncSubscriber<T>(s, asyncPredicate, bufferSize));
+        } else {
+            source.subscribe(new FilterAsyncConcurrentSubscriber<T>(s, asyncPredicate, bufferSize, maxConcurrency));
+        }
     }
 
     static final class FilterAsyncSubscriber<T>
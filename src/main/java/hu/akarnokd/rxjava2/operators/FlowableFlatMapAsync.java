@@ -44,26 +44,29 @@ final class FlowableFlatMapAsync<T, R> extends Flowable<R> implements FlowableTr
 
     final boolean depthFirst;
 
+    final boolean readyQueue;
+
     final Scheduler scheduler;
 
     FlowableFlatMapAsync(Publisher<T> source, Function<? super T, ? extends Publisher<? extends R>> mapper,
-            int maxConcurrency, int bufferSize, boolean depthFirst, Scheduler scheduler) {
+            int maxConcurrency, int bufferSize, boolean depthFirst, boolean readyQueue, Scheduler scheduler) {
         this.source = source;
         this.mapper = mapper;
         this.maxConcurrency = maxConcurrency;
         this.bufferSize = bufferSize;
         this.depthFirst = depthFirst;
+        this.readyQueue = readyQueue;
         this.scheduler = scheduler;
     }
 
     @Override
     protected void subscribeActual(Subscriber<? super R> s) {
-        source.subscribe(new FlatMapOuterSubscriber<T, R>(s, mapper, maxConcurrency, bufferSize, depthFirst, scheduler.createWorker()));
+        source.subscribe(new FlatMapOuterSubscriber<T, R>(s, mapper, maxConcurrency, bufferSize, depthFirst, readyQueue, scheduler.createWorker()));
     }
 
     @Override
     public Publisher<R> apply(Flowable<T> upstream) {
-        return new FlowableFlatMapAsync<T, R>(upstream, mapper, maxConcurrency, bufferSize, depthFirst, scheduler);
+        return new FlowableFlatMapAsync<T, R>(upstream, mapper, maxConcurrency, bufferSize, depthFirst, readyQueue, scheduler);
     }
 
     static final class FlatMapOuterSubscriber<T, R> extends BaseFlatMapOuterSubscriber<T, R> implements Runnable {
@@ -73,8 +76,8 @@ final class FlowableFlatMapAsync<T, R> extends Flowable<R> implements FlowableTr
 
         FlatMapOuterSubscriber(Subscriber<? super R> actual,
                 Function<? super T, ? extends Publisher<? extends R>> mapper, int maxConcurrency, int bufferSize,
-                boolean depthFirst, Scheduler.Worker worker) {
-            super(actual, mapper, maxConcurrency, bufferSize, depthFirst);
+                boolean depthFirst, boolean readyQueue, Scheduler.Worker worker) {
+            super(actual, mapper, maxConcurrency, bufferSize, depthFirst, readyQueue);
             this.worker = worker;
         }
 
@@ -87,11 +90,7 @@ final class FlowableFlatMapAsync<T, R> extends Flowable<R> implements FlowableTr
 
         @Override
         public void run() {
-            if (depthFirst) {
-                depthFirst();
-            } else {
-                breadthFirst();
-            }
+            drainLoop();
         }
 
         @Override
@@ -103,6 +102,7 @@ final class FlowableFlatMapAsync<T, R> extends Flowable<R> implements FlowableTr
         public void innerNext(FlatMapInnerSubscriber<T, R> inner, R item) {
             SimpleQueue<R> q = inner.queue();
             q.offer(item);
+            signalReady(inner);
             drain();
         }
 
@@ -123,7 +123,7 @@ final class FlowableFlatMapAsync<T, R> extends Flowable<R> implements FlowableTr
         @Override
         public void innerComplete(FlatMapInnerSubscriber<T, R> inner) {
             inner.done = true;
-            drain();
+            innerSignal(inner);
         }
     }
 }
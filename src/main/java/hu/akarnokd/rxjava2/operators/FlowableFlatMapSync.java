@@ -25,7 +25,7 @@ import io.reactivex.exceptions.Exceptions;
 import io.reactivex.functions.Function;
 import io.reactivex.internal.functions.ObjectHelper;
 import io.reactivex.internal.fuseable.*;
-import io.reactivex.internal.queue.SpscArrayQueue;
+import io.reactivex.internal.queue.*;
 import io.reactivex.internal.subscriptions.SubscriptionHelper;
 import io.reactivex.internal.util.*;
 import io.reactivex.plugins.RxJavaPlugins;
@@ -50,23 +50,26 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
 
     final boolean depthFirst;
 
+    final boolean readyQueue;
+
     FlowableFlatMapSync(Publisher<T> source, Function<? super T, ? extends Publisher<? extends R>> mapper,
-            int maxConcurrency, int bufferSize, boolean depthFirst) {
+            int maxConcurrency, int bufferSize, boolean depthFirst, boolean readyQueue) {
         this.source = source;
         this.mapper = mapper;
         this.maxConcurrency = maxConcurrency;
         this.bufferSize = bufferSize;
         this.depthFirst = depthFirst;
+        this.readyQueue = readyQueue;
     }
 
     @Override
     protected void subscribeActual(Subscriber<? super R> s) {
-        source.subscribe(new FlatMapOuterSubscriber<T, R>(s, mapper, maxConcurrency, bufferSize, depthFirst));
+        source.subscribe(new FlatMapOuterSubscriber<T, R>(s, mapper, maxConcurrency, bufferSize, depthFirst, readyQueue));
     }
 
     @Override
     public Publisher<R> apply(Flowable<T> upstream) {
-        return new FlowableFlatMapSync<T, R>(upstream, mapper, maxConcurrency, bufferSize, depthFirst);
+        return new FlowableFlatMapSync<T, R>(upstream, mapper, maxConcurrency, bufferSize, depthFirst, readyQueue);
     }
 
     interface FlatMapInnerSubscriberSupport<T, R> {
@@ -77,6 +80,13 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
 
         void innerComplete(FlatMapInnerSubscriber<T, R> inner);
 
+        /**
+         * Called when the inner has new data or terminated and its queue
+         * is to be drained.
+         * @param inner the inner subscriber
+         */
+        void innerSignal(FlatMapInnerSubscriber<T, R> inner);
+
         void drain();
     }
 
@@ -105,6 +115,12 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
 
         final AtomicLong active;
 
+        /** The inners with data or terminal state to process, null if the slots are scanned instead. */
+        final MpscLinkedQueue<FlatMapInnerSubscriber<T, R>> readyQueue;
+
+        /** The ready inner whose draining stopped due to lack of requests. */
+        FlatMapInnerSubscriber<T, R> current;
+
         volatile boolean done;
 
         volatile boolean cancelled;
@@ -121,7 +137,7 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
         BaseFlatMapOuterSubscriber(Subscriber<? super R> actual,
                 Function<? super T, ? extends Publisher<? extends R>> mapper,
                         int maxConcurrency, int bufferSize,
-                        boolean depthFirst) {
+                        boolean depthFirst, boolean readyQueue) {
             this.actual = actual;
             this.mapper = mapper;
             this.maxConcurrency = maxConcurrency;
@@ -130,6 +146,7 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
             this.error = new AtomicThrowable();
             this.depthFirst = depthFirst;
             this.active = new AtomicLong();
+            this.readyQueue = readyQueue ? new MpscLinkedQueue<FlatMapInnerSubscriber<T, R>>() : null;
 
             int c = Pow2.roundToPowerOfTwo(maxConcurrency);
             this.subscribers = new AtomicReferenceArray<FlatMapInnerSubscriber<T, R>>(c);
@@ -229,6 +246,165 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
 
         abstract void cleanupAfter();
 
+        final void drainLoop() {
+            if (readyQueue != null) {
+                readyDrain();
+            } else
+            if (depthFirst) {
+                depthFirst();
+            } else {
+                breadthFirst();
+            }
+        }
+
+        @Override
+        public final void innerSignal(FlatMapInnerSubscriber<T, R> inner) {
+            signalReady(inner);
+            drain();
+        }
+
+        final void signalReady(FlatMapInnerSubscriber<T, R> inner) {
+            MpscLinkedQueue<FlatMapInnerSubscriber<T, R>> q = readyQueue;
+            if (q != null && inner.markReady()) {
+                q.offer(inner);
+            }
+        }
+
+        /**
+         * Visits only the inners that signalled data or termination since they were
+         * last drained, instead of scanning all slots.
+         */
+        final void readyDrain() {
+            int missed = 1;
+            long e = emitted;
+            MpscLinkedQueue<FlatMapInnerSubscriber<T, R>> rq = readyQueue;
+            Subscriber<? super R> a = actual;
+            AtomicLong act = active;
+
+            for (;;) {
+
+                long r = requested.get();
+
+                for (;;) {
+                    if (cancelled) {
+                        current = null;
+                        rq.clear();
+                        return;
+                    }
+
+                    boolean d = done;
+
+                    if (d) {
+                        Throwable ex = error.get();
+                        if (ex != null) {
+                            current = null;
+                            rq.clear();
+                            a.onError(error.terminate());
+                            cleanupAfter();
+                            return;
+                        }
+                    }
+
+                    FlatMapInnerSubscriber<T, R> inner = current;
+                    if (inner == null) {
+                        inner = rq.poll();
+                        if (inner == null) {
+                            if (d && act.get() == finished) {
+                                a.onComplete();
+                                cleanupAfter();
+                                return;
+                            }
+                            break;
+                        }
+                        // signals from now on enqueue the inner again
+                        inner.clearReady();
+                        if (inner.removed) {
+                            continue;
+                        }
+                    } else {
+                        current = null;
+                    }
+
+                    boolean innerDone = inner.done;
+                    SimpleQueue<R> q = inner.queue;
+                    boolean empty = true;
+
+                    if (q != null) {
+                        for (;;) {
+                            if (e == r) {
+                                empty = q.isEmpty();
+                                break;
+                            }
+
+                            R v;
+
+                            try {
+                                v = q.poll();
+                            } catch (Throwable ex) {
+                                Exceptions.throwIfFatal(ex);
+                                error.addThrowable(ex);
+                                upstream.cancel();
+                                cancelInners();
+                                rq.clear();
+                                a.onError(error.terminate());
+                                cleanupAfter();
+                                return;
+                            }
+
+                            if (v == null) {
+                                break;
+                            }
+
+                            a.onNext(v);
+
+                            e++;
+
+                            inner.producedOne();
+
+                            if (cancelled) {
+                                current = null;
+                                rq.clear();
+                                return;
+                            }
+
+                            if (!depthFirst) {
+                                empty = q.isEmpty();
+                                break;
+                            }
+                        }
+                    }
+
+                    if (empty) {
+                        if (innerDone) {
+                            remove(inner);
+                            inner.removed = true;
+                            finished++;
+                            upstream.request(1);
+                        }
+                        // otherwise the inner signals again when it has more data
+                    } else
+                    if (e == r) {
+                        current = inner;
+                        break;
+                    } else {
+                        // round-robin: let the other ready inners go first
+                        signalReady(inner);
+                    }
+                }
+
+                int w = get();
+                if (w == missed) {
+                    emitted = e;
+                    missed = addAndGet(-missed);
+                    if (missed == 0) {
+                        break;
+                    }
+                } else {
+                    missed = w;
+                }
+            }
+        }
+
         final void depthFirst() {
             int missed = 1;
             long e = emitted;
@@ -535,8 +711,8 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
 
         FlatMapOuterSubscriber(Subscriber<? super R> actual,
                 Function<? super T, ? extends Publisher<? extends R>> mapper, int maxConcurrency, int bufferSize,
-                boolean depthFirst) {
-            super(actual, mapper, maxConcurrency, bufferSize, depthFirst);
+                boolean depthFirst, boolean readyQueue) {
+            super(actual, mapper, maxConcurrency, bufferSize, depthFirst, readyQueue);
         }
 
         @Override
@@ -546,14 +722,6 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
             }
         }
 
-        void drainLoop() {
-            if (depthFirst) {
-                depthFirst();
-            } else {
-                breadthFirst();
-            }
-        }
-
         @Override
         void cleanupAfter() {
         }
@@ -570,6 +738,7 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
                 } else {
                     SimpleQueue<R> q = inner.queue();
                     q.offer(item);
+                    signalReady(inner);
                 }
                 if (decrementAndGet() == 0) {
                     return;
@@ -577,6 +746,7 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
             } else {
                 SimpleQueue<R> q = inner.queue();
                 q.offer(item);
+                signalReady(inner);
                 if (getAndIncrement() != 0) {
                     return;
                 }
@@ -601,7 +771,7 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
         @Override
         public void innerComplete(FlatMapInnerSubscriber<T, R> inner) {
             inner.done = true;
-            drain();
+            innerSignal(inner);
         }
     }
 
@@ -626,6 +796,15 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
 
         volatile SimpleQueue<R> queue;
 
+        /** Set to 1 while the inner is in the parent's ready queue. */
+        volatile int ready;
+        @SuppressWarnings("rawtypes")
+        static final AtomicIntegerFieldUpdater<FlatMapInnerSubscriber> READY =
+                AtomicIntegerFieldUpdater.newUpdater(FlatMapInnerSubscriber.class, "ready");
+
+        /** Set by the drain loop once the inner has been removed, accessed from the drain loop only. */
+        boolean removed;
+
         FlatMapInnerSubscriber(FlatMapInnerSubscriberSupport<T, R> parent, int bufferSize, int index) {
             this.parent = parent;
             this.bufferSize = bufferSize;
@@ -646,7 +825,7 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
                         fusionMode = m;
                         queue = qs;
                         done = true;
-                        parent.drain();
+                        parent.innerSignal(this);
                         return;
                     }
                     if (m == QueueSubscription.ASYNC) {
@@ -665,7 +844,7 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
             if (fusionMode == QueueSubscription.NONE) {
                 parent.innerNext(this, t);
             } else {
-                parent.drain();
+                parent.innerSignal(this);
             }
         }
 
@@ -683,6 +862,14 @@ final class FlowableFlatMapSync<T, R> extends Flowable<R> implements FlowableTra
             SubscriptionHelper.cancel(this);
         }
 
+        boolean markReady() {
+            return ready == 0 && READY.compareAndSet(this, 0, 1);
+        }
+
+        void clearReady() {
+            ready = 0;
+        }
+
         void producedOne() {
             if (fusionMode != QueueSubscription.SYNC) {
                 int p = produced + 1;
@@ -21,6 +21,7 @@ import java.util.concurrent.atomic.*;
 
 import org.reactivestreams.*;
 
+import hu.akarnokd.rxjava2.operators.FlowableMapAsyncConcurrent.*;
 import io.reactivex.*;
 import io.reactivex.exceptions.Exceptions;
 import io.reactivex.functions.*;
@@ -51,22 +52,35 @@ final class FlowableMapAsync<T, U, R> extends Flowable<R> implements FlowableTra
 
     final int bufferSize;
 
+    final int maxConcurrency;
+
+    final boolean ordered;
+
     FlowableMapAsync(Flowable<T> source, Function<? super T, ? extends Publisher<? extends U>> mapper,
-            BiFunction<? super T, ? super U, ? extends R> combiner, int bufferSize) {
+            BiFunction<? super T, ? super U, ? extends R> combiner, int bufferSize, int maxConcurrency, boolean ordered) {
         this.source = source;
         this.mapper = mapper;
         this.combiner = combiner;
         this.bufferSize = bufferSize;
+        this.maxConcurrency = maxConcurrency;
+        this.ordered = ordered;
     }
 
     @Override
     public Publisher<R> apply(Flowable<T> upstream) {
-        return new FlowableMapAsync<T, U, R>(upstream, mapper, combiner, bufferSize);
+        return new FlowableMapAsync<T, U, R>(upstream, mapper, combiner, bufferSize, maxConcurrency, ordered);
     }
 
     @Override
     protected void subscribeActual(Subscriber<? super R> s) {
-        source.subscribe(new MapAsyncSubscriber<T, U, R>(s, mapper, combiner, bufferSize));
+        if (!ordered) {
+            source.subscribe(new MapAsyncUnorderedSubscriber<T, U, R>(s, mapper, combiner, bufferSize, maxConcurrency));
+        } else
+        if (maxConcurrency == 1) {
+            source.subscribe(new MapAsyncSubscriber<T, U, R>(s, mapper, combiner, bufferSize));
+        } else {
+            source.subscribe(new MapAsyncConcurrentSubscriber<T, U, R>(s, mapper, combiner, bufferSize, maxConcurrency));
+        }
     }
 
     interface AsyncSupport<U> {
@@ -0,0 +1,878 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.operators;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.*;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.queue.MpscLinkedQueue;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.internal.util.*;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Subscribers for {@link FlowableMapAsync} and {@link FlowableFilterAsync} that keep up to
+ * {@code maxConcurrency} inner Publishers running at once.
+ * <p>
+ * The ordered subscribers keep the upstream values in a ring buffer until their turn comes up;
+ * each slot of a parallel ring holds the result of the inner Publisher started for that value,
+ * which serves as the reorder buffer. The unordered subscribers release the upstream value
+ * as soon as its inner Publisher is started and emit the results in completion order.
+ *
+ * @since 0.17.9
+ */
+final class FlowableMapAsyncConcurrent {
+
+    /** Utility class. */
+    private FlowableMapAsyncConcurrent() {
+        throw new IllegalStateException("No instances!");
+    }
+
+    /** Indicates the inner Publisher completed without a value or failed. */
+    static final Object EMPTY = new Object();
+
+    abstract static class AbstractConcurrentSubscriber<T, U, R>
+    extends AtomicInteger
+    implements FlowableSubscriber<T>, Subscription {
+
+        private static final long serialVersionUID = -2473493488461493404L;
+
+        final Subscriber<? super R> actual;
+
+        final Function<? super T, ? extends Publisher<? extends U>> mapper;
+
+        final int bufferSize;
+
+        final int maxConcurrency;
+
+        final AtomicReferenceArray<T> items;
+
+        final AtomicReferenceArray<Object> results;
+
+        final AtomicReferenceArray<IndexedInnerSubscriber<U>> inners;
+
+        final AtomicThrowable error;
+
+        final AtomicLong requested;
+
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        static final IndexedInnerSubscriber INNER_CANCELLED = new IndexedInnerSubscriber(null, -1);
+
+        Subscription upstream;
+
+        long producerIndex;
+
+        long startIndex;
+
+        long consumerIndex;
+
+        int consumed;
+
+        long emitted;
+
+        volatile boolean done;
+
+        volatile boolean cancelled;
+
+        AbstractConcurrentSubscriber(Subscriber<? super R> actual,
+                Function<? super T, ? extends Publisher<? extends U>> mapper,
+                int bufferSize, int maxConcurrency) {
+            int n = Pow2.roundToPowerOfTwo(bufferSize);
+            this.actual = actual;
+            this.mapper = mapper;
+            this.bufferSize = bufferSize;
+            this.maxConcurrency = maxConcurrency;
+            this.items = new AtomicReferenceArray<T>(n);
+            this.results = new AtomicReferenceArray<Object>(n);
+            this.inners = new AtomicReferenceArray<IndexedInnerSubscriber<U>>(n);
+            this.error = new AtomicThrowable();
+            this.requested = new AtomicLong();
+        }
+
+        /**
+         * Combines the original value with the inner result.
+         * @param t the original upstream value
+         * @param u the inner result
+         * @return the value to emit or null to skip this upstream value
+         * @throws Exception on error
+         */
+        abstract R combine(T t, U u) throws Exception;
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.validate(upstream, s)) {
+                upstream = s;
+
+                actual.onSubscribe(this);
+
+                s.request(bufferSize);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            long pi = producerIndex;
+            int offset = (int)pi & (items.length() - 1);
+            items.lazySet(offset, t);
+            producerIndex = pi + 1;
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error.addThrowable(t);
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                upstream.cancel();
+                cancelInners();
+                if (getAndIncrement() == 0) {
+                    clear();
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void cancelInners() {
+            AtomicReferenceArray<IndexedInnerSubscriber<U>> a = inners;
+            int n = a.length();
+            for (int i = 0; i < n; i++) {
+                IndexedInnerSubscriber<U> inner = a.getAndSet(i, INNER_CANCELLED);
+                if (inner != null && inner != INNER_CANCELLED) {
+                    inner.cancel();
+                }
+            }
+        }
+
+        void clear() {
+            int n = items.length();
+            for (int i = 0; i < n; i++) {
+                items.lazySet(i, null);
+                results.lazySet(i, null);
+            }
+        }
+
+        void innerResult(int offset, U value) {
+            results.lazySet(offset, value);
+            drain();
+        }
+
+        void innerError(int offset, Throwable ex) {
+            error.addThrowable(ex);
+            results.lazySet(offset, EMPTY);
+            drain();
+        }
+
+        void innerComplete(int offset) {
+            results.lazySet(offset, EMPTY);
+            drain();
+        }
+
+        @SuppressWarnings("unchecked")
+        void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            int limit = bufferSize - (bufferSize >> 2);
+            long e = emitted;
+            long si = startIndex;
+            long ci = consumerIndex;
+            int f = consumed;
+            int m = items.length() - 1;
+            int maxConcurrency = this.maxConcurrency;
+            AtomicReferenceArray<T> items = this.items;
+            AtomicReferenceArray<Object> results = this.results;
+            Subscriber<? super R> a = actual;
+
+            for (;;) {
+
+                // start as many inner sources as the concurrency allows
+                while (si - ci < maxConcurrency) {
+                    if (cancelled) {
+                        clear();
+                        return;
+                    }
+
+                    int offset = (int)si & m;
+                    T t = items.get(offset);
+                    if (t == null) {
+                        break;
+                    }
+
+                    Publisher<? extends U> p;
+
+                    try {
+                        p = ObjectHelper.requireNonNull(mapper.apply(t), "The mapper returned a null Publisher");
+                    } catch (Throwable ex) {
+                        Exceptions.throwIfFatal(ex);
+                        error.addThrowable(ex);
+                        p = null;
+                    }
+
+                    si++;
+
+                    if (p == null) {
+                        results.lazySet(offset, EMPTY);
+                    } else
+                    if (p instanceof Callable) {
+                        Object u;
+
+                        try {
+                            u = ((Callable<U>)p).call();
+                        } catch (Throwable ex) {
+                            Exceptions.throwIfFatal(ex);
+                            error.addThrowable(ex);
+                            u = null;
+                        }
+
+                        results.lazySet(offset, u != null ? u : EMPTY);
+                    } else {
+                        IndexedInnerSubscriber<U> inner = new IndexedInnerSubscriber<U>(this, offset);
+                        if (!inners.compareAndSet(offset, null, inner)) {
+                            clear();
+                            return;
+                        }
+                        p.subscribe(inner);
+                    }
+                }
+
+                long r = requested.get();
+                boolean progress = false;
+
+                // emit the finished results in order
+                while (e != r && ci != si) {
+                    if (cancelled) {
+                        clear();
+                        return;
+                    }
+
+                    int offset = (int)ci & m;
+                    Object o = results.get(offset);
+                    if (o == null) {
+                        break;
+                    }
+
+                    T t = items.get(offset);
+
+                    results.lazySet(offset, null);
+                    items.lazySet(offset, null);
+                    IndexedInnerSubscriber<U> inner = inners.get(offset);
+                    if (inner != null && inner != INNER_CANCELLED) {
+                        inners.compareAndSet(offset, inner, null);
+                    }
+                    ci++;
+                    progress = true;
+                    if (++f == limit) {
+                        f = 0;
+                        upstream.request(limit);
+                    }
+
+                    if (o != EMPTY) {
+                        R v;
+
+                        try {
+                            v = combine(t, (U)o);
+                        } catch (Throwable ex) {
+                            Exceptions.throwIfFatal(ex);
+                            error.addThrowable(ex);
+                            v = null;
+                        }
+
+                        if (v != null) {
+                            a.onNext(v);
+                            e++;
+                        }
+                    }
+                }
+
+                if (cancelled) {
+                    clear();
+                    return;
+                }
+
+                boolean d = done;
+
+                if (d && ci == si && items.get((int)si & m) == null) {
+                    Throwable ex = error.terminate();
+                    if (ex == null) {
+                        a.onComplete();
+                    } else {
+                        a.onError(ex);
+                    }
+                    return;
+                }
+
+                if (progress) {
+                    // completed slots may allow starting more inner sources
+                    continue;
+                }
+
+                int w = get();
+                if (missed == w) {
+                    consumed = f;
+                    startIndex = si;
+                    consumerIndex = ci;
+                    emitted = e;
+                    missed = addAndGet(-missed);
+                    if (missed == 0) {
+                        break;
+                    }
+                } else {
+                    missed = w;
+                }
+            }
+        }
+    }
+
+    static final class MapAsyncConcurrentSubscriber<T, U, R> extends AbstractConcurrentSubscriber<T, U, R> {
+
+        private static final long serialVersionUID = 4475441898003390405L;
+
+        final BiFunction<? super T, ? super U, ? extends R> combiner;
+
+        MapAsyncConcurrentSubscriber(Subscriber<? super R> actual,
+                Function<? super T, ? extends Publisher<? extends U>> mapper,
+                BiFunction<? super T, ? super U, ? extends R> combiner,
+                int bufferSize, int maxConcurrency) {
+            super(actual, mapper, bufferSize, maxConcurrency);
+            this.combiner = combiner;
+        }
+
+        @Override
+        R combine(T t, U u) throws Exception {
+            return ObjectHelper.requireNonNull(combiner.apply(t, u), "The combiner returned a null value");
+        }
+    }
+
+    static final class FilterAsyncConcurrentSubscriber<T> extends AbstractConcurrentSubscriber<T, Boolean, T> {
+
+        private static final long serialVersionUID = -7937461432016524390L;
+
+        FilterAsyncConcurrentSubscriber(Subscriber<? super T> actual,
+                Function<? super T, ? extends Publisher<Boolean>> asyncPredicate,
+                int bufferSize, int maxConcurrency) {
+            super(actual, asyncPredicate, bufferSize, maxConcurrency);
+        }
+
+        @Override
+        T combine(T t, Boolean u) throws Exception {
+            return u ? t : null;
+        }
+    }
+
+    static final class IndexedInnerSubscriber<U> extends AtomicReference<Subscription> implements Subscriber<U> {
+
+        private static final long serialVersionUID = -3062485458447345585L;
+
+        final AbstractConcurrentSubscriber<?, U, ?> parent;
+
+        final int offset;
+
+        boolean done;
+
+        IndexedInnerSubscriber(AbstractConcurrentSubscriber<?, U, ?> parent, int offset) {
+            this.parent = parent;
+            this.offset = offset;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.setOnce(this, s)) {
+                s.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(U t) {
+            if (!done) {
+                get().cancel();
+                done = true;
+                parent.innerResult(offset, t);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!done) {
+                done = true;
+                parent.innerError(offset, t);
+            } else {
+                RxJavaPlugins.onError(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done) {
+                done = true;
+                parent.innerComplete(offset);
+            }
+        }
+
+        void cancel() {
+            SubscriptionHelper.cancel(this);
+        }
+    }
+
+    abstract static class AbstractUnorderedSubscriber<T, U, R>
+    extends AtomicInteger
+    implements FlowableSubscriber<T>, Subscription {
+
+        private static final long serialVersionUID = -7720599934463627435L;
+
+        final Subscriber<? super R> actual;
+
+        final Function<? super T, ? extends Publisher<? extends U>> mapper;
+
+        final int bufferSize;
+
+        final AtomicReferenceArray<T> items;
+
+        final AtomicReferenceArray<UnorderedInnerSubscriber<T, U>> inners;
+
+        final MpscLinkedQueue<UnorderedInnerSubscriber<T, U>> ready;
+
+        final int[] freeSlots;
+
+        final AtomicThrowable error;
+
+        final AtomicLong requested;
+
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        static final UnorderedInnerSubscriber INNER_CANCELLED = new UnorderedInnerSubscriber(null, -1, null);
+
+        Subscription upstream;
+
+        long producerIndex;
+
+        long consumerIndex;
+
+        int consumed;
+
+        int freeCount;
+
+        int active;
+
+        long emitted;
+
+        volatile boolean done;
+
+        volatile boolean cancelled;
+
+        AbstractUnorderedSubscriber(Subscriber<? super R> actual,
+                Function<? super T, ? extends Publisher<? extends U>> mapper,
+                int bufferSize, int maxConcurrency) {
+            int window = Math.min(maxConcurrency, bufferSize);
+            this.actual = actual;
+            this.mapper = mapper;
+            this.bufferSize = bufferSize;
+            this.items = new AtomicReferenceArray<T>(Pow2.roundToPowerOfTwo(bufferSize));
+            this.inners = new AtomicReferenceArray<UnorderedInnerSubscriber<T, U>>(window);
+            this.ready = new MpscLinkedQueue<UnorderedInnerSubscriber<T, U>>();
+            this.freeSlots = new int[window];
+            for (int i = 0; i < window; i++) {
+                freeSlots[i] = window - 1 - i;
+            }
+            this.freeCount = window;
+            this.error = new AtomicThrowable();
+            this.requested = new AtomicLong();
+        }
+
+        /**
+         * Combines the original value with the inner result.
+         * @param t the original upstream value
+         * @param u the inner result
+         * @return the value to emit or null to skip this upstream value
+         * @throws Exception on error
+         */
+        abstract R combine(T t, U u) throws Exception;
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.validate(upstream, s)) {
+                upstream = s;
+
+                actual.onSubscribe(this);
+
+                s.request(bufferSize);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            long pi = producerIndex;
+            int offset = (int)pi & (items.length() - 1);
+            items.lazySet(offset, t);
+            producerIndex = pi + 1;
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error.addThrowable(t);
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                upstream.cancel();
+                cancelInners();
+                if (getAndIncrement() == 0) {
+                    clear();
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void cancelInners() {
+            AtomicReferenceArray<UnorderedInnerSubscriber<T, U>> a = inners;
+            int n = a.length();
+            for (int i = 0; i < n; i++) {
+                UnorderedInnerSubscriber<T, U> inner = a.getAndSet(i, INNER_CANCELLED);
+                if (inner != null && inner != INNER_CANCELLED) {
+                    inner.cancel();
+                }
+            }
+        }
+
+        void clear() {
+            int n = items.length();
+            for (int i = 0; i < n; i++) {
+                items.lazySet(i, null);
+            }
+            ready.clear();
+        }
+
+        void innerDone(UnorderedInnerSubscriber<T, U> inner) {
+            ready.offer(inner);
+            drain();
+        }
+
+        void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            int limit = bufferSize - (bufferSize >> 2);
+            long e = emitted;
+            long ci = consumerIndex;
+            int f = consumed;
+            int m = items.length() - 1;
+            int window = inners.length();
+            AtomicReferenceArray<T> items = this.items;
+            MpscLinkedQueue<UnorderedInnerSubscriber<T, U>> ready = this.ready;
+            Subscriber<? super R> a = actual;
+
+            for (;;) {
+
+                long r = requested.get();
+
+                // emit the finished results in completion order
+                while (e != r) {
+                    if (cancelled) {
+                        clear();
+                        return;
+                    }
+
+                    UnorderedInnerSubscriber<T, U> inner = ready.poll();
+                    if (inner == null) {
+                        break;
+                    }
+
+                    release(inner);
+
+                    U u = inner.value;
+                    if (u != null) {
+                        R v;
+
+                        try {
+                            v = combine(inner.item, u);
+                        } catch (Throwable ex) {
+                            Exceptions.throwIfFatal(ex);
+                            error.addThrowable(ex);
+                            v = null;
+                        }
+
+                        if (v != null) {
+                            a.onNext(v);
+                            e++;
+                        }
+                    }
+                }
+
+                // start as many inner sources as the window allows
+                while (active != window) {
+                    if (cancelled) {
+                        clear();
+                        return;
+                    }
+
+                    int offset = (int)ci & m;
+                    T t = items.get(offset);
+                    if (t == null) {
+                        break;
+                    }
+
+                    items.lazySet(offset, null);
+                    ci++;
+                    if (++f == limit) {
+                        f = 0;
+                        upstream.request(limit);
+                    }
+
+                    Publisher<? extends U> p;
+
+                    try {
+                        p = ObjectHelper.requireNonNull(mapper.apply(t), "The mapper returned a null Publisher");
+                    } catch (Throwable ex) {
+                        Exceptions.throwIfFatal(ex);
+                        error.addThrowable(ex);
+                        continue;
+                    }
+
+                    if (p instanceof Callable) {
+                        U u;
+
+                        try {
+                            @SuppressWarnings("unchecked")
+                            U w = ((Callable<U>)p).call();
+                            u = w;
+                        } catch (Throwable ex) {
+                            Exceptions.throwIfFatal(ex);
+                            error.addThrowable(ex);
+                            continue;
+                        }
+
+                        if (u != null) {
+                            if (e != r && ready.isEmpty()) {
+                                R v;
+
+                                try {
+                                    v = combine(t, u);
+                                } catch (Throwable ex) {
+                                    Exceptions.throwIfFatal(ex);
+                                    error.addThrowable(ex);
+                                    v = null;
+                                }
+
+                                if (v != null) {
+                                    a.onNext(v);
+                                    e++;
+                                }
+                            } else {
+                                UnorderedInnerSubscriber<T, U> inner = new UnorderedInnerSubscriber<T, U>(this, -1, t);
+                                inner.value = u;
+                                active++;
+                                ready.offer(inner);
+                            }
+                        }
+                    } else {
+                        int slot = freeSlots[--freeCount];
+                        UnorderedInnerSubscriber<T, U> inner = new UnorderedInnerSubscriber<T, U>(this, slot, t);
+                        if (!inners.compareAndSet(slot, null, inner)) {
+                            clear();
+                            return;
+                        }
+                        active++;
+                        p.subscribe(inner);
+                    }
+                }
+
+                if (cancelled) {
+                    clear();
+                    return;
+                }
+
+                boolean d = done;
+
+                if (d && active == 0 && items.get((int)ci & m) == null) {
+                    Throwable ex = error.terminate();
+                    if (ex == null) {
+                        a.onComplete();
+                    } else {
+                        a.onError(ex);
+                    }
+                    return;
+                }
+
+                int w = get();
+                if (missed == w) {
+                    consumed = f;
+                    consumerIndex = ci;
+                    emitted = e;
+                    missed = addAndGet(-missed);
+                    if (missed == 0) {
+                        break;
+                    }
+                } else {
+                    missed = w;
+                }
+            }
+        }
+
+        void release(UnorderedInnerSubscriber<T, U> inner) {
+            active--;
+            int slot = inner.slot;
+            if (slot >= 0) {
+                inners.compareAndSet(slot, inner, null);
+                freeSlots[freeCount++] = slot;
+            }
+        }
+    }
+
+    static final class MapAsyncUnorderedSubscriber<T, U, R> extends AbstractUnorderedSubscriber<T, U, R> {
+
+        private static final long serialVersionUID = -3418813416617045433L;
+
+        final BiFunction<? super T, ? super U, ? extends R> combiner;
+
+        MapAsyncUnorderedSubscriber(Subscriber<? super R> actual,
+                Function<? super T, ? extends Publisher<? extends U>> mapper,
+                BiFunction<? super T, ? super U, ? extends R> combiner,
+                int bufferSize, int maxConcurrency) {
+            super(actual, mapper, bufferSize, maxConcurrency);
+            this.combiner = combiner;
+        }
+
+        @Override
+        R combine(T t, U u) throws Exception {
+            return ObjectHelper.requireNonNull(combiner.apply(t, u), "The combiner returned a null value");
+        }
+    }
+
+    static final class FilterAsyncUnorderedSubscriber<T> extends AbstractUnorderedSubscriber<T, Boolean, T> {
+
+        private static final long serialVersionUID = 2806408516519617364L;
+
+        FilterAsyncUnorderedSubscriber(Subscriber<? super T> actual,
+                Function<? super T, ? extends Publisher<Boolean>> asyncPredicate,
+                int bufferSize, int maxConcurrency) {
+            super(actual, asyncPredicate, bufferSize, maxConcurrency);
+        }
+
+        @Override
+        T combine(T t, Boolean u) throws Exception {
+            return u ? t : null;
+        }
+    }
+
+    static final class UnorderedInnerSubscriber<T, U> extends AtomicReference<Subscription> implements Subscriber<U> {
+
+        private static final long serialVersionUID = 1464002530436407960L;
+
+        final AbstractUnorderedSubscriber<T, U, ?> parent;
+
+        final int slot;
+
+        final T item;
+
+        U value;
+
+        boolean done;
+
+        UnorderedInnerSubscriber(AbstractUnorderedSubscriber<T, U, ?> parent, int slot, T item) {
+            this.parent = parent;
+            this.slot = slot;
+            this.item = item;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.setOnce(this, s)) {
+                s.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(U t) {
+            if (!done) {
+                get().cancel();
+                done = true;
+                value = t;
+                parent.innerDone(this);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!done) {
+                done = true;
+                parent.error.addThrowable(t);
+                parent.innerDone(this);
+            } else {
+                RxJavaPlugins.onError(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done) {
+                done = true;
+                parent.innerDone(this);
+            }
+        }
+
+        void cancel() {
+            SubscriptionHelper.cancel(this);
+        }
+    }
+}
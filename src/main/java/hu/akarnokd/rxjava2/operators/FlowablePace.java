@@ -0,0 +1,322 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.operators;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import io.reactivex.*;
+import io.reactivex.Scheduler.Worker;
+import io.reactivex.exceptions.MissingBackpressureException;
+import io.reactivex.internal.queue.SpscArrayQueue;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.internal.util.*;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Limits the emission rate of the upstream elements with a token bucket: each emission takes a token,
+ * tokens accumulate at the given rate up to the burst size and, while items are waiting for tokens,
+ * a timer releases the items that became eligible once per tick:
+ * <pre><code>
+ * abcdefg-----h-|
+ * pace(2 per tick, burst 3)
+ * abc-de-fg---h-|
+ * </code></pre>
+ * Items arriving while there are tokens left are emitted right away on the caller thread.
+ * The timer is shortened to the time of filling up the bucket if the burst size is smaller
+ * than the tokens accumulating over a tick, so no tokens are lost while items are waiting,
+ * and lengthened to the time of the next token if the tick is shorter than that.
+ *
+ * @param <T> the upstream value type
+ * @since 0.17.9
+ */
+final class FlowablePace<T> extends Flowable<T> implements FlowableTransformer<T, T> {
+
+    final Publisher<T> source;
+
+    final double permitsPerSecond;
+
+    final int burst;
+
+    final long tick;
+
+    final Scheduler scheduler;
+
+    final int bufferSize;
+
+    FlowablePace(Publisher<T> source, double permitsPerSecond, int burst,
+            long tick, TimeUnit unit, Scheduler scheduler, int bufferSize) {
+        this.source = source;
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.tick = unit.toNanos(tick);
+        this.scheduler = scheduler;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Returns the default tick period: the time to accumulate one token but at least 10 milliseconds.
+     * @param permitsPerSecond the rate
+     * @return the tick period in nanoseconds
+     */
+    static long defaultTick(double permitsPerSecond) {
+        return Math.max(TimeUnit.MILLISECONDS.toNanos(10), (long)(TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+    }
+
+    @Override
+    public Publisher<T> apply(Flowable<T> upstream) {
+        return new FlowablePace<T>(upstream, permitsPerSecond, burst, tick, TimeUnit.NANOSECONDS, scheduler, bufferSize);
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super T> s) {
+        source.subscribe(new PaceSubscriber<T>(s, permitsPerSecond, burst,
+                tick, scheduler.createWorker(), bufferSize));
+    }
+
+    static final class PaceSubscriber<T>
+    extends AtomicInteger
+    implements FlowableSubscriber<T>, Subscription, Runnable {
+
+        private static final long serialVersionUID = -6690380256380649599L;
+
+        static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+        final Subscriber<? super T> actual;
+
+        final double permitsPerSecond;
+
+        final double capacity;
+
+        final long tick;
+
+        final Worker worker;
+
+        final int bufferSize;
+
+        final int limit;
+
+        final SpscArrayQueue<T> queue;
+
+        final AtomicLong requested;
+
+        final AtomicThrowable error;
+
+        Subscription s;
+
+        volatile boolean done;
+
+        volatile boolean cancelled;
+
+        /** Set by the drain loop when it schedules the timer, cleared when the timer fires. */
+        volatile boolean timerPending;
+
+        long emitted;
+
+        long consumed;
+
+        /** The available tokens, fractional between refills; accessed by the drain loop only. */
+        double tokens;
+
+        /** The time of the last refill in nanoseconds; accessed by the drain loop only. */
+        long lastRefill;
+
+        PaceSubscriber(Subscriber<? super T> actual, double permitsPerSecond, int burst,
+                long tick, Worker worker, int bufferSize) {
+            this.actual = actual;
+            this.permitsPerSecond = permitsPerSecond;
+            this.capacity = burst;
+            this.tick = tick;
+            this.worker = worker;
+            this.bufferSize = bufferSize;
+            this.limit = bufferSize - (bufferSize >> 2);
+            this.queue = new SpscArrayQueue<T>(bufferSize);
+            this.requested = new AtomicLong();
+            this.error = new AtomicThrowable();
+            this.tokens = burst;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.validate(this.s, s)) {
+                this.s = s;
+
+                lastRefill = worker.now(TimeUnit.NANOSECONDS);
+
+                actual.onSubscribe(this);
+
+                s.request(bufferSize);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (!queue.offer(t)) {
+                s.cancel();
+                onError(new MissingBackpressureException("Queue is full?!"));
+                return;
+            }
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (error.addThrowable(t)) {
+                done = true;
+                drain();
+            } else {
+                RxJavaPlugins.onError(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            s.cancel();
+            worker.dispose();
+            if (getAndIncrement() == 0) {
+                queue.clear();
+            }
+        }
+
+        @Override
+        public void run() {
+            timerPending = false;
+            drain();
+        }
+
+        /**
+         * Schedules the timer to release the waiting items: after a tick, but not before the next
+         * token arrives and not after the bucket fills up.
+         * @param t the available tokens
+         */
+        void scheduleTimer(double t) {
+            long untilNext = (long)Math.ceil((1d - t) * NANOS_PER_SECOND / permitsPerSecond);
+            long untilFull = (long)Math.ceil((capacity - t) * NANOS_PER_SECOND / permitsPerSecond);
+            long delay = Math.max(untilNext, Math.min(tick, untilFull));
+            timerPending = true;
+            worker.schedule(this, delay, TimeUnit.NANOSECONDS);
+        }
+
+        void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            Subscriber<? super T> a = actual;
+            SpscArrayQueue<T> q = queue;
+            long e = emitted;
+            long c = consumed;
+            int lim = limit;
+
+            for (;;) {
+                long now = worker.now(TimeUnit.NANOSECONDS);
+                double t = Math.min(capacity, tokens + (now - lastRefill) * permitsPerSecond / NANOS_PER_SECOND);
+                lastRefill = now;
+
+                long r = requested.get();
+
+                while (e != r && t >= 1d) {
+                    if (cancelled) {
+                        q.clear();
+                        return;
+                    }
+
+                    if (error.get() != null) {
+                        q.clear();
+                        a.onError(error.terminate());
+                        worker.dispose();
+                        return;
+                    }
+
+                    boolean d = done;
+                    T v = q.poll();
+                    boolean empty = v == null;
+
+                    if (d && empty) {
+                        a.onComplete();
+                        worker.dispose();
+                        return;
+                    }
+
+                    if (empty) {
+                        break;
+                    }
+
+                    a.onNext(v);
+
+                    e++;
+                    t -= 1d;
+
+                    if (++c == lim) {
+                        c = 0L;
+                        s.request(lim);
+                    }
+                }
+
+                if (cancelled) {
+                    q.clear();
+                    return;
+                }
+
+                if (error.get() != null) {
+                    q.clear();
+                    a.onError(error.terminate());
+                    worker.dispose();
+                    return;
+                }
+
+                boolean empty = q.isEmpty();
+
+                if (done && empty) {
+                    a.onComplete();
+                    worker.dispose();
+                    return;
+                }
+
+                if (t < 1d && !empty && e != r && !timerPending) {
+                    scheduleTimer(t);
+                }
+
+                tokens = t;
+                emitted = e;
+                consumed = c;
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -16,7 +16,6 @@
 
 package hu.akarnokd.rxjava2.operators;
 
-import java.util.*;
 import java.util.concurrent.atomic.*;
 
 import org.reactivestreams.*;
@@ -75,22 +74,32 @@ implements FlowableTransformer<T, R> {
 
         final int bufferSize;
 
-        final ArrayDeque<SfmInnerSubscriber<T, R>> active;
+        /**
+         * The active inners; a new inner takes a free slot or, if all slots are taken,
+         * evicts the inner with the lowest generation by replacing it.
+         */
+        final AtomicReferenceArray<SfmInnerSubscriber<T, R>> active;
+
+        /** The active inners ordered by generation; accessed by the drain loop only. */
+        final SfmInnerSubscriber<T, R>[] ordered;
 
         final AtomicLong requested;
 
         final AtomicThrowable error;
 
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        static final SfmInnerSubscriber CANCELLED = new SfmInnerSubscriber(null, 1, -1L);
+
         Subscription s;
 
         volatile boolean done;
 
         volatile boolean cancelled;
 
-        volatile long version;
+        /** The generation of the next inner; accessed by onNext only. */
+        long generation;
 
-        final SfmInnerSubscriber<T, R>[] activeCache;
-        long versionCache;
+        long emitted;
 
         @SuppressWarnings("unchecked")
         SwitchFlatMapSubscriber(Subscriber<? super R> actual,
@@ -100,10 +109,10 @@ implements FlowableTransformer<T, R> {
             this.mapper = mapper;
             this.maxActive = maxActive;
             this.bufferSize = bufferSize;
-            this.active = new ArrayDeque<SfmInnerSubscriber<T, R>>();
+            this.active = new AtomicReferenceArray<SfmInnerSubscriber<T, R>>(maxActive);
+            this.ordered = new SfmInnerSubscriber[maxActive];
             this.requested = new AtomicLong();
             this.error = new AtomicThrowable();
-            this.activeCache = new SfmInnerSubscriber[maxActive];
         }
 
         @Override
@@ -129,37 +138,53 @@ implements FlowableTransformer<T, R> {
                 return;
             }
 
-            SfmInnerSubscriber<T, R> inner = new SfmInnerSubscriber<T, R>(this, bufferSize);
+            SfmInnerSubscriber<T, R> inner = new SfmInnerSubscriber<T, R>(this, bufferSize, generation++);
             if (add(inner)) {
                 p.subscribe(inner);
             }
         }
 
+        /**
+         * Puts the inner into a free slot or, if the maximum active count has been reached,
+         * into the slot of the oldest inner, cancelling it.
+         * @param inner the new inner
+         * @return false if the operator has been cancelled
+         */
         boolean add(SfmInnerSubscriber<T, R> inner) {
-            SfmInnerSubscriber<T, R> evicted = null;
-            synchronized (this) {
-                if (cancelled) {
-                    return false;
+            AtomicReferenceArray<SfmInnerSubscriber<T, R>> a = active;
+            int n = a.length();
+            for (;;) {
+                int oldestSlot = -1;
+                SfmInnerSubscriber<T, R> oldest = null;
+                for (int i = 0; i < n; i++) {
+                    SfmInnerSubscriber<T, R> current = a.get(i);
+                    if (current == CANCELLED) {
+                        return false;
+                    }
+                    if (current == null) {
+                        inner.slot = i;
+                        if (a.compareAndSet(i, null, inner)) {
+                            return true;
+                        }
+                        // the slot has been taken by a cancellation
+                        return false;
+                    }
+                    if (oldest == null || current.generation < oldest.generation) {
+                        oldest = current;
+                        oldestSlot = i;
+                    }
                 }
-
-                if (active.size() == maxActive) {
-                    evicted = active.poll();
+                inner.slot = oldestSlot;
+                if (a.compareAndSet(oldestSlot, oldest, inner)) {
+                    oldest.cancel();
+                    return true;
                 }
-                active.offer(inner);
-                version++;
+                // the oldest completed or the operator was cancelled meanwhile, look again
             }
-
-            if (evicted != null) {
-                evicted.cancel();
-            }
-            return true;
         }
 
         void remove(SfmInnerSubscriber<T, R> inner) {
-            synchronized (this) {
-                active.remove(inner);
-                version++;
-            }
+            active.compareAndSet(inner.slot, inner, null);
         }
 
         @Override
@@ -193,24 +218,18 @@ implements FlowableTransformer<T, R> {
                 cancelled = true;
                 s.cancel();
                 cancelInners();
-                if (getAndIncrement() == 0) {
-                    clearCache();
-                }
             }
         }
 
-        void clearCache() {
-            Arrays.fill(activeCache, null);
-        }
-
+        @SuppressWarnings("unchecked")
         void cancelInners() {
-            List<SfmInnerSubscriber<T, R>> subscribers = new ArrayList<SfmInnerSubscriber<T, R>>();
-            synchronized (this) {
-                subscribers.addAll(active);
-                active.clear();
-            }
-            for (SfmInnerSubscriber<T, R> inner : subscribers) {
-                inner.cancel();
+            AtomicReferenceArray<SfmInnerSubscriber<T, R>> a = active;
+            int n = a.length();
+            for (int i = 0; i < n; i++) {
+                SfmInnerSubscriber<T, R> inner = a.getAndSet(i, CANCELLED);
+                if (inner != null && inner != CANCELLED) {
+                    inner.cancel();
+                }
             }
         }
 
@@ -225,160 +244,137 @@ implements FlowableTransformer<T, R> {
             }
         }
 
-        void updateInners() {
-            SfmInnerSubscriber<T, R>[] a = activeCache;
-            if (versionCache != version) {
-                synchronized (this) {
-                    int i = 0;
-                    Iterator<SfmInnerSubscriber<T, R>> it = active.iterator();
-                    while (it.hasNext()) {
-                        a[i++] = it.next();
-                    }
-                    for (int j = i; j < a.length; j++) {
-                        a[j] = null;
-                    }
-                    versionCache = version;
-                }
+        void drain() {
+            if (getAndIncrement() != 0) {
+                return;
             }
-        }
 
-        void drain() {
-            if (getAndIncrement() == 0) {
-                int missed = 1;
-                Subscriber<? super R> a = actual;
-                SfmInnerSubscriber<T, R>[] inners = activeCache;
-                AtomicThrowable err = error;
+            int missed = 1;
+            Subscriber<? super R> a = actual;
+            AtomicReferenceArray<SfmInnerSubscriber<T, R>> inners = active;
+            AtomicThrowable err = error;
+            int n = maxActive;
+            long e = emitted;
+
+            for (;;) {
+                long r = requested.get();
 
-                outer:
                 for (;;) {
-                    long r = requested.get();
-                    long e = 0;
+                    if (cancelled) {
+                        return;
+                    }
 
+                    boolean d = done;
 
-                    for (;;) {
-                        if (cancelled) {
-                            clearCache();
-                            return;
-                        }
+                    if (d && err.get() != null) {
+                        a.onError(err.terminate());
+                        return;
+                    }
 
-                        boolean d = done;
+                    boolean hasActive = false;
+                    boolean progress = false;
+                    boolean removed = false;
 
-                        updateInners();
-                        long ver = versionCache;
+                    int m = collect(inners, n);
 
+                    for (int k = 0; k < m; k++) {
+                        SfmInnerSubscriber<T, R> inner = ordered[k];
+                        ordered[k] = null;
+                        int slot = inner.slot;
 
-                        if (d) {
-                            Throwable ex = err.get();
-                            if (ex != null) {
-                                clearCache();
+                        hasActive = true;
 
-                                a.onError(err.terminate());
-                                return;
-                            } else
-                            if (inners[0] == null) {
-                                a.onComplete();
+                        SimplePlainQueue<R> q = inner.queue;
+                        long f = 0L;
+
+                        while (e != r) {
+                            if (cancelled) {
                                 return;
                             }
-                        }
-
-                        int becameEmpty = 0;
-                        int activeCount = 0;
 
-                        draining:
-                        for (SfmInnerSubscriber<T, R> inner : inners) {
-                            if (cancelled) {
-                                clearCache();
+                            if (err.get() != null) {
+                                a.onError(err.terminate());
                                 return;
                             }
 
-                            if (inner == null) {
+                            if (inners.get(slot) != inner) {
+                                // evicted by a newer inner, drop what's left of it
                                 break;
                             }
-                            if (ver != version) {
-                                if (e != 0) {
-                                    BackpressureHelper.produced(requested, e);
-                                }
-                                continue outer;
-                            }
 
-                            activeCount++;
-
-                            long f = 0;
-
-                            SimplePlainQueue<R> q = inner.queue;
-
-                            while (e != r) {
-                                if (cancelled) {
-                                    clearCache();
-                                    return;
-                                }
-
-                                Throwable ex = err.get();
-                                if (ex != null) {
-                                    clearCache();
-
-                                    a.onError(err.terminate());
-                                    return;
-                                }
-
-                                if (ver != version) {
-                                    if (e != 0) {
-                                        BackpressureHelper.produced(requested, e);
-                                    }
-                                    if (f != 0L) {
-                                        inner.produced(f);
-                                    }
-                                    continue outer;
-                                }
-
-                                boolean d2 = inner.done;
-                                R v = q.poll();
-                                boolean empty = v == null;
-
-                                if (d2 && empty) {
-                                    remove(inner);
-                                    continue draining;
-                                }
-
-                                if (empty) {
-                                    if (f != 0L) {
-                                        inner.produced(f);
-                                        f = 0L;
-                                    }
-                                    becameEmpty++;
-                                    break;
-                                }
-
-                                a.onNext(v);
-                                e++;
-                                f++;
-                            }
+                            boolean d2 = inner.done;
+                            R v = q.poll();
+                            boolean empty = v == null;
 
-                            if (inner.done && q.isEmpty()) {
+                            if (d2 && empty) {
                                 remove(inner);
-                            } else
-                            if (f != 0L) {
-                                inner.produced(f);
+                                removed = true;
+                                break;
+                            }
+
+                            if (empty) {
+                                break;
                             }
+
+                            a.onNext(v);
+                            e++;
+                            f++;
+                        }
+
+                        if (f != 0L) {
+                            progress = true;
+                            inner.produced(f);
                         }
 
-                        if (becameEmpty == activeCount || e == r) {
-                            break;
+                        if (e == r && inner.done && q.isEmpty()) {
+                            remove(inner);
+                            removed = true;
                         }
                     }
 
-                    if (e != 0) {
-                        BackpressureHelper.produced(requested, e);
+                    if (d && !hasActive) {
+                        a.onComplete();
+                        return;
                     }
 
-                    missed = addAndGet(-missed);
-                    if (missed == 0) {
+                    // a removed inner may have been the last one, check again for completion
+                    if (!removed && (!progress || e == r)) {
                         break;
                     }
                 }
+
+                emitted = e;
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
             }
         }
 
+        /**
+         * Copies the active inners into {@link #ordered}, oldest first.
+         * @param inners the slots
+         * @param n the number of slots
+         * @return the number of active inners
+         */
+        int collect(AtomicReferenceArray<SfmInnerSubscriber<T, R>> inners, int n) {
+            SfmInnerSubscriber<T, R>[] o = ordered;
+            int m = 0;
+            for (int i = 0; i < n; i++) {
+                SfmInnerSubscriber<T, R> inner = inners.get(i);
+                if (inner == null || inner == CANCELLED) {
+                    continue;
+                }
+                int j = m++;
+                while (j > 0 && o[j - 1].generation > inner.generation) {
+                    o[j] = o[j - 1];
+                    j--;
+                }
+                o[j] = inner;
+            }
+            return m;
+        }
+
         static final class SfmInnerSubscriber<T, R> extends AtomicReference<Subscription>
         implements Subscriber<R> {
 
@@ -392,13 +388,19 @@ implements FlowableTransformer<T, R> {
 
             final SimplePlainQueue<R> queue;
 
+            final long generation;
+
+            /** The index in the parent's array, set before the inner is published there. */
+            int slot;
+
             long produced;
 
             volatile boolean done;
 
-            SfmInnerSubscriber(SwitchFlatMapSubscriber<T, R> parent, int bufferSize) {
+            SfmInnerSubscriber(SwitchFlatMapSubscriber<T, R> parent, int bufferSize, long generation) {
                 this.parent = parent;
                 this.bufferSize = bufferSize;
+                this.generation = generation;
                 this.limit = bufferSize - (bufferSize >> 2);
                 this.queue = new SpscArrayQueue<R>(bufferSize);
             }
@@ -21,7 +21,8 @@ import java.util.concurrent.*;
 
 import org.reactivestreams.Publisher;
 
-import hu.akarnokd.rxjava2.util.BiFunctionSecondIdentity;
+import hu.akarnokd.rxjava2.functions.ToLongFunction;
+import hu.akarnokd.rxjava2.util.*;
 import io.reactivex.*;
 import io.reactivex.annotations.*;
 import io.reactivex.functions.*;
@@ -118,6 +119,74 @@ public final class FlowableTransformers {
         return new FlowableValve<T>(null, other, defaultOpen, bufferSize);
     }
 
+    /**
+     * Relays values while the total weight of the items buffered for the downstream stays
+     * below the high watermark; when reached, the valve closes and stops requesting from the
+     * upstream until the buffered weight drops to or below the low watermark.
+     * <p>Properties:
+     * <ul>
+     * <li>The valve starts as open.</li>
+     * <li>The state changes are signalled to the callback: false when closed, true when reopened;
+     * use it to throttle producers that can't be backpressured, such as network readers.</li>
+     * <li>The upstream is requested in batches of {@link Flowable#bufferSize()}.</li>
+     * <li>The operator doesn't run on any particular {@link io.reactivex.Scheduler Scheduler}.</li>
+     * </ul>
+     * @param <T> the value type of the main source
+     * @param highWatermark the buffered weight at or above which the valve closes
+     * @param lowWatermark the buffered weight at or below which a closed valve reopens
+     * @param weigher the function returning the weight of an item, for example its size in bytes
+     * @param onStateChange called with false when the valve closes and true when it reopens;
+     * if it crashes, the sequence is terminated with its exception
+     * @return the new FlowableTransformer instance
+     * @throws IllegalArgumentException if lowWatermark &lt; 0 or highWatermark &lt;= 0 or lowWatermark &gt;= highWatermark
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.NONE)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T> FlowableTransformer<T, T> valveWatermark(long highWatermark, long lowWatermark,
+            ToLongFunction<? super T> weigher, Consumer<? super Boolean> onStateChange) {
+        return valveWatermark(highWatermark, lowWatermark, weigher, onStateChange, Flowable.bufferSize());
+    }
+
+    /**
+     * Relays values while the total weight of the items buffered for the downstream stays
+     * below the high watermark; when reached, the valve closes and stops requesting from the
+     * upstream until the buffered weight drops to or below the low watermark.
+     * <p>Properties:
+     * <ul>
+     * <li>The valve starts as open.</li>
+     * <li>The state changes are signalled to the callback: false when closed, true when reopened;
+     * use it to throttle producers that can't be backpressured, such as network readers.</li>
+     * <li>The upstream is requested in batches of {@code prefetch} items; {@link Integer#MAX_VALUE}
+     * requests an unbounded amount, leaving the callback as the only means of regulation.</li>
+     * <li>The operator doesn't run on any particular {@link io.reactivex.Scheduler Scheduler}.</li>
+     * </ul>
+     * @param <T> the value type of the main source
+     * @param highWatermark the buffered weight at or above which the valve closes
+     * @param lowWatermark the buffered weight at or below which a closed valve reopens
+     * @param weigher the function returning the weight of an item, for example its size in bytes
+     * @param onStateChange called with false when the valve closes and true when it reopens;
+     * if it crashes, the sequence is terminated with its exception
+     * @param prefetch the number of items to request from the upstream at once
+     * @return the new FlowableTransformer instance
+     * @throws IllegalArgumentException if lowWatermark &lt; 0 or highWatermark &lt;= 0 or lowWatermark &gt;= highWatermark
+     * or prefetch &lt;= 0
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.NONE)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T> FlowableTransformer<T, T> valveWatermark(long highWatermark, long lowWatermark,
+            ToLongFunction<? super T> weigher, Consumer<? super Boolean> onStateChange, int prefetch) {
+        ObjectHelper.verifyPositive(highWatermark, "highWatermark");
+        if (lowWatermark < 0L || lowWatermark >= highWatermark) {
+            throw new IllegalArgumentException("lowWatermark >= 0 and lowWatermark < highWatermark required but it was " + lowWatermark);
+        }
+        ObjectHelper.requireNonNull(weigher, "weigher is null");
+        ObjectHelper.requireNonNull(onStateChange, "onStateChange is null");
+        ObjectHelper.verifyPositive(prefetch, "prefetch");
+        return new FlowableValveWatermark<T>(null, highWatermark, lowWatermark, weigher, onStateChange, prefetch);
+    }
+
     /**
      * Buffers elements into a List while the given predicate returns true; if the
      * predicate returns false for an item, a new buffer is created with the specified item.
@@ -149,7 +218,126 @@ public final class FlowableTransformers {
     @SchedulerSupport(SchedulerSupport.NONE)
     @BackpressureSupport(BackpressureKind.FULL)
     public static <T, C extends Collection<? super T>> FlowableTransformer<T, C> bufferWhile(Predicate<? super T> predicate, Callable<C> bufferSupplier) {
-        return new FlowableBufferPredicate<T, C>(null, predicate, FlowableBufferPredicate.Mode.BEFORE, bufferSupplier);
+        return new FlowableBufferPredicate<T, C>(null, predicate, FlowableBufferPredicate.Mode.BEFORE, bufferSupplier, Functions.emptyConsumer());
+    }
+
+    /**
+     * Buffers elements into a custom collection while the given predicate returns true; if the
+     * predicate returns false for an item, a new collection is created with the specified item;
+     * the collections are handed to a recycler once consumed.
+     * <p>
+     * The {@code recycler} is called with each collection after the downstream's {@code onNext} returned,
+     * allowing a synchronous consumer to reuse collections via an
+     * {@link hu.akarnokd.rxjava2.util.ObjectPool ObjectPool} used as the {@code bufferSupplier};
+     * it should not be used if the consumer keeps the collection beyond {@code onNext}.
+     * @param <T> the source value type
+     * @param <C> the collection type
+     * @param predicate the predicate receiving the current value and if returns false,
+     *                  a new collection is created with the specified item
+     * @param bufferSupplier the callable that returns a fresh or reused empty collection
+     * @param recycler the consumer called with each collection once the downstream has consumed it
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.NONE)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T, C extends Collection<? super T>> FlowableTransformer<T, C> bufferWhile(Predicate<? super T> predicate, Callable<C> bufferSupplier,
+            Consumer<? super C> recycler) {
+        ObjectHelper.requireNonNull(predicate, "predicate is null");
+        ObjectHelper.requireNonNull(bufferSupplier, "bufferSupplier is null");
+        ObjectHelper.requireNonNull(recycler, "recycler is null");
+        return new FlowableBufferPredicate<T, C>(null, predicate, FlowableBufferPredicate.Mode.BEFORE, bufferSupplier, recycler);
+    }
+
+    /**
+     * Buffers elements into a List while the given predicate returns true; if the
+     * predicate returns false for an item, a new buffer is created with the specified item,
+     * or when the current buffer reaches the given size.
+     * <p>
+     * The buffers are pre-sized to {@code maxSize} (up to 1024 elements) and
+     * empty buffers are never emitted.
+     * @param <T> the source value type
+     * @param predicate the predicate receiving the current value and if returns false,
+     *                  a new buffer is created with the specified item
+     * @param maxSize the maximum number of items in a buffer, positive
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.NONE)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T> FlowableTransformer<T, List<T>> bufferWhile(Predicate<? super T> predicate, int maxSize) {
+        ObjectHelper.requireNonNull(predicate, "predicate is null");
+        ObjectHelper.verifyPositive(maxSize, "maxSize");
+        return new FlowableBufferPredicateBounded<T, List<T>>(null, predicate, FlowableBufferPredicate.Mode.BEFORE,
+                FlowableBufferPredicateBounded.<T>listSupplier(maxSize), maxSize, 0L, null, null, Functions.emptyConsumer());
+    }
+
+    /**
+     * Buffers elements into a List while the given predicate returns true; if the
+     * predicate returns false for an item, a new buffer is created with the specified item,
+     * when the current buffer reaches the given size or when it has been open for the given
+     * amount of time.
+     * <p>
+     * The buffers are pre-sized to {@code maxSize} (up to 1024 elements) and
+     * empty buffers are never emitted.
+     * @param <T> the source value type
+     * @param predicate the predicate receiving the current value and if returns false,
+     *                  a new buffer is created with the specified item
+     * @param maxSize the maximum number of items in a buffer, positive
+     * @param maxTime the maximum time a buffer stays open after receiving its first item, positive
+     * @param unit the time unit
+     * @param scheduler the scheduler to time out the buffers on
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.CUSTOM)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T> FlowableTransformer<T, List<T>> bufferWhile(Predicate<? super T> predicate, int maxSize,
+            long maxTime, TimeUnit unit, Scheduler scheduler) {
+        return bufferWhile(predicate, maxSize, maxTime, unit, scheduler,
+                FlowableBufferPredicateBounded.<T>listSupplier(maxSize), Functions.emptyConsumer());
+    }
+
+    /**
+     * Buffers elements into a custom collection while the given predicate returns true; if the
+     * predicate returns false for an item, a new collection is created with the specified item,
+     * when the current collection reaches the given size or when it has been open for the given
+     * amount of time.
+     * <p>
+     * Empty collections are never emitted. The {@code recycler} is called with each collection
+     * after the downstream's {@code onNext} returned, allowing a synchronous consumer to clear
+     * and return it to a pool the {@code bufferSupplier} draws from; it should not be used if the
+     * consumer keeps the collection beyond {@code onNext}.
+     * @param <T> the source value type
+     * @param <C> the collection type
+     * @param predicate the predicate receiving the current value and if returns false,
+     *                  a new buffer is created with the specified item
+     * @param maxSize the maximum number of items in a collection, positive
+     * @param maxTime the maximum time a collection stays open after receiving its first item, positive
+     * @param unit the time unit
+     * @param scheduler the scheduler to time out the collections on
+     * @param bufferSupplier the callable that returns a fresh or reused empty collection
+     * @param recycler the consumer called with each collection once the downstream has consumed it
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.CUSTOM)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T, C extends Collection<? super T>> FlowableTransformer<T, C> bufferWhile(Predicate<? super T> predicate, int maxSize,
+            long maxTime, TimeUnit unit, Scheduler scheduler, Callable<C> bufferSupplier, Consumer<? super C> recycler) {
+        ObjectHelper.requireNonNull(predicate, "predicate is null");
+        ObjectHelper.verifyPositive(maxSize, "maxSize");
+        ObjectHelper.verifyPositive(maxTime, "maxTime");
+        ObjectHelper.requireNonNull(unit, "unit is null");
+        ObjectHelper.requireNonNull(scheduler, "scheduler is null");
+        ObjectHelper.requireNonNull(bufferSupplier, "bufferSupplier is null");
+        ObjectHelper.requireNonNull(recycler, "recycler is null");
+        return new FlowableBufferPredicateBounded<T, C>(null, predicate, FlowableBufferPredicate.Mode.BEFORE,
+                bufferSupplier, maxSize, maxTime, unit, scheduler, recycler);
     }
 
     /**
@@ -184,7 +372,126 @@ public final class FlowableTransformers {
     @SchedulerSupport(SchedulerSupport.NONE)
     @BackpressureSupport(BackpressureKind.FULL)
     public static <T, C extends Collection<? super T>> FlowableTransformer<T, C> bufferUntil(Predicate<? super T> predicate, Callable<C> bufferSupplier) {
-        return new FlowableBufferPredicate<T, C>(null, predicate, FlowableBufferPredicate.Mode.AFTER, bufferSupplier);
+        return new FlowableBufferPredicate<T, C>(null, predicate, FlowableBufferPredicate.Mode.AFTER, bufferSupplier, Functions.emptyConsumer());
+    }
+
+    /**
+     * Buffers elements into a custom collection until the given predicate returns true at which
+     * point a new empty custom collection is started;
+     * the collections are handed to a recycler once consumed.
+     * <p>
+     * The {@code recycler} is called with each collection after the downstream's {@code onNext} returned,
+     * allowing a synchronous consumer to reuse collections via an
+     * {@link hu.akarnokd.rxjava2.util.ObjectPool ObjectPool} used as the {@code bufferSupplier};
+     * it should not be used if the consumer keeps the collection beyond {@code onNext}.
+     * @param <T> the source value type
+     * @param <C> the collection type
+     * @param predicate the predicate receiving the current item and if returns true,
+     *                  the current collection is emitted and a fresh empty collection is created
+     * @param bufferSupplier the callable that returns a fresh or reused empty collection
+     * @param recycler the consumer called with each collection once the downstream has consumed it
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.NONE)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T, C extends Collection<? super T>> FlowableTransformer<T, C> bufferUntil(Predicate<? super T> predicate, Callable<C> bufferSupplier,
+            Consumer<? super C> recycler) {
+        ObjectHelper.requireNonNull(predicate, "predicate is null");
+        ObjectHelper.requireNonNull(bufferSupplier, "bufferSupplier is null");
+        ObjectHelper.requireNonNull(recycler, "recycler is null");
+        return new FlowableBufferPredicate<T, C>(null, predicate, FlowableBufferPredicate.Mode.AFTER, bufferSupplier, recycler);
+    }
+
+    /**
+     * Buffers elements into a List until the given predicate returns true at which
+     * point a new empty buffer is started,
+     * or when the current buffer reaches the given size.
+     * <p>
+     * The buffers are pre-sized to {@code maxSize} (up to 1024 elements) and
+     * empty buffers are never emitted.
+     * @param <T> the source value type
+     * @param predicate the predicate receiving the current item and if returns true,
+     *                  the current buffer is emitted and a fresh empty buffer is created
+     * @param maxSize the maximum number of items in a buffer, positive
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.NONE)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T> FlowableTransformer<T, List<T>> bufferUntil(Predicate<? super T> predicate, int maxSize) {
+        ObjectHelper.requireNonNull(predicate, "predicate is null");
+        ObjectHelper.verifyPositive(maxSize, "maxSize");
+        return new FlowableBufferPredicateBounded<T, List<T>>(null, predicate, FlowableBufferPredicate.Mode.AFTER,
+                FlowableBufferPredicateBounded.<T>listSupplier(maxSize), maxSize, 0L, null, null, Functions.emptyConsumer());
+    }
+
+    /**
+     * Buffers elements into a List until the given predicate returns true at which
+     * point a new empty buffer is started,
+     * when the current buffer reaches the given size or when it has been open for the given
+     * amount of time.
+     * <p>
+     * The buffers are pre-sized to {@code maxSize} (up to 1024 elements) and
+     * empty buffers are never emitted.
+     * @param <T> the source value type
+     * @param predicate the predicate receiving the current item and if returns true,
+     *                  the current buffer is emitted and a fresh empty buffer is created
+     * @param maxSize the maximum number of items in a buffer, positive
+     * @param maxTime the maximum time a buffer stays open after receiving its first item, positive
+     * @param unit the time unit
+     * @param scheduler the scheduler to time out the buffers on
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.CUSTOM)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T> FlowableTransformer<T, List<T>> bufferUntil(Predicate<? super T> predicate, int maxSize,
+            long maxTime, TimeUnit unit, Scheduler scheduler) {
+        return bufferUntil(predicate, maxSize, maxTime, unit, scheduler,
+                FlowableBufferPredicateBounded.<T>listSupplier(maxSize), Functions.emptyConsumer());
+    }
+
+    /**
+     * Buffers elements into a custom collection until the given predicate returns true at which
+     * point a new empty custom collection is started,
+     * when the current collection reaches the given size or when it has been open for the given
+     * amount of time.
+     * <p>
+     * Empty collections are never emitted. The {@code recycler} is called with each collection
+     * after the downstream's {@code onNext} returned, allowing a synchronous consumer to clear
+     * and return it to a pool the {@code bufferSupplier} draws from; it should not be used if the
+     * consumer keeps the collection beyond {@code onNext}.
+     * @param <T> the source value type
+     * @param <C> the collection type
+     * @param predicate the predicate receiving the current item and if returns true,
+     *                  the current buffer is emitted and a fresh empty buffer is created
+     * @param maxSize the maximum number of items in a collection, positive
+     * @param maxTime the maximum time a collection stays open after receiving its first item, positive
+     * @param unit the time unit
+     * @param scheduler the scheduler to time out the collections on
+     * @param bufferSupplier the callable that returns a fresh or reused empty collection
+     * @param recycler the consumer called with each collection once the downstream has consumed it
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.CUSTOM)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T, C extends Collection<? super T>> FlowableTransformer<T, C> bufferUntil(Predicate<? super T> predicate, int maxSize,
+            long maxTime, TimeUnit unit, Scheduler scheduler, Callable<C> bufferSupplier, Consumer<? super C> recycler) {
+        ObjectHelper.requireNonNull(predicate, "predicate is null");
+        ObjectHelper.verifyPositive(maxSize, "maxSize");
+        ObjectHelper.verifyPositive(maxTime, "maxTime");
+        ObjectHelper.requireNonNull(unit, "unit is null");
+        ObjectHelper.requireNonNull(scheduler, "scheduler is null");
+        ObjectHelper.requireNonNull(bufferSupplier, "bufferSupplier is null");
+        ObjectHelper.requireNonNull(recycler, "recycler is null");
+        return new FlowableBufferPredicateBounded<T, C>(null, predicate, FlowableBufferPredicate.Mode.AFTER,
+                bufferSupplier, maxSize, maxTime, unit, scheduler, recycler);
     }
 
     /**
@@ -219,7 +526,126 @@ public final class FlowableTransformers {
     @SchedulerSupport(SchedulerSupport.NONE)
     @BackpressureSupport(BackpressureKind.FULL)
     public static <T, C extends Collection<? super T>> FlowableTransformer<T, C> bufferSplit(Predicate<? super T> predicate, Callable<C> bufferSupplier) {
-        return new FlowableBufferPredicate<T, C>(null, predicate, FlowableBufferPredicate.Mode.SPLIT, bufferSupplier);
+        return new FlowableBufferPredicate<T, C>(null, predicate, FlowableBufferPredicate.Mode.SPLIT, bufferSupplier, Functions.emptyConsumer());
+    }
+
+    /**
+     * Buffers elements into a custom collection until the given predicate returns true at which
+     * point a new empty custom collection is started; the particular item will be dropped;
+     * the collections are handed to a recycler once consumed.
+     * <p>
+     * The {@code recycler} is called with each collection after the downstream's {@code onNext} returned,
+     * allowing a synchronous consumer to reuse collections via an
+     * {@link hu.akarnokd.rxjava2.util.ObjectPool ObjectPool} used as the {@code bufferSupplier};
+     * it should not be used if the consumer keeps the collection beyond {@code onNext}.
+     * @param <T> the source value type
+     * @param <C> the collection type
+     * @param predicate the predicate receiving the current item and if returns true,
+     *                  the current collection is emitted and a fresh empty collection is created
+     * @param bufferSupplier the callable that returns a fresh or reused empty collection
+     * @param recycler the consumer called with each collection once the downstream has consumed it
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.NONE)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T, C extends Collection<? super T>> FlowableTransformer<T, C> bufferSplit(Predicate<? super T> predicate, Callable<C> bufferSupplier,
+            Consumer<? super C> recycler) {
+        ObjectHelper.requireNonNull(predicate, "predicate is null");
+        ObjectHelper.requireNonNull(bufferSupplier, "bufferSupplier is null");
+        ObjectHelper.requireNonNull(recycler, "recycler is null");
+        return new FlowableBufferPredicate<T, C>(null, predicate, FlowableBufferPredicate.Mode.SPLIT, bufferSupplier, recycler);
+    }
+
+    /**
+     * Buffers elements into a List until the given predicate returns true at which
+     * point a new empty buffer is started; the particular item will be dropped,
+     * or when the current buffer reaches the given size.
+     * <p>
+     * The buffers are pre-sized to {@code maxSize} (up to 1024 elements) and
+     * empty buffers are never emitted.
+     * @param <T> the source value type
+     * @param predicate the predicate receiving the current item and if returns true,
+     *                  the current buffer is emitted and a fresh empty buffer is created
+     * @param maxSize the maximum number of items in a buffer, positive
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.NONE)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T> FlowableTransformer<T, List<T>> bufferSplit(Predicate<? super T> predicate, int maxSize) {
+        ObjectHelper.requireNonNull(predicate, "predicate is null");
+        ObjectHelper.verifyPositive(maxSize, "maxSize");
+        return new FlowableBufferPredicateBounded<T, List<T>>(null, predicate, FlowableBufferPredicate.Mode.SPLIT,
+                FlowableBufferPredicateBounded.<T>listSupplier(maxSize), maxSize, 0L, null, null, Functions.emptyConsumer());
+    }
+
+    /**
+     * Buffers elements into a List until the given predicate returns true at which
+     * point a new empty buffer is started; the particular item will be dropped,
+     * when the current buffer reaches the given size or when it has been open for the given
+     * amount of time.
+     * <p>
+     * The buffers are pre-sized to {@code maxSize} (up to 1024 elements) and
+     * empty buffers are never emitted.
+     * @param <T> the source value type
+     * @param predicate the predicate receiving the current item and if returns true,
+     *                  the current buffer is emitted and a fresh empty buffer is created
+     * @param maxSize the maximum number of items in a buffer, positive
+     * @param maxTime the maximum time a buffer stays open after receiving its first item, positive
+     * @param unit the time unit
+     * @param scheduler the scheduler to time out the buffers on
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.CUSTOM)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T> FlowableTransformer<T, List<T>> bufferSplit(Predicate<? super T> predicate, int maxSize,
+            long maxTime, TimeUnit unit, Scheduler scheduler) {
+        return bufferSplit(predicate, maxSize, maxTime, unit, scheduler,
+                FlowableBufferPredicateBounded.<T>listSupplier(maxSize), Functions.emptyConsumer());
+    }
+
+    /**
+     * Buffers elements into a custom collection until the given predicate returns true at which
+     * point a new empty custom collection is started; the particular item will be dropped,
+     * when the current collection reaches the given size or when it has been open for the given
+     * amount of time.
+     * <p>
+     * Empty collections are never emitted. The {@code recycler} is called with each collection
+     * after the downstream's {@code onNext} returned, allowing a synchronous consumer to clear
+     * and return it to a pool the {@code bufferSupplier} draws from; it should not be used if the
+     * consumer keeps the collection beyond {@code onNext}.
+     * @param <T> the source value type
+     * @param <C> the collection type
+     * @param predicate the predicate receiving the current item and if returns true,
+     *                  the current buffer is emitted and a fresh empty buffer is created
+     * @param maxSize the maximum number of items in a collection, positive
+     * @param maxTime the maximum time a collection stays open after receiving its first item, positive
+     * @param unit the time unit
+     * @param scheduler the scheduler to time out the collections on
+     * @param bufferSupplier the callable that returns a fresh or reused empty collection
+     * @param recycler the consumer called with each collection once the downstream has consumed it
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.CUSTOM)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T, C extends Collection<? super T>> FlowableTransformer<T, C> bufferSplit(Predicate<? super T> predicate, int maxSize,
+            long maxTime, TimeUnit unit, Scheduler scheduler, Callable<C> bufferSupplier, Consumer<? super C> recycler) {
+        ObjectHelper.requireNonNull(predicate, "predicate is null");
+        ObjectHelper.verifyPositive(maxSize, "maxSize");
+        ObjectHelper.verifyPositive(maxTime, "maxTime");
+        ObjectHelper.requireNonNull(unit, "unit is null");
+        ObjectHelper.requireNonNull(scheduler, "scheduler is null");
+        ObjectHelper.requireNonNull(bufferSupplier, "bufferSupplier is null");
+        ObjectHelper.requireNonNull(recycler, "recycler is null");
+        return new FlowableBufferPredicateBounded<T, C>(null, predicate, FlowableBufferPredicate.Mode.SPLIT,
+                bufferSupplier, maxSize, maxTime, unit, scheduler, recycler);
     }
 
     /**
@@ -416,6 +842,107 @@ public final class FlowableTransformers {
         return new FlowableSpanout<T>(null, initialDelay, betweenDelay, unit, scheduler, delayError, Flowable.bufferSize());
     }
 
+    /**
+     * Limits the emission rate of the upstream elements with a token bucket, releasing the
+     * items that became eligible in batches on the ticks of the computation {@link Scheduler}.
+     * <p>
+     * Each emission takes a token; tokens accumulate at the given rate up to the burst size,
+     * which is also the number of tokens initially available. Unlike {@code spanout}, there is
+     * no timer per item: the tick period is the time to accumulate one token but at least 10 milliseconds,
+     * shortened to the time of filling up the bucket if that is less. The ticks run only while
+     * items are waiting for tokens.
+     * <dl>
+     *  <dt><b>Backpressure:</b></dt>
+     *  <dd>The operator honors the downstream backpressure and prefetches {@link Flowable#bufferSize()}
+     *  items from the upstream.</dd>
+     *  <dt><b>Scheduler:</b></dt>
+     *  <dd>The operator uses the computation {@link Scheduler}.</dd>
+     * </dl>
+     * @param <T> the value type
+     * @param permitsPerSecond the average number of items emitted per second, positive
+     * @param burst the maximum number of tokens that can accumulate, positive
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @BackpressureSupport(BackpressureKind.FULL)
+    @SchedulerSupport(SchedulerSupport.COMPUTATION)
+    public static <T> FlowableTransformer<T, T> pace(double permitsPerSecond, int burst) {
+        return pace(permitsPerSecond, burst, Schedulers.computation());
+    }
+
+    /**
+     * Limits the emission rate of the upstream elements with a token bucket, releasing the
+     * items that became eligible in batches on the ticks of the given {@link Scheduler}.
+     * <p>
+     * Each emission takes a token; tokens accumulate at the given rate up to the burst size,
+     * which is also the number of tokens initially available. Unlike {@code spanout}, there is
+     * no timer per item: the tick period is the time to accumulate one token but at least 10 milliseconds,
+     * shortened to the time of filling up the bucket if that is less. The ticks run only while
+     * items are waiting for tokens.
+     * <dl>
+     *  <dt><b>Backpressure:</b></dt>
+     *  <dd>The operator honors the downstream backpressure and prefetches {@link Flowable#bufferSize()}
+     *  items from the upstream.</dd>
+     *  <dt><b>Scheduler:</b></dt>
+     *  <dd>The operator uses a custom {@link Scheduler} you provide.</dd>
+     * </dl>
+     * @param <T> the value type
+     * @param permitsPerSecond the average number of items emitted per second, positive
+     * @param burst the maximum number of tokens that can accumulate, positive
+     * @param scheduler the scheduler to measure the time and emit the batches on
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @BackpressureSupport(BackpressureKind.FULL)
+    @SchedulerSupport(SchedulerSupport.CUSTOM)
+    public static <T> FlowableTransformer<T, T> pace(double permitsPerSecond, int burst, Scheduler scheduler) {
+        if (!(permitsPerSecond > 0d) || Double.isInfinite(permitsPerSecond)) {
+            throw new IllegalArgumentException("permitsPerSecond > 0 required but it was " + permitsPerSecond);
+        }
+        return pace(permitsPerSecond, burst, FlowablePace.defaultTick(permitsPerSecond), TimeUnit.NANOSECONDS, scheduler);
+    }
+
+    /**
+     * Limits the emission rate of the upstream elements with a token bucket, releasing the
+     * items that became eligible in batches on the ticks of the given {@link Scheduler}.
+     * <p>
+     * Each emission takes a token; tokens accumulate at the given rate up to the burst size,
+     * which is also the number of tokens initially available. The tick period only affects
+     * how smoothly the items are spread out, the average rate is measured on the scheduler's clock.
+     * A tick is shortened to the time of filling up the bucket if that is less, and the ticks run
+     * only while items are waiting for tokens.
+     * <dl>
+     *  <dt><b>Backpressure:</b></dt>
+     *  <dd>The operator honors the downstream backpressure and prefetches {@link Flowable#bufferSize()}
+     *  items from the upstream.</dd>
+     *  <dt><b>Scheduler:</b></dt>
+     *  <dd>The operator uses a custom {@link Scheduler} you provide.</dd>
+     * </dl>
+     * @param <T> the value type
+     * @param permitsPerSecond the average number of items emitted per second, positive
+     * @param burst the maximum number of tokens that can accumulate, positive
+     * @param tick the maximum period of releasing the eligible items, positive
+     * @param unit the time unit of the tick
+     * @param scheduler the scheduler to measure the time and emit the batches on
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @BackpressureSupport(BackpressureKind.FULL)
+    @SchedulerSupport(SchedulerSupport.CUSTOM)
+    public static <T> FlowableTransformer<T, T> pace(double permitsPerSecond, int burst, long tick, TimeUnit unit, Scheduler scheduler) {
+        if (!(permitsPerSecond > 0d) || Double.isInfinite(permitsPerSecond)) {
+            throw new IllegalArgumentException("permitsPerSecond > 0 required but it was " + permitsPerSecond);
+        }
+        ObjectHelper.verifyPositive(burst, "burst");
+        ObjectHelper.verifyPositive(tick, "tick");
+        ObjectHelper.requireNonNull(unit, "unit is null");
+        ObjectHelper.requireNonNull(scheduler, "scheduler is null");
+        return new FlowablePace<T>(null, permitsPerSecond, burst, tick, unit, scheduler, Flowable.bufferSize());
+    }
+
     /**
      * Allows mapping or filtering an upstream value through an emitter.
      * @param <T> the input value type
@@ -767,21 +1294,49 @@ public final class FlowableTransformers {
      * @since 0.16.0
      */
     public static <T, R> FlowableTransformer<T, R> flatMapSync(Function<? super T, ? extends Publisher<? extends R>> mapper, int maxConcurrency, int bufferSize, boolean depthFirst) {
-        return new FlowableFlatMapSync<T, R>(null, mapper, maxConcurrency, bufferSize, depthFirst);
+        return flatMapSync(mapper, maxConcurrency, bufferSize, depthFirst, false);
     }
 
     /**
-     * Maps the upstream values into Publisher and merges at most 32 of them at once,
-     * collects and emits the items on the specified scheduler.
-     * <p>This operator can be considered as a fusion between a flatMapSync
-     * and observeOn.
+     * Maps the upstream values into Publisher and merges at most maxConcurrency of them at once,
+     * optimized for mainly synchronous sources, optionally visiting only the inner sources that
+     * have signalled since they were last drained.
+     * <p>In the ready-queue mode, inner sources receiving items or terminating enqueue themselves
+     * on a ready queue and the drain loop visits only those instead of scanning all
+     * {@code maxConcurrency} slots, which helps when many inner sources are active but only a few
+     * of them produce at a time.
      * @param <T> the input value type
-     * @param <R> the output value type
+     * @param <R> the result value type
      * @param mapper the function mapping from a value into a Publisher
-     * @param scheduler the Scheduler to use to collect and emit merged items
-     * @return the new FlowableTransformer instance
-     *
-     * @since 0.16.0
+     * @param maxConcurrency the maximum number of sources merged at once
+     * @param bufferSize the prefetch on each inner source
+     * @param depthFirst if true, the inner sources are drained as much as possible
+     *                   if false, the inner sources are consumed in a round-robin fashion
+     * @param readyQueue if true, only the inner sources that signalled are visited, in the order
+     *                   they signalled; if false, all slots are scanned on each drain
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    public static <T, R> FlowableTransformer<T, R> flatMapSync(Function<? super T, ? extends Publisher<? extends R>> mapper, int maxConcurrency, int bufferSize, boolean depthFirst, boolean readyQueue) {
+        ObjectHelper.requireNonNull(mapper, "mapper is null");
+        ObjectHelper.verifyPositive(maxConcurrency, "maxConcurrency");
+        ObjectHelper.verifyPositive(bufferSize, "bufferSize");
+        return new FlowableFlatMapSync<T, R>(null, mapper, maxConcurrency, bufferSize, depthFirst, readyQueue);
+    }
+
+    /**
+     * Maps the upstream values into Publisher and merges at most 32 of them at once,
+     * collects and emits the items on the specified scheduler.
+     * <p>This operator can be considered as a fusion between a flatMapSync
+     * and observeOn.
+     * @param <T> the input value type
+     * @param <R> the output value type
+     * @param mapper the function mapping from a value into a Publisher
+     * @param scheduler the Scheduler to use to collect and emit merged items
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.16.0
      */
     public static <T, R> FlowableTransformer<T, R> flatMapAsync(Function<? super T, ? extends Publisher<? extends R>> mapper, Scheduler scheduler) {
         return flatMapAsync(mapper, scheduler, 32, Flowable.bufferSize(), true);
@@ -824,7 +1379,39 @@ public final class FlowableTransformers {
      * @since 0.16.0
      */
     public static <T, R> FlowableTransformer<T, R> flatMapAsync(Function<? super T, ? extends Publisher<? extends R>> mapper, Scheduler scheduler, int maxConcurrency, int bufferSize, boolean depthFirst) {
-        return new FlowableFlatMapAsync<T, R>(null, mapper, maxConcurrency, bufferSize, depthFirst, scheduler);
+        return flatMapAsync(mapper, scheduler, maxConcurrency, bufferSize, depthFirst, false);
+    }
+
+    /**
+     * Maps the upstream values into Publisher and merges at most maxConcurrency of them at once,
+     * collects and emits the items on the specified scheduler, optionally visiting only the inner
+     * sources that have signalled since they were last drained.
+     * <p>This operator can be considered as a fusion between a flatMapSync
+     * and observeOn.
+     * <p>In the ready-queue mode, inner sources receiving items or terminating enqueue themselves
+     * on a ready queue and the drain loop visits only those instead of scanning all
+     * {@code maxConcurrency} slots, which helps when many inner sources are active but only a few
+     * of them produce at a time.
+     * @param <T> the input value type
+     * @param <R> the output value type
+     * @param mapper the function mapping from a value into a Publisher
+     * @param scheduler the Scheduler to use to collect and emit merged items
+     * @param maxConcurrency the maximum number of sources merged at once
+     * @param bufferSize the prefetch on each inner source
+     * @param depthFirst if true, the inner sources are drained as much as possible
+     *                   if false, the inner sources are consumed in a round-robin fashion
+     * @param readyQueue if true, only the inner sources that signalled are visited, in the order
+     *                   they signalled; if false, all slots are scanned on each drain
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    public static <T, R> FlowableTransformer<T, R> flatMapAsync(Function<? super T, ? extends Publisher<? extends R>> mapper, Scheduler scheduler, int maxConcurrency, int bufferSize, boolean depthFirst, boolean readyQueue) {
+        ObjectHelper.requireNonNull(mapper, "mapper is null");
+        ObjectHelper.requireNonNull(scheduler, "scheduler is null");
+        ObjectHelper.verifyPositive(maxConcurrency, "maxConcurrency");
+        ObjectHelper.verifyPositive(bufferSize, "bufferSize");
+        return new FlowableFlatMapAsync<T, R>(null, mapper, maxConcurrency, bufferSize, depthFirst, readyQueue, scheduler);
     }
 
     /**
@@ -904,6 +1491,95 @@ public final class FlowableTransformers {
         return new FlowableExpand<T>(null, expander, strategy, capacityHint);
     }
 
+    /**
+     * Emits elements from the source and then expands them into another layer of Publishers, emitting
+     * those items recursively until all Publishers become empty, running up to the given number of
+     * expansions (the source included) at the same time.
+     * <p>
+     * The items are emitted in the order they arrive from the running Publishers; items are expanded
+     * in the order they were emitted, which is roughly breadth-first.
+     * @param <T> the value type
+     * @param expander the function that converts an element into a Publisher to be expanded
+     * @param maxConcurrency the maximum number of Publishers subscribed to at once
+     * @return the new FlowableTransformer instance
+     * @throws IllegalArgumentException if maxConcurrency &lt;= 0
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.NONE)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T> FlowableTransformer<T, T> expandConcurrent(Function<? super T, ? extends Publisher<? extends T>> expander, int maxConcurrency) {
+        return expandConcurrent(expander, maxConcurrency, Flowable.bufferSize(), Flowable.bufferSize());
+    }
+
+    /**
+     * Emits elements from the source and then expands them into another layer of Publishers, emitting
+     * those items recursively until all Publishers become empty, running up to the given number of
+     * expansions (the source included) at the same time.
+     * <p>
+     * The items are emitted in the order they arrive from the running Publishers; items are expanded
+     * in the order they were emitted, which is roughly breadth-first.
+     * <p>
+     * Once the number of emitted but not yet expanded items reaches {@code frontierSize}, the running
+     * Publishers are not requested from anymore, except when all of them have become idle,
+     * in which case the oldest is allowed to continue so an expansion slot eventually frees up.
+     * @param <T> the value type
+     * @param expander the function that converts an element into a Publisher to be expanded
+     * @param maxConcurrency the maximum number of Publishers subscribed to at once
+     * @param frontierSize the number of emitted but not yet expanded items at which requesting
+     *                     more from the running Publishers stops
+     * @param prefetch the number of items to prefetch from each running Publisher
+     * @return the new FlowableTransformer instance
+     * @throws IllegalArgumentException if maxConcurrency, frontierSize or prefetch is non-positive
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.NONE)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T> FlowableTransformer<T, T> expandConcurrent(Function<? super T, ? extends Publisher<? extends T>> expander,
+            int maxConcurrency, int frontierSize, int prefetch) {
+        ObjectHelper.requireNonNull(expander, "expander is null");
+        ObjectHelper.verifyPositive(maxConcurrency, "maxConcurrency");
+        ObjectHelper.verifyPositive(frontierSize, "frontierSize");
+        ObjectHelper.verifyPositive(prefetch, "prefetch");
+        return new FlowableExpandConcurrent<T>(null, expander, maxConcurrency, frontierSize, prefetch, null);
+    }
+
+    /**
+     * Emits elements from the source and then expands them into another layer of Publishers, emitting
+     * those items recursively until all Publishers become empty, running up to the given number of
+     * expansions (the source included) at the same time and skipping items already visited.
+     * <p>
+     * An item is emitted and expanded only if adding it to the per-subscriber Collection,
+     * for example a {@code HashSet}, returns true; the Collection is accessed by one thread at a time.
+     * <p>
+     * Once the number of emitted but not yet expanded items reaches {@code frontierSize}, the running
+     * Publishers are not requested from anymore, except when all of them have become idle,
+     * in which case the oldest is allowed to continue so an expansion slot eventually frees up.
+     * @param <T> the value type
+     * @param expander the function that converts an element into a Publisher to be expanded
+     * @param maxConcurrency the maximum number of Publishers subscribed to at once
+     * @param frontierSize the number of emitted but not yet expanded items at which requesting
+     *                     more from the running Publishers stops
+     * @param prefetch the number of items to prefetch from each running Publisher
+     * @param visitedSupplier the callback returning the Collection of visited items for each subscriber
+     * @return the new FlowableTransformer instance
+     * @throws IllegalArgumentException if maxConcurrency, frontierSize or prefetch is non-positive
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.NONE)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T> FlowableTransformer<T, T> expandConcurrent(Function<? super T, ? extends Publisher<? extends T>> expander,
+            int maxConcurrency, int frontierSize, int prefetch, Callable<? extends Collection<? super T>> visitedSupplier) {
+        ObjectHelper.requireNonNull(expander, "expander is null");
+        ObjectHelper.verifyPositive(maxConcurrency, "maxConcurrency");
+        ObjectHelper.verifyPositive(frontierSize, "frontierSize");
+        ObjectHelper.verifyPositive(prefetch, "prefetch");
+        ObjectHelper.requireNonNull(visitedSupplier, "visitedSupplier is null");
+        return new FlowableExpandConcurrent<T>(null, expander, maxConcurrency, frontierSize, prefetch, visitedSupplier);
+    }
+
     /**
      * Maps each upstream value into a single value provided by a generated Publisher for that
      * input value to be emitted to downstream.
@@ -983,10 +1659,116 @@ public final class FlowableTransformers {
      * @since 0.16.2
      */
     public static <T, U, R> FlowableTransformer<T, R> mapAsync(Function<? super T, ? extends Publisher<? extends U>> mapper, BiFunction<? super T, ? super U, ? extends R> combiner, int bufferSize) {
-        ObjectHelper.requireNonNull("mapper", "mapper is null");
-        ObjectHelper.requireNonNull("combiner", "combiner is null");
+        return mapAsync(mapper, combiner, bufferSize, 1);
+    }
+
+    /**
+     * Maps each upstream value into a single value provided by a generated Publisher for that
+     * input value to be emitted to downstream, running up to the given number of inner
+     * Publishers at once.
+     * <p>Only the first item emitted by the inner Publisher's are considered. If
+     * the inner Publisher is empty, no resulting item is generated for that input value.
+     * <p>The results are emitted in the order of the original upstream values; results of
+     * inner Publishers that finish ahead of an earlier one are buffered until its turn comes up.
+     * @param <T> the input value type
+     * @param <R> the result value type
+     * @param mapper the function that receives the upstream value and returns a Publisher
+     * that should emit a single value to be emitted.
+     * @param bufferSize the internal buffer size and prefetch amount to buffer items from
+     * upstream until their turn comes up
+     * @param maxConcurrency the maximum number of inner Publishers running at once,
+     * at most {@code bufferSize} of them are in flight
+     * @return the new FlowableTransformer instance
+     * @since 0.17.9
+     */
+    public static <T, R> FlowableTransformer<T, R> mapAsync(Function<? super T, ? extends Publisher<? extends R>> mapper, int bufferSize, int maxConcurrency) {
+        return mapAsync(mapper, BiFunctionSecondIdentity.<T, R>instance(), bufferSize, maxConcurrency);
+    }
+
+    /**
+     * Maps each upstream value into a single value provided by a generated Publisher for that
+     * input value and combines the original and generated single value into a final result item
+     * to be emitted to downstream, running up to the given number of inner Publishers at once.
+     * <p>Only the first item emitted by the inner Publisher's are considered. If
+     * the inner Publisher is empty, no resulting item is generated for that input value.
+     * <p>The results are emitted in the order of the original upstream values; results of
+     * inner Publishers that finish ahead of an earlier one are buffered until its turn comes up.
+     * @param <T> the input value type
+     * @param <U> the intermediate value type
+     * @param <R> the result value type
+     * @param mapper the function that receives the upstream value and returns a Publisher
+     * that should emit a single value to be emitted.
+     * @param combiner the bi-function that receives the original upstream value and the
+     * single value emitted by the Publisher and returns a result value to be emitted to
+     * downstream.
+     * @param bufferSize the internal buffer size and prefetch amount to buffer items from
+     * upstream until their turn comes up
+     * @param maxConcurrency the maximum number of inner Publishers running at once,
+     * at most {@code bufferSize} of them are in flight
+     * @return the new FlowableTransformer instance
+     * @since 0.17.9
+     */
+    public static <T, U, R> FlowableTransformer<T, R> mapAsync(Function<? super T, ? extends Publisher<? extends U>> mapper, BiFunction<? super T, ? super U, ? extends R> combiner, int bufferSize, int maxConcurrency) {
+        ObjectHelper.requireNonNull(mapper, "mapper is null");
+        ObjectHelper.requireNonNull(combiner, "combiner is null");
         ObjectHelper.verifyPositive(bufferSize, "bufferSize");
-        return new FlowableMapAsync<T, U, R>(null, mapper, combiner, bufferSize);
+        ObjectHelper.verifyPositive(maxConcurrency, "maxConcurrency");
+        return new FlowableMapAsync<T, U, R>(null, mapper, combiner, bufferSize, maxConcurrency, true);
+    }
+
+    /**
+     * Maps each upstream value into a single value provided by a generated Publisher for that
+     * input value to be emitted to downstream as soon as it is available, running up to the
+     * given number of inner Publishers at once.
+     * <p>Only the first item emitted by the inner Publisher's are considered. If
+     * the inner Publisher is empty, no resulting item is generated for that input value.
+     * <p>The results are emitted in the order the inner Publishers produce them, which may
+     * differ from the order of the original upstream values.
+     * @param <T> the input value type
+     * @param <R> the result value type
+     * @param mapper the function that receives the upstream value and returns a Publisher
+     * that should emit a single value to be emitted.
+     * @param bufferSize the internal buffer size and prefetch amount to buffer items from
+     * upstream until an inner Publisher can be started for them
+     * @param maxConcurrency the maximum number of inner Publishers running at once,
+     * at most {@code bufferSize} of them are in flight
+     * @return the new FlowableTransformer instance
+     * @since 0.17.9
+     */
+    public static <T, R> FlowableTransformer<T, R> mapAsyncUnordered(Function<? super T, ? extends Publisher<? extends R>> mapper, int bufferSize, int maxConcurrency) {
+        return mapAsyncUnordered(mapper, BiFunctionSecondIdentity.<T, R>instance(), bufferSize, maxConcurrency);
+    }
+
+    /**
+     * Maps each upstream value into a single value provided by a generated Publisher for that
+     * input value and combines the original and generated single value into a final result item
+     * to be emitted to downstream as soon as it is available, running up to the given number
+     * of inner Publishers at once.
+     * <p>Only the first item emitted by the inner Publisher's are considered. If
+     * the inner Publisher is empty, no resulting item is generated for that input value.
+     * <p>The results are emitted in the order the inner Publishers produce them, which may
+     * differ from the order of the original upstream values.
+     * @param <T> the input value type
+     * @param <U> the intermediate value type
+     * @param <R> the result value type
+     * @param mapper the function that receives the upstream value and returns a Publisher
+     * that should emit a single value to be emitted.
+     * @param combiner the bi-function that receives the original upstream value and the
+     * single value emitted by the Publisher and returns a result value to be emitted to
+     * downstream.
+     * @param bufferSize the internal buffer size and prefetch amount to buffer items from
+     * upstream until an inner Publisher can be started for them
+     * @param maxConcurrency the maximum number of inner Publishers running at once,
+     * at most {@code bufferSize} of them are in flight
+     * @return the new FlowableTransformer instance
+     * @since 0.17.9
+     */
+    public static <T, U, R> FlowableTransformer<T, R> mapAsyncUnordered(Function<? super T, ? extends Publisher<? extends U>> mapper, BiFunction<? super T, ? super U, ? extends R> combiner, int bufferSize, int maxConcurrency) {
+        ObjectHelper.requireNonNull(mapper, "mapper is null");
+        ObjectHelper.requireNonNull(combiner, "combiner is null");
+        ObjectHelper.verifyPositive(bufferSize, "bufferSize");
+        ObjectHelper.verifyPositive(maxConcurrency, "maxConcurrency");
+        return new FlowableMapAsync<T, U, R>(null, mapper, combiner, bufferSize, maxConcurrency, false);
     }
 
     /**
@@ -1020,9 +1802,57 @@ public final class FlowableTransformers {
      * @since 0.16.2
      */
     public static <T> FlowableTransformer<T, T> filterAsync(Function<? super T, ? extends Publisher<Boolean>> asyncPredicate, int bufferSize) {
-        ObjectHelper.requireNonNull("combiner", "combiner is null");
+        return filterAsync(asyncPredicate, bufferSize, 1);
+    }
+
+    /**
+     * Maps each upstream value into a single {@code true} or {@code false} value provided by a generated Publisher for that
+     * input value and emits the input value if the inner Publisher returned {@code true}, running up to the
+     * given number of inner Publishers at once.
+     * <p>Only the first item emitted by the inner Publisher's are considered. If
+     * the inner Publisher is empty, no resulting item is generated for that input value.
+     * <p>The passing values are emitted in their original order; results of inner Publishers that
+     * finish ahead of an earlier one are buffered until its turn comes up.
+     * @param <T> the input and output value type
+     * @param asyncPredicate the function that receives the upstream value and returns
+     * a Publisher that should emit a single true to indicate the original value should pass.
+     * @param bufferSize the internal buffer size and prefetch amount to buffer items from
+     * upstream until their turn comes up
+     * @param maxConcurrency the maximum number of inner Publishers running at once,
+     * at most {@code bufferSize} of them are in flight
+     * @return the new FlowableTransformer instance
+     * @since 0.17.9
+     */
+    public static <T> FlowableTransformer<T, T> filterAsync(Function<? super T, ? extends Publisher<Boolean>> asyncPredicate, int bufferSize, int maxConcurrency) {
+        ObjectHelper.requireNonNull(asyncPredicate, "asyncPredicate is null");
+        ObjectHelper.verifyPositive(bufferSize, "bufferSize");
+        ObjectHelper.verifyPositive(maxConcurrency, "maxConcurrency");
+        return new FlowableFilterAsync<T>(null, asyncPredicate, bufferSize, maxConcurrency, true);
+    }
+
+    /**
+     * Maps each upstream value into a single {@code true} or {@code false} value provided by a generated Publisher for that
+     * input value and emits the input value as soon as the inner Publisher returned {@code true}, running up to the
+     * given number of inner Publishers at once.
+     * <p>Only the first item emitted by the inner Publisher's are considered. If
+     * the inner Publisher is empty, no resulting item is generated for that input value.
+     * <p>The passing values are emitted in the order their inner Publishers respond, which may
+     * differ from their original order.
+     * @param <T> the input and output value type
+     * @param asyncPredicate the function that receives the upstream value and returns
+     * a Publisher that should emit a single true to indicate the original value should pass.
+     * @param bufferSize the internal buffer size and prefetch amount to buffer items from
+     * upstream until an inner Publisher can be started for them
+     * @param maxConcurrency the maximum number of inner Publishers running at once,
+     * at most {@code bufferSize} of them are in flight
+     * @return the new FlowableTransformer instance
+     * @since 0.17.9
+     */
+    public static <T> FlowableTransformer<T, T> filterAsyncUnordered(Function<? super T, ? extends Publisher<Boolean>> asyncPredicate, int bufferSize, int maxConcurrency) {
+        ObjectHelper.requireNonNull(asyncPredicate, "asyncPredicate is null");
         ObjectHelper.verifyPositive(bufferSize, "bufferSize");
-        return new FlowableFilterAsync<T>(null, asyncPredicate, bufferSize);
+        ObjectHelper.verifyPositive(maxConcurrency, "maxConcurrency");
+        return new FlowableFilterAsync<T>(null, asyncPredicate, bufferSize, maxConcurrency, false);
     }
 
 
@@ -1153,7 +1983,35 @@ public final class FlowableTransformers {
         ObjectHelper.requireNonNull(containerSupplier, "containerSupplier is null");
         ObjectHelper.requireNonNull(coalescer, "coalescer is null");
         ObjectHelper.verifyPositive(bufferSize, "bufferSize");
-        return new FlowableCoalesce<T, R>(null, containerSupplier, coalescer, bufferSize);
+        return new FlowableCoalesce<T, R>(null, containerSupplier, coalescer, bufferSize, Functions.emptyConsumer());
+    }
+
+    /**
+     * Coalesces items from upstream into a container via a consumer and emits the container if
+     * there is a downstream demand, otherwise it keeps coalescing into the same container; the
+     * containers are handed to a recycler once consumed.
+     * <p>
+     * The {@code recycler} is called with each container after the downstream's {@code onNext} returned
+     * and with the discarded container upon cancellation or failure. Together with an
+     * {@link hu.akarnokd.rxjava2.util.ObjectPool ObjectPool} as the {@code containerSupplier}, this allows
+     * reusing containers when the consumer processes them synchronously; it should not be used if the
+     * consumer keeps the container beyond {@code onNext}, for example, via {@code observeOn}.
+     * @param <T> the upstream value type
+     * @param <R> the container and result type
+     * @param containerSupplier the function called and should return a fresh or reused empty container to coalesce into
+     * @param coalescer the consumer receiving the current container and upstream item to handle
+     * @param bufferSize the island size of the internal unbounded buffer
+     * @param recycler the consumer called with each container once the downstream consumed or the operator discarded it
+     * @return the new FlowableTransformer instance
+     * @since 0.17.9
+     */
+    public static <T, R> FlowableTransformer<T, R> coalesce(Callable<R> containerSupplier, BiConsumer<R, T> coalescer, int bufferSize,
+            Consumer<? super R> recycler) {
+        ObjectHelper.requireNonNull(containerSupplier, "containerSupplier is null");
+        ObjectHelper.requireNonNull(coalescer, "coalescer is null");
+        ObjectHelper.verifyPositive(bufferSize, "bufferSize");
+        ObjectHelper.requireNonNull(recycler, "recycler is null");
+        return new FlowableCoalesce<T, R>(null, containerSupplier, coalescer, bufferSize, recycler);
     }
 
     /**
@@ -1256,4 +2114,280 @@ public final class FlowableTransformers {
     public static <T> FlowableTransformer<T, Flowable<T>> windowSplit(Predicate<? super T> predicate, int bufferSize) {
         return new FlowableWindowPredicate<T>(null, predicate, FlowableWindowPredicate.Mode.SPLIT, bufferSize);
     }
+
+    /**
+     * Emits elements into a Flowable window while the given predicate returns true; if the
+     * predicate returns false for an item, a new window is started with the specified item,
+     * when the current window reaches the given size or when it has been open for the given
+     * amount of time.
+     * <p>
+     * A window is opened by the first item going into it, therefore empty windows are never emitted.
+     * @param <T> the source value type
+     * @param predicate the predicate receiving the current value and if returns false,
+     *                  a new window is started with the specified item
+     * @param maxSize the maximum number of items in a window, positive
+     * @param maxTime the maximum time a window stays open after receiving its first item, positive
+     * @param unit the time unit
+     * @param scheduler the scheduler to time out the windows on
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.CUSTOM)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T> FlowableTransformer<T, Flowable<T>> windowWhile(Predicate<? super T> predicate, int maxSize,
+            long maxTime, TimeUnit unit, Scheduler scheduler) {
+        ObjectHelper.requireNonNull(predicate, "predicate is null");
+        ObjectHelper.verifyPositive(maxSize, "maxSize");
+        ObjectHelper.verifyPositive(maxTime, "maxTime");
+        ObjectHelper.requireNonNull(unit, "unit is null");
+        ObjectHelper.requireNonNull(scheduler, "scheduler is null");
+        return new FlowableWindowPredicateBounded<T>(null, predicate, FlowableWindowPredicate.Mode.BEFORE, Flowable.bufferSize(),
+                maxSize, maxTime, unit, scheduler);
+    }
+
+    /**
+     * Emits elements into a Flowable window until the given predicate returns true at which
+     * point the current window is completed with the specified item,
+     * when the current window reaches the given size or when it has been open for the given
+     * amount of time.
+     * <p>
+     * A window is opened by the first item going into it, therefore empty windows are never emitted.
+     * @param <T> the source value type
+     * @param predicate the predicate receiving the current item and if returns true,
+     *                  the current window is completed with the specified item
+     * @param maxSize the maximum number of items in a window, positive
+     * @param maxTime the maximum time a window stays open after receiving its first item, positive
+     * @param unit the time unit
+     * @param scheduler the scheduler to time out the windows on
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.CUSTOM)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T> FlowableTransformer<T, Flowable<T>> windowUntil(Predicate<? super T> predicate, int maxSize,
+            long maxTime, TimeUnit unit, Scheduler scheduler) {
+        ObjectHelper.requireNonNull(predicate, "predicate is null");
+        ObjectHelper.verifyPositive(maxSize, "maxSize");
+        ObjectHelper.verifyPositive(maxTime, "maxTime");
+        ObjectHelper.requireNonNull(unit, "unit is null");
+        ObjectHelper.requireNonNull(scheduler, "scheduler is null");
+        return new FlowableWindowPredicateBounded<T>(null, predicate, FlowableWindowPredicate.Mode.AFTER, Flowable.bufferSize(),
+                maxSize, maxTime, unit, scheduler);
+    }
+
+    /**
+     * Emits elements into a Flowable window until the given predicate returns true at which
+     * point the current window is completed and the specified item is dropped,
+     * when the current window reaches the given size or when it has been open for the given
+     * amount of time.
+     * <p>
+     * A window is opened by the first item going into it, therefore empty windows are never emitted.
+     * @param <T> the source value type
+     * @param predicate the predicate receiving the current item and if returns true,
+     *                  the current window is completed and the item is dropped
+     * @param maxSize the maximum number of items in a window, positive
+     * @param maxTime the maximum time a window stays open after receiving its first item, positive
+     * @param unit the time unit
+     * @param scheduler the scheduler to time out the windows on
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.CUSTOM)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T> FlowableTransformer<T, Flowable<T>> windowSplit(Predicate<? super T> predicate, int maxSize,
+            long maxTime, TimeUnit unit, Scheduler scheduler) {
+        ObjectHelper.requireNonNull(predicate, "predicate is null");
+        ObjectHelper.verifyPositive(maxSize, "maxSize");
+        ObjectHelper.verifyPositive(maxTime, "maxTime");
+        ObjectHelper.requireNonNull(unit, "unit is null");
+        ObjectHelper.requireNonNull(scheduler, "scheduler is null");
+        return new FlowableWindowPredicateBounded<T>(null, predicate, FlowableWindowPredicate.Mode.SPLIT, Flowable.bufferSize(),
+                maxSize, maxTime, unit, scheduler);
+    }
+
+    /**
+     * Emits elements as Iterable chunks while the given predicate returns true; if the
+     * predicate returns false for an item, a new chunk is started with the specified item,
+     * or when the current chunk reaches the given size.
+     * <p>
+     * This is a lightweight alternative to {@code windowWhile} for a downstream that consumes
+     * each chunk synchronously: the chunks are Lists drawn from a pool and are cleared and
+     * reused after the downstream's {@code onNext} returned, therefore they must not be
+     * retained. Empty chunks are never emitted.
+     * @param <T> the source value type
+     * @param predicate the predicate receiving the current value and if returns false,
+     *                  a new chunk is started with the specified item
+     * @param maxSize the maximum number of items in a chunk, positive
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.NONE)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T> FlowableTransformer<T, Iterable<T>> chunkWhile(Predicate<? super T> predicate, int maxSize) {
+        ObjectHelper.requireNonNull(predicate, "predicate is null");
+        ObjectHelper.verifyPositive(maxSize, "maxSize");
+        return chunk(predicate, FlowableBufferPredicate.Mode.BEFORE, maxSize, 0L, null, null);
+    }
+
+    /**
+     * Emits elements as Iterable chunks while the given predicate returns true; if the
+     * predicate returns false for an item, a new chunk is started with the specified item,
+     * when the current chunk reaches the given size or when it has been open for the given
+     * amount of time.
+     * <p>
+     * This is a lightweight alternative to {@code windowWhile} for a downstream that consumes
+     * each chunk synchronously: the chunks are Lists drawn from a pool and are cleared and
+     * reused after the downstream's {@code onNext} returned, therefore they must not be
+     * retained. Empty chunks are never emitted.
+     * @param <T> the source value type
+     * @param predicate the predicate receiving the current value and if returns false,
+     *                  a new chunk is started with the specified item
+     * @param maxSize the maximum number of items in a chunk, positive
+     * @param maxTime the maximum time a chunk stays open after receiving its first item, positive
+     * @param unit the time unit
+     * @param scheduler the scheduler to time out the chunks on
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.CUSTOM)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T> FlowableTransformer<T, Iterable<T>> chunkWhile(Predicate<? super T> predicate, int maxSize,
+            long maxTime, TimeUnit unit, Scheduler scheduler) {
+        ObjectHelper.requireNonNull(predicate, "predicate is null");
+        ObjectHelper.verifyPositive(maxSize, "maxSize");
+        ObjectHelper.verifyPositive(maxTime, "maxTime");
+        ObjectHelper.requireNonNull(unit, "unit is null");
+        ObjectHelper.requireNonNull(scheduler, "scheduler is null");
+        return chunk(predicate, FlowableBufferPredicate.Mode.BEFORE, maxSize, maxTime, unit, scheduler);
+    }
+
+    /**
+     * Emits elements as Iterable chunks until the given predicate returns true at which
+     * point the current chunk is completed with the specified item,
+     * or when the current chunk reaches the given size.
+     * <p>
+     * This is a lightweight alternative to {@code windowUntil} for a downstream that consumes
+     * each chunk synchronously: the chunks are Lists drawn from a pool and are cleared and
+     * reused after the downstream's {@code onNext} returned, therefore they must not be
+     * retained. Empty chunks are never emitted.
+     * @param <T> the source value type
+     * @param predicate the predicate receiving the current item and if returns true,
+     *                  the current chunk is completed with the specified item
+     * @param maxSize the maximum number of items in a chunk, positive
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.NONE)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T> FlowableTransformer<T, Iterable<T>> chunkUntil(Predicate<? super T> predicate, int maxSize) {
+        ObjectHelper.requireNonNull(predicate, "predicate is null");
+        ObjectHelper.verifyPositive(maxSize, "maxSize");
+        return chunk(predicate, FlowableBufferPredicate.Mode.AFTER, maxSize, 0L, null, null);
+    }
+
+    /**
+     * Emits elements as Iterable chunks until the given predicate returns true at which
+     * point the current chunk is completed with the specified item,
+     * when the current chunk reaches the given size or when it has been open for the given
+     * amount of time.
+     * <p>
+     * This is a lightweight alternative to {@code windowUntil} for a downstream that consumes
+     * each chunk synchronously: the chunks are Lists drawn from a pool and are cleared and
+     * reused after the downstream's {@code onNext} returned, therefore they must not be
+     * retained. Empty chunks are never emitted.
+     * @param <T> the source value type
+     * @param predicate the predicate receiving the current item and if returns true,
+     *                  the current chunk is completed with the specified item
+     * @param maxSize the maximum number of items in a chunk, positive
+     * @param maxTime the maximum time a chunk stays open after receiving its first item, positive
+     * @param unit the time unit
+     * @param scheduler the scheduler to time out the chunks on
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.CUSTOM)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T> FlowableTransformer<T, Iterable<T>> chunkUntil(Predicate<? super T> predicate, int maxSize,
+            long maxTime, TimeUnit unit, Scheduler scheduler) {
+        ObjectHelper.requireNonNull(predicate, "predicate is null");
+        ObjectHelper.verifyPositive(maxSize, "maxSize");
+        ObjectHelper.verifyPositive(maxTime, "maxTime");
+        ObjectHelper.requireNonNull(unit, "unit is null");
+        ObjectHelper.requireNonNull(scheduler, "scheduler is null");
+        return chunk(predicate, FlowableBufferPredicate.Mode.AFTER, maxSize, maxTime, unit, scheduler);
+    }
+
+    /**
+     * Emits elements as Iterable chunks until the given predicate returns true at which
+     * point the current chunk is completed and the specified item is dropped,
+     * or when the current chunk reaches the given size.
+     * <p>
+     * This is a lightweight alternative to {@code windowSplit} for a downstream that consumes
+     * each chunk synchronously: the chunks are Lists drawn from a pool and are cleared and
+     * reused after the downstream's {@code onNext} returned, therefore they must not be
+     * retained. Empty chunks are never emitted.
+     * @param <T> the source value type
+     * @param predicate the predicate receiving the current item and if returns true,
+     *                  the current chunk is completed and the item is dropped
+     * @param maxSize the maximum number of items in a chunk, positive
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.NONE)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T> FlowableTransformer<T, Iterable<T>> chunkSplit(Predicate<? super T> predicate, int maxSize) {
+        ObjectHelper.requireNonNull(predicate, "predicate is null");
+        ObjectHelper.verifyPositive(maxSize, "maxSize");
+        return chunk(predicate, FlowableBufferPredicate.Mode.SPLIT, maxSize, 0L, null, null);
+    }
+
+    /**
+     * Emits elements as Iterable chunks until the given predicate returns true at which
+     * point the current chunk is completed and the specified item is dropped,
+     * when the current chunk reaches the given size or when it has been open for the given
+     * amount of time.
+     * <p>
+     * This is a lightweight alternative to {@code windowSplit} for a downstream that consumes
+     * each chunk synchronously: the chunks are Lists drawn from a pool and are cleared and
+     * reused after the downstream's {@code onNext} returned, therefore they must not be
+     * retained. Empty chunks are never emitted.
+     * @param <T> the source value type
+     * @param predicate the predicate receiving the current item and if returns true,
+     *                  the current chunk is completed and the item is dropped
+     * @param maxSize the maximum number of items in a chunk, positive
+     * @param maxTime the maximum time a chunk stays open after receiving its first item, positive
+     * @param unit the time unit
+     * @param scheduler the scheduler to time out the chunks on
+     * @return the new FlowableTransformer instance
+     *
+     * @since 0.17.9
+     */
+    @SchedulerSupport(SchedulerSupport.CUSTOM)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T> FlowableTransformer<T, Iterable<T>> chunkSplit(Predicate<? super T> predicate, int maxSize,
+            long maxTime, TimeUnit unit, Scheduler scheduler) {
+        ObjectHelper.requireNonNull(predicate, "predicate is null");
+        ObjectHelper.verifyPositive(maxSize, "maxSize");
+        ObjectHelper.verifyPositive(maxTime, "maxTime");
+        ObjectHelper.requireNonNull(unit, "unit is null");
+        ObjectHelper.requireNonNull(scheduler, "scheduler is null");
+        return chunk(predicate, FlowableBufferPredicate.Mode.SPLIT, maxSize, maxTime, unit, scheduler);
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    static <T> FlowableTransformer<T, Iterable<T>> chunk(Predicate<? super T> predicate, FlowableBufferPredicate.Mode mode,
+            int maxSize, long maxTime, TimeUnit unit, Scheduler scheduler) {
+        ObjectPool<List<T>> pool = FlowableBufferPredicateBounded.chunkPool(maxSize);
+        // a List is an Iterable, the cast only widens the emitted type
+        return (FlowableTransformer)new FlowableBufferPredicateBounded<T, List<T>>(null, predicate, mode,
+                pool, maxSize, maxTime, unit, scheduler, pool);
+    }
 }
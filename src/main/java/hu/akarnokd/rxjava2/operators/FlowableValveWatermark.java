@@ -0,0 +1,328 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.operators;
+
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import hu.akarnokd.rxjava2.functions.ToLongFunction;
+import io.reactivex.*;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.Consumer;
+import io.reactivex.internal.queue.SpscLinkedArrayQueue;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.internal.util.*;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Buffers the main source for the downstream and stops requesting more from it
+ * once the total weight of the buffered items reaches the high watermark, resuming when it
+ * drops to or below the low watermark; the state changes are signalled to a callback so
+ * producers that don't honor backpressure can be throttled as well.
+ *
+ * @param <T> the main source's value type
+ *
+ * @since 0.17.9
+ */
+final class FlowableValveWatermark<T> extends Flowable<T> implements FlowableTransformer<T, T> {
+
+    final Publisher<T> source;
+
+    final long highWatermark;
+
+    final long lowWatermark;
+
+    final ToLongFunction<? super T> weigher;
+
+    final Consumer<? super Boolean> onStateChange;
+
+    final int prefetch;
+
+    FlowableValveWatermark(Publisher<T> source, long highWatermark, long lowWatermark,
+            ToLongFunction<? super T> weigher, Consumer<? super Boolean> onStateChange, int prefetch) {
+        this.source = source;
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+        this.weigher = weigher;
+        this.onStateChange = onStateChange;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super T> s) {
+        source.subscribe(new ValveWatermarkSubscriber<T>(s, highWatermark, lowWatermark, weigher, onStateChange, prefetch));
+    }
+
+    @Override
+    public Publisher<T> apply(Flowable<T> upstream) {
+        return new FlowableValveWatermark<T>(upstream, highWatermark, lowWatermark, weigher, onStateChange, prefetch);
+    }
+
+    static final class ValveWatermarkSubscriber<T>
+    extends AtomicInteger
+    implements FlowableSubscriber<T>, Subscription {
+
+        private static final long serialVersionUID = 5815009212264707318L;
+
+        final Subscriber<? super T> actual;
+
+        final long highWatermark;
+
+        final long lowWatermark;
+
+        final ToLongFunction<? super T> weigher;
+
+        final Consumer<? super Boolean> onStateChange;
+
+        final int prefetch;
+
+        final int limit;
+
+        /** Holds pairs of an item and its weight. */
+        final SpscLinkedArrayQueue<Object> queue;
+
+        /** The total weight of the buffered items. */
+        final AtomicLong weight;
+
+        final AtomicLong requested;
+
+        final AtomicThrowable error;
+
+        Subscription upstream;
+
+        volatile boolean done;
+
+        volatile boolean cancelled;
+
+        long emitted;
+
+        /** The number of items consumed but not yet requested again; accessed by the drain loop only. */
+        long consumed;
+
+        /** The valve is closed; accessed by the drain loop only. */
+        boolean closed;
+
+        ValveWatermarkSubscriber(Subscriber<? super T> actual, long highWatermark, long lowWatermark,
+                ToLongFunction<? super T> weigher, Consumer<? super Boolean> onStateChange, int prefetch) {
+            this.actual = actual;
+            this.highWatermark = highWatermark;
+            this.lowWatermark = lowWatermark;
+            this.weigher = weigher;
+            this.onStateChange = onStateChange;
+            this.prefetch = prefetch;
+            this.limit = prefetch - (prefetch >> 2);
+            this.queue = new SpscLinkedArrayQueue<Object>(Math.min(prefetch, Flowable.bufferSize()));
+            this.weight = new AtomicLong();
+            this.requested = new AtomicLong();
+            this.error = new AtomicThrowable();
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.validate(upstream, s)) {
+                upstream = s;
+
+                actual.onSubscribe(this);
+
+                s.request(prefetch == Integer.MAX_VALUE ? Long.MAX_VALUE : prefetch);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            long w;
+            try {
+                w = weigher.applyAsLong(t);
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                upstream.cancel();
+                onError(ex);
+                return;
+            }
+            weight.addAndGet(w);
+            queue.offer(t, w);
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (error.addThrowable(t)) {
+                done = true;
+                drain();
+            } else {
+                RxJavaPlugins.onError(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            upstream.cancel();
+            if (getAndIncrement() == 0) {
+                queue.clear();
+            }
+        }
+
+        /**
+         * Opens or closes the valve based on the current weight.
+         * @return false if the state change callback crashed
+         */
+        boolean updateState() {
+            long w = weight.get();
+            if (closed) {
+                if (w <= lowWatermark) {
+                    closed = false;
+                    if (!signal(true)) {
+                        return false;
+                    }
+                    long c = consumed;
+                    if (c != 0L && prefetch != Integer.MAX_VALUE) {
+                        consumed = 0L;
+                        upstream.request(c);
+                    }
+                }
+            } else if (w >= highWatermark) {
+                closed = true;
+                return signal(false);
+            }
+            return true;
+        }
+
+        boolean signal(boolean open) {
+            try {
+                onStateChange.accept(open);
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                upstream.cancel();
+                error.addThrowable(ex);
+                return false;
+            }
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            Subscriber<? super T> a = actual;
+            SpscLinkedArrayQueue<Object> q = queue;
+            long e = emitted;
+            long c = consumed;
+            int lim = limit;
+            boolean unbounded = prefetch == Integer.MAX_VALUE;
+
+            for (;;) {
+                long r = requested.get();
+
+                while (e != r) {
+                    if (cancelled) {
+                        q.clear();
+                        return;
+                    }
+
+                    if (error.get() != null) {
+                        q.clear();
+                        a.onError(error.terminate());
+                        return;
+                    }
+
+                    boolean d = done;
+                    T v = (T)q.poll();
+                    boolean empty = v == null;
+
+                    if (d && empty) {
+                        a.onComplete();
+                        return;
+                    }
+
+                    if (empty) {
+                        break;
+                    }
+
+                    weight.addAndGet(-(Long)q.poll());
+
+                    a.onNext(v);
+
+                    e++;
+
+                    if (!unbounded && ++c == lim && !closed) {
+                        c = 0L;
+                        upstream.request(lim);
+                    }
+
+                    consumed = c;
+                    if (!updateState()) {
+                        q.clear();
+                        a.onError(error.terminate());
+                        return;
+                    }
+                    c = consumed;
+                }
+
+                if (e == r) {
+                    if (cancelled) {
+                        q.clear();
+                        return;
+                    }
+
+                    if (error.get() != null) {
+                        q.clear();
+                        a.onError(error.terminate());
+                        return;
+                    }
+
+                    if (done && q.isEmpty()) {
+                        a.onComplete();
+                        return;
+                    }
+                }
+
+                consumed = c;
+                if (!updateState()) {
+                    q.clear();
+                    a.onError(error.terminate());
+                    return;
+                }
+                c = consumed;
+
+                emitted = e;
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+    }
+}
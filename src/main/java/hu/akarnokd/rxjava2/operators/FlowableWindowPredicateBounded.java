@@ -0,0 +1,392 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.operators;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import hu.akarnokd.rxjava2.operators.FlowableWindowPredicate.Mode;
+import io.reactivex.*;
+import io.reactivex.Scheduler.Worker;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.Predicate;
+import io.reactivex.internal.fuseable.SimplePlainQueue;
+import io.reactivex.internal.queue.MpscLinkedQueue;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.processors.UnicastProcessor;
+
+/**
+ * Window based on a predicate like {@link FlowableWindowPredicate} but also complete
+ * the current window if it reaches a maximum size or, if a scheduler is given, when
+ * it has been open for a maximum amount of time.
+ * <p>
+ * A window is opened by the first item going into it, therefore empty windows are never emitted.
+ * The upstream items and the timeouts are serialized through a queue.
+ *
+ * @param <T> the source value type
+ *
+ * @since 0.17.9
+ */
+final class FlowableWindowPredicateBounded<T> extends Flowable<Flowable<T>> implements FlowableTransformer<T, Flowable<T>> {
+
+    final Publisher<T> source;
+
+    final Predicate<? super T> predicate;
+
+    final Mode mode;
+
+    final int bufferSize;
+
+    final int maxSize;
+
+    final long maxTime;
+
+    final TimeUnit unit;
+
+    final Scheduler scheduler;
+
+    FlowableWindowPredicateBounded(Publisher<T> source, Predicate<? super T> predicate, Mode mode,
+            int bufferSize, int maxSize, long maxTime, TimeUnit unit, Scheduler scheduler) {
+        this.source = source;
+        this.predicate = predicate;
+        this.mode = mode;
+        this.bufferSize = bufferSize;
+        this.maxSize = maxSize;
+        this.maxTime = maxTime;
+        this.unit = unit;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super Flowable<T>> s) {
+        Worker worker = scheduler != null ? scheduler.createWorker() : null;
+
+        source.subscribe(new WindowPredicateBoundedSubscriber<T>(s, predicate, mode, bufferSize,
+                maxSize, maxTime, unit, worker));
+    }
+
+    @Override
+    public Publisher<Flowable<T>> apply(Flowable<T> upstream) {
+        return new FlowableWindowPredicateBounded<T>(upstream, predicate, mode, bufferSize,
+                maxSize, maxTime, unit, scheduler);
+    }
+
+    static final class WindowPredicateBoundedSubscriber<T>
+    extends AtomicInteger
+    implements FlowableSubscriber<T>, Subscription, Runnable {
+
+        private static final long serialVersionUID = -4128932936564154924L;
+
+        final Subscriber<? super Flowable<T>> actual;
+
+        final Predicate<? super T> predicate;
+
+        final Mode mode;
+
+        final int bufferSize;
+
+        final int maxSize;
+
+        final long maxTime;
+
+        final TimeUnit unit;
+
+        final Worker worker;
+
+        /** Holds the upstream items and the {@link BoundaryTask}s that fired. */
+        final SimplePlainQueue<Object> queue;
+
+        final AtomicBoolean cancelled;
+
+        /** The main sequence plus the number of active windows; the upstream is cancelled when it reaches zero. */
+        final AtomicInteger active;
+
+        Subscription s;
+
+        volatile boolean done;
+        Throwable error;
+
+        /** The open window; accessed by the drain loop only. */
+        UnicastProcessor<T> window;
+
+        /** The number of items in the open window; accessed by the drain loop only. */
+        int count;
+
+        /** The generation of the open window, used for detecting stale timeouts; accessed by the drain loop only. */
+        long index;
+
+        /** The timeout of the open window; accessed by the drain loop only. */
+        Disposable timer;
+
+        WindowPredicateBoundedSubscriber(Subscriber<? super Flowable<T>> actual,
+                Predicate<? super T> predicate, Mode mode, int bufferSize,
+                int maxSize, long maxTime, TimeUnit unit, Worker worker) {
+            this.actual = actual;
+            this.predicate = predicate;
+            this.mode = mode;
+            this.bufferSize = bufferSize;
+            this.maxSize = maxSize;
+            this.maxTime = maxTime;
+            this.unit = unit;
+            this.worker = worker;
+            this.queue = new MpscLinkedQueue<Object>();
+            this.cancelled = new AtomicBoolean();
+            this.active = new AtomicInteger(1);
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.validate(this.s, s)) {
+                this.s = s;
+                actual.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (!done) {
+                queue.offer(t);
+                drain();
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            // each requested window is matched by an upstream item, items that
+            // don't open a window are replenished one by one in the drain loop
+            s.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled.compareAndSet(false, true)) {
+                run();
+            }
+        }
+
+        @Override
+        public void run() {
+            if (active.decrementAndGet() == 0) {
+                s.cancel();
+                if (worker != null) {
+                    worker.dispose();
+                }
+            }
+        }
+
+        void timeout(BoundaryTask task) {
+            queue.offer(task);
+            drain();
+        }
+
+        /**
+         * Opens and emits a new window unless the main sequence has been cancelled.
+         * @return true if a window has been opened
+         */
+        boolean open() {
+            if (cancelled.get()) {
+                return false;
+            }
+            UnicastProcessor<T> w = UnicastProcessor.<T>create(bufferSize, this);
+            window = w;
+            count = 0;
+            active.getAndIncrement();
+            if (worker != null) {
+                timer = worker.schedule(new BoundaryTask(this, index), maxTime, unit);
+            }
+            actual.onNext(w);
+            return true;
+        }
+
+        void close() {
+            UnicastProcessor<T> w = window;
+            window = null;
+            index++;
+            Disposable d = timer;
+            if (d != null) {
+                timer = null;
+                d.dispose();
+            }
+            w.onComplete();
+        }
+
+        /**
+         * Routes the item into the open window or into a new window.
+         * @param t the item
+         * @param b the predicate's result for the item
+         * @return true if a new window has been opened
+         */
+        boolean add(T t, boolean b) {
+            boolean opened = false;
+            switch (mode) {
+            case AFTER:
+                if (window == null) {
+                    opened = open();
+                    if (!opened) {
+                        return false;
+                    }
+                }
+                window.onNext(t);
+                if (b || ++count >= maxSize) {
+                    close();
+                }
+                break;
+            case BEFORE:
+                if (window != null && !b) {
+                    close();
+                }
+                if (window == null) {
+                    opened = open();
+                    if (!opened) {
+                        return false;
+                    }
+                }
+                window.onNext(t);
+                if (++count >= maxSize) {
+                    close();
+                }
+                break;
+            default:
+                if (b) {
+                    if (window != null) {
+                        close();
+                    }
+                } else {
+                    if (window == null) {
+                        opened = open();
+                        if (!opened) {
+                            return false;
+                        }
+                    }
+                    window.onNext(t);
+                    if (++count >= maxSize) {
+                        close();
+                    }
+                }
+            }
+            return opened;
+        }
+
+        @SuppressWarnings("unchecked")
+        void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            SimplePlainQueue<Object> q = queue;
+
+            for (;;) {
+                for (;;) {
+                    boolean d = done;
+                    Object o = q.poll();
+
+                    if (o == null) {
+                        if (d) {
+                            terminate(error);
+                            return;
+                        }
+                        break;
+                    }
+
+                    if (o instanceof BoundaryTask) {
+                        if (((BoundaryTask)o).index == index && window != null) {
+                            timer = null;
+                            close();
+                        }
+                        continue;
+                    }
+
+                    T t = (T)o;
+
+                    boolean b;
+                    try {
+                        b = predicate.test(t);
+                    } catch (Throwable ex) {
+                        Exceptions.throwIfFatal(ex);
+                        s.cancel();
+                        done = true;
+                        q.clear();
+                        terminate(ex);
+                        return;
+                    }
+
+                    if (!add(t, b)) {
+                        s.request(1);
+                    }
+                }
+
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        void terminate(Throwable ex) {
+            UnicastProcessor<T> w = window;
+            window = null;
+            if (ex != null) {
+                if (w != null) {
+                    w.onError(ex);
+                }
+                actual.onError(ex);
+            } else {
+                if (w != null) {
+                    w.onComplete();
+                }
+                actual.onComplete();
+            }
+            if (worker != null) {
+                worker.dispose();
+            }
+        }
+
+        static final class BoundaryTask implements Runnable {
+
+            final WindowPredicateBoundedSubscriber<?> parent;
+
+            final long index;
+
+            BoundaryTask(WindowPredicateBoundedSubscriber<?> parent, long index) {
+                this.parent = parent;
+                this.index = index;
+            }
+
+            @Override
+            public void run() {
+                parent.timeout(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,403 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.operators;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import io.reactivex.*;
+import io.reactivex.Scheduler.Worker;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.BiFunction;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.internal.util.*;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Keeps the latest value of each source and, once all of them have a value, emits the combination
+ * of them whenever any source changed, but at most once per the given minimum interval.
+ * <p>
+ * The changed sources are recorded in a dirty bitmask which is handed to the combiner along with
+ * the latest values so it can recompute the result incrementally. A source only signals the
+ * emission logic when its dirty bit was clear and no throttle period is in progress, therefore
+ * high-rate sources don't flood the scheduler.
+ * <p>
+ * This operator is lossy; values changing more than once within an emission period are
+ * only seen by their latest value.
+ * @since 0.17.9
+ */
+final class FlowableZipLatestSampled<T, R> extends Flowable<R> {
+
+    final Publisher<? extends T>[] sources;
+
+    final Iterable<? extends Publisher<? extends T>> sourcesIterable;
+
+    final BiFunction<? super Object[], ? super BitSet, ? extends R> combiner;
+
+    final long minIntervalNanos;
+
+    final Scheduler scheduler;
+
+    FlowableZipLatestSampled(Publisher<? extends T>[] sources,
+            Iterable<? extends Publisher<? extends T>> sourcesIterable,
+            BiFunction<? super Object[], ? super BitSet, ? extends R> combiner,
+            long minInterval, TimeUnit unit,
+            Scheduler scheduler) {
+        this.sources = sources;
+        this.sourcesIterable = sourcesIterable;
+        this.combiner = combiner;
+        this.minIntervalNanos = unit.toNanos(minInterval);
+        this.scheduler = scheduler;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected void subscribeActual(Subscriber<? super R> s) {
+        Publisher<? extends T>[] srcs = sources;
+        int n;
+        if (srcs == null) {
+            srcs = new Publisher[8];
+            n = 0;
+            for (Publisher<? extends T> p : sourcesIterable) {
+                if (n == srcs.length) {
+                    srcs = Arrays.copyOf(srcs, n + (n >> 1));
+                }
+                srcs[n++] = p;
+            }
+        } else {
+            n = srcs.length;
+        }
+
+        if (n == 0) {
+            Flowable.<R>empty().observeOn(scheduler).subscribe(s);
+        } else {
+            SampledCoordinator<T, R> zc = new SampledCoordinator<T, R>(s, n, scheduler.createWorker(), combiner, minIntervalNanos);
+            s.onSubscribe(zc);
+
+            zc.subscribe(srcs, n);
+        }
+    }
+
+    static final class SampledCoordinator<T, R> extends AtomicReferenceArray<T> implements Subscription, Runnable {
+
+        private static final long serialVersionUID = 2939380306519464469L;
+
+        final Subscriber<? super R> actual;
+
+        final InnerSubscriber<T>[] subscribers;
+
+        final AtomicInteger wip;
+
+        final AtomicLong requested;
+
+        final Worker worker;
+
+        final AtomicThrowable errors;
+
+        final BiFunction<? super Object[], ? super BitSet, ? extends R> combiner;
+
+        /** One bit per source, set if the source has a value not yet seen by the combiner. */
+        final AtomicLongArray dirty;
+
+        final long minIntervalNanos;
+
+        final Runnable timeout;
+
+        volatile boolean cancelled;
+
+        /** Set while waiting for the end of the current emission period; written only by the worker. */
+        volatile boolean throttled;
+
+        long emitted;
+
+        long nextEmission;
+
+        @SuppressWarnings("unchecked")
+        SampledCoordinator(Subscriber<? super R> actual, int n, Worker worker,
+                BiFunction<? super Object[], ? super BitSet, ? extends R> combiner, long minIntervalNanos) {
+            super(n);
+            this.actual = actual;
+            this.subscribers = new InnerSubscriber[n];
+            this.wip = new AtomicInteger();
+            this.requested = new AtomicLong();
+            this.errors = new AtomicThrowable();
+            this.worker = worker;
+            this.dirty = new AtomicLongArray((n + 63) >> 6);
+            this.minIntervalNanos = minIntervalNanos;
+            this.nextEmission = Long.MIN_VALUE;
+            this.timeout = new Runnable() {
+                @Override
+                public void run() {
+                    throttled = false;
+                    drain();
+                }
+            };
+            for (int i = 0; i < n; i++) {
+                subscribers[i] = new InnerSubscriber<T>(this, i);
+            }
+            this.combiner = combiner;
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            cancelAll();
+            worker.dispose();
+            if (wip.getAndIncrement() == 0) {
+                clear();
+            }
+        }
+
+        void cancelAll() {
+            for (InnerSubscriber<?> inner : subscribers) {
+                inner.cancel();
+            }
+        }
+
+        void clear() {
+            int n = length();
+            for (int i = 0; i < n; i++) {
+                lazySet(i, null);
+            }
+        }
+
+        /**
+         * Marks the source dirty.
+         * @param index the source index
+         * @return true if the source was clean before
+         */
+        boolean markDirty(int index) {
+            AtomicLongArray d = dirty;
+            int w = index >> 6;
+            long bit = 1L << (index & 63);
+            for (;;) {
+                long c = d.get(w);
+                if ((c & bit) != 0L) {
+                    return false;
+                }
+                if (d.compareAndSet(w, c, c | bit)) {
+                    return true;
+                }
+            }
+        }
+
+        boolean isDirty() {
+            AtomicLongArray d = dirty;
+            int n = d.length();
+            for (int i = 0; i < n; i++) {
+                if (d.get(i) != 0L) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        BitSet takeDirty() {
+            AtomicLongArray d = dirty;
+            int n = d.length();
+            BitSet result = new BitSet(length());
+            for (int i = 0; i < n; i++) {
+                long bits = d.getAndSet(i, 0L);
+                while (bits != 0L) {
+                    result.set((i << 6) + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+            return result;
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() == 0) {
+                worker.schedule(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            InnerSubscriber<T>[] subs = subscribers;
+            int n = subs.length;
+            Subscriber<? super R> a = actual;
+
+            for (;;) {
+                if (cancelled) {
+                    clear();
+                    return;
+                }
+
+                if (errors.get() != null) {
+                    cancelled = true;
+                    cancelAll();
+                    clear();
+                    a.onError(errors.terminate());
+                    worker.dispose();
+                    return;
+                }
+
+                boolean allDone = true;
+                boolean someEmpty = false;
+
+                for (int i = 0; i < n; i++) {
+                    boolean d = subs[i].done;
+                    if (get(i) == null) {
+                        if (d) {
+                            complete(a);
+                            return;
+                        }
+                        someEmpty = true;
+                    }
+                    if (!d) {
+                        allDone = false;
+                    }
+                }
+
+                if (!someEmpty) {
+                    if (isDirty()) {
+                        if (emitted != requested.get()) {
+                            long now = worker.now(TimeUnit.NANOSECONDS);
+                            // the last changes are emitted without waiting for the period to end
+                            if (allDone || now >= nextEmission) {
+                                BitSet changed = takeDirty();
+                                Object[] array = new Object[n];
+                                for (int i = 0; i < n; i++) {
+                                    array[i] = get(i);
+                                }
+
+                                R v;
+
+                                try {
+                                    v = ObjectHelper.requireNonNull(combiner.apply(array, changed), "The combiner returned a null value");
+                                } catch (Throwable ex) {
+                                    Exceptions.throwIfFatal(ex);
+                                    errors.addThrowable(ex);
+                                    cancelled = true;
+                                    cancelAll();
+                                    clear();
+                                    a.onError(errors.terminate());
+                                    worker.dispose();
+                                    return;
+                                }
+
+                                a.onNext(v);
+
+                                emitted++;
+                                nextEmission = now + minIntervalNanos;
+                                continue;
+                            }
+                            if (!throttled) {
+                                throttled = true;
+                                worker.schedule(timeout, nextEmission - now, TimeUnit.NANOSECONDS);
+                            }
+                        }
+                    } else if (allDone) {
+                        complete(a);
+                        return;
+                    }
+                }
+
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        void complete(Subscriber<? super R> a) {
+            cancelled = true;
+            cancelAll();
+            clear();
+            a.onComplete();
+            worker.dispose();
+        }
+
+        void subscribe(Publisher<? extends T>[] sources, int n) {
+            for (int i = 0; i < n; i++) {
+                if (cancelled) {
+                    return;
+                }
+                sources[i].subscribe(subscribers[i]);
+            }
+        }
+
+        static final class InnerSubscriber<T> extends AtomicReference<Subscription> implements FlowableSubscriber<T> {
+
+            private static final long serialVersionUID = 6470286413451302407L;
+
+            final SampledCoordinator<T, ?> parent;
+
+            final int index;
+
+            volatile boolean done;
+
+            InnerSubscriber(SampledCoordinator<T, ?> parent, int index) {
+                this.index = index;
+                this.parent = parent;
+            }
+
+            @Override
+            public void onSubscribe(Subscription s) {
+                if (SubscriptionHelper.setOnce(this, s)) {
+                    s.request(Long.MAX_VALUE);
+                }
+            }
+
+            @Override
+            public void onNext(T t) {
+                SampledCoordinator<T, ?> p = parent;
+                p.lazySet(index, t);
+                if (p.markDirty(index) && !p.throttled) {
+                    p.drain();
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                SampledCoordinator<T, ?> p = parent;
+                if (p.errors.addThrowable(t)) {
+                    lazySet(SubscriptionHelper.CANCELLED);
+                    done = true;
+                    p.drain();
+                } else {
+                    RxJavaPlugins.onError(t);
+                }
+            }
+
+            @Override
+            public void onComplete() {
+                lazySet(SubscriptionHelper.CANCELLED);
+                done = true;
+                parent.drain();
+            }
+
+            void cancel() {
+                SubscriptionHelper.cancel(this);
+            }
+        }
+    }
+}
@@ -16,7 +16,7 @@
 
 package hu.akarnokd.rxjava2.operators;
 
-import java.util.Comparator;
+import java.util.*;
 import java.util.concurrent.*;
 
 import org.reactivestreams.Publisher;
@@ -826,4 +826,177 @@ public final class Flowables {
                 new Publisher[] { source1, source2, source3, source4 }, null,
                 Functions.toFunction(combiner), scheduler));
     }
+
+    /**
+     * Combines the latest values of the source Publishers via a combiner function whenever any of them
+     * changed, but at most once per the given minimum interval.
+     * <p>
+     * Once all sources have produced a value, the combiner receives the array of the latest values
+     * (including those that didn't change) and the set of source indexes that changed since the previous
+     * combination, allowing it to recompute its result incrementally. Changes arriving within an
+     * interval are coalesced and the sources don't signal the emission logic again until it consumed
+     * their previous change, therefore many high-rate sources don't flood the {@link Scheduler}.
+     * <p>
+     * If any of the sources completes without a value, the other sources are cancelled and the sequence
+     * completes. Otherwise, the sequence completes when all sources completed and the last changes got
+     * emitted, without waiting for the current interval to end. Errors are emitted immediately.
+     * <dl>
+     *  <dt><b>Backpressure:</b></dt>
+     *  <dd>The operator honors the backpressure of the downstream and consumes
+     *  the source Publishers in an unbounded manner, keeping only their latest values.</dd>
+     *  <dt><b>Scheduler:</b></dt>
+     *  <dd>The operator combines and emits the items on the {@link Scheduler} provided, which also times the intervals.</dd>
+     * </dl>
+     *
+     * @param <T> the common source value type
+     * @param <R> the result type
+     * @param combiner the function receiving the latest values of the sources and the indexes of the
+     *                 sources that changed since the last call and returns a value to be emitted to the downstream.
+     * @param minInterval the minimum time between two combinations, zero for no throttling
+     * @param unit the time unit of the interval
+     * @param scheduler the Scheduler to use for timing, emitting items and terminal signals
+     * @param sources the array of source Publishers to combine
+     * @return the new Flowable instance.
+     * @since 0.17.9
+     */
+    @BackpressureSupport(BackpressureKind.UNBOUNDED_IN)
+    @SchedulerSupport(SchedulerSupport.CUSTOM)
+    public static <T, R> Flowable<R> zipLatestSampled(BiFunction<? super Object[], ? super BitSet, ? extends R> combiner,
+            long minInterval, TimeUnit unit, Scheduler scheduler, Publisher<? extends T>... sources) {
+        ObjectHelper.requireNonNull(sources, "sources is null");
+        ObjectHelper.requireNonNull(combiner, "combiner is null");
+        ObjectHelper.requireNonNull(unit, "unit is null");
+        ObjectHelper.requireNonNull(scheduler, "scheduler is null");
+        if (minInterval < 0L) {
+            throw new IllegalArgumentException("minInterval >= 0 required but it was " + minInterval);
+        }
+        return RxJavaPlugins.onAssembly(new FlowableZipLatestSampled<T, R>(sources, null, combiner, minInterval, unit, scheduler));
+    }
+
+    /**
+     * Combines the latest values of the source Publishers via a combiner function whenever any of them
+     * changed, but at most once per the given minimum interval.
+     * <p>
+     * Once all sources have produced a value, the combiner receives the array of the latest values
+     * (including those that didn't change) and the set of source indexes that changed since the previous
+     * combination, allowing it to recompute its result incrementally. Changes arriving within an
+     * interval are coalesced and the sources don't signal the emission logic again until it consumed
+     * their previous change, therefore many high-rate sources don't flood the {@link Scheduler}.
+     * <p>
+     * If any of the sources completes without a value, the other sources are cancelled and the sequence
+     * completes. Otherwise, the sequence completes when all sources completed and the last changes got
+     * emitted, without waiting for the current interval to end. Errors are emitted immediately.
+     * <dl>
+     *  <dt><b>Backpressure:</b></dt>
+     *  <dd>The operator honors the backpressure of the downstream and consumes
+     *  the source Publishers in an unbounded manner, keeping only their latest values.</dd>
+     *  <dt><b>Scheduler:</b></dt>
+     *  <dd>The operator combines and emits the items on the {@link Scheduler} provided, which also times the intervals.</dd>
+     * </dl>
+     *
+     * @param <T> the common source value type
+     * @param <R> the result type
+     * @param sources the Iterable of source Publishers to combine
+     * @param combiner the function receiving the latest values of the sources and the indexes of the
+     *                 sources that changed since the last call and returns a value to be emitted to the downstream.
+     * @param minInterval the minimum time between two combinations, zero for no throttling
+     * @param unit the time unit of the interval
+     * @param scheduler the Scheduler to use for timing, emitting items and terminal signals
+     * @return the new Flowable instance.
+     * @since 0.17.9
+     */
+    @BackpressureSupport(BackpressureKind.UNBOUNDED_IN)
+    @SchedulerSupport(SchedulerSupport.CUSTOM)
+    public static <T, R> Flowable<R> zipLatestSampled(Iterable<? extends Publisher<? extends T>> sources,
+            BiFunction<? super Object[], ? super BitSet, ? extends R> combiner,
+            long minInterval, TimeUnit unit, Scheduler scheduler) {
+        ObjectHelper.requireNonNull(sources, "sources is null");
+        ObjectHelper.requireNonNull(combiner, "combiner is null");
+        ObjectHelper.requireNonNull(unit, "unit is null");
+        ObjectHelper.requireNonNull(scheduler, "scheduler is null");
+        if (minInterval < 0L) {
+            throw new IllegalArgumentException("minInterval >= 0 required but it was " + minInterval);
+        }
+        return RxJavaPlugins.onAssembly(new FlowableZipLatestSampled<T, R>(null, sources, combiner, minInterval, unit, scheduler));
+    }
+
+    /**
+     * Aggregates the latest values of the source Publishers incrementally by handing each change,
+     * as the source index, the previous and the new value, to an {@link IncrementalAggregator}
+     * and emits its current aggregate once all sources have produced a value.
+     * <p>
+     * Unlike {@code combineLatest}, the latest values are not collected into an array and
+     * re-reduced upon each change, allowing O(1) updates of sums, counts or similar aggregates
+     * over a large number of sources. Changes of the same source arriving before the previous one
+     * has been applied are collapsed into one change from the last applied value to the newest value.
+     * Likewise, the aggregate is emitted only when the downstream requests and reflects all the changes
+     * applied up to that point.
+     * <p>
+     * If any of the sources completes without a value, the other sources are cancelled and the sequence
+     * completes. Otherwise, the sequence completes when all sources completed and the final aggregate
+     * got emitted. Errors are emitted immediately.
+     * <dl>
+     *  <dt><b>Backpressure:</b></dt>
+     *  <dd>The operator honors the backpressure of the downstream and consumes
+     *  the source Publishers in an unbounded manner, keeping only their latest values.</dd>
+     *  <dt><b>Scheduler:</b></dt>
+     *  <dd>The operator doesn't run on any particular {@link Scheduler}
+     *  and the aggregator is invoked on the thread that won the internal emission-right race.</dd>
+     * </dl>
+     *
+     * @param <T> the common source value type
+     * @param <R> the aggregate type
+     * @param sources the Iterable of source Publishers to aggregate
+     * @param aggregatorSupplier the callable returning a fresh aggregator for each subscriber
+     * @return the new Flowable instance.
+     * @since 0.17.9
+     */
+    @BackpressureSupport(BackpressureKind.UNBOUNDED_IN)
+    @SchedulerSupport(SchedulerSupport.NONE)
+    public static <T, R> Flowable<R> aggregateLatest(Iterable<? extends Publisher<? extends T>> sources,
+            Callable<? extends IncrementalAggregator<? super T, ? extends R>> aggregatorSupplier) {
+        ObjectHelper.requireNonNull(sources, "sources is null");
+        ObjectHelper.requireNonNull(aggregatorSupplier, "aggregatorSupplier is null");
+        return RxJavaPlugins.onAssembly(new FlowableAggregateLatest<T, R>(null, sources, aggregatorSupplier));
+    }
+
+    /**
+     * Aggregates the latest values of the source Publishers incrementally by handing each change,
+     * as the source index, the previous and the new value, to an {@link IncrementalAggregator}
+     * and emits its current aggregate once all sources have produced a value.
+     * <p>
+     * Unlike {@code combineLatest}, the latest values are not collected into an array and
+     * re-reduced upon each change, allowing O(1) updates of sums, counts or similar aggregates
+     * over a large number of sources. Changes of the same source arriving before the previous one
+     * has been applied are collapsed into one change from the last applied value to the newest value.
+     * Likewise, the aggregate is emitted only when the downstream requests and reflects all the changes
+     * applied up to that point.
+     * <p>
+     * If any of the sources completes without a value, the other sources are cancelled and the sequence
+     * completes. Otherwise, the sequence completes when all sources completed and the final aggregate
+     * got emitted. Errors are emitted immediately.
+     * <dl>
+     *  <dt><b>Backpressure:</b></dt>
+     *  <dd>The operator honors the backpressure of the downstream and consumes
+     *  the source Publishers in an unbounded manner, keeping only their latest values.</dd>
+     *  <dt><b>Scheduler:</b></dt>
+     *  <dd>The operator doesn't run on any particular {@link Scheduler}
+     *  and the aggregator is invoked on the thread that won the internal emission-right race.</dd>
+     * </dl>
+     *
+     * @param <T> the common source value type
+     * @param <R> the aggregate type
+     * @param aggregatorSupplier the callable returning a fresh aggregator for each subscriber
+     * @param sources the array of source Publishers to aggregate
+     * @return the new Flowable instance.
+     * @since 0.17.9
+     */
+    @BackpressureSupport(BackpressureKind.UNBOUNDED_IN)
+    @SchedulerSupport(SchedulerSupport.NONE)
+    public static <T, R> Flowable<R> aggregateLatest(Callable<? extends IncrementalAggregator<? super T, ? extends R>> aggregatorSupplier,
+            Publisher<? extends T>... sources) {
+        ObjectHelper.requireNonNull(sources, "sources is null");
+        ObjectHelper.requireNonNull(aggregatorSupplier, "aggregatorSupplier is null");
+        return RxJavaPlugins.onAssembly(new FlowableAggregateLatest<T, R>(sources, null, aggregatorSupplier));
+    }
 }
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.operators;
+
+/**
+ * Maintains an aggregate over the latest values of many sources by
+ * applying the change of one source at a time.
+ * <p>
+ * The methods are never invoked concurrently.
+ *
+ * @param <T> the source value type
+ * @param <R> the aggregate type
+ * @since 0.17.9
+ * @see Flowables#aggregateLatest(Iterable, java.util.concurrent.Callable)
+ */
+public interface IncrementalAggregator<T, R> {
+
+    /**
+     * Called when a source's latest value changed.
+     * @param index the index of the source
+     * @param oldValue the previous value of the source, null if this is its first value
+     * @param newValue the new value of the source, not null
+     * @throws Exception on error
+     */
+    void update(int index, T oldValue, T newValue) throws Exception;
+
+    /**
+     * Returns the current aggregate to be emitted.
+     * @return the current aggregate, not null
+     * @throws Exception on error
+     */
+    R current() throws Exception;
+}
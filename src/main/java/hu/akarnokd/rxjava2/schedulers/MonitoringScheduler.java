@@ -0,0 +1,527 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.schedulers;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import hu.akarnokd.rxjava2.functions.PlainConsumer;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * A Scheduler decorator that measures the queue wait time and run time of
+ * each task executed by the Workers of another Scheduler and reports tasks
+ * that occupy a worker longer than a threshold.
+ * <p>
+ * Each Worker keeps its own {@link Histogram}s, the histograms of disposed
+ * Workers are merged into the {@link #totalStatistics()}. The direct scheduling
+ * methods go through a temporary Worker of this Scheduler.
+ * <p>
+ * A watchdog task, running periodically on a separate Scheduler, inspects the
+ * currently running tasks and calls the stall handler with the
+ * stacktrace of the worker thread captured at the time of detection.
+ * Each run of a task is reported at most once.
+ * <p>
+ * {@link #shutdown()} and {@link #start()} only stop and restart the watchdog,
+ * they don't affect the wrapped Scheduler.
+ * @since 0.17.9
+ */
+public final class MonitoringScheduler extends Scheduler {
+
+    final Scheduler actual;
+
+    final Scheduler watchdogScheduler;
+
+    final long thresholdNanos;
+
+    final PlainConsumer<Stall> onStall;
+
+    final Set<MonitoringWorker> workers;
+
+    final WorkerStatistics retired;
+
+    final AtomicReference<Disposable> watchdog;
+
+    /**
+     * Constructs a MonitoringScheduler that wraps the given Scheduler and
+     * runs its watchdog on {@code Schedulers.single()}.
+     * @param actual the Scheduler to monitor, not null
+     * @param threshold the run time after which a task is considered stalling
+     * @param unit the time unit of the threshold
+     * @param onStall the callback receiving the stalling task's information, not null
+     */
+    public MonitoringScheduler(Scheduler actual, long threshold, TimeUnit unit, PlainConsumer<Stall> onStall) {
+        this(actual, threshold, unit, onStall, Schedulers.single());
+    }
+
+    /**
+     * Constructs a MonitoringScheduler that wraps the given Scheduler.
+     * @param actual the Scheduler to monitor, not null
+     * @param threshold the run time after which a task is considered stalling
+     * @param unit the time unit of the threshold
+     * @param onStall the callback receiving the stalling task's information, not null
+     * @param watchdogScheduler the scheduler to run the periodic stall checks on, not null
+     */
+    public MonitoringScheduler(Scheduler actual, long threshold, TimeUnit unit, PlainConsumer<Stall> onStall, Scheduler watchdogScheduler) {
+        this.actual = ObjectHelper.requireNonNull(actual, "actual is null");
+        this.onStall = ObjectHelper.requireNonNull(onStall, "onStall is null");
+        this.watchdogScheduler = ObjectHelper.requireNonNull(watchdogScheduler, "watchdogScheduler is null");
+        this.thresholdNanos = ObjectHelper.verifyPositive(unit.toNanos(threshold), "threshold");
+        this.workers = Collections.newSetFromMap(new ConcurrentHashMap<MonitoringWorker, Boolean>());
+        this.retired = new WorkerStatistics();
+        this.watchdog = new AtomicReference<Disposable>();
+        start();
+    }
+
+    @Override
+    public void start() {
+        for (;;) {
+            Disposable d = watchdog.get();
+            if (d != null && !d.isDisposed()) {
+                return;
+            }
+            long period = Math.max(1L, thresholdNanos / 2);
+            Disposable next = watchdogScheduler.schedulePeriodicallyDirect(new Watchdog(), period, period, TimeUnit.NANOSECONDS);
+            if (watchdog.compareAndSet(d, next)) {
+                return;
+            }
+            next.dispose();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        Disposable d = watchdog.get();
+        if (d != null) {
+            d.dispose();
+        }
+    }
+
+    @Override
+    public long now(TimeUnit unit) {
+        return actual.now(unit);
+    }
+
+    @Override
+    public Worker createWorker() {
+        MonitoringWorker w = new MonitoringWorker(actual.createWorker(), this);
+        workers.add(w);
+        return w;
+    }
+
+    /**
+     * Returns the statistics of the currently active Workers.
+     * @return the list of statistics, one per active Worker
+     */
+    public List<WorkerStatistics> workerStatistics() {
+        List<WorkerStatistics> list = new ArrayList<WorkerStatistics>();
+        for (MonitoringWorker w : workers) {
+            list.add(w.stats);
+        }
+        return list;
+    }
+
+    /**
+     * Returns the merged statistics of all the Workers created so far.
+     * @return the merged statistics
+     */
+    public WorkerStatistics totalStatistics() {
+        WorkerStatistics result = new WorkerStatistics();
+        result.add(retired);
+        for (MonitoringWorker w : workers) {
+            result.add(w.stats);
+        }
+        return result;
+    }
+
+    void retire(MonitoringWorker w) {
+        if (workers.remove(w)) {
+            retired.add(w.stats);
+        }
+    }
+
+    void check() {
+        long now = System.nanoTime();
+        for (MonitoringWorker w : workers) {
+            WorkerStatistics s = w.stats;
+            Thread t = s.runner;
+            if (t != null) {
+                Runnable task = s.runTask;
+                long start = s.runStart;
+                long elapsed = now - start;
+                if (elapsed >= thresholdNanos && s.reportedStart != start) {
+                    s.reportedStart = start;
+                    s.stalls.getAndIncrement();
+                    StackTraceElement[] stack = t.getStackTrace();
+                    // the task may have finished in the meantime
+                    if (s.runner == t && s.runStart == start) {
+                        try {
+                            onStall.accept(new Stall(t, task, elapsed, stack));
+                        } catch (Throwable ex) {
+                            RxJavaPlugins.onError(ex);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    final class Watchdog implements Runnable {
+        @Override
+        public void run() {
+            check();
+        }
+    }
+
+    static final class MonitoringWorker extends Worker {
+
+        final Worker worker;
+
+        final MonitoringScheduler parent;
+
+        final WorkerStatistics stats;
+
+        MonitoringWorker(Worker worker, MonitoringScheduler parent) {
+            this.worker = worker;
+            this.parent = parent;
+            this.stats = new WorkerStatistics();
+        }
+
+        @Override
+        public Disposable schedule(Runnable run, long delay, TimeUnit unit) {
+            long due = System.nanoTime() + Math.max(0L, unit.toNanos(delay));
+            return worker.schedule(new MonitoredTask(run, stats, due), delay, unit);
+        }
+
+        @Override
+        public void dispose() {
+            worker.dispose();
+            parent.retire(this);
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return worker.isDisposed();
+        }
+
+        @Override
+        public long now(TimeUnit unit) {
+            return worker.now(unit);
+        }
+    }
+
+    static final class MonitoredTask implements Runnable {
+
+        final Runnable actual;
+
+        final WorkerStatistics stats;
+
+        final long due;
+
+        MonitoredTask(Runnable actual, WorkerStatistics stats, long due) {
+            this.actual = actual;
+            this.stats = stats;
+            this.due = due;
+        }
+
+        @Override
+        public void run() {
+            WorkerStatistics s = stats;
+            long start = System.nanoTime();
+            s.queueWait.record(start - due);
+            s.runTask = actual;
+            s.runStart = start;
+            s.runner = Thread.currentThread();
+            try {
+                actual.run();
+            } finally {
+                s.runner = null;
+                s.runTask = null;
+                s.runTime.record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * The queue wait and run time histograms of a Worker.
+     */
+    public static final class WorkerStatistics {
+
+        final Histogram queueWait;
+
+        final Histogram runTime;
+
+        final AtomicLong stalls;
+
+        volatile Thread runner;
+
+        volatile Runnable runTask;
+
+        volatile long runStart;
+
+        /** Accessed only from the watchdog. */
+        long reportedStart;
+
+        WorkerStatistics() {
+            this.queueWait = new Histogram();
+            this.runTime = new Histogram();
+            this.stalls = new AtomicLong();
+        }
+
+        void add(WorkerStatistics other) {
+            queueWait.add(other.queueWait);
+            runTime.add(other.runTime);
+            stalls.addAndGet(other.stalls.get());
+        }
+
+        /**
+         * Returns the histogram of the time between the task was due and when it started running.
+         * @return the histogram of the time between the task was due and when it started running
+         */
+        public Histogram queueWait() {
+            return queueWait;
+        }
+
+        /**
+         * Returns the histogram of the task run times.
+         * @return the histogram of the task run times
+         */
+        public Histogram runTime() {
+            return runTime;
+        }
+
+        /**
+         * Returns the number of stalls detected.
+         * @return the number of stalls detected
+         */
+        public long stalls() {
+            return stalls.get();
+        }
+
+        /**
+         * Returns the thread currently running a task of this worker or null if idle.
+         * @return the thread currently running a task or null
+         */
+        public Thread currentThread() {
+            return runner;
+        }
+
+        @Override
+        public String toString() {
+            return "WorkerStatistics[queueWait=" + queueWait + ", runTime=" + runTime + ", stalls=" + stalls + "]";
+        }
+    }
+
+    /**
+     * A lock-free histogram of nanosecond durations with power-of-two buckets.
+     * <p>
+     * Bucket {@code i} counts the durations in the range [2<sup>i</sup>, 2<sup>i + 1</sup>),
+     * bucket 0 also counts zero and negative durations.
+     */
+    public static final class Histogram {
+
+        /** The number of buckets. */
+        public static final int BUCKETS = 64;
+
+        final AtomicLongArray buckets;
+
+        final AtomicLong max;
+
+        final AtomicLong total;
+
+        Histogram() {
+            this.buckets = new AtomicLongArray(BUCKETS);
+            this.max = new AtomicLong();
+            this.total = new AtomicLong();
+        }
+
+        static int bucketOf(long nanos) {
+            if (nanos <= 1L) {
+                return 0;
+            }
+            return 63 - Long.numberOfLeadingZeros(nanos);
+        }
+
+        void record(long nanos) {
+            buckets.getAndIncrement(bucketOf(nanos));
+            if (nanos > 0L) {
+                total.getAndAdd(nanos);
+                for (;;) {
+                    long m = max.get();
+                    if (m >= nanos || max.compareAndSet(m, nanos)) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        void add(Histogram other) {
+            for (int i = 0; i < BUCKETS; i++) {
+                long c = other.buckets.get(i);
+                if (c != 0L) {
+                    buckets.getAndAdd(i, c);
+                }
+            }
+            total.getAndAdd(other.total.get());
+            long n = other.max.get();
+            for (;;) {
+                long m = max.get();
+                if (m >= n || max.compareAndSet(m, n)) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Returns the number of durations recorded in the given bucket.
+         * @param index the bucket index, 0..63
+         * @return the number of durations recorded in the bucket
+         */
+        public long bucket(int index) {
+            return buckets.get(index);
+        }
+
+        /**
+         * Returns the number of durations recorded.
+         * @return the number of durations recorded
+         */
+        public long count() {
+            long c = 0L;
+            for (int i = 0; i < BUCKETS; i++) {
+                c += buckets.get(i);
+            }
+            return c;
+        }
+
+        /**
+         * Returns the largest duration recorded in nanoseconds.
+         * @return the largest duration recorded in nanoseconds
+         */
+        public long max() {
+            return max.get();
+        }
+
+        /**
+         * Returns the sum of the durations recorded in nanoseconds.
+         * @return the sum of the durations recorded in nanoseconds
+         */
+        public long total() {
+            return total.get();
+        }
+
+        /**
+         * Returns an upper estimate of the given percentile in nanoseconds.
+         * @param percentile the percentile, 0..100
+         * @return the upper bound of the bucket containing the percentile
+         */
+        public long percentile(double percentile) {
+            long[] counts = new long[BUCKETS];
+            long n = 0L;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+                n += counts[i];
+            }
+            if (n == 0L) {
+                return 0L;
+            }
+            long target = (long)Math.ceil(n * percentile / 100d);
+            long c = 0L;
+            for (int i = 0; i < BUCKETS; i++) {
+                c += counts[i];
+                if (c >= target && c != 0L) {
+                    return i >= 62 ? Long.MAX_VALUE : Math.min((1L << (i + 1)) - 1, max.get());
+                }
+            }
+            return max.get();
+        }
+
+        @Override
+        public String toString() {
+            return "Histogram[count=" + count() + ", p50=" + percentile(50) + ", p99=" + percentile(99) + ", max=" + max() + "]";
+        }
+    }
+
+    /**
+     * Information about a task that has been running longer than the threshold.
+     */
+    public static final class Stall {
+
+        final Thread thread;
+
+        final Runnable task;
+
+        final long runningNanos;
+
+        final StackTraceElement[] stackTrace;
+
+        Stall(Thread thread, Runnable task, long runningNanos, StackTraceElement[] stackTrace) {
+            this.thread = thread;
+            this.task = task;
+            this.runningNanos = runningNanos;
+            this.stackTrace = stackTrace;
+        }
+
+        /**
+         * Returns the thread running the task.
+         * @return the thread running the task
+         */
+        public Thread thread() {
+            return thread;
+        }
+
+        /**
+         * Returns the task that has been running too long.
+         * @return the task
+         */
+        public Runnable task() {
+            return task;
+        }
+
+        /**
+         * Returns the time the task has been running for when detected, in nanoseconds.
+         * @return the running time in nanoseconds
+         */
+        public long runningNanos() {
+            return runningNanos;
+        }
+
+        /**
+         * Returns the stacktrace of the thread captured when the stall was detected.
+         * @return the stacktrace of the thread
+         */
+        public StackTraceElement[] stackTrace() {
+            return stackTrace.clone();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder b = new StringBuilder();
+            b.append("Task ").append(task).append(" has been running for ")
+            .append(TimeUnit.NANOSECONDS.toMillis(runningNanos))
+            .append(" ms on thread ").append(thread.getName());
+            for (StackTraceElement e : stackTrace) {
+                b.append("\r\n    at ").append(e);
+            }
+            return b.toString();
+        }
+    }
+}
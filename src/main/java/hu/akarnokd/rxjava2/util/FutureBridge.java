@@ -0,0 +1,484 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.util;
+
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.internal.disposables.DisposableHelper;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.schedulers.RxThreadFactory;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Bridges the completion of a {@link Future} into a callback without
+ * blocking a thread per outstanding future.
+ * <p>
+ * Futures implementing {@code java.util.concurrent.CompletionStage} or
+ * having a Guava-style {@code addListener(Runnable, Executor)} method
+ * (both detected reflectively) get a completion callback registered.
+ * Any other future is handed to a shared poller thread which checks
+ * {@link Future#isDone()} periodically, backing off from
+ * 1 to 32 milliseconds while none of its futures complete. The poller
+ * only checks the futures; the callbacks of the futures it finds done, as well as
+ * the timeouts, are called on a {@link Scheduler} so that a slow callback
+ * doesn't hold up the others.
+ *
+ * @since 0.17.9
+ */
+public final class FutureBridge {
+
+    /** Utility class. */
+    private FutureBridge() {
+        throw new IllegalStateException("No instances!");
+    }
+
+    /**
+     * Receives the outcome of a Future.
+     * @param <T> the value type
+     */
+    public interface FutureCallback<T> {
+        /**
+         * Called with the result value of the future, which may be null.
+         * @param value the result value, may be null
+         */
+        void onSuccess(T value);
+
+        /**
+         * Called with the failure cause of the future, a
+         * {@link CancellationException} if the future was cancelled
+         * or a {@link TimeoutException} if it didn't complete in time.
+         * @param error the error, not null
+         */
+        void onError(Throwable error);
+    }
+
+    static final long MIN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    static final long MAX_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(32);
+
+    static final Object NO_LISTENER = new Object();
+
+    static final ConcurrentMap<Class<?>, Object> LISTENER_METHODS = new ConcurrentHashMap<Class<?>, Object>();
+
+    static final Class<?> COMPLETION_STAGE;
+
+    static final Method WHEN_COMPLETE;
+
+    static final Class<?> BI_CONSUMER;
+
+    static {
+        Class<?> stage = null;
+        Method whenComplete = null;
+        Class<?> biConsumer = null;
+        try {
+            stage = Class.forName("java.util.concurrent.CompletionStage");
+            biConsumer = Class.forName("java.util.function.BiConsumer");
+            whenComplete = stage.getMethod("whenComplete", biConsumer);
+        } catch (Throwable ex) {
+            // Java 6 and 7 or some restricted environment
+            stage = null;
+            whenComplete = null;
+            biConsumer = null;
+        }
+        COMPLETION_STAGE = stage;
+        WHEN_COMPLETE = whenComplete;
+        BI_CONSUMER = biConsumer;
+    }
+
+    /**
+     * Calls the callback, on some thread, once the future completes, fails
+     * or the optional timeout elapses, whichever happens first.
+     * <p>
+     * If the future is already done, the callback is called on the current thread
+     * before this method returns. Futures which have to be polled and timeouts
+     * have their callback called on the {@link Schedulers#computation()} scheduler.
+     * Disposing the returned Disposable stops the callback from being called
+     * but doesn't cancel the future itself.
+     * @param <T> the value type
+     * @param future the future to watch
+     * @param timeout the timeout, non-positive value means no timeout
+     * @param unit the time unit of the timeout, may be null if the timeout is non-positive
+     * @param callback the callback to call with the outcome
+     * @return the Disposable to stop watching the future
+     */
+    public static <T> Disposable whenDone(Future<? extends T> future, long timeout, TimeUnit unit,
+            FutureCallback<? super T> callback) {
+        return whenDone(future, timeout, unit, Schedulers.computation(), callback);
+    }
+
+    /**
+     * Calls the callback, on some thread, once the future completes, fails
+     * or the optional timeout elapses, whichever happens first.
+     * <p>
+     * If the future is already done, the callback is called on the current thread
+     * before this method returns. Futures which have to be polled and timeouts
+     * have their callback called on the given scheduler.
+     * Disposing the returned Disposable stops the callback from being called
+     * but doesn't cancel the future itself.
+     * @param <T> the value type
+     * @param future the future to watch
+     * @param timeout the timeout, non-positive value means no timeout
+     * @param unit the time unit of the timeout, may be null if the timeout is non-positive
+     * @param scheduler the scheduler to call the callback on when the future is found done by polling
+     * or the timeout elapses
+     * @param callback the callback to call with the outcome
+     * @return the Disposable to stop watching the future
+     */
+    public static <T> Disposable whenDone(Future<? extends T> future, long timeout, TimeUnit unit,
+            Scheduler scheduler, FutureCallback<? super T> callback) {
+        ObjectHelper.requireNonNull(future, "future is null");
+        ObjectHelper.requireNonNull(scheduler, "scheduler is null");
+        ObjectHelper.requireNonNull(callback, "callback is null");
+
+        FutureWatcher<T> watcher = new FutureWatcher<T>(future, scheduler, callback);
+
+        if (future.isDone()) {
+            watcher.run();
+            return watcher;
+        }
+
+        if (timeout > 0L) {
+            FutureTimeout ft = new FutureTimeout(watcher);
+            watcher.timeoutAction = ft;
+            watcher.setTimeout(scheduler.scheduleDirect(ft, timeout, unit));
+        }
+
+        if (!addCompletionCallback(future, watcher)) {
+            Poller.INSTANCE.add(watcher);
+        }
+        return watcher;
+    }
+
+    static boolean addCompletionCallback(Future<?> future, Runnable onDone) {
+        if (COMPLETION_STAGE != null && COMPLETION_STAGE.isInstance(future)) {
+            try {
+                Object action = Proxy.newProxyInstance(FutureBridge.class.getClassLoader(),
+                        new Class<?>[] { BI_CONSUMER }, new RunnableInvocationHandler(onDone));
+                WHEN_COMPLETE.invoke(future, action);
+                return true;
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                // fall through and try the other options
+            }
+        }
+
+        Method m = listenerMethod(future.getClass());
+        if (m != null) {
+            try {
+                m.invoke(future, onDone, ImmediateExecutor.INSTANCE);
+                return true;
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                LISTENER_METHODS.put(future.getClass(), NO_LISTENER);
+            }
+        }
+        return false;
+    }
+
+    static Method listenerMethod(Class<?> clazz) {
+        Object o = LISTENER_METHODS.get(clazz);
+        if (o == null) {
+            o = findListenerMethod(clazz);
+            if (o == null) {
+                o = NO_LISTENER;
+            }
+            LISTENER_METHODS.put(clazz, o);
+        }
+        return o != NO_LISTENER ? (Method)o : null;
+    }
+
+    static Method findListenerMethod(Class<?> clazz) {
+        // prefer the method declared by a public interface so that it can be invoked
+        // even if the concrete future class is not public
+        Deque<Class<?>> queue = new ArrayDeque<Class<?>>();
+        queue.add(clazz);
+        while (!queue.isEmpty()) {
+            Class<?> c = queue.poll();
+            for (Class<?> itf : c.getInterfaces()) {
+                if (Modifier.isPublic(itf.getModifiers())) {
+                    try {
+                        return itf.getMethod("addListener", Runnable.class, Executor.class);
+                    } catch (NoSuchMethodException ex) {
+                        // not this one
+                    }
+                }
+                queue.add(itf);
+            }
+            Class<?> s = c.getSuperclass();
+            if (s != null) {
+                queue.add(s);
+            }
+        }
+        if (Modifier.isPublic(clazz.getModifiers())) {
+            try {
+                return clazz.getMethod("addListener", Runnable.class, Executor.class);
+            } catch (NoSuchMethodException ex) {
+                // not a listenable future
+            }
+        }
+        return null;
+    }
+
+    static final class FutureWatcher<T> extends AtomicBoolean implements Disposable, Runnable {
+
+        private static final long serialVersionUID = -3470470327542049224L;
+
+        final Future<? extends T> future;
+
+        final Scheduler scheduler;
+
+        final FutureCallback<? super T> callback;
+
+        final AtomicReference<Disposable> timeoutTask;
+
+        FutureTimeout timeoutAction;
+
+        FutureWatcher(Future<? extends T> future, Scheduler scheduler, FutureCallback<? super T> callback) {
+            this.future = future;
+            this.scheduler = scheduler;
+            this.callback = callback;
+            this.timeoutTask = new AtomicReference<Disposable>();
+        }
+
+        @Override
+        public void run() {
+            if (compareAndSet(false, true)) {
+                cancelTimeout();
+                T v;
+                try {
+                    v = future.get();
+                } catch (ExecutionException ex) {
+                    callback.onError(ex.getCause());
+                    return;
+                } catch (Throwable ex) {
+                    Exceptions.throwIfFatal(ex);
+                    callback.onError(ex);
+                    return;
+                }
+                callback.onSuccess(v);
+            }
+        }
+
+        /**
+         * Called by the poller once the future is done, runs this watcher on the scheduler.
+         */
+        void deliver() {
+            if (!isDisposed()) {
+                try {
+                    scheduler.scheduleDirect(this);
+                } catch (Throwable ex) {
+                    Exceptions.throwIfFatal(ex);
+                    RxJavaPlugins.onError(ex);
+                }
+            }
+        }
+
+        void timeout() {
+            if (compareAndSet(false, true)) {
+                callback.onError(new TimeoutException());
+            }
+        }
+
+        void setTimeout(Disposable task) {
+            DisposableHelper.setOnce(timeoutTask, task);
+        }
+
+        void cancelTimeout() {
+            FutureTimeout ft = timeoutAction;
+            if (ft != null) {
+                // the cancelled task may stay in the scheduler's queue until its delay elapses
+                ft.watcher = null;
+            }
+            DisposableHelper.dispose(timeoutTask);
+        }
+
+        @Override
+        public void dispose() {
+            if (compareAndSet(false, true)) {
+                cancelTimeout();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return get();
+        }
+    }
+
+    static final class FutureTimeout implements Runnable {
+
+        volatile FutureWatcher<?> watcher;
+
+        FutureTimeout(FutureWatcher<?> watcher) {
+            this.watcher = watcher;
+        }
+
+        @Override
+        public void run() {
+            FutureWatcher<?> w = watcher;
+            if (w != null) {
+                watcher = null;
+                w.timeout();
+            }
+        }
+    }
+
+    /**
+     * Checks the isDone() state of the registered futures periodically on a single
+     * daemon thread, doubling the delay between rounds up to a limit while none of them
+     * completes and resetting it once something completes or new futures arrive.
+     * The watchers of the done futures are handed to their scheduler.
+     */
+    static final class Poller implements Runnable {
+
+        static final Poller INSTANCE = new Poller();
+
+        final ScheduledExecutorService executor;
+
+        final Queue<FutureWatcher<?>> incoming;
+
+        final AtomicInteger wip;
+
+        final List<FutureWatcher<?>> watched;
+
+        long delayNanos;
+
+        Poller() {
+            this.executor = Executors.newSingleThreadScheduledExecutor(new RxThreadFactory("RxFutureBridgePoller"));
+            this.incoming = new ConcurrentLinkedQueue<FutureWatcher<?>>();
+            this.wip = new AtomicInteger();
+            this.watched = new ArrayList<FutureWatcher<?>>();
+            this.delayNanos = MIN_POLL_NANOS;
+        }
+
+        void add(FutureWatcher<?> watcher) {
+            incoming.offer(watcher);
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = wip.get();
+            List<FutureWatcher<?>> list = watched;
+
+            for (;;) {
+                boolean progress = false;
+
+                FutureWatcher<?> w;
+                while ((w = incoming.poll()) != null) {
+                    list.add(w);
+                    progress = true;
+                }
+
+                int j = 0;
+                for (int i = 0; i < list.size(); i++) {
+                    w = list.get(i);
+                    if (w.isDisposed()) {
+                        continue;
+                    }
+                    boolean done;
+                    try {
+                        done = w.future.isDone();
+                    } catch (Throwable ex) {
+                        Exceptions.throwIfFatal(ex);
+                        RxJavaPlugins.onError(ex);
+                        w.dispose();
+                        continue;
+                    }
+                    if (done) {
+                        w.deliver();
+                        progress = true;
+                    } else {
+                        list.set(j++, w);
+                    }
+                }
+                for (int i = list.size() - 1; i >= j; i--) {
+                    list.remove(i);
+                }
+
+                if (!list.isEmpty()) {
+                    // keep one for the scheduled round so that add() doesn't start another one
+                    if (missed != 1) {
+                        wip.addAndGet(1 - missed);
+                    }
+
+                    long d = delayNanos;
+                    if (progress) {
+                        d = MIN_POLL_NANOS;
+                    } else {
+                        d = Math.min(d << 1, MAX_POLL_NANOS);
+                    }
+                    delayNanos = d;
+                    executor.schedule(this, d, TimeUnit.NANOSECONDS);
+                    return;
+                }
+
+                delayNanos = MIN_POLL_NANOS;
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+    }
+
+    enum ImmediateExecutor implements Executor {
+        INSTANCE;
+
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    }
+
+    static final class RunnableInvocationHandler implements InvocationHandler {
+
+        final Runnable run;
+
+        RunnableInvocationHandler(Runnable run) {
+            this.run = run;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("accept".equals(name)) {
+                run.run();
+                return null;
+            }
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            if ("toString".equals(name)) {
+                return "FutureBridge.CompletionCallback@" + Integer.toHexString(System.identityHashCode(proxy));
+            }
+            return null;
+        }
+    }
+}
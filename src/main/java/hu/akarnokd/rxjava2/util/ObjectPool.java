@@ -0,0 +1,119 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import io.reactivex.functions.Consumer;
+import io.reactivex.internal.functions.ObjectHelper;
+
+/**
+ * A bounded, thread-safe pool of reusable objects, such as the containers of
+ * {@code coalesce} or the buffers of {@code bufferWhile}, which can be used as both
+ * the supplier and the recycler callback of these operators.
+ * <p>
+ * {@link #call()} takes a pooled object or creates a new one via the factory if the pool
+ * is empty; {@link #accept(Object)} resets the object and puts it back if there is room
+ * in the pool, otherwise the object is left to the garbage collector.
+ *
+ * @param <T> the pooled object type
+ * @since 0.17.9
+ */
+public final class ObjectPool<T> implements Callable<T>, Consumer<T> {
+
+    final AtomicReferenceArray<T> slots;
+
+    final Callable<? extends T> factory;
+
+    final Consumer<? super T> reset;
+
+    ObjectPool(int capacity, Callable<? extends T> factory, Consumer<? super T> reset) {
+        this.slots = new AtomicReferenceArray<T>(capacity);
+        this.factory = factory;
+        this.reset = reset;
+    }
+
+    /**
+     * Creates a pool holding at most the given number of idle objects.
+     * @param <T> the pooled object type
+     * @param capacity the maximum number of idle objects kept, positive
+     * @param factory the callable creating a new object when the pool is empty
+     * @param reset the consumer that clears an object before it gets back into the pool,
+     * for example {@code List::clear}
+     * @return the new ObjectPool instance
+     */
+    public static <T> ObjectPool<T> create(int capacity, Callable<? extends T> factory, Consumer<? super T> reset) {
+        ObjectHelper.verifyPositive(capacity, "capacity");
+        ObjectHelper.requireNonNull(factory, "factory is null");
+        ObjectHelper.requireNonNull(reset, "reset is null");
+        return new ObjectPool<T>(capacity, factory, reset);
+    }
+
+    /**
+     * Takes an idle object from the pool or creates a new one.
+     * @return the object, never null
+     * @throws Exception if the factory failed
+     */
+    @Override
+    public T call() throws Exception {
+        AtomicReferenceArray<T> a = slots;
+        int n = a.length();
+        for (int i = 0; i < n; i++) {
+            T v = a.get(i);
+            if (v != null && a.compareAndSet(i, v, null)) {
+                return v;
+            }
+        }
+        return ObjectHelper.requireNonNull(factory.call(), "The factory returned a null object");
+    }
+
+    /**
+     * Resets the object and returns it to the pool if there is room for it.
+     * <p>
+     * The caller must not use the object after this call.
+     * @param t the object to return, not null
+     * @throws Exception if the reset callback failed
+     */
+    @Override
+    public void accept(T t) throws Exception {
+        reset.accept(t);
+        AtomicReferenceArray<T> a = slots;
+        int n = a.length();
+        for (int i = 0; i < n; i++) {
+            if (a.get(i) == null && a.compareAndSet(i, null, t)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the current number of idle objects in the pool.
+     * @return the number of idle objects
+     */
+    public int size() {
+        AtomicReferenceArray<T> a = slots;
+        int n = a.length();
+        int c = 0;
+        for (int i = 0; i < n; i++) {
+            if (a.get(i) != null) {
+                c++;
+            }
+        }
+        return c;
+    }
+}
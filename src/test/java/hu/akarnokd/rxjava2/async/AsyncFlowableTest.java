@@ -32,7 +32,8 @@ import io.reactivex.disposables.Disposable;
 import io.reactivex.functions.*;
 import io.reactivex.internal.functions.Functions;
 import io.reactivex.processors.UnicastProcessor;
-import io.reactivex.schedulers.Schedulers;
+import io.reactivex.schedulers.*;
+import io.reactivex.subscribers.TestSubscriber;
 
 public class AsyncFlowableTest {
 
@@ -1166,4 +1167,116 @@ public class AsyncFlowableTest {
         .awaitDone(5, TimeUnit.SECONDS)
         .assertResult(1, 2, 3, 4, 5);
     }
+
+    @Test
+    public void toAsyncBatchedDelay() {
+        TestScheduler scheduler = new TestScheduler();
+        final AtomicInteger calls = new AtomicInteger();
+
+        PlainFunction<Integer, Flowable<Integer>> f = AsyncFlowable.toAsyncBatched(new Function<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer v) throws Exception {
+                calls.getAndIncrement();
+                return v + 1;
+            }
+        }, scheduler, 16, 10, TimeUnit.MILLISECONDS);
+
+        List<TestSubscriber<Integer>> list = new ArrayList<TestSubscriber<Integer>>();
+        for (int i = 0; i < 5; i++) {
+            list.add(f.apply(i).test());
+        }
+
+        scheduler.advanceTimeBy(9, TimeUnit.MILLISECONDS);
+
+        assertEquals(0, calls.get());
+
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+
+        assertEquals(5, calls.get());
+        for (int i = 0; i < 5; i++) {
+            list.get(i).assertResult(i + 1);
+        }
+    }
+
+    @Test
+    public void toAsyncBatchedMaxBatch() {
+        TestScheduler scheduler = new TestScheduler();
+
+        PlainFunction<Integer, Flowable<Integer>> f = AsyncFlowable.toAsyncBatched(new Function<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer v) throws Exception {
+                return v + 1;
+            }
+        }, scheduler, 3, 1, TimeUnit.SECONDS);
+
+        TestSubscriber<Integer> ts1 = f.apply(1).test();
+        TestSubscriber<Integer> ts2 = f.apply(2).test();
+        TestSubscriber<Integer> ts3 = f.apply(3).test();
+        TestSubscriber<Integer> ts4 = f.apply(4).test();
+
+        scheduler.triggerActions();
+
+        ts1.assertResult(2);
+        ts2.assertResult(3);
+        ts3.assertResult(4);
+        // the leftover doesn't wait for a new batch to fill
+        ts4.assertResult(5);
+    }
+
+    @Test
+    public void toAsyncBatchedErrorAndCancel() {
+        TestScheduler scheduler = new TestScheduler();
+        final AtomicInteger calls = new AtomicInteger();
+
+        PlainFunction<Integer, Flowable<Integer>> f = AsyncFlowable.toAsyncBatched(new Function<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer v) throws Exception {
+                calls.getAndIncrement();
+                if (v == 1) {
+                    throw new IOException();
+                }
+                return v == 2 ? null : v;
+            }
+        }, scheduler, 16, 0, TimeUnit.MILLISECONDS);
+
+        TestSubscriber<Integer> ts1 = f.apply(1).test();
+        TestSubscriber<Integer> ts2 = f.apply(2).test();
+        TestSubscriber<Integer> ts3 = f.apply(3).test();
+        f.apply(4).test(0L, true);
+
+        ts3.cancel();
+
+        scheduler.triggerActions();
+
+        ts1.assertFailure(IOException.class);
+        ts2.assertFailure(NullPointerException.class);
+        ts3.assertEmpty();
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void toAsyncBatchedRealScheduler() {
+        PlainFunction<Integer, Flowable<Integer>> f = AsyncFlowable.toAsyncBatched(new Function<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer v) throws Exception {
+                return v * 2;
+            }
+        }, Schedulers.computation(), 64, 1, TimeUnit.MILLISECONDS);
+
+        List<Flowable<Integer>> sources = new ArrayList<Flowable<Integer>>();
+        for (int i = 0; i < 1000; i++) {
+            sources.add(f.apply(i));
+        }
+
+        Flowable.merge(sources, 1000)
+        .reduce(0, new BiFunction<Integer, Integer, Integer>() {
+            @Override
+            public Integer apply(Integer a, Integer b) throws Exception {
+                return a + b;
+            }
+        })
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult(999 * 1000);
+    }
 }
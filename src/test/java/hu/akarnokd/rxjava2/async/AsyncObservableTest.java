@@ -31,7 +31,8 @@ import io.reactivex.Observer;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.functions.*;
 import io.reactivex.internal.functions.Functions;
-import io.reactivex.schedulers.Schedulers;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.*;
 import io.reactivex.subjects.UnicastSubject;
 
 public class AsyncObservableTest {
@@ -1166,4 +1167,116 @@ public class AsyncObservableTest {
         .awaitDone(5, TimeUnit.SECONDS)
         .assertResult(1, 2, 3, 4, 5);
     }
+
+    @Test
+    public void toAsyncBatchedDelay() {
+        TestScheduler scheduler = new TestScheduler();
+        final AtomicInteger calls = new AtomicInteger();
+
+        PlainFunction<Integer, Observable<Integer>> f = AsyncObservable.toAsyncBatched(new Function<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer v) throws Exception {
+                calls.getAndIncrement();
+                return v + 1;
+            }
+        }, scheduler, 16, 10, TimeUnit.MILLISECONDS);
+
+        List<TestObserver<Integer>> list = new ArrayList<TestObserver<Integer>>();
+        for (int i = 0; i < 5; i++) {
+            list.add(f.apply(i).test());
+        }
+
+        scheduler.advanceTimeBy(9, TimeUnit.MILLISECONDS);
+
+        assertEquals(0, calls.get());
+
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+
+        assertEquals(5, calls.get());
+        for (int i = 0; i < 5; i++) {
+            list.get(i).assertResult(i + 1);
+        }
+    }
+
+    @Test
+    public void toAsyncBatchedMaxBatch() {
+        TestScheduler scheduler = new TestScheduler();
+
+        PlainFunction<Integer, Observable<Integer>> f = AsyncObservable.toAsyncBatched(new Function<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer v) throws Exception {
+                return v + 1;
+            }
+        }, scheduler, 3, 1, TimeUnit.SECONDS);
+
+        TestObserver<Integer> ts1 = f.apply(1).test();
+        TestObserver<Integer> ts2 = f.apply(2).test();
+        TestObserver<Integer> ts3 = f.apply(3).test();
+        TestObserver<Integer> ts4 = f.apply(4).test();
+
+        scheduler.triggerActions();
+
+        ts1.assertResult(2);
+        ts2.assertResult(3);
+        ts3.assertResult(4);
+        // the leftover doesn't wait for a new batch to fill
+        ts4.assertResult(5);
+    }
+
+    @Test
+    public void toAsyncBatchedErrorAndCancel() {
+        TestScheduler scheduler = new TestScheduler();
+        final AtomicInteger calls = new AtomicInteger();
+
+        PlainFunction<Integer, Observable<Integer>> f = AsyncObservable.toAsyncBatched(new Function<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer v) throws Exception {
+                calls.getAndIncrement();
+                if (v == 1) {
+                    throw new IOException();
+                }
+                return v == 2 ? null : v;
+            }
+        }, scheduler, 16, 0, TimeUnit.MILLISECONDS);
+
+        TestObserver<Integer> ts1 = f.apply(1).test();
+        TestObserver<Integer> ts2 = f.apply(2).test();
+        TestObserver<Integer> ts3 = f.apply(3).test();
+        f.apply(4).test(true);
+
+        ts3.dispose();
+
+        scheduler.triggerActions();
+
+        ts1.assertFailure(IOException.class);
+        ts2.assertFailure(NullPointerException.class);
+        ts3.assertEmpty();
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void toAsyncBatchedRealScheduler() {
+        PlainFunction<Integer, Observable<Integer>> f = AsyncObservable.toAsyncBatched(new Function<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer v) throws Exception {
+                return v * 2;
+            }
+        }, Schedulers.computation(), 64, 1, TimeUnit.MILLISECONDS);
+
+        List<Observable<Integer>> sources = new ArrayList<Observable<Integer>>();
+        for (int i = 0; i < 1000; i++) {
+            sources.add(f.apply(i));
+        }
+
+        Observable.merge(sources)
+        .reduce(0, new BiFunction<Integer, Integer, Integer>() {
+            @Override
+            public Integer apply(Integer a, Integer b) throws Exception {
+                return a + b;
+            }
+        })
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult(999 * 1000);
+    }
 }
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.async;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import hu.akarnokd.rxjava2.basetypes.Solo;
+import hu.akarnokd.rxjava2.util.FutureBridge.FutureCallback;
+import io.reactivex.Flowable;
+import io.reactivex.disposables.*;
+import io.reactivex.internal.functions.Functions;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+
+public class FutureCompletableTest {
+
+    static final Executor IMMEDIATE = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @Test
+    public void completeGet() throws Exception {
+        FutureCompletable<Integer> f = new FutureCompletable<Integer>();
+        assertFalse(f.isDone());
+
+        f.complete(1);
+        f.complete(2);
+
+        assertTrue(f.isDone());
+        assertFalse(f.isCancelled());
+        assertFalse(f.cancel(true));
+        assertEquals(1, f.get().intValue());
+        assertEquals(1, f.get(1, TimeUnit.SECONDS).intValue());
+    }
+
+    @Test(timeout = 5000)
+    public void completeAsync() throws Exception {
+        final FutureCompletable<Integer> f = new FutureCompletable<Integer>();
+
+        Schedulers.single().scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                f.complete(1);
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, f.get().intValue());
+    }
+
+    @Test(timeout = 5000)
+    public void manyWaiters() throws Exception {
+        final FutureCompletable<Integer> f = new FutureCompletable<Integer>();
+        final CountDownLatch cdl = new CountDownLatch(4);
+        final List<Integer> list = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+
+        for (int i = 0; i < 4; i++) {
+            Schedulers.io().scheduleDirect(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        list.add(f.get());
+                    } catch (Exception ex) {
+                        error.compareAndSet(null, ex);
+                    }
+                    cdl.countDown();
+                }
+            });
+        }
+
+        Thread.sleep(50);
+        f.complete(1);
+
+        assertTrue(cdl.await(5, TimeUnit.SECONDS));
+        assertNull(error.get());
+        assertEquals(Arrays.asList(1, 1, 1, 1), list);
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void error() throws Exception {
+        FutureCompletable<Integer> f = new FutureCompletable<Integer>();
+        f.completeExceptionally(new IOException());
+        f.get();
+    }
+
+    @Test
+    public void timeout() throws Exception {
+        FutureCompletable<Integer> f = new FutureCompletable<Integer>();
+        try {
+            f.get(10, TimeUnit.MILLISECONDS);
+            fail("Should have thrown");
+        } catch (TimeoutException expected) {
+            // expected
+        }
+
+        f.complete(1);
+        assertEquals(1, f.get(10, TimeUnit.MILLISECONDS).intValue());
+    }
+
+    @Test(timeout = 5000)
+    public void interiorWaiterTimesOut() throws Exception {
+        final FutureCompletable<Integer> f = new FutureCompletable<Integer>();
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+
+        Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    f.get(200, TimeUnit.MILLISECONDS);
+                } catch (Throwable ex) {
+                    error.set(ex);
+                }
+            }
+        });
+        t.start();
+
+        while (f.state == null) {
+            Thread.sleep(1);
+        }
+
+        final int[] calls = { 0 };
+        f.addListener(new Runnable() {
+            @Override
+            public void run() {
+                calls[0]++;
+            }
+        }, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        });
+
+        t.join();
+
+        assertTrue(String.valueOf(error.get()), error.get() instanceof TimeoutException);
+
+        // the timed out waiter below the listener has been unlinked
+        FutureCompletable.Node n = (FutureCompletable.Node)f.state;
+        assertNotNull(n.item);
+        assertNull(n.next);
+
+        f.complete(1);
+        assertEquals(1, calls[0]);
+    }
+
+    @Test
+    public void interrupted() throws Exception {
+        FutureCompletable<Integer> f = new FutureCompletable<Integer>();
+        Thread.currentThread().interrupt();
+        try {
+            f.get();
+            fail("Should have thrown");
+        } catch (InterruptedException expected) {
+            // expected
+        }
+        assertFalse(f.isDone());
+    }
+
+    @Test
+    public void cancel() throws Exception {
+        Disposable d = Disposables.empty();
+        FutureCompletable<Integer> f = new FutureCompletable<Integer>(d);
+
+        assertTrue(f.cancel(true));
+        assertTrue(f.isCancelled());
+        assertTrue(f.isDone());
+        assertTrue(d.isDisposed());
+
+        try {
+            f.get();
+            fail("Should have thrown");
+        } catch (CancellationException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void listeners() {
+        FutureCompletable<Integer> f = new FutureCompletable<Integer>();
+        final List<Object> list = new ArrayList<Object>();
+
+        f.addListener(new Runnable() {
+            @Override
+            public void run() {
+                list.add("listener");
+            }
+        }, IMMEDIATE);
+
+        FutureCallback<Integer> cb = new FutureCallback<Integer>() {
+            @Override
+            public void onSuccess(Integer value) {
+                list.add(value);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                list.add(error);
+            }
+        };
+        f.whenDone(cb);
+
+        assertTrue(list.isEmpty());
+
+        f.complete(1);
+
+        assertEquals(Arrays.<Object>asList("listener", 1), list);
+
+        f.whenDone(cb);
+
+        assertEquals(Arrays.<Object>asList("listener", 1, 1), list);
+    }
+
+    @Test
+    public void forEachFutureCancel() {
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        Future<Object> f = AsyncFlowable.forEachFuture(pp, Functions.emptyConsumer(), Schedulers.trampoline());
+
+        assertTrue(pp.hasSubscribers());
+
+        f.cancel(true);
+
+        assertFalse(pp.hasSubscribers());
+    }
+
+    @Test
+    public void forEachFutureBridgedWithoutPolling() {
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        Future<Object> f = AsyncFlowable.forEachFuture(pp, Functions.emptyConsumer(), Schedulers.trampoline());
+
+        io.reactivex.subscribers.TestSubscriber<Object> ts = Solo.fromFuture(f).test();
+
+        ts.assertEmpty();
+
+        pp.onComplete();
+
+        // signalled synchronously via addListener, forEachFuture completes with null
+        ts.assertFailure(NoSuchElementException.class);
+    }
+
+    @Test
+    public void forEachFutureCompletes() throws Exception {
+        final List<Integer> list = new ArrayList<Integer>();
+        Future<Object> f = AsyncFlowable.forEachFuture(Flowable.range(1, 5), new io.reactivex.functions.Consumer<Integer>() {
+            @Override
+            public void accept(Integer v) throws Exception {
+                list.add(v);
+            }
+        }, Schedulers.trampoline());
+
+        assertTrue(f.isDone());
+        assertNull(f.get());
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), list);
+    }
+}
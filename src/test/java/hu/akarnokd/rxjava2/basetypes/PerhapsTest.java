@@ -139,6 +139,7 @@ public class PerhapsTest implements Consumer<Object>, Action, LongConsumer, Canc
 
         Perhaps.fromFuture(ft, 1, TimeUnit.MILLISECONDS)
         .test()
+        .awaitDone(5, TimeUnit.SECONDS)
         .assertFailure(TimeoutException.class);
     }
 
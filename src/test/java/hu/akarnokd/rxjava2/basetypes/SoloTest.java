@@ -2506,6 +2506,7 @@ public class SoloTest implements Consumer<Object>, Action, LongConsumer, Cancell
 
         Solo.fromFuture(ft, 1, TimeUnit.MILLISECONDS)
         .test()
+        .awaitDone(5, TimeUnit.SECONDS)
         .assertFailure(TimeoutException.class);
     }
 
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.debug;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.List;
+
+import org.junit.Test;
+
+import hu.akarnokd.rxjava2.debug.EventJournalReader.Record;
+import hu.akarnokd.rxjava2.test.TestHelper;
+import io.reactivex.*;
+
+public class EventJournalTest {
+
+    @Test
+    public void utilityClasses() {
+        TestHelper.checkUtilityClass(RxJavaEventJournal.class);
+        TestHelper.checkUtilityClass(EventJournalReader.class);
+    }
+
+    @Test
+    public void recordAndRead() {
+        EventJournal j = EventJournal.allocateDirect(16);
+
+        int site = j.callSite("test");
+        assertEquals(site, j.callSite("test"));
+        assertEquals("test", j.callSiteDescription(site));
+        assertNull(j.callSiteDescription(site + 1));
+
+        j.record(EventJournal.SUBSCRIBE, site, 0L);
+        j.record(EventJournal.REQUEST, site, 5L);
+        j.record(EventJournal.ON_NEXT, site, 1L);
+
+        List<Record> list = EventJournalReader.read(j);
+
+        assertEquals(3, list.size());
+        assertEquals(EventJournal.SUBSCRIBE, list.get(0).type);
+        assertEquals(EventJournal.REQUEST, list.get(1).type);
+        assertEquals(5L, list.get(1).value);
+        assertEquals(EventJournal.ON_NEXT, list.get(2).type);
+        assertEquals(Thread.currentThread().getId(), list.get(2).threadId);
+        assertEquals(site, list.get(2).site);
+    }
+
+    @Test
+    public void wrapAround() {
+        EventJournal j = EventJournal.allocateDirect(4);
+
+        for (int i = 0; i < 10; i++) {
+            j.record(EventJournal.ON_NEXT, 0, i);
+        }
+
+        assertEquals(10, j.written());
+
+        List<Record> list = EventJournalReader.read(j);
+
+        assertEquals(4, list.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(6 + i, list.get(i).sequence);
+            assertEquals(6 + i, list.get(i).value);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void notAJournal() {
+        EventJournalReader.read(java.nio.ByteBuffer.allocate(64));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void allocateDirectTooLarge() {
+        EventJournal.allocateDirect(Integer.MAX_VALUE / EventJournal.RECORD_SIZE + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mapTooLarge() throws IOException {
+        File f = File.createTempFile("rxjava2-journal", ".bin");
+        try {
+            EventJournal.map(f, Integer.MAX_VALUE / EventJournal.RECORD_SIZE + 1);
+        } finally {
+            f.delete();
+        }
+    }
+
+    @Test
+    public void foreignSlotSkipped() {
+        EventJournal j = EventJournal.allocateDirect(4);
+        j.record(EventJournal.ON_NEXT, 0, 1);
+        j.record(EventJournal.ON_NEXT, 0, 2);
+
+        // a record of sequence 6 belongs to slot 2, not slot 0
+        j.buffer.putLong(EventJournal.HEADER_SIZE, 7L);
+
+        List<Record> list = EventJournalReader.read(j);
+        assertEquals(1, list.size());
+        assertEquals(1L, list.get(0).sequence);
+    }
+
+    @Test
+    public void flowableHooks() {
+        EventJournal j = EventJournal.allocateDirect(256);
+        RxJavaEventJournal.enable(j);
+        try {
+            assertSame(j, RxJavaEventJournal.current());
+
+            Flowable.range(1, 5)
+            .test(2)
+            .assertValues(1, 2)
+            .requestMore(3)
+            .assertResult(1, 2, 3, 4, 5);
+        } finally {
+            RxJavaEventJournal.disable();
+        }
+
+        assertNull(RxJavaEventJournal.current());
+
+        List<Record> list = EventJournalReader.read(j);
+
+        assertEquals(EventJournal.SUBSCRIBE, list.get(0).type);
+        assertEquals(EventJournal.REQUEST, list.get(1).type);
+        assertEquals(2L, list.get(1).value);
+        assertEquals(EventJournal.ON_COMPLETE, list.get(list.size() - 1).type);
+        assertEquals(5L, list.get(list.size() - 1).value);
+
+        assertTrue(j.callSites().toString(), j.callSites().get(0).contains("EventJournalTest.flowableHooks"));
+    }
+
+    @Test
+    public void observableHooks() {
+        EventJournal j = EventJournal.allocateDirect(256);
+        SavedHooks h = RxJavaEventJournal.enableAndChain(j);
+        try {
+            Observable.range(1, 5).take(2)
+            .test()
+            .assertResult(1, 2);
+
+            Observable.error(new IOException())
+            .test()
+            .assertFailure(IOException.class);
+        } finally {
+            h.restore();
+        }
+
+        int next = 0;
+        int errors = 0;
+        int cancel = 0;
+        for (Record r : EventJournalReader.read(j)) {
+            switch (r.type) {
+            case EventJournal.ON_NEXT:
+                next++;
+                break;
+            case EventJournal.ON_ERROR:
+                errors++;
+                break;
+            case EventJournal.CANCEL:
+                cancel++;
+                break;
+            default:
+            }
+        }
+
+        assertEquals(4, next);
+        assertEquals(1, errors);
+        assertEquals(1, cancel);
+    }
+
+    @Test
+    public void mappedFile() throws IOException {
+        File f = File.createTempFile("rxjava2-journal", ".bin");
+        File sites = EventJournal.sitesFile(f);
+        try {
+            EventJournal j = EventJournal.map(f, 64);
+
+            RxJavaEventJournal.enable(j);
+            try {
+                Flowable.just(1).map(new io.reactivex.functions.Function<Integer, Integer>() {
+                    @Override
+                    public Integer apply(Integer v) throws Exception {
+                        return v + 1;
+                    }
+                })
+                .test()
+                .assertResult(2);
+            } finally {
+                RxJavaEventJournal.disable();
+            }
+
+            j.force();
+
+            List<Record> list = EventJournalReader.read(f);
+            List<String> callSites = EventJournalReader.readCallSites(f);
+
+            assertEquals(j.written(), list.size());
+            assertEquals(j.callSites(), callSites);
+
+            StringBuilder b = new StringBuilder();
+            EventJournalReader.timeline(list, callSites, b);
+
+            String s = b.toString();
+            assertTrue(s, s.contains("ON_COMPLETE"));
+            assertTrue(s, s.contains("FlowableMap at"));
+        } finally {
+            f.delete();
+            sites.delete();
+        }
+    }
+
+    @Test
+    public void typeNames() {
+        assertEquals("CANCEL", EventJournalReader.typeName(EventJournal.CANCEL));
+        assertEquals("UNKNOWN(100)", EventJournalReader.typeName(100));
+    }
+}
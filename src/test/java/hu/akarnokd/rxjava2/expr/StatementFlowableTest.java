@@ -16,14 +16,21 @@
 
 package hu.akarnokd.rxjava2.expr;
 
+import static org.junit.Assert.*;
+
+import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.Callable;
+import java.util.concurrent.*;
 
 import org.junit.*;
 import org.mockito.MockitoAnnotations;
+import org.reactivestreams.*;
 
+import hu.akarnokd.rxjava2.functions.IntSupplier;
 import io.reactivex.Flowable;
-import io.reactivex.functions.BooleanSupplier;
+import io.reactivex.functions.*;
+import io.reactivex.internal.functions.Functions;
+import io.reactivex.plugins.RxJavaPlugins;
 import io.reactivex.schedulers.*;
 
 public class StatementFlowableTest {
@@ -168,6 +175,166 @@ public class StatementFlowableTest {
         observeError(result, RuntimeException.class);
     }
 
+    enum Route { FIRST, SECOND, THIRD }
+
+    @Test
+    public void tableEnumKeys() {
+        Map<Route, Flowable<Integer>> map = new EnumMap<Route, Flowable<Integer>>(Route.class);
+        map.put(Route.FIRST, Flowable.just(1, 2, 3));
+        map.put(Route.THIRD, Flowable.just(7, 8, 9));
+
+        SwitchCaseTable<Route, Flowable<Integer>> table = SwitchCaseTable.of(map);
+        map.clear();
+
+        final Route[] routes = Route.values();
+        Flowable<Integer> result = StatementFlowable.switchCase(new Callable<Route>() {
+            int index;
+
+            @Override
+            public Route call() {
+                return routes[index++];
+            }
+        }, table, Flowable.just(4, 5, 6));
+
+        observe(result, 1, 2, 3);
+        observe(result, 4, 5, 6);
+        observe(result, 7, 8, 9);
+    }
+
+    @Test
+    public void arrayCases() {
+        @SuppressWarnings("unchecked")
+        Flowable<Integer>[] cases = new Flowable[] { Flowable.just(1, 2, 3), null, Flowable.just(7, 8, 9) };
+
+        Flowable<Integer> result = StatementFlowable.switchCase(new IntSupplier() {
+            int index = -1;
+
+            @Override
+            public int getAsInt() {
+                return index++;
+            }
+        }, cases, Flowable.just(4, 5, 6));
+
+        cases[0] = Flowable.just(0);
+
+        observe(result, 4, 5, 6);
+        observe(result, 1, 2, 3);
+        observe(result, 4, 5, 6);
+        observe(result, 7, 8, 9);
+        observe(result, 4, 5, 6);
+    }
+
+    @Test
+    public void arrayCaseSelectorThrows() {
+        @SuppressWarnings("unchecked")
+        Flowable<Integer>[] cases = new Flowable[] { Flowable.just(1, 2, 3) };
+
+        Flowable<Integer> result = StatementFlowable.switchCase(new IntSupplier() {
+            @Override
+            public int getAsInt() throws Exception {
+                throw new IOException();
+            }
+        }, cases, Flowable.just(4, 5, 6));
+
+        observeError(result, IOException.class);
+    }
+
+    static final class SameHash {
+        final int id;
+
+        SameHash(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 1;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SameHash && ((SameHash)o).id == id;
+        }
+    }
+
+    @Test
+    public void tableHashKeys() {
+        Map<Object, Integer> map = new HashMap<Object, Integer>();
+        for (int i = 0; i < 100; i++) {
+            map.put("key" + i, i);
+        }
+        map.put(Route.SECOND, 100);
+
+        SwitchCaseTable<Object, Integer> table = SwitchCaseTable.of(map);
+
+        assertEquals(101, table.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, table.get("key" + i).intValue());
+        }
+        assertEquals(100, table.get(Route.SECOND).intValue());
+        assertNull(table.get(Route.FIRST));
+        assertNull(table.get("key100"));
+        assertNull(table.get(null));
+    }
+
+    @Test
+    public void tableCollidingKeys() {
+        Map<SameHash, Integer> map = new HashMap<SameHash, Integer>();
+        for (int i = 0; i < 10; i++) {
+            map.put(new SameHash(i), i);
+        }
+
+        SwitchCaseTable<SameHash, Integer> table = SwitchCaseTable.of(map);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, table.get(new SameHash(i)).intValue());
+        }
+        assertNull(table.get(new SameHash(10)));
+    }
+
+    @Test(timeout = 5000)
+    public void tablePowerOfTwoMissingKey() {
+        for (int n : new int[] { 1, 2, 4, 8, 16 }) {
+            Map<Integer, Integer> map = new HashMap<Integer, Integer>();
+            for (int i = 0; i < n; i++) {
+                map.put(i, i);
+            }
+
+            SwitchCaseTable<Integer, Integer> table = SwitchCaseTable.of(map);
+
+            for (int i = 0; i < n; i++) {
+                assertEquals(i, table.get(i).intValue());
+            }
+            assertNull(String.valueOf(n), table.get(1000));
+            assertNull(String.valueOf(n), table.get(n));
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void switchCaseTableDefault() {
+        Map<Integer, Flowable<Integer>> map = new HashMap<Integer, Flowable<Integer>>();
+        for (int i = 0; i < 4; i++) {
+            map.put(i, Flowable.just(i));
+        }
+
+        StatementFlowable.switchCase(Functions.justCallable(1000), SwitchCaseTable.of(map), Flowable.just(-1))
+        .test()
+        .assertResult(-1);
+    }
+
+    @Test
+    public void tableEnumOutsideKeys() {
+        Map<Route, Integer> map = new EnumMap<Route, Integer>(Route.class);
+        map.put(Route.FIRST, 1);
+
+        SwitchCaseTable<Object, Integer> table = SwitchCaseTable.<Object, Integer>of(map);
+
+        assertEquals(1, table.get(Route.FIRST).intValue());
+        assertNull(table.get(Route.SECOND));
+        assertNull(table.get(TimeUnit.SECONDS));
+        assertNull(table.get("FIRST"));
+    }
+
     @Test
     public void testMapContainsKeyThrows() {
         Flowable<Integer> source1 = Flowable.just(1, 2, 3);
@@ -401,4 +568,233 @@ public class StatementFlowableTest {
 
         observeError(result, RuntimeException.class, 1, 2, 3);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void doWhileCallableManyTimes() {
+        StatementFlowable.doWhile(Flowable.just(1), countdown(999999))
+        .test()
+        .assertValueCount(1000000)
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void whileDoCallableBackpressured() {
+        final int[] calls = { 0 };
+        Flowable<Integer> source = Flowable.fromCallable(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                return ++calls[0];
+            }
+        });
+
+        io.reactivex.subscribers.TestSubscriber<Integer> ts = StatementFlowable.whileDo(source, countdown(5))
+        .test(0L);
+
+        ts.assertEmpty();
+        Assert.assertEquals(0, calls[0]);
+
+        ts.request(2);
+        ts.assertValues(1, 2).assertNotComplete();
+
+        ts.request(3);
+        ts.assertResult(1, 2, 3, 4, 5);
+    }
+
+    @Test
+    public void doWhileCallableEmpty() {
+        StatementFlowable.doWhile(Flowable.<Integer>empty(), countdown(10))
+        .test()
+        .assertResult();
+    }
+
+    @Test
+    public void doWhileCallableEmptyNoRequest() {
+        StatementFlowable.doWhile(Flowable.<Integer>empty(), countdown(10))
+        .test(0L)
+        .assertResult();
+    }
+
+    @Test
+    public void whileDoCallableEmptyNoRequest() {
+        StatementFlowable.whileDo(Flowable.<Integer>empty(), countdown(10))
+        .test(0L)
+        .assertResult();
+    }
+
+    @Test
+    public void doWhileCallableOnNextThrows() {
+        final List<Throwable> errors = new ArrayList<Throwable>();
+        final List<Throwable> undeliverable = Collections.synchronizedList(new ArrayList<Throwable>());
+        RxJavaPlugins.setErrorHandler(new Consumer<Throwable>() {
+            @Override
+            public void accept(Throwable e) throws Exception {
+                undeliverable.add(e);
+            }
+        });
+        try {
+            try {
+                StatementFlowable.doWhile(Flowable.just(1), condition)
+                .subscribe(new Subscriber<Integer>() {
+                    @Override
+                    public void onSubscribe(Subscription s) {
+                        s.request(1);
+                    }
+
+                    @Override
+                    public void onNext(Integer t) {
+                        throw new IllegalStateException();
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        errors.add(t);
+                    }
+
+                    @Override
+                    public void onComplete() {
+                    }
+                });
+            } catch (NullPointerException expected) {
+                // Flowable.subscribe wraps the crash
+            }
+
+            assertTrue(errors.toString(), errors.isEmpty());
+            assertEquals(1, undeliverable.size());
+            assertTrue(undeliverable.get(0).toString(), undeliverable.get(0) instanceof IllegalStateException);
+        } finally {
+            RxJavaPlugins.reset();
+        }
+    }
+
+    @Test
+    public void doWhileCallableThrows() {
+        StatementFlowable.doWhile(Flowable.fromCallable(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                throw new java.io.IOException();
+            }
+        }), condition)
+        .test()
+        .assertFailure(java.io.IOException.class);
+    }
+
+    @Test
+    public void doWhileCallableHop() {
+        final Set<String> threads = Collections.synchronizedSet(new HashSet<String>());
+        StatementFlowable.doWhile(Flowable.fromCallable(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                threads.add(Thread.currentThread().getName());
+                return 1;
+            }
+        }), countdown(999), Schedulers.single(), 100)
+        .test()
+        .awaitDone(5, java.util.concurrent.TimeUnit.SECONDS)
+        .assertValueCount(1000)
+        .assertNoErrors()
+        .assertComplete();
+
+        Assert.assertEquals(threads.toString(), 2, threads.size());
+    }
+
+    @Test
+    public void whileDoResubscribeHop() {
+        final Set<String> threads = Collections.synchronizedSet(new HashSet<String>());
+        Flowable<Integer> source = Flowable.range(1, 2).doOnSubscribe(new io.reactivex.functions.Consumer<Object>() {
+            @Override
+            public void accept(Object s) throws Exception {
+                threads.add(Thread.currentThread().getName());
+            }
+        });
+
+        StatementFlowable.whileDo(source, countdown(10), Schedulers.single(), 3)
+        .test()
+        .awaitDone(5, java.util.concurrent.TimeUnit.SECONDS)
+        .assertValueCount(20)
+        .assertNoErrors()
+        .assertComplete();
+
+        Assert.assertEquals(threads.toString(), 2, threads.size());
+    }
+
+    @Test
+    public void whileDoResubscribeHopNoRetries() {
+        final java.util.concurrent.atomic.AtomicInteger schedules = new java.util.concurrent.atomic.AtomicInteger();
+        RxJavaPlugins.setScheduleHandler(new Function<Runnable, Runnable>() {
+            @Override
+            public Runnable apply(Runnable r) throws Exception {
+                schedules.getAndIncrement();
+                return r;
+            }
+        });
+        try {
+            StatementFlowable.whileDo(Flowable.range(1, 2), countdown(10), Schedulers.single(), 3)
+            .test()
+            .awaitDone(5, java.util.concurrent.TimeUnit.SECONDS)
+            .assertValueCount(20)
+            .assertNoErrors()
+            .assertComplete();
+
+            // one hop per 3 resubscriptions, without rescheduling while the previous drain loop unwinds
+            assertEquals(3, schedules.get());
+        } finally {
+            RxJavaPlugins.reset();
+        }
+    }
+
+    @Test
+    public void whileDoResubscribeHopSlowUnwind() {
+        final java.util.concurrent.atomic.AtomicInteger schedules = new java.util.concurrent.atomic.AtomicInteger();
+        RxJavaPlugins.setScheduleHandler(new Function<Runnable, Runnable>() {
+            @Override
+            public Runnable apply(Runnable r) throws Exception {
+                schedules.getAndIncrement();
+                return r;
+            }
+        });
+        try {
+            final Thread main = Thread.currentThread();
+            Flowable<Integer> source = new Flowable<Integer>() {
+                @Override
+                protected void subscribeActual(Subscriber<? super Integer> s) {
+                    s.onSubscribe(new io.reactivex.internal.subscriptions.BooleanSubscription());
+                    s.onNext(1);
+                    s.onComplete();
+                    if (Thread.currentThread() == main) {
+                        // the hop is due while the drain loop of this thread is still running
+                        try {
+                            Thread.sleep(100);
+                        } catch (InterruptedException ex) {
+                            // ignored
+                        }
+                    }
+                }
+            };
+
+            StatementFlowable.whileDo(source, countdown(3), Schedulers.single(), 1)
+            .test()
+            .awaitDone(5, java.util.concurrent.TimeUnit.SECONDS)
+            .assertResult(1, 1, 1);
+
+            assertEquals(2, schedules.get());
+        } finally {
+            RxJavaPlugins.reset();
+        }
+    }
+
+    @Test
+    public void doWhileResubscribeBackpressured() {
+        io.reactivex.subscribers.TestSubscriber<Integer> ts = StatementFlowable.doWhile(Flowable.range(1, 2), countdown(2))
+        .test(0L);
+
+        ts.request(2);
+        ts.assertValues(1, 2);
+
+        ts.request(2);
+        ts.assertValues(1, 2, 1, 2);
+
+        ts.request(2);
+        ts.assertResult(1, 2, 1, 2, 1, 2);
+    }
+}
@@ -22,8 +22,10 @@ import java.util.concurrent.Callable;
 import org.junit.*;
 import org.mockito.MockitoAnnotations;
 
+import hu.akarnokd.rxjava2.functions.IntSupplier;
 import io.reactivex.Observable;
 import io.reactivex.functions.BooleanSupplier;
+import io.reactivex.internal.functions.Functions;
 import io.reactivex.schedulers.*;
 
 public class StatementObservableTest {
@@ -168,6 +170,67 @@ public class StatementObservableTest {
         observeError(result, RuntimeException.class);
     }
 
+    enum Route { FIRST, SECOND, THIRD }
+
+    @Test
+    public void tableEnumKeys() {
+        Map<Route, Observable<Integer>> map = new EnumMap<Route, Observable<Integer>>(Route.class);
+        map.put(Route.FIRST, Observable.just(1, 2, 3));
+        map.put(Route.THIRD, Observable.just(7, 8, 9));
+
+        SwitchCaseTable<Route, Observable<Integer>> table = SwitchCaseTable.of(map);
+        map.clear();
+
+        final Route[] routes = Route.values();
+        Observable<Integer> result = StatementObservable.switchCase(new Callable<Route>() {
+            int index;
+
+            @Override
+            public Route call() {
+                return routes[index++];
+            }
+        }, table, Observable.just(4, 5, 6));
+
+        observe(result, 1, 2, 3);
+        observe(result, 4, 5, 6);
+        observe(result, 7, 8, 9);
+    }
+
+    @Test(timeout = 5000)
+    public void switchCaseTableDefault() {
+        Map<Integer, Observable<Integer>> map = new HashMap<Integer, Observable<Integer>>();
+        for (int i = 0; i < 8; i++) {
+            map.put(i, Observable.just(i));
+        }
+
+        StatementObservable.switchCase(Functions.justCallable(1000), SwitchCaseTable.of(map), Observable.just(-1))
+        .test()
+        .assertResult(-1);
+    }
+
+    @Test
+    public void arrayCases() {
+        @SuppressWarnings("unchecked")
+        Observable<Integer>[] cases = new Observable[] { Observable.just(1, 2, 3), null, Observable.just(7, 8, 9) };
+
+        Observable<Integer> result = StatementObservable.switchCase(new IntSupplier() {
+            int index = -1;
+
+            @Override
+            public int getAsInt() {
+                return index++;
+            }
+        }, cases, Observable.just(4, 5, 6));
+
+        cases[0] = Observable.just(0);
+
+        observe(result, 4, 5, 6);
+        observe(result, 1, 2, 3);
+        observe(result, 4, 5, 6);
+        observe(result, 7, 8, 9);
+        observe(result, 4, 5, 6);
+    }
+
     @Test
     public void testMapContainsKeyThrows() {
         Observable<Integer> source1 = Observable.just(1, 2, 3);
@@ -1183,4 +1183,96 @@ public class FunctionTaggingTest {
             return null;
         }
     }
+
+    @Test
+    public void f1TagCallSite() throws Exception {
+        boolean enabled = FunctionTagging.isEnabled();
+        try {
+            FunctionTagging.disable();
+
+            Function<Integer, Integer> f0 = Functions.<Integer>identity();
+
+            assertSame(f0, FunctionTagging.tagFunction(f0));
+
+            FunctionTagging.enable();
+
+            Function<Integer, Integer> f = FunctionTagging.tagFunction(f0);
+
+            assertNotSame(f0, f);
+            assertEquals((Integer)1, f.apply(1));
+
+            try {
+                f.apply(null);
+                fail("Should have thrown!");
+            } catch (NullPointerException ex) {
+                assertTrue(ex.getMessage(), ex.getMessage().contains("FunctionTaggingTest.f1TagCallSite"));
+            }
+
+            f = FunctionTagging.tagFunction(new Function<Integer, Integer>() {
+                @Override
+                public Integer apply(Integer a) throws Exception {
+                    throw new IOException();
+                }
+            });
+
+            try {
+                f.apply(1);
+                fail("Should have thrown!");
+            } catch (IOException ex) {
+                assertTrue(ex.getCause().getMessage(), ex.getCause().getMessage().contains("FunctionTaggingTest.f1TagCallSite"));
+            }
+        } finally {
+            if (!enabled) {
+                FunctionTagging.disable();
+            }
+        }
+    }
+
+    @Test
+    public void fNTagCallSite() throws Exception {
+        boolean enabled = FunctionTagging.isEnabled();
+        try {
+            FunctionTagging.enable();
+
+            BiFunction<Integer, Integer, Integer> f2 = FunctionTagging.tagBiFunction(new BiFunction<Integer, Integer, Integer>() {
+                @Override
+                public Integer apply(Integer a, Integer b) throws Exception {
+                    return null;
+                }
+            });
+
+            try {
+                f2.apply(1, 2);
+                fail("Should have thrown!");
+            } catch (NullPointerException ex) {
+                assertTrue(ex.getMessage(), ex.getMessage().contains("FunctionTaggingTest.fNTagCallSite"));
+            }
+
+            Function9<Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer> f9 =
+                    FunctionTagging.tagFunction9(new Function9<Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer>() {
+                @Override
+                public Integer apply(Integer a, Integer b, Integer c, Integer d, Integer e, Integer f, Integer g, Integer h, Integer i) throws Exception {
+                    return a + b + c + d + e + f + g + h + i;
+                }
+            });
+
+            assertEquals((Integer)9, f9.apply(1, 1, 1, 1, 1, 1, 1, 1, 1));
+
+            try {
+                f9.apply(1, 1, 1, 1, 1, 1, 1, 1, null);
+                fail("Should have thrown!");
+            } catch (NullPointerException ex) {
+                assertTrue(ex.getMessage(), ex.getMessage().contains("FunctionTaggingTest.fNTagCallSite"));
+            }
+        } finally {
+            if (!enabled) {
+                FunctionTagging.disable();
+            }
+        }
+    }
+
+    @Test
+    public void callSiteTagFormatUnknown() {
+        assertEquals("at <unknown>", FunctionTagging.CallSiteTag.format(new StackTraceElement[0]));
+    }
 }
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.joins;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.*;
+import io.reactivex.internal.functions.Functions;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+public class JoinFlowableTest {
+
+    static final BiFunction<Integer, Integer, Integer> ADD = new BiFunction<Integer, Integer, Integer>() {
+        @Override
+        public Integer apply(Integer a, Integer b) throws Exception {
+            return a + b;
+        }
+    };
+
+    static final BiFunction<Integer, Integer, Integer> MUL = new BiFunction<Integer, Integer, Integer>() {
+        @Override
+        public Integer apply(Integer a, Integer b) throws Exception {
+            return a * b;
+        }
+    };
+
+    static final BiFunction<Integer, Integer, Integer> SUB = new BiFunction<Integer, Integer, Integer>() {
+        @Override
+        public Integer apply(Integer a, Integer b) throws Exception {
+            return a - b;
+        }
+    };
+
+    static final Function<Object[], Integer> SUM = new Function<Object[], Integer>() {
+        @Override
+        public Integer apply(Object[] a) throws Exception {
+            int s = 0;
+            for (Object o : a) {
+                s += (Integer)o;
+            }
+            return s;
+        }
+    };
+
+    @Test
+    public void then1() {
+        JoinFlowable.when(JoinFlowable.from(Flowable.range(1, 5)).then(Functions.<Integer>identity()))
+        .toFlowable()
+        .test()
+        .assertResult(1, 2, 3, 4, 5);
+    }
+
+    @Test
+    public void and2() {
+        JoinFlowable.when(JoinFlowable.from(Flowable.just(1, 2, 3)).and(Flowable.just(4, 5)).then(ADD))
+        .toFlowable()
+        .test()
+        .assertResult(5, 7);
+    }
+
+    @Test
+    public void sameSourceTwice() {
+        Flowable<Integer> some = Flowable.just(1);
+        JoinFlowable.when(JoinFlowable.from(some).and(some).then(ADD))
+        .toFlowable()
+        .test()
+        .assertResult(2);
+    }
+
+    @Test
+    public void and9() {
+        Flowable<Integer> s = Flowable.range(1, 3);
+        JoinFlowable.when(JoinFlowable.from(s).and(Flowable.range(1, 3)).and(Flowable.range(1, 3))
+                .and(Flowable.range(1, 3)).and(Flowable.range(1, 3)).and(Flowable.range(1, 3))
+                .and(Flowable.range(1, 3)).and(Flowable.range(1, 3)).and(Flowable.range(1, 3))
+                .then(new Function9<Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer>() {
+                    @Override
+                    public Integer apply(Integer t1, Integer t2, Integer t3, Integer t4, Integer t5, Integer t6,
+                            Integer t7, Integer t8, Integer t9) throws Exception {
+                        return t1 + t2 + t3 + t4 + t5 + t6 + t7 + t8 + t9;
+                    }
+                }))
+        .toFlowable()
+        .test()
+        .assertResult(9, 18, 27);
+    }
+
+    @Test
+    public void andN() {
+        FlowablePatternN p = JoinFlowable.from(Flowable.just(1)).and(Flowable.just(1)).and(Flowable.just(1))
+                .and(Flowable.just(1)).and(Flowable.just(1)).and(Flowable.just(1))
+                .and(Flowable.just(1)).and(Flowable.just(1)).and(Flowable.just(1))
+                .and(Flowable.just(1));
+        p = p.and(Flowable.just(1));
+
+        JoinFlowable.when(p.then(SUM))
+        .toFlowable()
+        .test()
+        .assertResult(11);
+    }
+
+    @Test
+    public void complicated() {
+        PublishProcessor<Integer> xs = PublishProcessor.create();
+        PublishProcessor<Integer> ys = PublishProcessor.create();
+        PublishProcessor<Integer> zs = PublishProcessor.create();
+
+        @SuppressWarnings("unchecked")
+        TestSubscriber<Integer> ts = JoinFlowable.when(
+                JoinFlowable.from(xs).and(ys).then(ADD),
+                JoinFlowable.from(xs).and(zs).then(MUL),
+                JoinFlowable.from(ys).and(zs).then(SUB)
+        ).toFlowable().test();
+
+        xs.onNext(1);
+        xs.onNext(2);
+        zs.onNext(7);
+        xs.onNext(3);
+        zs.onNext(8);
+        ys.onNext(4);
+        zs.onNext(9);
+        xs.onComplete();
+        ys.onNext(5);
+        ys.onNext(6);
+        ys.onComplete();
+
+        ts.assertValues(7, 16, 7, -4)
+        .assertNotComplete();
+
+        zs.onComplete();
+
+        ts.assertResult(7, 16, 7, -4);
+    }
+
+    @Test
+    public void neverAndEmpty() {
+        JoinFlowable.when(JoinFlowable.from(Flowable.<Integer>never()).and(Flowable.<Integer>empty()).then(ADD))
+        .toFlowable()
+        .test()
+        .assertEmpty();
+    }
+
+    @Test
+    public void errorFirst() {
+        JoinFlowable.when(JoinFlowable.from(Flowable.<Integer>error(new TestException())).and(Flowable.just(1)).then(ADD))
+        .toFlowable()
+        .test()
+        .assertFailure(TestException.class);
+    }
+
+    @Test
+    public void errorSecond() {
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = JoinFlowable.when(JoinFlowable.from(pp).and(Flowable.<Integer>error(new TestException())).then(ADD))
+        .toFlowable()
+        .test();
+
+        ts.assertFailure(TestException.class);
+
+        assertFalse(pp.hasSubscribers());
+    }
+
+    @Test
+    public void selectorThrows() {
+        PublishProcessor<Integer> pp1 = PublishProcessor.create();
+        PublishProcessor<Integer> pp2 = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = JoinFlowable.when(JoinFlowable.from(pp1).and(pp2).then(new BiFunction<Integer, Integer, Integer>() {
+            @Override
+            public Integer apply(Integer a, Integer b) throws Exception {
+                throw new TestException();
+            }
+        }))
+        .toFlowable()
+        .test();
+
+        pp1.onNext(1);
+        pp2.onNext(2);
+
+        ts.assertFailure(TestException.class);
+
+        assertFalse(pp1.hasSubscribers());
+        assertFalse(pp2.hasSubscribers());
+    }
+
+    @Test
+    public void noPlans() {
+        JoinFlowable.when(Collections.<FlowablePlan<Integer>>emptyList())
+        .toFlowable()
+        .test()
+        .assertResult();
+    }
+
+    @Test
+    public void cancel() {
+        PublishProcessor<Integer> pp1 = PublishProcessor.create();
+        PublishProcessor<Integer> pp2 = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = JoinFlowable.when(JoinFlowable.from(pp1).and(pp2).then(ADD))
+        .toFlowable()
+        .test();
+
+        assertTrue(pp1.hasSubscribers());
+        assertTrue(pp2.hasSubscribers());
+
+        ts.cancel();
+
+        assertFalse(pp1.hasSubscribers());
+        assertFalse(pp2.hasSubscribers());
+    }
+
+    @Test
+    public void backpressure() {
+        TestSubscriber<Integer> ts = JoinFlowable.when(JoinFlowable.from(Flowable.range(1, 10)).and(Flowable.range(1, 10)).then(ADD))
+        .toFlowable()
+        .test(0);
+
+        ts.assertEmpty();
+
+        ts.request(2);
+
+        ts.assertValues(2, 4).assertNotComplete();
+
+        ts.request(8);
+
+        ts.assertResult(2, 4, 6, 8, 10, 12, 14, 16, 18, 20);
+    }
+
+    @Test
+    public void boundedPrefetch() {
+        final List<Long> requests = new ArrayList<Long>();
+
+        Flowable<Integer> fast = Flowable.range(1, 1000)
+                .doOnRequest(new LongConsumer() {
+                    @Override
+                    public void accept(long n) throws Exception {
+                        requests.add(n);
+                    }
+                });
+
+        PublishProcessor<Integer> slow = PublishProcessor.create();
+
+        @SuppressWarnings("unchecked")
+        TestSubscriber<Integer> ts = JoinFlowable.when(
+                Arrays.asList(JoinFlowable.from(fast).and(slow).then(ADD)), 16)
+        .toFlowable()
+        .test();
+
+        assertEquals(Arrays.asList(16L), requests);
+
+        for (int i = 0; i < 12; i++) {
+            slow.onNext(0);
+        }
+
+        assertEquals(Arrays.asList(16L, 12L), requests);
+        ts.assertValueCount(12);
+
+        slow.onComplete();
+
+        ts.assertValueCount(12).assertNoErrors().assertComplete();
+    }
+
+    @Test
+    public void async() {
+        for (int i = 0; i < 10; i++) {
+            JoinFlowable.when(JoinFlowable.from(Flowable.range(1, 1000).subscribeOn(Schedulers.computation()))
+                    .and(Flowable.range(1, 1000).subscribeOn(Schedulers.computation()))
+                    .then(SUB))
+            .toFlowable()
+            .test()
+            .awaitDone(5, TimeUnit.SECONDS)
+            .assertValueCount(1000)
+            .assertNoErrors()
+            .assertComplete();
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void fromNull() {
+        JoinFlowable.from(null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void thenNull() {
+        JoinFlowable.from(Flowable.just(1)).and(Flowable.just(1)).then(null);
+    }
+}
@@ -0,0 +1,408 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.joins;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.reactivex.Observable;
+import io.reactivex.functions.*;
+import io.reactivex.internal.functions.Functions;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.*;
+import io.reactivex.subjects.PublishSubject;
+
+public class KeyedJoinTest {
+
+    static final Function<String, String> FIRST_CHAR = new Function<String, String>() {
+        @Override
+        public String apply(String v) throws Exception {
+            return v.substring(0, 1);
+        }
+    };
+
+    static final BiFunction<String, String, String> CONCAT = new BiFunction<String, String, String>() {
+        @Override
+        public String apply(String a, String b) throws Exception {
+            return a + b;
+        }
+    };
+
+    static BiConsumer<Integer, Object> collect(final List<String> list) {
+        return new BiConsumer<Integer, Object>() {
+            @Override
+            public void accept(Integer index, Object v) throws Exception {
+                list.add(index + ":" + v);
+            }
+        };
+    }
+
+    @Test
+    public void matchByKey() {
+        PublishSubject<String> orders = PublishSubject.create();
+        PublishSubject<String> payments = PublishSubject.create();
+
+        TestObserver<String> to = JoinObservable.when(
+                JoinObservable.from(orders).keyBy(FIRST_CHAR)
+                .and(payments, FIRST_CHAR)
+                .then(CONCAT))
+        .toObservable()
+        .test();
+
+        orders.onNext("a1");
+        orders.onNext("b1");
+        orders.onNext("a2");
+        to.assertEmpty();
+
+        payments.onNext("bP");
+        to.assertValues("b1bP");
+
+        payments.onNext("aP");
+        payments.onNext("aQ");
+        to.assertValues("b1bP", "a1aP", "a2aQ");
+
+        payments.onNext("cP");
+        to.assertNotComplete();
+
+        orders.onComplete();
+
+        to.assertResult("b1bP", "a1aP", "a2aQ");
+        assertFalse(payments.hasObservers());
+    }
+
+    @Test
+    public void pendingItemsStillMatchAfterCompletion() {
+        PublishSubject<String> orders = PublishSubject.create();
+        PublishSubject<String> payments = PublishSubject.create();
+        List<String> evicted = new ArrayList<String>();
+
+        TestObserver<String> to = JoinObservable.when(
+                JoinObservable.from(orders).keyBy(FIRST_CHAR)
+                .and(payments, FIRST_CHAR)
+                .onEvict(collect(evicted))
+                .then(CONCAT))
+        .toObservable()
+        .test();
+
+        orders.onNext("a1");
+        orders.onNext("b1");
+        orders.onComplete();
+
+        to.assertEmpty();
+
+        payments.onNext("aP");
+
+        to.assertValues("a1aP").assertNotComplete();
+
+        payments.onNext("bP");
+
+        to.assertResult("a1aP", "b1bP");
+        assertFalse(payments.hasObservers());
+        assertTrue(evicted.isEmpty());
+    }
+
+    @Test
+    public void leftoversEvictedOnCompletion() {
+        List<String> evicted = new ArrayList<String>();
+
+        JoinObservable.when(
+                JoinObservable.from(Observable.just("a1", "b1", "c1")).keyBy(FIRST_CHAR)
+                .and(Observable.just("bP"), FIRST_CHAR)
+                .onEvict(collect(evicted))
+                .then(CONCAT))
+        .toObservable()
+        .test()
+        .assertResult("b1bP");
+
+        assertEquals(Arrays.asList("0:a1", "0:c1"), evicted);
+    }
+
+    @Test
+    public void allSourcesDoneWithLeftovers() {
+        List<String> evicted = new ArrayList<String>();
+
+        JoinObservable.when(
+                JoinObservable.from(Observable.just("a1", "b1")).keyBy(FIRST_CHAR)
+                .and(Observable.just("cP", "dP"), FIRST_CHAR)
+                .onEvict(collect(evicted))
+                .then(CONCAT))
+        .toObservable()
+        .test()
+        .assertResult();
+
+        assertEquals(Arrays.asList("0:a1", "0:b1", "1:cP", "1:dP"), evicted);
+    }
+
+    @Test
+    public void allSourcesDoneWithLeftoversAsync() {
+        PublishSubject<String> orders = PublishSubject.create();
+        PublishSubject<String> payments = PublishSubject.create();
+        List<String> evicted = new ArrayList<String>();
+
+        TestObserver<String> to = JoinObservable.when(
+                JoinObservable.from(orders).keyBy(FIRST_CHAR)
+                .and(payments, FIRST_CHAR)
+                .onEvict(collect(evicted))
+                .then(CONCAT))
+        .toObservable()
+        .test();
+
+        orders.onNext("a1");
+        payments.onNext("bP");
+        orders.onNext("b1");
+        payments.onNext("cP");
+
+        orders.onComplete();
+
+        to.assertValues("b1bP").assertNotComplete();
+        assertTrue(evicted.isEmpty());
+
+        payments.onComplete();
+
+        to.assertResult("b1bP");
+        assertEquals(Arrays.asList("0:a1", "1:cP"), evicted);
+    }
+
+    @Test
+    public void countWindow() {
+        PublishSubject<String> orders = PublishSubject.create();
+        PublishSubject<String> payments = PublishSubject.create();
+        List<String> evicted = new ArrayList<String>();
+
+        TestObserver<String> to = JoinObservable.when(
+                JoinObservable.from(orders).keyBy(FIRST_CHAR)
+                .and(payments, FIRST_CHAR)
+                .window(2)
+                .onEvict(collect(evicted))
+                .then(CONCAT))
+        .toObservable()
+        .test();
+
+        orders.onNext("a1");
+        orders.onNext("b1");
+        orders.onNext("a2");
+
+        assertEquals(Arrays.asList("0:a1"), evicted);
+
+        payments.onNext("aP");
+        payments.onNext("xP");
+        payments.onNext("yP");
+        payments.onNext("zP");
+
+        assertEquals(Arrays.asList("0:a1", "1:xP"), evicted);
+
+        to.assertValues("a2aP");
+    }
+
+    @Test
+    public void timeWindow() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishSubject<String> orders = PublishSubject.create();
+        PublishSubject<String> payments = PublishSubject.create();
+        List<String> evicted = new ArrayList<String>();
+
+        TestObserver<String> to = JoinObservable.when(
+                JoinObservable.from(orders).keyBy(FIRST_CHAR)
+                .and(payments, FIRST_CHAR)
+                .window(10, TimeUnit.SECONDS, scheduler)
+                .onEvict(collect(evicted))
+                .then(CONCAT))
+        .toObservable()
+        .test();
+
+        orders.onNext("a1");
+
+        scheduler.advanceTimeBy(5, TimeUnit.SECONDS);
+
+        orders.onNext("b1");
+
+        scheduler.advanceTimeBy(5, TimeUnit.SECONDS);
+
+        assertEquals(Arrays.asList("0:a1"), evicted);
+
+        payments.onNext("aP");
+        payments.onNext("bP");
+
+        to.assertValues("b1bP");
+
+        scheduler.advanceTimeBy(10, TimeUnit.SECONDS);
+
+        assertEquals(Arrays.asList("0:a1", "1:aP"), evicted);
+
+        to.dispose();
+
+        assertFalse(orders.hasObservers());
+        assertFalse(payments.hasObservers());
+    }
+
+    @Test
+    public void threeSources() {
+        JoinObservable.when(
+                JoinObservable.from(Observable.just(1, 2, 3)).keyBy(Functions.<Integer>identity())
+                .and(Observable.just(3, 2), Functions.<Integer>identity())
+                .and(Observable.just(2, 3, 4), Functions.<Integer>identity())
+                .then(new Function3<Integer, Integer, Integer, Integer>() {
+                    @Override
+                    public Integer apply(Integer a, Integer b, Integer c) throws Exception {
+                        return a + b + c;
+                    }
+                }))
+        .toObservable()
+        .test()
+        .assertResult(6, 9);
+    }
+
+    @Test
+    public void manySources() {
+        Observable<Integer> s = Observable.range(1, 5);
+        JoinObservable.when(
+                JoinObservable.from(s).keyBy(Functions.<Integer>identity())
+                .and(s, Functions.<Integer>identity())
+                .and(s, Functions.<Integer>identity())
+                .and(Observable.just(5, 3), Functions.<Integer>identity())
+                .and(s, Functions.<Integer>identity())
+                .then(new Function<Object[], Integer>() {
+                    @Override
+                    public Integer apply(Object[] a) throws Exception {
+                        return a.length * (Integer)a[0];
+                    }
+                }))
+        .toObservable()
+        .test()
+        .assertResult(15, 25);
+    }
+
+    @Test
+    public void mixedWithRegularPlan() {
+        PublishSubject<String> orders = PublishSubject.create();
+        PublishSubject<String> payments = PublishSubject.create();
+        PublishSubject<String> other = PublishSubject.create();
+
+        @SuppressWarnings("unchecked")
+        TestObserver<String> to = JoinObservable.when(
+                JoinObservable.from(orders).keyBy(FIRST_CHAR).and(payments, FIRST_CHAR).then(CONCAT),
+                JoinObservable.from(other).then(Functions.<String>identity())
+        )
+        .toObservable()
+        .test();
+
+        other.onNext("x");
+        orders.onNext("a1");
+        payments.onNext("aP");
+        other.onComplete();
+
+        to.assertValues("x", "a1aP").assertNotComplete();
+
+        orders.onComplete();
+
+        to.assertResult("x", "a1aP");
+    }
+
+    @Test
+    public void keySelectorThrows() {
+        JoinObservable.when(
+                JoinObservable.from(Observable.just("a")).keyBy(new Function<String, String>() {
+                    @Override
+                    public String apply(String v) throws Exception {
+                        throw new TestException();
+                    }
+                })
+                .and(Observable.just("a"), FIRST_CHAR)
+                .then(CONCAT))
+        .toObservable()
+        .test()
+        .assertFailure(TestException.class);
+    }
+
+    @Test
+    public void onEvictThrows() {
+        PublishSubject<String> payments = PublishSubject.create();
+
+        JoinObservable.when(
+                JoinObservable.from(Observable.just("a1", "a2")).keyBy(FIRST_CHAR)
+                .and(payments, FIRST_CHAR)
+                .window(1)
+                .onEvict(new BiConsumer<Integer, Object>() {
+                    @Override
+                    public void accept(Integer t1, Object t2) throws Exception {
+                        throw new TestException();
+                    }
+                })
+                .then(CONCAT))
+        .toObservable()
+        .test()
+        .assertFailure(TestException.class);
+
+        assertFalse(payments.hasObservers());
+    }
+
+    @Test
+    public void sourceError() {
+        PublishSubject<String> orders = PublishSubject.create();
+
+        JoinObservable.when(
+                JoinObservable.from(orders).keyBy(FIRST_CHAR)
+                .and(Observable.<String>error(new TestException()), FIRST_CHAR)
+                .then(CONCAT))
+        .toObservable()
+        .test()
+        .assertFailure(TestException.class);
+
+        assertFalse(orders.hasObservers());
+    }
+
+    @Test
+    public void async() {
+        for (int i = 0; i < 10; i++) {
+            JoinObservable.when(
+                    JoinObservable.from(Observable.range(1, 1000).subscribeOn(Schedulers.computation()))
+                    .keyBy(Functions.<Integer>identity())
+                    .and(Observable.range(1, 1000).map(new Function<Integer, Integer>() {
+                        @Override
+                        public Integer apply(Integer v) throws Exception {
+                            return 1001 - v;
+                        }
+                    }).subscribeOn(Schedulers.computation()), Functions.<Integer>identity())
+                    .then(new BiFunction<Integer, Integer, Integer>() {
+                        @Override
+                        public Integer apply(Integer a, Integer b) throws Exception {
+                            return a - b;
+                        }
+                    }))
+            .toObservable()
+            .test()
+            .awaitDone(5, TimeUnit.SECONDS)
+            .assertValueCount(1000)
+            .assertNoErrors()
+            .assertComplete();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void badCount() {
+        JoinObservable.from(Observable.just("a")).keyBy(FIRST_CHAR).and(Observable.just("a"), FIRST_CHAR).window(0);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void keySelectorNull() {
+        JoinObservable.from(Observable.just("a")).keyBy(null);
+    }
+}
@@ -16,10 +16,10 @@
 
 package hu.akarnokd.rxjava2.joins;
 
-import static org.junit.Assert.fail;
+import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
-import java.util.concurrent.Callable;
+import java.util.concurrent.*;
 
 import org.junit.*;
 import org.mockito.*;
@@ -28,6 +28,7 @@ import io.reactivex.*;
 import io.reactivex.functions.*;
 import io.reactivex.internal.functions.Functions;
 import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.Schedulers;
 import io.reactivex.subjects.PublishSubject;
 
 public class OperatorJoinsTest {
@@ -1358,4 +1359,85 @@ public class OperatorJoinsTest {
             verifyError(JoinObservable.when(p.then(throwFunc)));
         }
     }
+
+    @Test
+    public void whenConcurrentSources() {
+        for (int i = 0; i < 10; i++) {
+            Observable<Integer> s1 = Observable.range(1, 1000).subscribeOn(Schedulers.computation());
+            Observable<Integer> s2 = Observable.range(1, 1000).subscribeOn(Schedulers.computation());
+            Observable<Integer> s3 = Observable.range(1, 1000).subscribeOn(Schedulers.computation());
+            Observable<Integer> s4 = Observable.range(1, 1000).subscribeOn(Schedulers.computation());
+
+            @SuppressWarnings("unchecked")
+            TestObserver<Integer> to = JoinObservable.when(
+                    JoinObservable.from(s1).and(s2).then(sub2),
+                    JoinObservable.from(s3).and(s4).then(sub2)
+            )
+            .toObservable()
+            .test()
+            .awaitDone(5, TimeUnit.SECONDS)
+            .assertValueCount(2000)
+            .assertNoErrors()
+            .assertComplete();
+
+            for (Integer v : to.values()) {
+                assertEquals(0, v.intValue());
+            }
+        }
+    }
+
+    @Test
+    public void whenDispose() {
+        PublishSubject<Integer> xs = PublishSubject.create();
+        PublishSubject<Integer> ys = PublishSubject.create();
+
+        TestObserver<Integer> to = JoinObservable.when(JoinObservable.from(xs).and(ys).then(add))
+                .toObservable()
+                .test();
+
+        assertTrue(xs.hasObservers());
+        assertTrue(ys.hasObservers());
+
+        to.dispose();
+
+        assertFalse(xs.hasObservers());
+        assertFalse(ys.hasObservers());
+    }
+
+    @Test
+    public void whenUnusedSourceDisposed() {
+        PublishSubject<Integer> xs = PublishSubject.create();
+        PublishSubject<Integer> ys = PublishSubject.create();
+        PublishSubject<Integer> zs = PublishSubject.create();
+
+        @SuppressWarnings("unchecked")
+        TestObserver<Integer> to = JoinObservable.when(
+                JoinObservable.from(xs).and(ys).then(add),
+                JoinObservable.from(zs).then(Functions.<Integer>identity())
+        )
+        .toObservable()
+        .test();
+
+        xs.onNext(1);
+        ys.onComplete();
+
+        assertFalse(xs.hasObservers());
+        assertTrue(zs.hasObservers());
+
+        zs.onNext(5);
+        zs.onComplete();
+
+        to.assertResult(5);
+    }
+
+    @SuppressWarnings("deprecation")
+    @Test
+    public void onErrorFrom() throws Exception {
+        TestObserver<Integer> to = new TestObserver<Integer>();
+        to.onSubscribe(io.reactivex.disposables.Disposables.empty());
+
+        Plan.onErrorFrom(to).accept(new TestException());
+
+        to.assertFailure(TestException.class);
+    }
 }
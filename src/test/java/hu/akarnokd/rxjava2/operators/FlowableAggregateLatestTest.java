@@ -0,0 +1,240 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.operators;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+
+import io.reactivex.Flowable;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+public class FlowableAggregateLatestTest {
+
+    static class Sum implements IncrementalAggregator<Integer, Integer> {
+        final List<String> updates = new ArrayList<String>();
+
+        int sum;
+
+        @Override
+        public void update(int index, Integer oldValue, Integer newValue) {
+            updates.add(index + ":" + oldValue + "->" + newValue);
+            sum += newValue - (oldValue != null ? oldValue : 0);
+        }
+
+        @Override
+        public Integer current() {
+            return sum;
+        }
+    }
+
+    static Callable<Sum> sum(final Sum instance) {
+        return new Callable<Sum>() {
+            @Override
+            public Sum call() throws Exception {
+                return instance;
+            }
+        };
+    }
+
+    static final Callable<Sum> SUM = new Callable<Sum>() {
+        @Override
+        public Sum call() throws Exception {
+            return new Sum();
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void normal() {
+        Sum agg = new Sum();
+        PublishProcessor<Integer> pp1 = PublishProcessor.create();
+        PublishProcessor<Integer> pp2 = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = Flowables.<Integer, Integer>aggregateLatest(sum(agg), pp1, pp2).test();
+
+        pp1.onNext(1);
+
+        ts.assertEmpty();
+
+        pp2.onNext(10);
+
+        ts.assertValues(11);
+
+        pp1.onNext(5);
+
+        ts.assertValues(11, 15);
+
+        pp2.onNext(20);
+        pp1.onComplete();
+        pp2.onComplete();
+
+        ts.assertResult(11, 15, 25);
+
+        assertEquals(Arrays.asList("0:null->1", "1:null->10", "0:1->5", "1:10->20"), agg.updates);
+    }
+
+    @Test
+    public void backpressured() {
+        Sum agg = new Sum();
+        PublishProcessor<Integer> pp1 = PublishProcessor.create();
+        PublishProcessor<Integer> pp2 = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = Flowables.aggregateLatest(Arrays.asList(pp1, pp2), sum(agg)).test(1);
+
+        pp1.onNext(1);
+        pp2.onNext(10);
+
+        ts.assertValues(11);
+
+        pp1.onNext(2);
+        pp1.onNext(3);
+        pp2.onNext(30);
+
+        ts.assertValues(11);
+
+        ts.request(1);
+
+        ts.assertValues(11, 33);
+
+        pp1.onComplete();
+        pp2.onComplete();
+
+        ts.assertResult(11, 33);
+
+        assertEquals(Arrays.asList("0:null->1", "1:null->10", "0:1->2", "0:2->3", "1:10->30"), agg.updates);
+    }
+
+    @Test
+    public void lastChangeWaitsForRequest() {
+        TestSubscriber<Integer> ts = Flowables.aggregateLatest(Arrays.asList(Flowable.just(1), Flowable.just(2, 3)), SUM)
+        .test(1);
+
+        ts.assertValues(3)
+        .assertNotComplete();
+
+        ts.request(1);
+
+        ts.assertResult(3, 4);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void emptySource() {
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        Flowables.<Integer, Integer>aggregateLatest(SUM, pp, Flowable.<Integer>empty())
+        .test()
+        .assertResult();
+
+        assertFalse(pp.hasSubscribers());
+    }
+
+    @Test
+    public void noSources() {
+        Flowables.aggregateLatest(new ArrayList<Publisher<Integer>>(), SUM)
+        .test()
+        .assertResult();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void error() {
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        Flowables.<Integer, Integer>aggregateLatest(SUM, pp, Flowable.<Integer>error(new IOException()))
+        .test()
+        .assertFailure(IOException.class);
+
+        assertFalse(pp.hasSubscribers());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void updateCrash() {
+        Flowables.<Integer, Integer>aggregateLatest(new Callable<IncrementalAggregator<Integer, Integer>>() {
+            @Override
+            public IncrementalAggregator<Integer, Integer> call() throws Exception {
+                return new Sum() {
+                    @Override
+                    public void update(int index, Integer oldValue, Integer newValue) {
+                        if (newValue == 3) {
+                            throw new IllegalStateException();
+                        }
+                        super.update(index, oldValue, newValue);
+                    }
+                };
+            }
+        }, Flowable.just(1), Flowable.just(2, 3))
+        .test()
+        .assertFailure(IllegalStateException.class, 3);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void supplierCrash() {
+        Flowables.<Integer, Integer>aggregateLatest(new Callable<IncrementalAggregator<Integer, Integer>>() {
+            @Override
+            public IncrementalAggregator<Integer, Integer> call() throws Exception {
+                throw new IOException();
+            }
+        }, Flowable.just(1))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void cancel() {
+        PublishProcessor<Integer> pp1 = PublishProcessor.create();
+        PublishProcessor<Integer> pp2 = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = Flowables.aggregateLatest(Arrays.asList(pp1, pp2), SUM).test();
+
+        assertTrue(pp1.hasSubscribers());
+        assertTrue(pp2.hasSubscribers());
+
+        ts.cancel();
+
+        assertFalse(pp1.hasSubscribers());
+        assertFalse(pp2.hasSubscribers());
+    }
+
+    @Test
+    public void manyAsyncSources() {
+        List<Flowable<Integer>> sources = new ArrayList<Flowable<Integer>>();
+        int expected = 0;
+        for (int i = 0; i < 1000; i++) {
+            sources.add(Flowable.range(i, 100).subscribeOn(Schedulers.computation()));
+            expected += i + 99;
+        }
+
+        TestSubscriber<Integer> ts = Flowables.aggregateLatest(sources, SUM)
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertNoErrors()
+        .assertComplete();
+
+        assertEquals(expected, ts.values().get(ts.valueCount() - 1).intValue());
+    }
+}
@@ -16,18 +16,25 @@
 
 package hu.akarnokd.rxjava2.operators;
 
+import static org.junit.Assert.*;
+
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.Callable;
+import java.util.concurrent.*;
 
 import org.junit.Test;
 import org.reactivestreams.Subscriber;
 
 import hu.akarnokd.rxjava2.test.TestHelper;
+import hu.akarnokd.rxjava2.util.ObjectPool;
 import io.reactivex.Flowable;
-import io.reactivex.functions.Predicate;
+import io.reactivex.functions.*;
+import io.reactivex.internal.functions.Functions;
 import io.reactivex.internal.subscriptions.BooleanSubscription;
 import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
 
 public class FlowableBufferPredicateTest {
 
@@ -498,4 +505,338 @@ public class FlowableBufferPredicateTest {
                 Arrays.asList(1, 2)
         );
     }
+
+    static final Predicate<Integer> NOT_MINUS_ONE = new Predicate<Integer>() {
+        @Override
+        public boolean test(Integer v) throws Exception {
+            return v != -1;
+        }
+    };
+
+    static final Predicate<Integer> IS_MINUS_ONE = new Predicate<Integer>() {
+        @Override
+        public boolean test(Integer v) throws Exception {
+            return v == -1;
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void whileMaxSize() {
+        Flowable.just(1, 2, 3, -1, 4, -1, -1, 5)
+        .compose(FlowableTransformers.bufferWhile(NOT_MINUS_ONE, 2))
+        .test()
+        .assertResult(
+                Arrays.asList(1, 2),
+                Arrays.asList(3),
+                Arrays.asList(-1, 4),
+                Arrays.asList(-1),
+                Arrays.asList(-1, 5)
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void untilMaxSize() {
+        Flowable.just(1, 2, 3, -1, 4, -1, -1, 5)
+        .compose(FlowableTransformers.bufferUntil(IS_MINUS_ONE, 2))
+        .test()
+        .assertResult(
+                Arrays.asList(1, 2),
+                Arrays.asList(3, -1),
+                Arrays.asList(4, -1),
+                Arrays.asList(-1),
+                Arrays.asList(5)
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void splitMaxSize() {
+        Flowable.just(1, 2, 3, -1, 4, -1, -1, 5)
+        .compose(FlowableTransformers.bufferSplit(IS_MINUS_ONE, 2))
+        .test()
+        .assertResult(
+                Arrays.asList(1, 2),
+                Arrays.asList(3),
+                Arrays.asList(4),
+                Arrays.asList(5)
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void maxSizeBackpressured() {
+        Flowable.range(1, 7)
+        .compose(FlowableTransformers.bufferSplit(IS_MINUS_ONE, 3))
+        .test(0)
+        .assertEmpty()
+        .requestMore(1)
+        .assertValues(Arrays.asList(1, 2, 3))
+        .requestMore(1)
+        .assertValues(Arrays.asList(1, 2, 3), Arrays.asList(4, 5, 6))
+        .requestMore(1)
+        .assertResult(Arrays.asList(1, 2, 3), Arrays.asList(4, 5, 6), Arrays.asList(7));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void maxTime() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<List<Integer>> ts = pp
+        .compose(FlowableTransformers.bufferUntil(IS_MINUS_ONE, 10, 1, TimeUnit.SECONDS, scheduler))
+        .test();
+
+        pp.onNext(1);
+        pp.onNext(2);
+
+        ts.assertEmpty();
+
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        ts.assertValues(Arrays.asList(1, 2));
+
+        scheduler.advanceTimeBy(5, TimeUnit.SECONDS);
+
+        ts.assertValueCount(1);
+
+        pp.onNext(3);
+
+        scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+
+        pp.onNext(-1);
+        pp.onNext(4);
+
+        ts.assertValues(Arrays.asList(1, 2), Arrays.asList(3, -1));
+
+        scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+
+        ts.assertValues(Arrays.asList(1, 2), Arrays.asList(3, -1));
+
+        scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+
+        ts.assertValues(Arrays.asList(1, 2), Arrays.asList(3, -1), Arrays.asList(4));
+
+        pp.onComplete();
+
+        ts.assertResult(Arrays.asList(1, 2), Arrays.asList(3, -1), Arrays.asList(4));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void maxTimeBackpressured() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<List<Integer>> ts = pp
+        .compose(FlowableTransformers.bufferWhile(NOT_MINUS_ONE, 10, 1, TimeUnit.SECONDS, scheduler))
+        .test(1);
+
+        pp.onNext(1);
+
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        ts.assertValues(Arrays.asList(1));
+
+        // the upstream item requested in exchange for 1 goes into the open buffer
+        // but the timed-out buffer used up the only downstream request
+        assertTrue(pp.offer(2));
+        assertFalse(pp.offer(3));
+
+        ts.requestMore(1);
+
+        pp.onNext(-1);
+
+        ts.assertValues(Arrays.asList(1), Arrays.asList(2));
+
+        assertFalse(pp.offer(3));
+
+        pp.onComplete();
+
+        ts.requestMore(1)
+        .assertResult(Arrays.asList(1), Arrays.asList(2), Arrays.asList(-1));
+    }
+
+    @Test
+    public void recycler() {
+        final List<List<Integer>> pool = new ArrayList<List<Integer>>();
+
+        Callable<List<Integer>> supplier = new Callable<List<Integer>>() {
+            @Override
+            public List<Integer> call() throws Exception {
+                return pool.isEmpty() ? new ArrayList<Integer>() : pool.remove(pool.size() - 1);
+            }
+        };
+
+        final List<Integer> sizes = new ArrayList<Integer>();
+        final Set<List<Integer>> instances = Collections.newSetFromMap(new IdentityHashMap<List<Integer>, Boolean>());
+
+        Flowable.range(1, 100)
+        .compose(FlowableTransformers.bufferSplit(IS_MINUS_ONE, 10, 1, TimeUnit.MINUTES, new TestScheduler(),
+                supplier, new Consumer<List<Integer>>() {
+            @Override
+            public void accept(List<Integer> list) throws Exception {
+                list.clear();
+                pool.add(list);
+            }
+        }))
+        .subscribe(new Consumer<List<Integer>>() {
+            @Override
+            public void accept(List<Integer> list) throws Exception {
+                sizes.add(list.size());
+                instances.add(list);
+            }
+        });
+
+        assertEquals(Collections.nCopies(10, 10), sizes);
+        assertEquals(2, instances.size());
+    }
+
+    @Test
+    public void recyclerCrash() {
+        List<Throwable> errors = TestHelper.trackPluginErrors();
+        try {
+            Flowable.range(1, 4)
+            .compose(FlowableTransformers.bufferSplit(IS_MINUS_ONE, 2, 1, TimeUnit.MINUTES, new TestScheduler(),
+                    Functions.<Integer>createArrayList(2), new Consumer<List<Integer>>() {
+                @Override
+                public void accept(List<Integer> list) throws Exception {
+                    throw new IOException();
+                }
+            }))
+            .test()
+            .assertValueCount(2)
+            .assertNoErrors()
+            .assertComplete();
+
+            TestHelper.assertUndeliverable(errors, 0, IOException.class);
+            TestHelper.assertUndeliverable(errors, 1, IOException.class);
+        } finally {
+            RxJavaPlugins.reset();
+        }
+    }
+
+    @Test
+    public void boundedSupplierCrash() {
+        Flowable.range(1, 5)
+        .compose(FlowableTransformers.bufferSplit(IS_MINUS_ONE, 2, 1, TimeUnit.MINUTES, new TestScheduler(),
+                new Callable<List<Integer>>() {
+            int calls;
+            @Override
+            public List<Integer> call() throws Exception {
+                if (++calls == 2) {
+                    throw new IOException();
+                }
+                return new ArrayList<Integer>();
+            }
+        }, Functions.emptyConsumer()))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void boundedPredicateCrash() {
+        Flowable.range(1, 5)
+        .compose(FlowableTransformers.bufferWhile(new Predicate<Integer>() {
+            @Override
+            public boolean test(Integer v) throws Exception {
+                throw new IOException();
+            }
+        }, 2))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void boundedError() {
+        Flowable.range(1, 5).concatWith(Flowable.<Integer>error(new IOException()))
+        .compose(FlowableTransformers.bufferWhile(NOT_MINUS_ONE, 2))
+        .test()
+        .assertFailure(IOException.class, Arrays.asList(1, 2), Arrays.asList(3, 4));
+    }
+
+    @Test
+    public void boundedAsync() {
+        TestSubscriber<List<Integer>> ts = Flowable.range(1, 100000)
+        .subscribeOn(io.reactivex.schedulers.Schedulers.single())
+        .compose(FlowableTransformers.bufferUntil(IS_MINUS_ONE, 16, 1, TimeUnit.MILLISECONDS,
+                io.reactivex.schedulers.Schedulers.computation()))
+        .rebatchRequests(4)
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertNoErrors()
+        .assertComplete();
+
+        int n = 0;
+        for (List<Integer> list : ts.values()) {
+            assertTrue(list.toString(), list.size() >= 1 && list.size() <= 16);
+            for (Integer v : list) {
+                assertEquals(++n, v.intValue());
+            }
+        }
+        assertEquals(100000, n);
+    }
+
+    @Test
+    public void boundedBadArguments() {
+        try {
+            FlowableTransformers.bufferWhile(NOT_MINUS_ONE, 0);
+            fail("Should have thrown");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        try {
+            FlowableTransformers.bufferWhile(NOT_MINUS_ONE, 1, 0, TimeUnit.SECONDS, new TestScheduler());
+            fail("Should have thrown");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void boundedCancel() {
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<List<Integer>> ts = pp
+        .compose(FlowableTransformers.bufferWhile(NOT_MINUS_ONE, 10, 1, TimeUnit.SECONDS, new TestScheduler()))
+        .test();
+
+        assertTrue(pp.hasSubscribers());
+
+        ts.cancel();
+
+        assertFalse(pp.hasSubscribers());
+    }
+
+    @Test
+    public void pooledUntil() {
+        ObjectPool<List<Integer>> pool = ObjectPool.create(2, Functions.<Integer>createArrayList(16), new Consumer<List<Integer>>() {
+            @Override
+            public void accept(List<Integer> list) throws Exception {
+                list.clear();
+            }
+        });
+
+        final List<Object> sizes = new ArrayList<Object>();
+        final Set<List<Integer>> instances = Collections.newSetFromMap(new IdentityHashMap<List<Integer>, Boolean>());
+
+        Flowable.just(1, 2, -1, 3, -1, 4, 5, 6, -1, 7)
+        .compose(FlowableTransformers.bufferUntil(IS_MINUS_ONE, pool, pool))
+        .subscribe(new Consumer<List<Integer>>() {
+            @Override
+            public void accept(List<Integer> list) throws Exception {
+                sizes.add(new ArrayList<Integer>(list));
+                instances.add(list);
+            }
+        });
+
+        assertEquals(Arrays.<Object>asList(Arrays.asList(1, 2, -1), Arrays.asList(3, -1),
+                Arrays.asList(4, 5, 6, -1), Arrays.asList(7)), sizes);
+        // a synchronous consumer returns each buffer before the next one is needed
+        assertEquals(1, instances.size());
+        assertEquals(1, pool.size());
+    }
 }
@@ -16,6 +16,8 @@
 
 package hu.akarnokd.rxjava2.operators;
 
+import static org.junit.Assert.*;
+
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.Callable;
@@ -23,8 +25,9 @@ import java.util.concurrent.Callable;
 import org.junit.Test;
 
 import hu.akarnokd.rxjava2.test.TestHelper;
+import hu.akarnokd.rxjava2.util.ObjectPool;
 import io.reactivex.Flowable;
-import io.reactivex.functions.BiConsumer;
+import io.reactivex.functions.*;
 import io.reactivex.internal.functions.Functions;
 import io.reactivex.processors.PublishProcessor;
 import io.reactivex.schedulers.Schedulers;
@@ -212,4 +215,85 @@ public class FlowableCoalesceTest {
 
         ts.assertFailure(IOException.class, Arrays.asList(1));
     }
+
+    ObjectPool<List<Integer>> listPool() {
+        return ObjectPool.create(4, listSupplier, new Consumer<List<Integer>>() {
+            @Override
+            public void accept(List<Integer> list) throws Exception {
+                list.clear();
+            }
+        });
+    }
+
+    @Test
+    public void pooled() {
+        ObjectPool<List<Integer>> pool = listPool();
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        final List<List<Integer>> seen = new ArrayList<List<Integer>>();
+        final List<Integer> sizes = new ArrayList<Integer>();
+
+        TestSubscriber<List<Integer>> ts = new TestSubscriber<List<Integer>>(0L) {
+            @Override
+            public void onNext(List<Integer> t) {
+                seen.add(t);
+                sizes.add(t.size());
+            }
+        };
+
+        pp.compose(FlowableTransformers.coalesce(pool, listAdd, 16, pool))
+        .subscribe(ts);
+
+        pp.onNext(1);
+        pp.onNext(2);
+
+        ts.request(1);
+
+        assertEquals(Arrays.asList(2), sizes);
+        assertEquals(1, pool.size());
+
+        pp.onNext(3);
+
+        ts.request(1);
+
+        pp.onNext(4);
+        pp.onNext(5);
+        pp.onNext(6);
+
+        ts.request(1);
+
+        assertEquals(Arrays.asList(2, 1, 3), sizes);
+        assertSame(seen.get(0), seen.get(1));
+        assertSame(seen.get(0), seen.get(2));
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void pooledCancel() {
+        ObjectPool<List<Integer>> pool = listPool();
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<List<Integer>> ts = pp.compose(FlowableTransformers.coalesce(pool, listAdd, 16, pool))
+        .test(0);
+
+        pp.onNext(1);
+
+        assertEquals(0, pool.size());
+
+        ts.cancel();
+
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void pooledCrash() {
+        ObjectPool<List<Integer>> pool = listPool();
+
+        Flowable.range(1, 5)
+        .compose(FlowableTransformers.coalesce(pool, listAddCrash, 16, pool))
+        .test()
+        .assertFailure(IOException.class);
+
+        assertEquals(1, pool.size());
+    }
 }
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.operators;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.reactivestreams.*;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.*;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+public class FlowableExpandConcurrentTest {
+
+    Function<Integer, Publisher<Integer>> countDown = new Function<Integer, Publisher<Integer>>() {
+        @Override
+        public Publisher<Integer> apply(Integer v) throws Exception {
+            return v == 0 ? Flowable.<Integer>empty() : Flowable.just(v - 1);
+        }
+    };
+
+    /** A complete binary tree with nodes 0..limit - 1 where node v has children 2v + 1 and 2v + 2. */
+    static Function<Integer, Publisher<Integer>> binaryTree(final int limit) {
+        return new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                int left = 2 * v + 1;
+                if (left >= limit) {
+                    return Flowable.empty();
+                }
+                if (left + 1 >= limit) {
+                    return Flowable.just(left);
+                }
+                return Flowable.just(left, left + 1);
+            }
+        };
+    }
+
+    static void assertNodes(List<Integer> values, int count) {
+        assertEquals(count, values.size());
+        Set<Integer> set = new HashSet<Integer>(values);
+        assertEquals(count, set.size());
+        for (int i = 0; i < count; i++) {
+            assertTrue("" + i, set.contains(i));
+        }
+    }
+
+    @Test
+    public void recursiveCountdown() {
+        Flowable.just(10)
+        .compose(FlowableTransformers.<Integer>expandConcurrent(countDown, 4))
+        .test()
+        .assertResult(10, 9, 8, 7, 6, 5, 4, 3, 2, 1, 0);
+    }
+
+    @Test
+    public void empty() {
+        Flowable.<Integer>empty()
+        .compose(FlowableTransformers.<Integer>expandConcurrent(countDown, 4))
+        .test()
+        .assertResult();
+    }
+
+    @Test
+    public void tree() {
+        TestSubscriber<Integer> ts = Flowable.just(0)
+        .compose(FlowableTransformers.<Integer>expandConcurrent(binaryTree(1000), 4))
+        .test()
+        .assertNoErrors()
+        .assertComplete();
+
+        assertNodes(ts.values(), 1000);
+    }
+
+    @Test
+    public void treeSingleSlot() {
+        Flowable.just(0)
+        .compose(FlowableTransformers.<Integer>expandConcurrent(binaryTree(7), 1))
+        .test()
+        .assertResult(0, 1, 2, 3, 4, 5, 6);
+    }
+
+    @Test
+    public void backpressured() {
+        TestSubscriber<Integer> ts = Flowable.just(0)
+        .compose(FlowableTransformers.<Integer>expandConcurrent(binaryTree(100), 4))
+        .test(0);
+
+        ts.assertEmpty();
+
+        ts.requestMore(5);
+
+        ts.assertValueCount(5)
+        .assertNotComplete();
+
+        ts.requestMore(Long.MAX_VALUE);
+
+        ts.assertNoErrors()
+        .assertComplete();
+
+        assertNodes(ts.values(), 100);
+    }
+
+    @Test
+    public void tinyFrontierMakesProgress() {
+        TestSubscriber<Integer> ts = Flowable.range(0, 1)
+        .compose(FlowableTransformers.<Integer>expandConcurrent(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                if (v >= 1000) {
+                    return Flowable.empty();
+                }
+                return Flowable.range(v * 10 + 10, 10);
+            }
+        }, 2, 1, 1))
+        .test()
+        .assertNoErrors()
+        .assertComplete();
+
+        assertEquals(1 + 10 + 100 + 1000, ts.valueCount());
+    }
+
+    @Test
+    public void visited() {
+        TestSubscriber<Integer> ts = Flowable.just(0, 5, 0)
+        .compose(FlowableTransformers.<Integer>expandConcurrent(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return Flowable.just((v + 1) % 10, (v * 2) % 10);
+            }
+        }, 3, 16, 16, new Callable<Set<Integer>>() {
+            @Override
+            public Set<Integer> call() throws Exception {
+                return new HashSet<Integer>();
+            }
+        }))
+        .test()
+        .assertNoErrors()
+        .assertComplete();
+
+        assertNodes(ts.values(), 10);
+    }
+
+    @Test
+    public void maxConcurrencyHonored() {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+
+        TestSubscriber<Integer> ts = Flowable.just(0)
+        .compose(FlowableTransformers.<Integer>expandConcurrent(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return Flowable.fromPublisher(binaryTree(127).apply(v))
+                        .delay(1, TimeUnit.MILLISECONDS)
+                        .doOnSubscribe(new Consumer<Subscription>() {
+                            @Override
+                            public void accept(Subscription s) throws Exception {
+                                int n = running.incrementAndGet();
+                                for (;;) {
+                                    int m = maxRunning.get();
+                                    if (n <= m || maxRunning.compareAndSet(m, n)) {
+                                        break;
+                                    }
+                                }
+                            }
+                        })
+                        .doOnTerminate(new Action() {
+                            @Override
+                            public void run() throws Exception {
+                                running.decrementAndGet();
+                            }
+                        });
+            }
+        }, 4))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertNoErrors()
+        .assertComplete();
+
+        assertNodes(ts.values(), 127);
+        // the main source occupies a slot until it completes
+        assertTrue("" + maxRunning.get(), maxRunning.get() <= 4);
+        assertTrue("" + maxRunning.get(), maxRunning.get() >= 2);
+    }
+
+    @Test
+    public void async() {
+        for (int i = 0; i < 20; i++) {
+            TestSubscriber<Integer> ts = Flowable.just(0)
+            .compose(FlowableTransformers.<Integer>expandConcurrent(new Function<Integer, Publisher<Integer>>() {
+                @Override
+                public Publisher<Integer> apply(Integer v) throws Exception {
+                    return Flowable.fromPublisher(binaryTree(10000).apply(v)).subscribeOn(Schedulers.computation());
+                }
+            }, 8, 16, 4))
+            .test()
+            .awaitDone(5, TimeUnit.SECONDS)
+            .assertNoErrors()
+            .assertComplete();
+
+            assertNodes(ts.values(), 10000);
+        }
+    }
+
+    @Test
+    public void innerError() {
+        Flowable.just(0)
+        .compose(FlowableTransformers.<Integer>expandConcurrent(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                if (v == 2) {
+                    return Flowable.error(new IOException());
+                }
+                return Flowable.just(v + 1);
+            }
+        }, 2))
+        .test()
+        .assertFailure(IOException.class, 0, 1, 2);
+    }
+
+    @Test
+    public void mainError() {
+        Flowable.just(0).concatWith(Flowable.<Integer>error(new IOException()))
+        .compose(FlowableTransformers.<Integer>expandConcurrent(countDown, 2))
+        .test()
+        .assertFailure(IOException.class, 0);
+    }
+
+    @Test
+    public void expanderCrash() {
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = pp
+        .compose(FlowableTransformers.<Integer>expandConcurrent(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                throw new IOException();
+            }
+        }, 2))
+        .test();
+
+        pp.onNext(1);
+
+        ts.assertFailure(IOException.class, 1);
+        assertFalse(pp.hasSubscribers());
+    }
+
+    @Test
+    public void visitedSupplierCrash() {
+        Flowable.just(0)
+        .compose(FlowableTransformers.<Integer>expandConcurrent(countDown, 2, 16, 16, new Callable<Set<Integer>>() {
+            @Override
+            public Set<Integer> call() throws Exception {
+                throw new IOException();
+            }
+        }))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void cancel() {
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+        final PublishProcessor<Integer> inner = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = pp
+        .compose(FlowableTransformers.<Integer>expandConcurrent(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return inner;
+            }
+        }, 2))
+        .test();
+
+        pp.onNext(1);
+
+        assertTrue(inner.hasSubscribers());
+
+        ts.cancel();
+
+        assertFalse(pp.hasSubscribers());
+        assertFalse(inner.hasSubscribers());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroConcurrency() {
+        FlowableTransformers.expandConcurrent(countDown, 0);
+    }
+}
@@ -422,4 +422,62 @@ public class FlowableFilterAsyncTest {
 
         Assert.assertEquals(1000, calls[0]);
     }
+
+    @Test
+    public void concurrentOrdered() {
+        Flowable.range(1, 20)
+        .compose(FlowableTransformers.filterAsync(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                return Flowable.just(v % 2 == 0).delay(50 - (v % 5) * 10, TimeUnit.MILLISECONDS);
+            }
+        }, 16, 5))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult(2, 4, 6, 8, 10, 12, 14, 16, 18, 20);
+    }
+
+    @Test
+    public void concurrentHidden() {
+        Flowable.range(1, 1000)
+        .compose(FlowableTransformers.filterAsync(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                return Flowable.just(v % 3 == 0).hide();
+            }
+        }, 16, 4))
+        .test()
+        .assertValueCount(333)
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void unordered() {
+        Flowable.range(1, 6)
+        .compose(FlowableTransformers.filterAsyncUnordered(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                return Flowable.just(v % 2 == 0).delay(700 - v * 100, TimeUnit.MILLISECONDS);
+            }
+        }, 16, 6))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult(6, 4, 2);
+    }
+
+    @Test
+    public void unorderedHidden() {
+        Flowable.range(1, 1000)
+        .compose(FlowableTransformers.filterAsyncUnordered(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                return Flowable.just(v % 3 == 0).hide();
+            }
+        }, 16, 4))
+        .test()
+        .assertValueCount(333)
+        .assertNoErrors()
+        .assertComplete();
+    }
 }
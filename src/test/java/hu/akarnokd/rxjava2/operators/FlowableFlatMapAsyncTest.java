@@ -234,4 +234,29 @@ public class FlowableFlatMapAsyncTest {
             }
         }
     }
+
+    @Test(timeout = 60000)
+    public void readyQueue() {
+        for (boolean depthFirst : new boolean[] { true, false }) {
+            for (final boolean async : new boolean[] { false, true }) {
+                for (int maxConcurrency : new int[] { 1, 32, 1024 }) {
+                    for (final int n : new int[] { 0, 1, 2, 10, 100, 1000 }) {
+                        Flowable.range(1, 1000)
+                        .compose(FlowableTransformers.flatMapAsync(new Function<Integer, Publisher<Integer>>() {
+                            @Override
+                            public Publisher<Integer> apply(Integer v) throws Exception {
+                                Flowable<Integer> f = Flowable.range(v * 1000, n);
+                                return async ? f.observeOn(Schedulers.computation()).hide() : f.hide();
+                            }
+                        }, Schedulers.single(), maxConcurrency, Flowable.bufferSize(), depthFirst, true))
+                        .test()
+                        .awaitDone(9, TimeUnit.SECONDS)
+                        .assertValueCount(n * 1000)
+                        .assertNoErrors()
+                        .assertComplete();
+                    }
+                }
+            }
+        }
+    }
 }
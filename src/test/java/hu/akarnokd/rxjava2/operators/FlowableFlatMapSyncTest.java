@@ -16,14 +16,18 @@
 
 package hu.akarnokd.rxjava2.operators;
 
+import java.io.IOException;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
 
-import org.junit.Test;
+import org.junit.*;
 import org.reactivestreams.Publisher;
 
 import io.reactivex.Flowable;
 import io.reactivex.functions.Function;
+import io.reactivex.processors.PublishProcessor;
 import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
 
 public class FlowableFlatMapSyncTest {
 
@@ -210,4 +214,129 @@ public class FlowableFlatMapSyncTest {
             }
         }
     }
+
+    Function<Integer, Publisher<Integer>> innerOf(final int n, final int mode) {
+        return new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                Flowable<Integer> f = Flowable.range(v * 1000, n);
+                switch (mode) {
+                case 1:
+                    return f.hide();
+                case 2:
+                    return f.observeOn(Schedulers.computation());
+                case 3:
+                    return f.observeOn(Schedulers.computation()).hide();
+                default:
+                    return f;
+                }
+            }
+        };
+    }
+
+    @Test(timeout = 60000)
+    public void readyQueue() {
+        for (boolean depthFirst : new boolean[] { true, false }) {
+            for (int mode = 0; mode < 4; mode++) {
+                for (int maxConcurrency : new int[] { 1, 32, 1024 }) {
+                    for (final int n : new int[] { 0, 1, 2, 10, 100, 1000 }) {
+                        Flowable.range(1, 1000)
+                        .compose(FlowableTransformers.flatMapSync(innerOf(n, mode), maxConcurrency, Flowable.bufferSize(), depthFirst, true))
+                        .test()
+                        .awaitDone(9, TimeUnit.SECONDS)
+                        .assertValueCount(n * 1000)
+                        .assertNoErrors()
+                        .assertComplete();
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void readyQueueSparse() {
+        final List<PublishProcessor<Integer>> inners = new ArrayList<PublishProcessor<Integer>>();
+        for (int i = 0; i < 1024; i++) {
+            inners.add(PublishProcessor.<Integer>create());
+        }
+
+        TestSubscriber<Integer> ts = Flowable.range(0, 1024)
+        .compose(FlowableTransformers.flatMapSync(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return inners.get(v);
+            }
+        }, 1024, 16, true, true))
+        .test(0L);
+
+        inners.get(500).onNext(1);
+        inners.get(7).onNext(2);
+        inners.get(500).onNext(3);
+
+        ts.assertEmpty();
+
+        ts.request(2);
+
+        ts.assertValues(1, 3);
+
+        ts.request(1);
+
+        ts.assertValues(1, 3, 2);
+
+        for (PublishProcessor<Integer> pp : inners) {
+            pp.onComplete();
+        }
+
+        ts.assertResult(1, 3, 2);
+    }
+
+    @Test
+    public void readyQueueBreadthFirst() {
+        PublishProcessor<Integer> pp1 = PublishProcessor.create();
+        PublishProcessor<Integer> pp2 = PublishProcessor.create();
+        final List<PublishProcessor<Integer>> inners = Arrays.asList(pp1, pp2);
+
+        TestSubscriber<Integer> ts = Flowable.range(0, 2)
+        .compose(FlowableTransformers.flatMapSync(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return inners.get(v);
+            }
+        }, 2, 16, false, true))
+        .test(0L);
+
+        pp1.onNext(1);
+        pp1.onNext(2);
+        pp2.onNext(10);
+        pp2.onNext(20);
+        pp1.onComplete();
+        pp2.onComplete();
+
+        ts.request(4);
+
+        ts.assertResult(1, 10, 2, 20);
+    }
+
+    @Test
+    public void readyQueueError() {
+        PublishProcessor<Integer> pp1 = PublishProcessor.create();
+        PublishProcessor<Integer> pp2 = PublishProcessor.create();
+        final List<PublishProcessor<Integer>> inners = Arrays.asList(pp1, pp2);
+
+        TestSubscriber<Integer> ts = Flowable.range(0, 2)
+        .compose(FlowableTransformers.flatMapSync(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return inners.get(v);
+            }
+        }, 2, 16, true, true))
+        .test();
+
+        pp1.onNext(1);
+        pp2.onError(new IOException());
+
+        ts.assertFailure(IOException.class, 1);
+
+        Assert.assertFalse(pp1.hasSubscribers());
+    }
 }
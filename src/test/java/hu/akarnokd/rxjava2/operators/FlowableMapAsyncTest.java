@@ -19,6 +19,7 @@ package hu.akarnokd.rxjava2.operators;
 import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.*;
 import org.reactivestreams.*;
@@ -26,6 +27,7 @@ import org.reactivestreams.*;
 import hu.akarnokd.rxjava2.basetypes.*;
 import hu.akarnokd.rxjava2.test.TestHelper;
 import io.reactivex.Flowable;
+import io.reactivex.exceptions.CompositeException;
 import io.reactivex.functions.*;
 import io.reactivex.internal.functions.Functions;
 import io.reactivex.internal.subscriptions.BooleanSubscription;
@@ -453,4 +455,329 @@ public class FlowableMapAsyncTest {
 
         Assert.assertEquals(1000, calls[0]);
     }
+
+    @Test
+    public void concurrentOrdered() {
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+        long start = System.nanoTime();
+
+        Flowable.range(1, 20)
+        .compose(FlowableTransformers.mapAsync(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(final Integer v) throws Exception {
+                return Flowable.just(v * 10)
+                        .delay(50 - (v % 5) * 10, TimeUnit.MILLISECONDS)
+                        .doOnSubscribe(new Consumer<Subscription>() {
+                            @Override
+                            public void accept(Subscription s) throws Exception {
+                                int a = active.incrementAndGet();
+                                for (;;) {
+                                    int m = maxActive.get();
+                                    if (a <= m || maxActive.compareAndSet(m, a)) {
+                                        break;
+                                    }
+                                }
+                            }
+                        })
+                        .doOnNext(new Consumer<Integer>() {
+                            @Override
+                            public void accept(Integer v) throws Exception {
+                                active.decrementAndGet();
+                            }
+                        });
+            }
+        }, 16, 5))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult(10, 20, 30, 40, 50, 60, 70, 80, 90, 100, 110, 120, 130, 140, 150, 160, 170, 180, 190, 200);
+
+        Assert.assertTrue("" + maxActive.get(), maxActive.get() <= 5);
+        Assert.assertTrue("" + maxActive.get(), maxActive.get() > 1);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assert.assertTrue("" + elapsed, elapsed < 20 * 30);
+    }
+
+    @Test
+    public void concurrentCombiner() {
+        Flowable.range(1, 5)
+        .compose(FlowableTransformers.mapAsync(DelayedMappers.INSTANCE, DelayedMappers.INSTANCE, 16, 3))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult("1-2", "2-3", "3-4", "4-5", "5-6");
+    }
+
+    @Test
+    public void concurrentHidden() {
+        Flowable.range(1, 1000)
+        .compose(FlowableTransformers.mapAsync(NonDelayedMappers.INSTANCE, 16, 4))
+        .test()
+        .assertValueCount(1000)
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void concurrentFused() {
+        Flowable.range(1, 1000)
+        .compose(FlowableTransformers.mapAsync(NonDelayedFusedMappers.INSTANCE, 16, 4))
+        .test()
+        .assertValueCount(1000)
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void concurrentEmptyAndErrors() {
+        Flowable.range(1, 6)
+        .compose(FlowableTransformers.mapAsync(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                switch (v % 3) {
+                case 0:
+                    return Flowable.<Integer>empty().hide();
+                case 1:
+                    return Flowable.just(v).hide();
+                default:
+                    if (v == 5) {
+                        throw new IOException();
+                    }
+                    return Flowable.<Integer>error(new IOException()).hide();
+                }
+            }
+        }, 16, 3))
+        .test()
+        .assertFailure(CompositeException.class, 1, 4);
+    }
+
+    @Test
+    public void concurrentBackpressure() {
+        PublishProcessor<Integer> pp1 = PublishProcessor.create();
+        PublishProcessor<Integer> pp2 = PublishProcessor.create();
+        PublishProcessor<Integer> pp3 = PublishProcessor.create();
+        final List<PublishProcessor<Integer>> inners = java.util.Arrays.asList(pp1, pp2, pp3);
+
+        TestSubscriber<Integer> ts = Flowable.range(0, 3)
+        .compose(FlowableTransformers.mapAsync(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return inners.get(v);
+            }
+        }, 16, 3))
+        .test(0L);
+
+        Assert.assertTrue(pp1.hasSubscribers());
+        Assert.assertTrue(pp2.hasSubscribers());
+        Assert.assertTrue(pp3.hasSubscribers());
+
+        pp3.onNext(3);
+        pp2.onNext(2);
+
+        ts.assertEmpty();
+
+        pp1.onNext(1);
+
+        ts.assertEmpty();
+
+        ts.request(2);
+
+        ts.assertValues(1, 2).assertNotComplete();
+
+        ts.request(1);
+
+        ts.assertResult(1, 2, 3);
+    }
+
+    @Test
+    public void concurrentCancel() {
+        PublishProcessor<Integer> pp1 = PublishProcessor.create();
+        PublishProcessor<Integer> pp2 = PublishProcessor.create();
+        final List<PublishProcessor<Integer>> inners = java.util.Arrays.asList(pp1, pp2);
+
+        TestSubscriber<Integer> ts = Flowable.range(0, 2)
+        .compose(FlowableTransformers.mapAsync(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return inners.get(v);
+            }
+        }, 16, 2))
+        .test();
+
+        Assert.assertTrue(pp1.hasSubscribers());
+        Assert.assertTrue(pp2.hasSubscribers());
+
+        ts.cancel();
+
+        Assert.assertFalse(pp1.hasSubscribers());
+        Assert.assertFalse(pp2.hasSubscribers());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void concurrentInvalid() {
+        FlowableTransformers.mapAsync(NonDelayedMappers.INSTANCE, 16, 0);
+    }
+
+    @Test
+    public void unorderedCompletionOrder() {
+        Flowable.range(1, 3)
+        .compose(FlowableTransformers.mapAsyncUnordered(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return Flowable.just(v).delay(400 - v * 100, TimeUnit.MILLISECONDS);
+            }
+        }, 16, 3))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult(3, 2, 1);
+    }
+
+    @Test
+    public void unorderedWindow() {
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+
+        TestSubscriber<String> ts = Flowable.range(1, 50)
+        .compose(FlowableTransformers.mapAsyncUnordered(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(final Integer v) throws Exception {
+                int a = active.incrementAndGet();
+                for (;;) {
+                    int m = maxActive.get();
+                    if (a <= m || maxActive.compareAndSet(m, a)) {
+                        break;
+                    }
+                }
+                return Flowable.just(v).delay(v % 7, TimeUnit.MILLISECONDS)
+                        .doOnNext(new Consumer<Integer>() {
+                            @Override
+                            public void accept(Integer v) throws Exception {
+                                active.decrementAndGet();
+                            }
+                        });
+            }
+        }, DelayedMappers.INSTANCE, 8, 4))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertValueCount(50)
+        .assertNoErrors()
+        .assertComplete();
+
+        Assert.assertTrue("" + maxActive.get(), maxActive.get() <= 4);
+
+        java.util.Set<String> set = new java.util.HashSet<String>();
+        for (Object o : ts.values()) {
+            set.add(o.toString());
+        }
+        for (int i = 1; i <= 50; i++) {
+            Assert.assertTrue(set.toString(), set.contains(i + "-" + i));
+        }
+    }
+
+    @Test
+    public void unorderedHidden() {
+        Flowable.range(1, 1000)
+        .compose(FlowableTransformers.mapAsyncUnordered(NonDelayedMappers.INSTANCE, 16, 4))
+        .test()
+        .assertValueCount(1000)
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void unorderedFused() {
+        Flowable.range(1, 1000)
+        .compose(FlowableTransformers.mapAsyncUnordered(NonDelayedFusedMappers.INSTANCE, 16, 4))
+        .rebatchRequests(7)
+        .test()
+        .assertValueCount(1000)
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void unorderedEmptyAndErrors() {
+        Flowable.range(1, 6)
+        .compose(FlowableTransformers.mapAsyncUnordered(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                switch (v % 3) {
+                case 0:
+                    return Flowable.<Integer>empty().hide();
+                case 1:
+                    return Flowable.just(v).hide();
+                default:
+                    if (v == 5) {
+                        throw new IOException();
+                    }
+                    return Flowable.<Integer>error(new IOException()).hide();
+                }
+            }
+        }, 16, 3))
+        .test()
+        .assertFailure(CompositeException.class, 1, 4);
+    }
+
+    @Test
+    public void unorderedBackpressure() {
+        PublishProcessor<Integer> pp1 = PublishProcessor.create();
+        PublishProcessor<Integer> pp2 = PublishProcessor.create();
+        PublishProcessor<Integer> pp3 = PublishProcessor.create();
+        final List<PublishProcessor<Integer>> inners = java.util.Arrays.asList(pp1, pp2, pp3);
+
+        TestSubscriber<Integer> ts = Flowable.range(0, 3)
+        .compose(FlowableTransformers.mapAsyncUnordered(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return inners.get(v);
+            }
+        }, 16, 2))
+        .test(0L);
+
+        Assert.assertTrue(pp1.hasSubscribers());
+        Assert.assertTrue(pp2.hasSubscribers());
+        Assert.assertFalse(pp3.hasSubscribers());
+
+        pp2.onNext(2);
+
+        ts.assertEmpty();
+
+        Assert.assertFalse(pp3.hasSubscribers());
+
+        ts.request(1);
+
+        ts.assertValues(2);
+
+        Assert.assertTrue(pp3.hasSubscribers());
+
+        pp3.onNext(3);
+        pp1.onNext(1);
+
+        ts.request(2);
+
+        ts.assertResult(2, 3, 1);
+    }
+
+    @Test
+    public void unorderedCancel() {
+        PublishProcessor<Integer> pp1 = PublishProcessor.create();
+        PublishProcessor<Integer> pp2 = PublishProcessor.create();
+        final List<PublishProcessor<Integer>> inners = java.util.Arrays.asList(pp1, pp2);
+
+        TestSubscriber<Integer> ts = Flowable.range(0, 2)
+        .compose(FlowableTransformers.mapAsyncUnordered(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return inners.get(v);
+            }
+        }, 16, 2))
+        .test();
+
+        Assert.assertTrue(pp1.hasSubscribers());
+        Assert.assertTrue(pp2.hasSubscribers());
+
+        ts.cancel();
+
+        Assert.assertFalse(pp1.hasSubscribers());
+        Assert.assertFalse(pp2.hasSubscribers());
+    }
 }
@@ -0,0 +1,298 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.operators;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import io.reactivex.*;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.*;
+import io.reactivex.subscribers.TestSubscriber;
+
+public class FlowablePaceTest {
+
+    @Test
+    public void burstThenPaced() {
+        TestScheduler scheduler = new TestScheduler();
+
+        TestSubscriber<Integer> ts = Flowable.range(1, 10)
+        .compose(FlowableTransformers.<Integer>pace(10, 3, 100, TimeUnit.MILLISECONDS, scheduler))
+        .test();
+
+        ts.assertValues(1, 2, 3);
+
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+
+        ts.assertValues(1, 2, 3, 4);
+
+        scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+
+        ts.assertValues(1, 2, 3, 4, 5, 6, 7, 8, 9)
+        .assertNotComplete();
+
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+
+        ts.assertResult(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+    }
+
+    @Test
+    public void batchPerTick() {
+        TestScheduler scheduler = new TestScheduler();
+
+        TestSubscriber<Integer> ts = Flowable.range(1, 1000)
+        .compose(FlowableTransformers.<Integer>pace(100, 1, 50, TimeUnit.MILLISECONDS, scheduler))
+        .test();
+
+        ts.assertValueCount(1);
+
+        scheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+
+        // the tick is shortened to the time of a token as the burst is 1
+        ts.assertValueCount(6);
+
+        scheduler.advanceTimeBy(5, TimeUnit.SECONDS);
+
+        ts.assertValueCount(1 + 505);
+    }
+
+    @Test
+    public void smallBurstNotExceeded() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = pp
+        .compose(FlowableTransformers.<Integer>pace(1000, 1, scheduler))
+        .test();
+
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 20; i++) {
+            pp.onNext(i);
+        }
+
+        ts.assertValues(0);
+
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+
+        ts.assertValues(0, 1);
+
+        scheduler.advanceTimeBy(3, TimeUnit.MILLISECONDS);
+
+        ts.assertValues(0, 1, 2, 3, 4);
+    }
+
+    @Test
+    public void fractionalRateSmallBurst() {
+        TestScheduler scheduler = new TestScheduler();
+
+        TestSubscriber<Integer> ts = Flowable.range(1, 100)
+        .compose(FlowableTransformers.<Integer>pace(3, 1, scheduler))
+        .test();
+
+        scheduler.advanceTimeBy(10, TimeUnit.SECONDS);
+
+        ts.assertValueCount(1 + 29);
+    }
+
+    @Test
+    public void noTimerWhileIdle() {
+        final TestScheduler scheduler = new TestScheduler();
+        final AtomicInteger timers = new AtomicInteger();
+        Scheduler counting = new Scheduler() {
+            @Override
+            public Worker createWorker() {
+                final Worker w = scheduler.createWorker();
+                return new Worker() {
+                    @Override
+                    public Disposable schedule(Runnable run, long delay, TimeUnit unit) {
+                        timers.getAndIncrement();
+                        return w.schedule(run, delay, unit);
+                    }
+
+                    @Override
+                    public long now(TimeUnit unit) {
+                        return w.now(unit);
+                    }
+
+                    @Override
+                    public void dispose() {
+                        w.dispose();
+                    }
+
+                    @Override
+                    public boolean isDisposed() {
+                        return w.isDisposed();
+                    }
+                };
+            }
+        };
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = pp
+        .compose(FlowableTransformers.<Integer>pace(10, 2, 100, TimeUnit.MILLISECONDS, counting))
+        .test();
+
+        scheduler.advanceTimeBy(10, TimeUnit.SECONDS);
+
+        assertEquals(0, timers.get());
+
+        pp.onNext(1);
+        pp.onNext(2);
+        pp.onNext(3);
+
+        ts.assertValues(1, 2);
+        assertEquals(1, timers.get());
+
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+
+        ts.assertValues(1, 2, 3);
+
+        scheduler.advanceTimeBy(10, TimeUnit.SECONDS);
+
+        assertEquals(1, timers.get());
+    }
+
+    @Test
+    public void averageRate() {
+        TestScheduler scheduler = new TestScheduler();
+
+        TestSubscriber<Integer> ts = Flowable.range(1, 1000)
+        .compose(FlowableTransformers.<Integer>pace(100, 10, 50, TimeUnit.MILLISECONDS, scheduler))
+        .test();
+
+        scheduler.advanceTimeBy(5, TimeUnit.SECONDS);
+
+        ts.assertValueCount(10 + 500);
+    }
+
+    @Test
+    public void idleCapsTokens() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = pp
+        .compose(FlowableTransformers.<Integer>pace(10, 3, scheduler))
+        .test();
+
+        scheduler.advanceTimeBy(10, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 10; i++) {
+            pp.onNext(i);
+        }
+
+        ts.assertValues(0, 1, 2);
+
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+
+        ts.assertValues(0, 1, 2, 3);
+    }
+
+    @Test
+    public void backpressured() {
+        TestScheduler scheduler = new TestScheduler();
+
+        TestSubscriber<Integer> ts = Flowable.range(1, 10)
+        .compose(FlowableTransformers.<Integer>pace(10, 5, scheduler))
+        .test(2);
+
+        ts.assertValues(1, 2);
+
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        ts.assertValues(1, 2);
+
+        ts.requestMore(10);
+
+        ts.assertValues(1, 2, 3, 4, 5, 6, 7);
+    }
+
+    @Test
+    public void completeWithoutTokens() {
+        TestScheduler scheduler = new TestScheduler();
+
+        Flowable.range(1, 3)
+        .compose(FlowableTransformers.<Integer>pace(1, 3, scheduler))
+        .test()
+        .assertResult(1, 2, 3);
+    }
+
+    @Test
+    public void errorEager() {
+        TestScheduler scheduler = new TestScheduler();
+
+        Flowable.range(1, 5).concatWith(Flowable.<Integer>error(new IOException()))
+        .compose(FlowableTransformers.<Integer>pace(1, 2, scheduler))
+        .test()
+        .assertFailure(IOException.class, 1, 2);
+    }
+
+    @Test
+    public void cancel() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = pp
+        .compose(FlowableTransformers.<Integer>pace(10, 1, scheduler))
+        .test();
+
+        assertTrue(pp.hasSubscribers());
+
+        ts.cancel();
+
+        assertFalse(pp.hasSubscribers());
+    }
+
+    @Test
+    public void async() {
+        Flowable.range(1, 1000)
+        .compose(FlowableTransformers.<Integer>pace(100000, 10, Schedulers.single()))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertValueCount(1000)
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void defaultTick() {
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(10), FlowablePace.defaultTick(1000));
+        assertEquals(TimeUnit.SECONDS.toNanos(1), FlowablePace.defaultTick(1));
+        assertEquals(TimeUnit.SECONDS.toNanos(60), FlowablePace.defaultTick(1d / 60));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroRate() {
+        FlowableTransformers.pace(0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nanRate() {
+        FlowableTransformers.pace(Double.NaN, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroBurst() {
+        FlowableTransformers.pace(1, 0);
+    }
+}
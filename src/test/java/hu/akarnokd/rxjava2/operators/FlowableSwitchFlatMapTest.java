@@ -16,10 +16,10 @@
 
 package hu.akarnokd.rxjava2.operators;
 
-import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.*;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
@@ -314,4 +314,84 @@ public class FlowableSwitchFlatMapTest {
 
         assertFalse(bp.hasSubscribers());
     }
+
+    @Test
+    public void lastInnerCompletesAfterUpstream() {
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+        final PublishProcessor<Integer> inner = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = pp.compose(FlowableTransformers.switchFlatMap(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return inner;
+            }
+        }, 2))
+        .test(1);
+
+        pp.onNext(1);
+        pp.onComplete();
+
+        inner.onNext(10);
+        inner.onComplete();
+
+        ts.assertResult(10);
+    }
+
+    @Test
+    public void asyncSwitchRace() {
+        for (int i = 0; i < 100; i++) {
+            Flowable.range(1, 1000)
+            .subscribeOn(Schedulers.single())
+            .compose(FlowableTransformers.switchFlatMap(new Function<Integer, Publisher<Integer>>() {
+                @Override
+                public Publisher<Integer> apply(Integer v) throws Exception {
+                    return Flowable.range(v, 10).subscribeOn(Schedulers.computation());
+                }
+            }, 4))
+            .test()
+            .awaitDone(5, TimeUnit.SECONDS)
+            .assertNoErrors()
+            .assertComplete();
+        }
+    }
+
+    @Test
+    public void middleInnerCompletesThenNewInner() {
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+        final PublishProcessor<Integer> a = PublishProcessor.create();
+        final PublishProcessor<Integer> c = PublishProcessor.create();
+        final PublishProcessor<Integer> d = PublishProcessor.create();
+
+        @SuppressWarnings("unchecked")
+        final List<Publisher<Integer>> inners = Arrays.<Publisher<Integer>>asList(a, Flowable.<Integer>empty(), c, d);
+
+        TestSubscriber<Integer> ts = pp.compose(FlowableTransformers.switchFlatMap(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return inners.get(v);
+            }
+        }, 2))
+        .test();
+
+        pp.onNext(0);
+        pp.onNext(1);
+        pp.onNext(2);
+
+        assertTrue(a.hasSubscribers());
+        assertTrue(c.hasSubscribers());
+
+        a.onNext(1);
+        c.onNext(3);
+
+        pp.onNext(3);
+
+        assertFalse(a.hasSubscribers());
+        assertTrue(c.hasSubscribers());
+        assertTrue(d.hasSubscribers());
+
+        c.onNext(4);
+        d.onNext(5);
+
+        ts.assertValues(1, 3, 4, 5).assertNoErrors().assertNotComplete();
+    }
 }
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.operators;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import hu.akarnokd.rxjava2.functions.ToLongFunction;
+import io.reactivex.Flowable;
+import io.reactivex.functions.*;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+public class FlowableValveWatermarkTest {
+
+    static final ToLongFunction<Object> ONE = new ToLongFunction<Object>() {
+        @Override
+        public long applyAsLong(Object t) throws Exception {
+            return 1L;
+        }
+    };
+
+    static final class StateRecorder implements Consumer<Boolean> {
+        final List<Boolean> states = new ArrayList<Boolean>();
+
+        @Override
+        public void accept(Boolean t) throws Exception {
+            states.add(t);
+        }
+    }
+
+    @Test
+    public void passthrough() {
+        StateRecorder sr = new StateRecorder();
+
+        Flowable.range(1, 10)
+        .compose(FlowableTransformers.<Integer>valveWatermark(100, 50, ONE, sr))
+        .test()
+        .assertResult(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+
+        assertTrue(sr.states.isEmpty());
+    }
+
+    @Test
+    public void closeAndReopen() {
+        StateRecorder sr = new StateRecorder();
+        final List<Long> requests = new ArrayList<Long>();
+
+        TestSubscriber<Integer> ts = Flowable.range(1, 100)
+        .doOnRequest(new LongConsumer() {
+            @Override
+            public void accept(long n) throws Exception {
+                requests.add(n);
+            }
+        })
+        .compose(FlowableTransformers.<Integer>valveWatermark(10, 5, ONE, sr, 16))
+        .test(0);
+
+        ts.assertEmpty();
+        assertEquals(Arrays.asList(false), sr.states);
+        assertEquals(Arrays.asList(16L), requests);
+
+        ts.requestMore(11);
+
+        ts.assertValueCount(11);
+        assertEquals(Arrays.asList(false, true, false), sr.states);
+        assertEquals(Arrays.asList(16L, 11L), requests);
+
+        ts.requestMore(Long.MAX_VALUE);
+
+        ts.assertValueCount(100)
+        .assertNoErrors()
+        .assertComplete();
+
+        assertEquals(Boolean.TRUE, sr.states.get(sr.states.size() - 1));
+    }
+
+    @Test
+    public void weighted() {
+        StateRecorder sr = new StateRecorder();
+
+        TestSubscriber<Integer> ts = Flowable.just(5, 1, 10, 1)
+        .compose(FlowableTransformers.<Integer>valveWatermark(15, 5, new ToLongFunction<Integer>() {
+            @Override
+            public long applyAsLong(Integer t) throws Exception {
+                return t;
+            }
+        }, sr))
+        .test(0);
+
+        assertEquals(Arrays.asList(false), sr.states);
+
+        ts.requestMore(2);
+
+        ts.assertValues(5, 1);
+        assertEquals(Arrays.asList(false), sr.states);
+
+        ts.requestMore(2);
+
+        ts.assertResult(5, 1, 10, 1);
+        assertEquals(Arrays.asList(false, true), sr.states);
+    }
+
+    @Test
+    public void hotUnbounded() {
+        StateRecorder sr = new StateRecorder();
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = pp
+        .compose(FlowableTransformers.<Integer>valveWatermark(10, 2, ONE, sr, Integer.MAX_VALUE))
+        .test(0);
+
+        for (int i = 0; i < 20; i++) {
+            pp.onNext(i);
+        }
+
+        assertEquals(Arrays.asList(false), sr.states);
+
+        ts.requestMore(18);
+
+        assertEquals(Arrays.asList(false, true), sr.states);
+
+        ts.requestMore(2);
+        pp.onComplete();
+
+        ts.assertValueCount(20)
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void error() {
+        Flowable.<Integer>error(new IOException())
+        .compose(FlowableTransformers.<Integer>valveWatermark(10, 5, ONE, new StateRecorder()))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void errorEager() {
+        Flowable.range(1, 5).concatWith(Flowable.<Integer>error(new IOException()))
+        .compose(FlowableTransformers.<Integer>valveWatermark(10, 5, ONE, new StateRecorder()))
+        .test(0)
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void weigherCrash() {
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        pp
+        .compose(FlowableTransformers.<Integer>valveWatermark(10, 5, new ToLongFunction<Integer>() {
+            @Override
+            public long applyAsLong(Integer t) throws Exception {
+                throw new IOException();
+            }
+        }, new StateRecorder()))
+        .test()
+        .assertEmpty();
+
+        pp.onNext(1);
+
+        assertFalse(pp.hasSubscribers());
+    }
+
+    @Test
+    public void weigherCrashSignalled() {
+        Flowable.range(1, 5)
+        .compose(FlowableTransformers.<Integer>valveWatermark(10, 5, new ToLongFunction<Integer>() {
+            @Override
+            public long applyAsLong(Integer t) throws Exception {
+                throw new IOException();
+            }
+        }, new StateRecorder()))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void stateCallbackCrash() {
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = pp
+        .compose(FlowableTransformers.<Integer>valveWatermark(2, 1, ONE, new Consumer<Boolean>() {
+            @Override
+            public void accept(Boolean t) throws Exception {
+                throw new IOException();
+            }
+        }))
+        .test(0);
+
+        pp.onNext(1);
+        pp.onNext(2);
+
+        ts.assertFailure(IOException.class);
+        assertFalse(pp.hasSubscribers());
+    }
+
+    @Test
+    public void cancel() {
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = pp
+        .compose(FlowableTransformers.<Integer>valveWatermark(10, 5, ONE, new StateRecorder()))
+        .test(0);
+
+        pp.onNext(1);
+
+        ts.cancel();
+
+        assertFalse(pp.hasSubscribers());
+        ts.assertEmpty();
+    }
+
+    @Test
+    public void async() {
+        Flowable.range(1, 100000)
+        .compose(FlowableTransformers.<Integer>valveWatermark(64, 16, ONE, new StateRecorder(), 128))
+        .observeOn(Schedulers.single())
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertValueCount(100000)
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void lowNotBelowHigh() {
+        FlowableTransformers.valveWatermark(10, 10, ONE, new StateRecorder());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeLow() {
+        FlowableTransformers.valveWatermark(10, -1, ONE, new StateRecorder());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroHigh() {
+        FlowableTransformers.valveWatermark(0, 0, ONE, new StateRecorder());
+    }
+}
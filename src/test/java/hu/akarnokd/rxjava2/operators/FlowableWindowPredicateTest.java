@@ -16,6 +16,8 @@
 
 package hu.akarnokd.rxjava2.operators;
 
+import static org.junit.Assert.*;
+
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
@@ -26,10 +28,12 @@ import org.reactivestreams.Subscriber;
 import hu.akarnokd.rxjava2.test.TestHelper;
 import io.reactivex.Flowable;
 import io.reactivex.Single;
-import io.reactivex.functions.Function;
-import io.reactivex.functions.Predicate;
+import io.reactivex.functions.*;
 import io.reactivex.internal.subscriptions.BooleanSubscription;
 import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
 
 public class FlowableWindowPredicateTest {
 
@@ -542,4 +546,273 @@ public class FlowableWindowPredicateTest {
         .requestMore(1)
         .assertValueCount(2);
     }
+
+    static final Predicate<Integer> NOT_MINUS_ONE = new Predicate<Integer>() {
+        @Override
+        public boolean test(Integer v) throws Exception {
+            return v != -1;
+        }
+    };
+
+    static final Predicate<Integer> MINUS_ONE = new Predicate<Integer>() {
+        @Override
+        public boolean test(Integer v) throws Exception {
+            return v == -1;
+        }
+    };
+
+    static final Function<Iterable<Integer>, List<Integer>> COPY = new Function<Iterable<Integer>, List<Integer>>() {
+        @Override
+        public List<Integer> apply(Iterable<Integer> chunk) throws Exception {
+            List<Integer> list = new ArrayList<Integer>();
+            for (Integer v : chunk) {
+                list.add(v);
+            }
+            return list;
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void whileBoundedSize() {
+        Flowable.just(1, 2, -1, 3, 4, 5, 6, -1)
+        .compose(FlowableTransformers.windowWhile(NOT_MINUS_ONE, 2, 1, TimeUnit.DAYS, new TestScheduler()))
+        .flatMapSingle(toList)
+        .test()
+        .assertResult(
+                Arrays.asList(1, 2),
+                Arrays.asList(-1, 3),
+                Arrays.asList(4, 5),
+                Arrays.asList(6),
+                Arrays.asList(-1)
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void untilBoundedSize() {
+        Flowable.just(1, 2, -1, 3, 4, 5, 6, -1)
+        .compose(FlowableTransformers.windowUntil(MINUS_ONE, 3, 1, TimeUnit.DAYS, new TestScheduler()))
+        .flatMapSingle(toList)
+        .test()
+        .assertResult(
+                Arrays.asList(1, 2, -1),
+                Arrays.asList(3, 4, 5),
+                Arrays.asList(6, -1)
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void splitBoundedSize() {
+        Flowable.just(1, 2, -1, 3, 4, 5, 6, -1)
+        .compose(FlowableTransformers.windowSplit(MINUS_ONE, 2, 1, TimeUnit.DAYS, new TestScheduler()))
+        .flatMapSingle(toList)
+        .test()
+        .assertResult(
+                Arrays.asList(1, 2),
+                Arrays.asList(3, 4),
+                Arrays.asList(5, 6)
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void whileBoundedTime() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<List<Integer>> ts = pp
+        .compose(FlowableTransformers.windowWhile(NOT_MINUS_ONE, 100, 1, TimeUnit.SECONDS, scheduler))
+        .flatMapSingle(toList)
+        .test();
+
+        pp.onNext(1);
+        pp.onNext(2);
+
+        ts.assertEmpty();
+
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        ts.assertValues(Arrays.asList(1, 2));
+
+        scheduler.advanceTimeBy(5, TimeUnit.SECONDS);
+
+        pp.onNext(3);
+        pp.onNext(-1);
+        pp.onComplete();
+
+        ts.assertResult(Arrays.asList(1, 2), Arrays.asList(3), Arrays.asList(-1));
+    }
+
+    @Test
+    public void boundedTimeoutStale() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<List<Integer>> ts = pp
+        .compose(FlowableTransformers.windowUntil(MINUS_ONE, 100, 1, TimeUnit.SECONDS, scheduler))
+        .flatMapSingle(toList)
+        .test();
+
+        pp.onNext(1);
+        pp.onNext(-1);
+        scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+        pp.onNext(2);
+        scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+
+        ts.assertValueCount(1);
+
+        scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+
+        ts.assertValueCount(2);
+    }
+
+    @Test
+    public void boundedBackpressure() {
+        Flowable.range(1, 10)
+        .compose(FlowableTransformers.windowUntil(MINUS_ONE, 3, 1, TimeUnit.DAYS, new TestScheduler()))
+        .test(1)
+        .assertValueCount(1)
+        .assertNotComplete()
+        .requestMore(10)
+        .assertValueCount(4)
+        .assertComplete();
+    }
+
+    @Test
+    public void boundedError() {
+        Flowable.just(1, 2).concatWith(Flowable.<Integer>error(new IOException()))
+        .compose(FlowableTransformers.windowWhile(NOT_MINUS_ONE, 3, 1, TimeUnit.DAYS, new TestScheduler()))
+        .test()
+        .assertError(IOException.class)
+        .assertValueCount(1)
+        .assertNotComplete();
+    }
+
+    @Test
+    public void boundedPredicateCrash() {
+        Flowable.just(1, 2)
+        .compose(FlowableTransformers.windowWhile(new Predicate<Integer>() {
+            @Override
+            public boolean test(Integer v) throws Exception {
+                if (v == 2) {
+                    throw new IOException();
+                }
+                return true;
+            }
+        }, 3, 1, TimeUnit.DAYS, new TestScheduler()))
+        .test()
+        .assertError(IOException.class)
+        .assertValueCount(1)
+        .assertNotComplete();
+    }
+
+    @Test
+    public void boundedCancelAfterWindowsComplete() {
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<Flowable<Integer>> ts = pp
+        .compose(FlowableTransformers.windowUntil(MINUS_ONE, 2, 1, TimeUnit.DAYS, new TestScheduler()))
+        .test();
+
+        pp.onNext(1);
+
+        ts.cancel();
+
+        assertTrue(pp.hasSubscribers());
+
+        pp.onNext(2);
+
+        assertFalse(pp.hasSubscribers());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void chunkWhile() {
+        Flowable.just(1, 2, -1, 3, 4, 5, 6, -1)
+        .compose(FlowableTransformers.chunkWhile(NOT_MINUS_ONE, 3))
+        .map(COPY)
+        .test()
+        .assertResult(
+                Arrays.asList(1, 2),
+                Arrays.asList(-1, 3, 4),
+                Arrays.asList(5, 6),
+                Arrays.asList(-1)
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void chunkUntil() {
+        Flowable.just(1, 2, -1, 3, 4, 5, 6, -1)
+        .compose(FlowableTransformers.chunkUntil(MINUS_ONE, 3))
+        .map(COPY)
+        .test()
+        .assertResult(
+                Arrays.asList(1, 2, -1),
+                Arrays.asList(3, 4, 5),
+                Arrays.asList(6, -1)
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void chunkSplit() {
+        Flowable.just(1, 2, -1, 3, 4, 5, 6, -1)
+        .compose(FlowableTransformers.chunkSplit(MINUS_ONE, 3))
+        .map(COPY)
+        .test()
+        .assertResult(
+                Arrays.asList(1, 2),
+                Arrays.asList(3, 4, 5),
+                Arrays.asList(6)
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void chunkTimed() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<List<Integer>> ts = pp
+        .compose(FlowableTransformers.chunkUntil(MINUS_ONE, 100, 1, TimeUnit.SECONDS, scheduler))
+        .map(COPY)
+        .test();
+
+        pp.onNext(1);
+        pp.onNext(2);
+
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        ts.assertValues(Arrays.asList(1, 2));
+
+        pp.onNext(3);
+        pp.onComplete();
+
+        ts.assertResult(Arrays.asList(1, 2), Arrays.asList(3));
+    }
+
+    @Test
+    public void chunksReused() {
+        final Set<Iterable<Integer>> instances = Collections.newSetFromMap(new IdentityHashMap<Iterable<Integer>, Boolean>());
+
+        TestSubscriber<Iterable<Integer>> ts = Flowable.range(1, 100)
+        .compose(FlowableTransformers.chunkUntil(MINUS_ONE, 10))
+        .doOnNext(new Consumer<Iterable<Integer>>() {
+            @Override
+            public void accept(Iterable<Integer> v) throws Exception {
+                instances.add(v);
+            }
+        })
+        .test()
+        .assertValueCount(10)
+        .assertNoErrors()
+        .assertComplete();
+
+        // the next chunk is taken before the current one is handed back to the pool
+        assertTrue("" + instances.size(), instances.size() <= 2);
+        assertFalse(ts.values().get(0).iterator().hasNext());
+    }
 }
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.operators;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.BiFunction;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.*;
+import io.reactivex.subscribers.TestSubscriber;
+
+public class FlowableZipLatestSampledTest {
+
+    BiFunction<Object[], BitSet, String> toString = new BiFunction<Object[], BitSet, String>() {
+        @Override
+        public String apply(Object[] a, BitSet changed) throws Exception {
+            return Arrays.toString(a) + changed;
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void throttled() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishProcessor<Integer> pp1 = PublishProcessor.create();
+        PublishProcessor<Integer> pp2 = PublishProcessor.create();
+        PublishProcessor<Integer> pp3 = PublishProcessor.create();
+
+        TestSubscriber<String> ts = Flowables.zipLatestSampled(toString, 100, TimeUnit.MILLISECONDS, scheduler, pp1, pp2, pp3)
+        .test();
+
+        pp1.onNext(1);
+        pp2.onNext(2);
+        scheduler.triggerActions();
+
+        ts.assertEmpty();
+
+        pp3.onNext(3);
+        scheduler.triggerActions();
+
+        ts.assertValues("[1, 2, 3]{0, 1, 2}");
+
+        pp2.onNext(20);
+        pp2.onNext(21);
+        scheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+
+        ts.assertValueCount(1);
+
+        pp3.onNext(30);
+        scheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+
+        ts.assertValues("[1, 2, 3]{0, 1, 2}", "[1, 21, 30]{1, 2}");
+
+        scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+
+        ts.assertValueCount(2);
+
+        pp1.onNext(10);
+        scheduler.triggerActions();
+
+        ts.assertValues("[1, 2, 3]{0, 1, 2}", "[1, 21, 30]{1, 2}", "[10, 21, 30]{0}");
+
+        pp1.onNext(11);
+        pp1.onComplete();
+        pp2.onComplete();
+        pp3.onComplete();
+        scheduler.triggerActions();
+
+        ts.assertResult("[1, 2, 3]{0, 1, 2}", "[1, 21, 30]{1, 2}", "[10, 21, 30]{0}", "[11, 21, 30]{0}");
+    }
+
+    @Test
+    public void noInterval() {
+        Flowables.zipLatestSampled(toString, 0, TimeUnit.MILLISECONDS, Schedulers.trampoline(),
+                Flowable.just(1), Flowable.just(2, 3))
+        .test()
+        .assertResult("[1, 2]{0, 1}", "[1, 3]{1}");
+    }
+
+    @Test
+    public void backpressured() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishProcessor<Integer> pp1 = PublishProcessor.create();
+        PublishProcessor<Integer> pp2 = PublishProcessor.create();
+
+        TestSubscriber<String> ts = Flowables.zipLatestSampled(Arrays.asList(pp1, pp2), toString, 10, TimeUnit.MILLISECONDS, scheduler)
+        .test(0);
+
+        pp1.onNext(1);
+        pp2.onNext(2);
+        pp2.onNext(3);
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        ts.assertEmpty();
+
+        ts.request(1);
+        scheduler.triggerActions();
+
+        ts.assertValues("[1, 3]{0, 1}");
+
+        pp1.onNext(4);
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        ts.assertValueCount(1);
+
+        ts.request(1);
+        scheduler.triggerActions();
+
+        ts.assertValues("[1, 3]{0, 1}", "[4, 3]{0}");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void emptySource() {
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        Flowables.zipLatestSampled(toString, 1, TimeUnit.SECONDS, Schedulers.trampoline(), pp, Flowable.<Integer>empty())
+        .test()
+        .assertResult();
+
+        assertFalse(pp.hasSubscribers());
+    }
+
+    @Test
+    public void noSources() {
+        Flowables.zipLatestSampled(new ArrayList<Publisher<Integer>>(), toString, 1, TimeUnit.SECONDS, Schedulers.trampoline())
+        .test()
+        .assertResult();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void error() {
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        Flowables.zipLatestSampled(toString, 1, TimeUnit.SECONDS, Schedulers.trampoline(), pp, Flowable.<Integer>error(new IOException()))
+        .test()
+        .assertFailure(IOException.class);
+
+        assertFalse(pp.hasSubscribers());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void combinerCrash() {
+        Flowables.zipLatestSampled(new BiFunction<Object[], BitSet, Object>() {
+            @Override
+            public Object apply(Object[] a, BitSet b) throws Exception {
+                throw new IOException();
+            }
+        }, 1, TimeUnit.SECONDS, Schedulers.trampoline(), Flowable.just(1), Flowable.just(2))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void manySources() {
+        List<Flowable<Integer>> sources = new ArrayList<Flowable<Integer>>();
+        for (int i = 0; i < 100; i++) {
+            sources.add(Flowable.range(i * 1000, 1000).subscribeOn(Schedulers.computation()));
+        }
+
+        TestSubscriber<Integer> ts = Flowables.zipLatestSampled(sources, new BiFunction<Object[], BitSet, Integer>() {
+            int sum;
+            @Override
+            public Integer apply(Object[] a, BitSet changed) throws Exception {
+                if (sum == 0) {
+                    assertEquals(100, changed.cardinality());
+                }
+                sum = 0;
+                for (Object o : a) {
+                    sum += (Integer)o;
+                }
+                return sum;
+            }
+        }, 1, TimeUnit.MILLISECONDS, Schedulers.single())
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertNoErrors()
+        .assertComplete();
+
+        int last = 0;
+        for (int i = 0; i < 100; i++) {
+            last += i * 1000 + 999;
+        }
+        assertEquals(last, ts.values().get(ts.valueCount() - 1).intValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeInterval() {
+        Flowables.zipLatestSampled(new ArrayList<Publisher<Integer>>(), toString, -1, TimeUnit.SECONDS, Schedulers.trampoline());
+    }
+}
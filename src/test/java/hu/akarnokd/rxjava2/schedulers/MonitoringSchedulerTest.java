@@ -0,0 +1,212 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.schedulers;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+import org.junit.Test;
+
+import hu.akarnokd.rxjava2.functions.PlainConsumer;
+import hu.akarnokd.rxjava2.schedulers.MonitoringScheduler.*;
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler.Worker;
+import io.reactivex.functions.Consumer;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.Schedulers;
+
+public class MonitoringSchedulerTest {
+
+    static final PlainConsumer<Stall> IGNORE = new PlainConsumer<Stall>() {
+        @Override
+        public void accept(Stall t) {
+        }
+    };
+
+    @Test(timeout = 5000)
+    public void normal() {
+        MonitoringScheduler scheduler = new MonitoringScheduler(Schedulers.computation(), 1, TimeUnit.SECONDS, IGNORE);
+        try {
+            Flowable.range(1, 1000)
+            .observeOn(scheduler)
+            .test()
+            .awaitDone(5, TimeUnit.SECONDS)
+            .assertValueCount(1000)
+            .assertNoErrors()
+            .assertComplete();
+
+            WorkerStatistics ws = scheduler.totalStatistics();
+
+            assertTrue(ws.queueWait().count() >= 1);
+            assertEquals(0, ws.stalls());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void stallDetected() throws Exception {
+        final BlockingQueue<Stall> stalls = new LinkedBlockingQueue<Stall>();
+        MonitoringScheduler scheduler = new MonitoringScheduler(Schedulers.io(), 50, TimeUnit.MILLISECONDS, new PlainConsumer<Stall>() {
+            @Override
+            public void accept(Stall t) {
+                stalls.offer(t);
+            }
+        }, Schedulers.single());
+        try {
+            Worker w = scheduler.createWorker();
+            try {
+                final CountDownLatch cdl = new CountDownLatch(1);
+                w.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            Thread.sleep(400);
+                        } catch (InterruptedException ex) {
+                            // ignored
+                        }
+                        cdl.countDown();
+                    }
+                });
+
+                Stall s = stalls.poll(5, TimeUnit.SECONDS);
+                assertNotNull(s);
+                assertTrue(s.runningNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+                assertNotNull(s.task());
+                assertNotNull(s.thread());
+                assertTrue(s.toString(), s.toString().contains("MonitoringSchedulerTest"));
+
+                boolean found = false;
+                for (StackTraceElement e : s.stackTrace()) {
+                    if (e.getClassName().startsWith(MonitoringSchedulerTest.class.getName())) {
+                        found = true;
+                    }
+                }
+                assertTrue(found);
+
+                assertTrue(cdl.await(5, TimeUnit.SECONDS));
+
+                List<WorkerStatistics> list = scheduler.workerStatistics();
+                assertEquals(1, list.size());
+                assertEquals(1, list.get(0).stalls());
+            } finally {
+                w.dispose();
+            }
+
+            assertNull("Reported more than once", stalls.poll(100, TimeUnit.MILLISECONDS));
+            assertEquals(1, scheduler.totalStatistics().stalls());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void directAndPeriodic() throws Exception {
+        MonitoringScheduler scheduler = new MonitoringScheduler(Schedulers.single(), 1, TimeUnit.SECONDS, IGNORE, Schedulers.computation());
+        try {
+            final CountDownLatch cdl = new CountDownLatch(3);
+            scheduler.schedulePeriodicallyDirect(new Runnable() {
+                @Override
+                public void run() {
+                    cdl.countDown();
+                }
+            }, 1, 1, TimeUnit.MILLISECONDS);
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+
+            assertTrue(scheduler.totalStatistics().runTime().count() >= 3);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void startShutdown() {
+        MonitoringScheduler scheduler = new MonitoringScheduler(Schedulers.single(), 1, TimeUnit.SECONDS, IGNORE);
+        scheduler.start();
+        scheduler.shutdown();
+        scheduler.shutdown();
+        scheduler.start();
+        scheduler.shutdown();
+        assertTrue(scheduler.now(TimeUnit.MILLISECONDS) > 0L);
+    }
+
+    @Test
+    public void histogram() {
+        Histogram h = new Histogram();
+
+        assertEquals(0L, h.percentile(50));
+
+        h.record(-1);
+        h.record(0);
+        h.record(1000);
+        h.record(1000000);
+
+        assertEquals(4, h.count());
+        assertEquals(1000000, h.max());
+        assertEquals(1001000, h.total());
+        assertEquals(2, h.bucket(0));
+        assertEquals(1, h.bucket(9));
+        assertEquals(1023, h.percentile(75));
+        assertEquals(1000000, h.percentile(100));
+
+        Histogram h2 = new Histogram();
+        h2.add(h);
+        assertEquals(4, h2.count());
+        assertEquals(1000000, h2.max());
+        assertTrue(h2.toString(), h2.toString().contains("count=4"));
+    }
+
+    @Test(timeout = 5000)
+    public void handlerCrash() throws Exception {
+        final CountDownLatch cdl = new CountDownLatch(1);
+        RxJavaPlugins.setErrorHandler(new Consumer<Throwable>() {
+            @Override
+            public void accept(Throwable t) throws Exception {
+                if (t instanceof IllegalStateException) {
+                    cdl.countDown();
+                }
+            }
+        });
+        MonitoringScheduler scheduler = new MonitoringScheduler(Schedulers.io(), 10, TimeUnit.MILLISECONDS, new PlainConsumer<Stall>() {
+            @Override
+            public void accept(Stall t) {
+                throw new IllegalStateException();
+            }
+        });
+        try {
+            Worker w = scheduler.createWorker();
+            w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException ex) {
+                        // ignored
+                    }
+                }
+            });
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            w.dispose();
+        } finally {
+            RxJavaPlugins.reset();
+            scheduler.shutdown();
+        }
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.util;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.*;
+
+import hu.akarnokd.rxjava2.async.AsyncFlowable;
+import hu.akarnokd.rxjava2.basetypes.*;
+import hu.akarnokd.rxjava2.test.TestHelper;
+import hu.akarnokd.rxjava2.util.FutureBridge.FutureCallback;
+import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.functions.Functions;
+import io.reactivex.schedulers.Schedulers;
+
+public class FutureBridgeTest {
+
+    @Test
+    public void utilityClass() {
+        TestHelper.checkUtilityClass(FutureBridge.class);
+    }
+
+    /** Guava-style listenable future. */
+    public interface Listenable<T> extends Future<T> {
+        void addListener(Runnable listener, Executor executor);
+    }
+
+    static final class ListenableTask<T> extends FutureTask<T> implements Listenable<T> {
+
+        final List<Runnable> listeners = new ArrayList<Runnable>();
+
+        ListenableTask(Callable<T> callable) {
+            super(callable);
+        }
+
+        @Override
+        public synchronized void addListener(Runnable listener, Executor executor) {
+            if (isDone()) {
+                executor.execute(listener);
+            } else {
+                listeners.add(listener);
+            }
+        }
+
+        @Override
+        protected void done() {
+            List<Runnable> list;
+            synchronized (this) {
+                list = new ArrayList<Runnable>(listeners);
+            }
+            for (Runnable r : list) {
+                r.run();
+            }
+        }
+    }
+
+    static class Recorder<T> extends CountDownLatch implements FutureCallback<T> {
+        volatile T value;
+        volatile Throwable error;
+        volatile Thread thread;
+
+        Recorder() {
+            super(1);
+        }
+
+        @Override
+        public void onSuccess(T value) {
+            this.value = value;
+            thread = Thread.currentThread();
+            countDown();
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+            thread = Thread.currentThread();
+            countDown();
+        }
+    }
+
+    static <T> Callable<T> constant(final T value) {
+        return new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return value;
+            }
+        };
+    }
+
+    @Test
+    public void alreadyDone() {
+        FutureTask<Integer> ft = new FutureTask<Integer>(Functions.EMPTY_RUNNABLE, 1);
+        ft.run();
+
+        Recorder<Integer> r = new Recorder<Integer>();
+        FutureBridge.whenDone(ft, 0L, null, r);
+
+        assertEquals(0, r.getCount());
+        assertEquals(1, r.value.intValue());
+        assertSame(Thread.currentThread(), r.thread);
+    }
+
+    @Test(timeout = 5000)
+    public void listenerCalledOnCompletingThread() throws Exception {
+        ListenableTask<Integer> ft = new ListenableTask<Integer>(constant(1));
+        assertNotNull(FutureBridge.listenerMethod(ft.getClass()));
+
+        Recorder<Integer> r = new Recorder<Integer>();
+        FutureBridge.whenDone(ft, 0L, null, r);
+
+        assertEquals(1, ft.listeners.size());
+
+        ft.run();
+
+        assertEquals(0, r.getCount());
+        assertEquals(1, r.value.intValue());
+        assertSame(Thread.currentThread(), r.thread);
+    }
+
+    @Test(timeout = 5000)
+    public void completionStage() throws Exception {
+        Class<?> clazz;
+        try {
+            clazz = Class.forName("java.util.concurrent.CompletableFuture");
+        } catch (ClassNotFoundException ex) {
+            Assume.assumeTrue(false);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Future<Integer> cf = (Future<Integer>)clazz.newInstance();
+        Method complete = clazz.getMethod("complete", Object.class);
+
+        Recorder<Integer> r = new Recorder<Integer>();
+        FutureBridge.whenDone(cf, 0L, null, r);
+
+        assertEquals(1, r.getCount());
+
+        complete.invoke(cf, 1);
+
+        assertEquals(0, r.getCount());
+        assertEquals(1, r.value.intValue());
+        assertSame(Thread.currentThread(), r.thread);
+    }
+
+    @Test(timeout = 5000)
+    public void polled() throws Exception {
+        FutureTask<Integer> ft = new FutureTask<Integer>(constant(1));
+        assertNull(FutureBridge.listenerMethod(ft.getClass()));
+
+        Recorder<Integer> r = new Recorder<Integer>();
+        FutureBridge.whenDone(ft, 0L, null, r);
+
+        Thread.sleep(50);
+        assertEquals(1, r.getCount());
+
+        ft.run();
+
+        assertTrue(r.await(5, TimeUnit.SECONDS));
+        assertEquals(1, r.value.intValue());
+        assertTrue(r.thread.getName(), r.thread.getName().startsWith("RxComputationThreadPool"));
+    }
+
+    @Test(timeout = 5000)
+    public void polledCustomScheduler() throws Exception {
+        FutureTask<Integer> ft = new FutureTask<Integer>(constant(1));
+
+        Recorder<Integer> r = new Recorder<Integer>();
+        FutureBridge.whenDone(ft, 0L, null, Schedulers.single(), r);
+
+        ft.run();
+
+        assertTrue(r.await(5, TimeUnit.SECONDS));
+        assertEquals(1, r.value.intValue());
+        assertTrue(r.thread.getName(), r.thread.getName().startsWith("RxSingleScheduler"));
+    }
+
+    @Test(timeout = 5000)
+    public void slowCallbackDoesntStallPolling() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        FutureTask<Integer> ft1 = new FutureTask<Integer>(constant(1));
+        FutureTask<Integer> ft2 = new FutureTask<Integer>(constant(2));
+
+        Recorder<Integer> r1 = new Recorder<Integer>() {
+            @Override
+            public void onSuccess(Integer value) {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    // ignored
+                }
+                super.onSuccess(value);
+            }
+        };
+        Recorder<Integer> r2 = new Recorder<Integer>();
+
+        FutureBridge.whenDone(ft1, 0L, null, Schedulers.io(), r1);
+        FutureBridge.whenDone(ft2, 0L, null, Schedulers.io(), r2);
+
+        ft1.run();
+        Thread.sleep(50);
+        ft2.run();
+
+        try {
+            assertTrue(r2.await(2, TimeUnit.SECONDS));
+            assertEquals(2, r2.value.intValue());
+            assertEquals(1, r1.getCount());
+        } finally {
+            release.countDown();
+        }
+
+        assertTrue(r1.await(2, TimeUnit.SECONDS));
+        assertEquals(1, r1.value.intValue());
+    }
+
+    @Test(timeout = 5000)
+    public void timeoutCustomScheduler() throws Exception {
+        FutureTask<Integer> ft = new FutureTask<Integer>(constant(1));
+
+        Recorder<Integer> r = new Recorder<Integer>();
+        FutureBridge.whenDone(ft, 10, TimeUnit.MILLISECONDS, Schedulers.single(), r);
+
+        assertTrue(r.await(5, TimeUnit.SECONDS));
+        assertTrue(r.error instanceof TimeoutException);
+        assertTrue(r.thread.getName(), r.thread.getName().startsWith("RxSingleScheduler"));
+    }
+
+    @Test(timeout = 10000)
+    public void polledMany() throws Exception {
+        List<FutureTask<Integer>> tasks = new ArrayList<FutureTask<Integer>>();
+        List<Recorder<Integer>> recorders = new ArrayList<Recorder<Integer>>();
+        for (int i = 0; i < 1000; i++) {
+            FutureTask<Integer> ft = new FutureTask<Integer>(constant(i));
+            Recorder<Integer> r = new Recorder<Integer>();
+            FutureBridge.whenDone(ft, 0L, null, r);
+            tasks.add(ft);
+            recorders.add(r);
+        }
+
+        for (FutureTask<Integer> ft : tasks) {
+            ft.run();
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            Recorder<Integer> r = recorders.get(i);
+            assertTrue(r.await(5, TimeUnit.SECONDS));
+            assertEquals(i, r.value.intValue());
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void error() throws Exception {
+        ListenableTask<Integer> ft = new ListenableTask<Integer>(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                throw new IOException();
+            }
+        });
+
+        Recorder<Integer> r = new Recorder<Integer>();
+        FutureBridge.whenDone(ft, 0L, null, r);
+
+        ft.run();
+
+        assertTrue(r.error instanceof IOException);
+    }
+
+    @Test(timeout = 5000)
+    public void cancelled() throws Exception {
+        FutureTask<Integer> ft = new FutureTask<Integer>(constant(1));
+
+        Recorder<Integer> r = new Recorder<Integer>();
+        FutureBridge.whenDone(ft, 0L, null, r);
+
+        ft.cancel(false);
+
+        assertTrue(r.await(5, TimeUnit.SECONDS));
+        assertTrue(r.error instanceof CancellationException);
+    }
+
+    @Test(timeout = 5000)
+    public void timeout() throws Exception {
+        FutureTask<Integer> ft = new FutureTask<Integer>(constant(1));
+
+        Recorder<Integer> r = new Recorder<Integer>();
+        FutureBridge.whenDone(ft, 10, TimeUnit.MILLISECONDS, r);
+
+        assertTrue(r.await(5, TimeUnit.SECONDS));
+        assertTrue(r.error instanceof TimeoutException);
+
+        ft.run();
+        Thread.sleep(50);
+
+        assertTrue(r.error instanceof TimeoutException);
+        assertNull(r.value);
+    }
+
+    @Test(timeout = 5000)
+    public void dispose() throws Exception {
+        ListenableTask<Integer> ft = new ListenableTask<Integer>(constant(1));
+
+        Recorder<Integer> r = new Recorder<Integer>();
+        Disposable d = FutureBridge.whenDone(ft, 1, TimeUnit.SECONDS, r);
+
+        assertFalse(d.isDisposed());
+        d.dispose();
+        assertTrue(d.isDisposed());
+
+        ft.run();
+
+        assertEquals(1, r.getCount());
+    }
+
+    @Test(timeout = 10000)
+    public void manyPendingFuturesFewThreads() throws Exception {
+        List<FutureTask<Integer>> tasks = new ArrayList<FutureTask<Integer>>();
+        List<Solo<Integer>> solos = new ArrayList<Solo<Integer>>();
+        for (int i = 0; i < 10000; i++) {
+            FutureTask<Integer> ft = new FutureTask<Integer>(constant(i));
+            tasks.add(ft);
+            solos.add(Solo.fromFuture(ft));
+        }
+
+        int threads = Thread.activeCount();
+
+        io.reactivex.subscribers.TestSubscriber<Integer> ts = Flowable.merge(solos, 10000)
+                .subscribeOn(Schedulers.computation())
+                .test();
+
+        Thread.sleep(100);
+
+        assertTrue(Thread.activeCount() - threads < 10);
+        ts.assertEmpty();
+
+        for (FutureTask<Integer> ft : tasks) {
+            ft.run();
+        }
+
+        ts.awaitDone(5, TimeUnit.SECONDS)
+        .assertValueCount(10000)
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test(timeout = 5000)
+    public void startFutureNotBlocking() {
+        final ListenableTask<Integer> ft = new ListenableTask<Integer>(constant(1));
+
+        io.reactivex.subscribers.TestSubscriber<Integer> ts = AsyncFlowable.startFuture(new Callable<Future<Integer>>() {
+            @Override
+            public Future<Integer> call() throws Exception {
+                return ft;
+            }
+        })
+        .test();
+
+        ts.assertEmpty();
+
+        ft.run();
+
+        ts.assertResult(1);
+    }
+
+    @Test(timeout = 5000)
+    public void perhapsAndNonoCancel() throws Exception {
+        ListenableTask<Integer> ft = new ListenableTask<Integer>(constant(1));
+
+        Perhaps.fromFuture(ft).test(0L, true).assertEmpty();
+        Nono.fromFuture(ft).test(true).assertEmpty();
+
+        ft.run();
+    }
+}
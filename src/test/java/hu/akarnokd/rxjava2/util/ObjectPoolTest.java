@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016-2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.util;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+
+import org.junit.Test;
+
+import io.reactivex.functions.Consumer;
+import io.reactivex.internal.functions.Functions;
+
+public class ObjectPoolTest {
+
+    static final Consumer<List<Integer>> CLEAR = new Consumer<List<Integer>>() {
+        @Override
+        public void accept(List<Integer> list) throws Exception {
+            list.clear();
+        }
+    };
+
+    @Test
+    public void reuse() throws Exception {
+        ObjectPool<List<Integer>> pool = ObjectPool.create(2, Functions.<Integer>createArrayList(16), CLEAR);
+
+        assertEquals(0, pool.size());
+
+        List<Integer> a = pool.call();
+        List<Integer> b = pool.call();
+        List<Integer> c = pool.call();
+
+        assertNotSame(a, b);
+
+        a.add(1);
+        pool.accept(a);
+        pool.accept(b);
+        pool.accept(c);
+
+        assertEquals(2, pool.size());
+        assertTrue(a.isEmpty());
+
+        List<Integer> d = pool.call();
+        List<Integer> e = pool.call();
+
+        assertTrue(d == a || d == b);
+        assertTrue(e == a || e == b);
+        assertNotSame(d, e);
+        assertEquals(0, pool.size());
+
+        assertNotSame(a, pool.call());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void factoryReturnsNull() throws Exception {
+        ObjectPool.create(1, new Callable<List<Integer>>() {
+            @Override
+            public List<Integer> call() throws Exception {
+                return null;
+            }
+        }, CLEAR).call();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void badCapacity() {
+        ObjectPool.create(0, Functions.<Integer>createArrayList(16), CLEAR);
+    }
+}